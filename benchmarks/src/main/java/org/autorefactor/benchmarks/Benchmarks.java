@@ -0,0 +1,137 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2019 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.benchmarks;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.autorefactor.environment.CurrentThreadEventLoop;
+import org.autorefactor.environment.Environment;
+import org.autorefactor.environment.Logger;
+import org.autorefactor.jdt.internal.corext.dom.JavaProjectOptionsImpl;
+import org.autorefactor.jdt.internal.ui.fix.RefactoringContext;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+
+/**
+ * Builds the ASTs and the refactoring contexts used by the benchmarks, outside
+ * of any Eclipse workspace.
+ */
+final class Benchmarks {
+    private static final String JAVA_VERSION= "1.8"; //$NON-NLS-1$
+
+    /** Runs everything in the current thread and ignores the logs. */
+    static final Environment ENVIRONMENT= new Environment(new CurrentThreadEventLoop(), null, new Logger() {
+        @Override
+        public void error(String message) {
+            // Ignored
+        }
+
+        @Override
+        public void error(String message, Exception e) {
+            // Ignored
+        }
+
+        @Override
+        public void warn(String message) {
+            // Ignored
+        }
+
+        @Override
+        public void info(String message) {
+            // Ignored
+        }
+    }, null);
+
+    private Benchmarks() {
+    }
+
+    /**
+     * Returns the Java project options used by the benchmarks.
+     *
+     * @return the Java project options used by the benchmarks
+     */
+    static Map<String, String> getJavaOptions() {
+        final Map<String, String> options= new HashMap<>();
+        options.put(JavaCore.COMPILER_COMPLIANCE, JAVA_VERSION);
+        options.put(JavaCore.COMPILER_SOURCE, JAVA_VERSION);
+        options.put(JavaCore.COMPILER_CODEGEN_TARGET_PLATFORM, JAVA_VERSION);
+        return options;
+    }
+
+    /**
+     * Parses the provided source code.
+     *
+     * @param unitName        the name of the compilation unit, like
+     *                        <code>Sample.java</code>
+     * @param source          the source code
+     * @param resolveBindings whether the bindings must be resolved against the
+     *                        classes of the running JVM
+     * @return the parsed compilation unit
+     */
+    static CompilationUnit parse(String unitName, char[] source, boolean resolveBindings) {
+        final ASTParser parser= newParser(resolveBindings);
+        parser.setSource(source);
+        parser.setUnitName(unitName);
+        return (CompilationUnit) parser.createAST(null);
+    }
+
+    /**
+     * Returns a new parser of compilation units.
+     *
+     * @param resolveBindings whether the bindings must be resolved against the
+     *                        classes of the running JVM
+     * @return a new parser of compilation units
+     */
+    static ASTParser newParser(boolean resolveBindings) {
+        final ASTParser parser= ASTParser.newParser(AST.JLS8);
+        parser.setKind(ASTParser.K_COMPILATION_UNIT);
+        parser.setCompilerOptions(getJavaOptions());
+        if (resolveBindings) {
+            final String[] classpath= System.getProperty("java.class.path").split(File.pathSeparator); //$NON-NLS-1$
+            parser.setEnvironment(classpath, null, null, true);
+            parser.setResolveBindings(true);
+            parser.setBindingsRecovery(true);
+        }
+        return parser;
+    }
+
+    /**
+     * Builds a new refactoring context for the provided compilation unit.
+     *
+     * @param astRoot the compilation unit
+     * @return a new refactoring context
+     */
+    static RefactoringContext newRefactoringContext(CompilationUnit astRoot) {
+        return new RefactoringContext(null, astRoot, new JavaProjectOptionsImpl(getJavaOptions()),
+                SubMonitor.convert(new NullProgressMonitor()), ENVIRONMENT);
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2019 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.autorefactor.jdt.internal.corext.dom.ASTNodes;
+import org.autorefactor.jdt.internal.corext.dom.BindingQueryCache;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.Expression;
+import org.eclipse.jdt.core.dom.MethodInvocation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the signature and type hierarchy queries the rules run on each
+ * method invocation, on a generated compilation unit using the collections.
+ * <p>
+ * {@link #uncached()} walks the type hierarchies on each query,
+ * {@link #cached()} uses a new {@link BindingQueryCache} for each pass, like
+ * the refactoring context does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations= 3, time= 2)
+@Measurement(iterations= 5, time= 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BindingQueryBenchmark {
+    /** The signatures looked for by the collection related rules. */
+    private static final String[][] SIGNATURES= {
+        { "java.util.Collection", "add", "java.lang.Object" }, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        { "java.util.Collection", "addAll", "java.util.Collection" }, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        { "java.util.Collection", "contains", "java.lang.Object" }, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        { "java.util.Collection", "isEmpty" }, //$NON-NLS-1$ //$NON-NLS-2$
+        { "java.util.Collection", "size" }, //$NON-NLS-1$ //$NON-NLS-2$
+        { "java.util.List", "get", "int" }, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        { "java.util.Map", "containsKey", "java.lang.Object" }, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        { "java.util.Map", "get", "java.lang.Object" }, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        { "java.util.Map", "put", "java.lang.Object", "java.lang.Object" }, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        { "java.util.Iterator", "hasNext" }, //$NON-NLS-1$ //$NON-NLS-2$
+        { "java.lang.Object", "equals", "java.lang.Object" }, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        { "java.lang.StringBuilder", "append", "java.lang.String" } }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+    private static final String[] TYPES= { "java.util.Collection", "java.util.List", "java.util.Set", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        "java.util.Map", "java.lang.Iterable" }; //$NON-NLS-1$ //$NON-NLS-2$
+
+    /** The number of methods in the generated compilation unit. */
+    @Param({ "20", "200" })
+    public int nbMethods;
+
+    /** Parsed without cache. */
+    private CompilationUnit uncachedAstRoot;
+    private List<MethodInvocation> uncachedInvocations;
+    /** Parsed apart, so the cache attached to it is not used by the other AST. */
+    private CompilationUnit cachedAstRoot;
+    private List<MethodInvocation> cachedInvocations;
+
+    /** Parses the compilation unit twice with its bindings and collects the invocations. */
+    @Setup
+    public void setUp() {
+        final char[] source= newSource(nbMethods).toCharArray();
+        uncachedAstRoot= Benchmarks.parse("Sample.java", source, true); //$NON-NLS-1$
+        uncachedInvocations= getInvocations(uncachedAstRoot);
+        cachedAstRoot= Benchmarks.parse("Sample.java", source, true); //$NON-NLS-1$
+        cachedInvocations= getInvocations(cachedAstRoot);
+    }
+
+    private static List<MethodInvocation> getInvocations(CompilationUnit astRoot) {
+        final List<MethodInvocation> invocations= new ArrayList<>();
+        astRoot.accept(new ASTVisitor() {
+            @Override
+            public boolean visit(MethodInvocation node) {
+                invocations.add(node);
+                return true;
+            }
+        });
+        return invocations;
+    }
+
+    /**
+     * Runs the queries of one pass walking the type hierarchies each time.
+     *
+     * @return the number of matches, so it cannot be optimized away
+     */
+    @Benchmark
+    public int uncached() {
+        return query(uncachedInvocations);
+    }
+
+    /**
+     * Runs the queries of one pass with a new cache.
+     *
+     * @return the number of matches, so it cannot be optimized away
+     */
+    @Benchmark
+    public int cached() {
+        BindingQueryCache.attach(cachedAstRoot);
+        return query(cachedInvocations);
+    }
+
+    private static int query(List<MethodInvocation> invocations) {
+        int nbMatches= 0;
+        for (MethodInvocation invocation : invocations) {
+            for (String[] signature : SIGNATURES) {
+                final String[] parameterTypes= new String[signature.length - 2];
+                System.arraycopy(signature, 2, parameterTypes, 0, parameterTypes.length);
+                if (ASTNodes.usesGivenSignature(invocation, signature[0], signature[1], parameterTypes)) {
+                    nbMatches++;
+                }
+            }
+            final Expression expression= invocation.getExpression();
+            for (String type : TYPES) {
+                if (ASTNodes.instanceOf(expression, type)) {
+                    nbMatches++;
+                }
+            }
+        }
+        return nbMatches;
+    }
+
+    private static String newSource(int nbMethods) {
+        final StringBuilder sb= new StringBuilder();
+        sb.append("import java.util.*;\n") //$NON-NLS-1$
+            .append("public class Sample {\n"); //$NON-NLS-1$
+        for (int i= 0; i < nbMethods; i++) {
+            sb.append("    public int method").append(i) //$NON-NLS-1$
+                .append("(ArrayList<String> list, HashMap<String, Integer> map, TreeSet<String> set) {\n") //$NON-NLS-1$
+                .append("        int result = list.size() + map.size();\n") //$NON-NLS-1$
+                .append("        for (Iterator<String> it = list.iterator(); it.hasNext();) {\n") //$NON-NLS-1$
+                .append("            String s = it.next();\n") //$NON-NLS-1$
+                .append("            if (!set.contains(s) && map.containsKey(s)) {\n") //$NON-NLS-1$
+                .append("                set.add(s);\n") //$NON-NLS-1$
+                .append("                map.put(s, map.get(s) + ").append(i).append(");\n") //$NON-NLS-1$ $NON-NLS-2$
+                .append("            } else if (s.equals(list.get(0))) {\n") //$NON-NLS-1$
+                .append("                result += new StringBuilder().append(s).length();\n") //$NON-NLS-1$
+                .append("            }\n") //$NON-NLS-1$
+                .append("        }\n") //$NON-NLS-1$
+                .append("        if (list.isEmpty()) {\n") //$NON-NLS-1$
+                .append("            list.addAll(set);\n") //$NON-NLS-1$
+                .append("        }\n") //$NON-NLS-1$
+                .append("        return result;\n") //$NON-NLS-1$
+                .append("    }\n"); //$NON-NLS-1$
+        }
+        return sb.append("}\n").toString(); //$NON-NLS-1$
+    }
+}
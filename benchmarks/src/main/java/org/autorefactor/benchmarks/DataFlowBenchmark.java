@@ -0,0 +1,277 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2019 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.benchmarks;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.autorefactor.cfg.CFGBasicBlock;
+import org.autorefactor.cfg.CFGBuilder;
+import org.autorefactor.cfg.CFGEdge;
+import org.autorefactor.cfg.ControlFlowGraph;
+import org.autorefactor.cfg.DominatorTree;
+import org.autorefactor.cfg.LivenessAnalysis;
+import org.autorefactor.cfg.ReachingDefinitionsAnalysis;
+import org.autorefactor.cfg.VariableAccess;
+import org.autorefactor.jdt.internal.corext.dom.JavaProjectOptionsImpl;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.Name;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the data-flow analyses of the control flow graph with walking the
+ * graph from each write, on a generated method with many branches and loops.
+ * Also measures building the graph and its dominator trees.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations= 3, time= 2)
+@Measurement(iterations= 5, time= 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DataFlowBenchmark {
+    private static final int NB_VARIABLES= 16;
+
+    /** The number of if and while statements of the generated method. */
+    @Param({ "50", "500" })
+    public int nbStatements;
+
+    private String source;
+    private MethodDeclaration method;
+    private JavaProjectOptionsImpl options;
+    private CFGBasicBlock entryBlock;
+    private final List<VariableAccess> writes= new ArrayList<>();
+
+    /** Generates the method and builds its control flow graph. */
+    @Setup
+    public void setUp() {
+        source= generateSource();
+        final CompilationUnit astRoot= Benchmarks.parse("Sample.java", source.toCharArray(), true); //$NON-NLS-1$
+        method= ((TypeDeclaration) astRoot.types().get(0)).getMethods()[0];
+        options= new JavaProjectOptionsImpl(Benchmarks.getJavaOptions());
+        options.setTabSize(4);
+        entryBlock= new CFGBuilder(source, options).buildCFG(method);
+
+        final Map<CFGBasicBlock, Boolean> visited= new IdentityHashMap<>();
+        collectWrites(entryBlock, visited);
+    }
+
+    private String generateSource() {
+        final StringBuilder sb= new StringBuilder("package sample;\nclass Sample {\n    int sample(int p) {\n"); //$NON-NLS-1$
+        for (int i= 0; i < NB_VARIABLES; i++) {
+            sb.append("        int v").append(i).append("= p + ").append(i).append(";\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        }
+        for (int i= 0; i < nbStatements; i++) {
+            final int a= i % NB_VARIABLES;
+            final int b= (i * 7 + 3) % NB_VARIABLES;
+            if (i % 2 == 0) {
+                sb.append("        if (v").append(a).append(" > ").append(i).append(") {\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                sb.append("            v").append(b).append("= v").append(a).append(" - 1;\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                sb.append("        }\n"); //$NON-NLS-1$
+            } else {
+                sb.append("        while (v").append(a).append(" < ").append(i).append(") {\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                sb.append("            v").append(a).append("++;\n"); //$NON-NLS-1$ //$NON-NLS-2$
+                sb.append("            v").append(b).append("+= v").append(a).append(";\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                sb.append("        }\n"); //$NON-NLS-1$
+            }
+        }
+        sb.append("        return v0;\n    }\n}\n"); //$NON-NLS-1$
+        return sb.toString();
+    }
+
+    private void collectWrites(CFGBasicBlock block, Map<CFGBasicBlock, Boolean> visited) {
+        if (visited.put(block, Boolean.TRUE) != null) {
+            return;
+        }
+        for (Object object : block.getOutgoingEdgesAndVariableAccesses()) {
+            if (object instanceof VariableAccess) {
+                final VariableAccess access= (VariableAccess) object;
+                if ((access.getAccessType() & VariableAccess.WRITE) != 0 && access.getName() != null) {
+                    writes.add(access);
+                }
+            } else {
+                collectWrites(((CFGEdge) object).getTargetBlock(), visited);
+            }
+        }
+    }
+
+    /**
+     * Builds the CFG of the method and its index based view.
+     *
+     * @return the number of blocks, so the build cannot be optimized away
+     */
+    @Benchmark
+    public int buildGraph() {
+        return new ControlFlowGraph(new CFGBuilder(source, options).buildCFG(method)).getNbBlocks();
+    }
+
+    /**
+     * Tells whether each write may be read, walking the graph from each write.
+     *
+     * @return the number of dead writes, so the walks cannot be optimized away
+     */
+    @Benchmark
+    public int walkFromEachWrite() {
+        int nbDeadWrites= 0;
+        for (VariableAccess write : writes) {
+            if (!isReadAfter(write)) {
+                nbDeadWrites++;
+            }
+        }
+        return nbDeadWrites;
+    }
+
+    private boolean isReadAfter(VariableAccess write) {
+        final IBinding variable= write.getName().resolveBinding();
+        final CFGBasicBlock writeBlock= findBlock(entryBlock, write, new IdentityHashMap<CFGBasicBlock, Boolean>());
+        final Map<CFGBasicBlock, Boolean> visited= new IdentityHashMap<>();
+        final List<CFGBasicBlock> toVisit= new ArrayList<>();
+        boolean isAfterWrite= false;
+        for (Object object : writeBlock.getOutgoingEdgesAndVariableAccesses()) {
+            if (object == write) {
+                isAfterWrite= true;
+            } else if (object instanceof CFGEdge) {
+                toVisit.add(((CFGEdge) object).getTargetBlock());
+            } else if (isAfterWrite) {
+                final Boolean isRead= isRead((VariableAccess) object, variable);
+                if (isRead != null) {
+                    return isRead;
+                }
+            }
+        }
+        while (!toVisit.isEmpty()) {
+            final CFGBasicBlock block= toVisit.remove(toVisit.size() - 1);
+            if (visited.put(block, Boolean.TRUE) != null) {
+                continue;
+            }
+            boolean isOverwritten= false;
+            for (Object object : block.getOutgoingEdgesAndVariableAccesses()) {
+                if (object instanceof CFGEdge) {
+                    if (!isOverwritten) {
+                        toVisit.add(((CFGEdge) object).getTargetBlock());
+                    }
+                } else if (!isOverwritten) {
+                    final Boolean isRead= isRead((VariableAccess) object, variable);
+                    if (Boolean.TRUE.equals(isRead)) {
+                        return true;
+                    }
+                    isOverwritten= isRead != null;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns {@link Boolean#TRUE} if the access reads the variable,
+     * {@link Boolean#FALSE} if it overwrites it, null otherwise.
+     */
+    private static Boolean isRead(VariableAccess access, IBinding variable) {
+        final Name name= access.getName();
+        if (name == null || !variable.equals(name.resolveBinding())) {
+            return null;
+        }
+        if ((access.getAccessType() & VariableAccess.READ) != 0) {
+            return Boolean.TRUE;
+        }
+        return (access.getAccessType() & VariableAccess.WRITE) != 0 ? Boolean.FALSE : null;
+    }
+
+    private static CFGBasicBlock findBlock(CFGBasicBlock block, VariableAccess access,
+            Map<CFGBasicBlock, Boolean> visited) {
+        if (visited.put(block, Boolean.TRUE) != null) {
+            return null;
+        }
+        for (Object object : block.getOutgoingEdgesAndVariableAccesses()) {
+            if (object == access) {
+                return block;
+            }
+            if (object instanceof CFGEdge) {
+                final CFGBasicBlock found= findBlock(((CFGEdge) object).getTargetBlock(), access, visited);
+                if (found != null) {
+                    return found;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Tells whether each write may be read with a liveness analysis.
+     *
+     * @return the number of dead writes, so the analysis cannot be optimized away
+     */
+    @Benchmark
+    public int liveness() {
+        final LivenessAnalysis liveness= new LivenessAnalysis(new ControlFlowGraph(entryBlock));
+        int nbDeadWrites= 0;
+        for (VariableAccess write : writes) {
+            if (!liveness.isLiveAfter(write)) {
+                nbDeadWrites++;
+            }
+        }
+        return nbDeadWrites;
+    }
+
+    /**
+     * Builds the dominator and post-dominator trees of the method.
+     *
+     * @return whether the exit block post-dominates the entry block, so the build
+     *         cannot be optimized away
+     */
+    @Benchmark
+    public boolean dominatorTrees() {
+        final ControlFlowGraph graph= new ControlFlowGraph(entryBlock);
+        new DominatorTree(graph, false);
+        return new DominatorTree(graph, true).dominates(graph.getExitBlockId(), graph.getEntryBlockId());
+    }
+
+    /**
+     * Computes the reaching definitions of the method.
+     *
+     * @return the number of transfers, so the analysis cannot be optimized away
+     */
+    @Benchmark
+    public int reachingDefinitions() {
+        return new ReachingDefinitionsAnalysis(new ControlFlowGraph(entryBlock)).getNbTransfers();
+    }
+}
@@ -0,0 +1,265 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2019 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.autorefactor.jdt.internal.corext.dom.JavaRefactoringRule;
+import org.autorefactor.jdt.internal.corext.dom.RefactoringRule;
+import org.autorefactor.jdt.internal.corext.dom.Refactorings;
+import org.autorefactor.jdt.internal.corext.dom.Release;
+import org.autorefactor.jdt.internal.ui.fix.AbstractCleanUpRule;
+import org.autorefactor.jdt.internal.ui.fix.AggregateASTVisitor;
+import org.autorefactor.jdt.internal.ui.fix.RefactoringContext;
+import org.autorefactor.preferences.Preferences;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.Block;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.IfStatement;
+import org.eclipse.jdt.core.dom.InfixExpression;
+import org.eclipse.jdt.core.dom.MethodInvocation;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of dispatching each AST node to the visitors of the
+ * cleanup rules, with rules doing nothing but counting their visits.
+ * <p>
+ * {@link #hashMapDispatch()} is the baseline reproducing the former map based
+ * dispatch, {@link #arrayDispatch()} uses the {@link AggregateASTVisitor}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations= 5, time= 1)
+@Measurement(iterations= 5, time= 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DispatchBenchmark {
+    /** The number of rules visiting the AST together. */
+    @Param({ "10", "50", "100" })
+    public int nbRules;
+
+    /** The number of methods in the visited compilation unit. */
+    @Param({ "500" })
+    public int nbMethods;
+
+    private CompilationUnit astRoot;
+    private List<CountingRule> rules;
+    private AggregateASTVisitor aggregateVisitor;
+    private HashMapDispatchVisitor hashMapVisitor;
+
+    /** Parses the compilation unit and builds the visitors. */
+    @Setup
+    public void setUp() {
+        astRoot= Benchmarks.parse("Sample.java", newSource(nbMethods).toCharArray(), false); //$NON-NLS-1$
+
+        rules= new ArrayList<>(nbRules);
+        for (int i= 0; i < nbRules; i++) {
+            rules.add(newRule(i));
+        }
+        aggregateVisitor= new AggregateASTVisitor(new ArrayList<RefactoringRule>(rules));
+        aggregateVisitor.setRefactoringContext(Benchmarks.newRefactoringContext(astRoot));
+        hashMapVisitor= new HashMapDispatchVisitor(rules);
+    }
+
+    /**
+     * Visits the compilation unit with the former map based dispatch.
+     *
+     * @return the number of visits, so it cannot be optimized away
+     */
+    @Benchmark
+    public long hashMapDispatch() {
+        astRoot.accept(hashMapVisitor);
+        return getNbVisits();
+    }
+
+    /**
+     * Visits the compilation unit with the per node type arrays.
+     *
+     * @return the number of visits, so it cannot be optimized away
+     */
+    @Benchmark
+    public long arrayDispatch() {
+        astRoot.accept(aggregateVisitor);
+        return getNbVisits();
+    }
+
+    private long getNbVisits() {
+        long nbVisits= 0;
+        for (CountingRule rule : rules) {
+            nbVisits+= rule.nbVisits;
+        }
+        return nbVisits;
+    }
+
+    private static CountingRule newRule(int index) {
+        switch (index % 5) {
+        case 0:
+            return new BlockRule();
+
+        case 1:
+            return new IfStatementRule();
+
+        case 2:
+            return new InfixExpressionRule();
+
+        case 3:
+            return new MethodInvocationRule();
+
+        default:
+            return new SimpleNameRule();
+        }
+    }
+
+    private static String newSource(int nbMethods) {
+        final StringBuilder sb= new StringBuilder();
+        sb.append("public class Sample {\n"); //$NON-NLS-1$
+        for (int i= 0; i < nbMethods; i++) {
+            sb.append("    public int method").append(i).append("(int a, int b) {\n") //$NON-NLS-1$ $NON-NLS-2$
+                .append("        int result = a + b * ").append(i).append(";\n") //$NON-NLS-1$ $NON-NLS-2$
+                .append("        if (result > ").append(i).append(") {\n") //$NON-NLS-1$ $NON-NLS-2$
+                .append("            result = Math.max(result, a - b);\n") //$NON-NLS-1$
+                .append("        } else {\n") //$NON-NLS-1$
+                .append("            for (int j = 0; j < b; j++) {\n") //$NON-NLS-1$
+                .append("                result += String.valueOf(j).length();\n") //$NON-NLS-1$
+                .append("            }\n") //$NON-NLS-1$
+                .append("        }\n") //$NON-NLS-1$
+                .append("        return result;\n") //$NON-NLS-1$
+                .append("    }\n"); //$NON-NLS-1$
+        }
+        return sb.append("}\n").toString(); //$NON-NLS-1$
+    }
+
+    /**
+     * Does not extend {@link AbstractCleanUpRule} whose checks in preVisit2()
+     * would hide the cost of the dispatch.
+     */
+    private abstract static class CountingRule extends ASTVisitor implements JavaRefactoringRule {
+        private long nbVisits;
+
+        @Override
+        public String getName() {
+            return getClass().getSimpleName();
+        }
+
+        @Override
+        public String getDescription() {
+            return getName();
+        }
+
+        @Override
+        public String getReason() {
+            return getName();
+        }
+
+        @Override
+        public boolean isByDefault() {
+            return true;
+        }
+
+        @Override
+        public boolean isEnabled(Preferences preferences) {
+            return true;
+        }
+
+        @Override
+        public boolean isJavaVersionSupported(Release javaSeRelease) {
+            return true;
+        }
+
+        @Override
+        public void setRefactoringContext(RefactoringContext ctx) {
+            // Nothing to refactor
+        }
+
+        @Override
+        public Refactorings getRefactorings(CompilationUnit astRoot) {
+            throw new UnsupportedOperationException();
+        }
+
+        protected boolean count() {
+            nbVisits++;
+            return true;
+        }
+    }
+
+    private static final class BlockRule extends CountingRule {
+        @Override
+        public boolean visit(Block node) {
+            return count();
+        }
+
+        @Override
+        public void endVisit(Block node) {
+            count();
+        }
+    }
+
+    private static final class IfStatementRule extends CountingRule {
+        @Override
+        public boolean visit(IfStatement node) {
+            return count();
+        }
+
+        @Override
+        public void endVisit(IfStatement node) {
+            count();
+        }
+    }
+
+    private static final class InfixExpressionRule extends CountingRule {
+        @Override
+        public boolean visit(InfixExpression node) {
+            return count();
+        }
+    }
+
+    private static final class MethodInvocationRule extends CountingRule {
+        @Override
+        public boolean visit(MethodInvocation node) {
+            return count();
+        }
+    }
+
+    private static final class SimpleNameRule extends CountingRule {
+        @Override
+        public boolean visit(SimpleName node) {
+            return count();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2019 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.benchmarks;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.Block;
+import org.eclipse.jdt.core.dom.IfStatement;
+import org.eclipse.jdt.core.dom.InfixExpression;
+import org.eclipse.jdt.core.dom.MethodInvocation;
+import org.eclipse.jdt.core.dom.SimpleName;
+
+/**
+ * Reproduces the dispatch used by the AggregateASTVisitor before it relied on
+ * per node type arrays: a lookup in a map keyed by node class plus an iterator
+ * for each visited node. It is only the baseline of {@link DispatchBenchmark}.
+ * <p>
+ * The typed visit() methods are reached through {@link #preVisit2(ASTNode)} so
+ * this class does not need to override them all. Only the node types visited by
+ * the rules of {@link DispatchBenchmark} are forwarded.
+ */
+class HashMapDispatchVisitor extends ASTVisitor {
+    private final Map<Class<?>, List<ASTVisitor>> visitorsMap= new HashMap<>();
+    private final Map<Class<?>, List<ASTVisitor>> endVisitorsMap= new HashMap<>();
+    private final Set<ASTVisitor> preVisitors2= new LinkedHashSet<>();
+
+    HashMapDispatchVisitor(List<? extends ASTVisitor> visitors) {
+        for (ASTVisitor v : visitors) {
+            analyzeVisitor(v, v.getClass());
+        }
+    }
+
+    private void analyzeVisitor(ASTVisitor v, Class<?> clazz) {
+        if (ASTVisitor.class.equals(clazz)) {
+            return;
+        }
+        for (Method m : clazz.getDeclaredMethods()) {
+            if ("preVisit2".equals(m.getName())) { //$NON-NLS-1$
+                preVisitors2.add(v);
+            } else if ("visit".equals(m.getName())) { //$NON-NLS-1$
+                put(visitorsMap, m.getParameterTypes()[0], v);
+            } else if ("endVisit".equals(m.getName())) { //$NON-NLS-1$
+                put(endVisitorsMap, m.getParameterTypes()[0], v);
+            }
+        }
+        analyzeVisitor(v, clazz.getSuperclass());
+    }
+
+    private void put(Map<Class<?>, List<ASTVisitor>> map, Class<?> key, ASTVisitor value) {
+        List<ASTVisitor> visitors= map.get(key);
+        if (visitors == null) {
+            visitors= new ArrayList<>(1);
+            map.put(key, visitors);
+        }
+        visitors.add(value);
+    }
+
+    private List<ASTVisitor> getVisitors(Map<Class<?>, List<ASTVisitor>> map, Class<?> clazzKey) {
+        final List<ASTVisitor> result= map.get(clazzKey);
+        if (result != null) {
+            return result;
+        }
+        return Collections.emptyList();
+    }
+
+    @Override
+    public boolean preVisit2(ASTNode node) {
+        for (Iterator<ASTVisitor> iter= preVisitors2.iterator(); iter.hasNext();) {
+            if (!iter.next().preVisit2(node)) {
+                return false;
+            }
+        }
+        for (Iterator<ASTVisitor> iter= getVisitors(visitorsMap, node.getClass()).iterator(); iter.hasNext();) {
+            if (!visit(iter.next(), node)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void postVisit(ASTNode node) {
+        for (Iterator<ASTVisitor> iter= getVisitors(endVisitorsMap, node.getClass()).iterator(); iter.hasNext();) {
+            endVisit(iter.next(), node);
+        }
+    }
+
+    private static boolean visit(ASTVisitor v, ASTNode node) {
+        switch (node.getNodeType()) {
+        case ASTNode.BLOCK:
+            return v.visit((Block) node);
+
+        case ASTNode.IF_STATEMENT:
+            return v.visit((IfStatement) node);
+
+        case ASTNode.INFIX_EXPRESSION:
+            return v.visit((InfixExpression) node);
+
+        case ASTNode.METHOD_INVOCATION:
+            return v.visit((MethodInvocation) node);
+
+        case ASTNode.SIMPLE_NAME:
+            return v.visit((SimpleName) node);
+
+        default:
+            throw new IllegalStateException("Unexpected node type " + node.getClass()); //$NON-NLS-1$
+        }
+    }
+
+    private static void endVisit(ASTVisitor v, ASTNode node) {
+        switch (node.getNodeType()) {
+        case ASTNode.BLOCK:
+            v.endVisit((Block) node);
+            break;
+
+        case ASTNode.IF_STATEMENT:
+            v.endVisit((IfStatement) node);
+            break;
+
+        default:
+            throw new IllegalStateException("Unexpected node type " + node.getClass()); //$NON-NLS-1$
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2019 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.benchmarks;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.FileASTRequestor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares parsing the samples one by one with parsing them in batches sharing
+ * the binding lookups, like the refactoring job does.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations= 3, time= 2)
+@Measurement(iterations= 5, time= 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParseBenchmark {
+    private static final String[] NO_BINDING_KEYS= new String[0];
+
+    /** The number of samples parsed together, 1 parses them one by one. */
+    @Param({ "1", "8", "32" })
+    public int batchSize;
+
+    /** The directory of the samples, relative to the root of the repository by default. */
+    @Param({ "samples/src/test/java/org/autorefactor/jdt/internal/ui/fix/samples_in" })
+    public String samplesDir;
+
+    private final List<String[]> batches= new ArrayList<>();
+
+    /** Splits the samples into batches. */
+    @Setup
+    public void setUp() {
+        final File[] files= new File(samplesDir).listFiles();
+        if (files == null) {
+            throw new IllegalArgumentException("Cannot find the samples in " + new File(samplesDir).getAbsolutePath() //$NON-NLS-1$
+                    + ", run the benchmark from the root of the repository or set the samplesDir parameter"); //$NON-NLS-1$
+        }
+        Arrays.sort(files);
+        final List<String> paths= new ArrayList<>();
+        for (File file : files) {
+            if (file.getName().endsWith(".java")) { //$NON-NLS-1$
+                paths.add(file.getAbsolutePath());
+            }
+        }
+        for (int i= 0; i < paths.size(); i+= batchSize) {
+            final List<String> batch= paths.subList(i, Math.min(i + batchSize, paths.size()));
+            batches.add(batch.toArray(new String[batch.size()]));
+        }
+    }
+
+    /**
+     * Parses all the samples once, resolving their bindings.
+     *
+     * @return the number of parsed types, so the parsing cannot be optimized away
+     */
+    @Benchmark
+    public long parseSamples() {
+        final long[] nbTypes= { 0 };
+        final FileASTRequestor requestor= new FileASTRequestor() {
+            @Override
+            public void acceptAST(String sourceFilePath, CompilationUnit astRoot) {
+                nbTypes[0]+= astRoot.types().size();
+            }
+        };
+        for (String[] batch : batches) {
+            final ASTParser parser= Benchmarks.newParser(true);
+            parser.createASTs(batch, null, NO_BINDING_KEYS, requestor, null);
+        }
+        return nbTypes[0];
+    }
+}
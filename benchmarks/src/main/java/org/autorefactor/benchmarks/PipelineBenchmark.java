@@ -0,0 +1,240 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2019 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.autorefactor.jdt.internal.corext.dom.RefactoringRule;
+import org.autorefactor.jdt.internal.corext.dom.Refactorings;
+import org.autorefactor.jdt.internal.ui.fix.AggregateASTVisitor;
+import org.autorefactor.jdt.internal.ui.fix.AllCleanUpRules;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jface.text.Document;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Runs the whole pipeline, parse then visit then rewrite, over the samples used
+ * by the tests of the cleanup rules.
+ * <p>
+ * The {@link #rules} parameter selects the rules to run:
+ * <ul>
+ * <li><code>all</code> runs all the rules,</li>
+ * <li><code>Name</code> only runs the rule whose class is
+ * <code>NameCleanUp</code>,</li>
+ * <li><code>-Name</code> runs all the rules except <code>NameCleanUp</code>.</li>
+ * </ul>
+ * The files/s and nodes/s throughputs are reported as secondary results, as
+ * well as the failures/s of the files where the rules produce conflicting
+ * edits. Run
+ * with <code>-prof gc</code> to get the allocation rate, or use
+ * {@link PipelineBenchmarkRunner} to get them for each rule.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations= 3, time= 2)
+@Measurement(iterations= 5, time= 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PipelineBenchmark {
+    /** The value of {@link #rules} running all the rules. */
+    public static final String ALL_RULES= "all"; //$NON-NLS-1$
+    /** The prefix of {@link #rules} excluding a rule. */
+    public static final String EXCLUDED_RULE_PREFIX= "-"; //$NON-NLS-1$
+    private static final String CLEANUP_SUFFIX= "CleanUp"; //$NON-NLS-1$
+
+    /** The rules to run, see the class documentation. */
+    @Param({ ALL_RULES })
+    public String rules;
+
+    /** The directory of the samples, relative to the root of the repository by default. */
+    @Param({ "samples/src/test/java/org/autorefactor/jdt/internal/ui/fix/samples_in" })
+    public String samplesDir;
+
+    private final List<Sample> samples= new ArrayList<>();
+    private AggregateASTVisitor aggregateVisitor;
+
+    /** Counts the processed files and nodes, JMH reports them per second. */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Counters {
+        /** The number of refactored files. */
+        public long files;
+        /** The number of AST nodes in the refactored files. */
+        public long nodes;
+        /** The number of files whose refactorings could not be applied. */
+        public long failures;
+
+        /** Resets the counters before each iteration. */
+        @Setup(Level.Iteration)
+        public void reset() {
+            files= 0;
+            nodes= 0;
+            failures= 0;
+        }
+    }
+
+    private static final class Sample {
+        private final String unitName;
+        private final char[] source;
+        private final long nbNodes;
+
+        private Sample(String unitName, char[] source, long nbNodes) {
+            this.unitName= unitName;
+            this.source= source;
+            this.nbNodes= nbNodes;
+        }
+    }
+
+    /**
+     * Reads the samples and selects the rules.
+     *
+     * @throws IOException if a sample cannot be read
+     */
+    @Setup
+    public void setUp() throws IOException {
+        final File[] files= new File(samplesDir).listFiles();
+        if (files == null) {
+            throw new IllegalArgumentException("Cannot find the samples in " + new File(samplesDir).getAbsolutePath() //$NON-NLS-1$
+                    + ", run the benchmark from the root of the repository or set the samplesDir parameter"); //$NON-NLS-1$
+        }
+        Arrays.sort(files);
+        for (File file : files) {
+            if (file.getName().endsWith(".java")) { //$NON-NLS-1$
+                final char[] source= new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8).toCharArray();
+                samples.add(new Sample(file.getName(), source,
+                        countNodes(Benchmarks.parse(file.getName(), source, false))));
+            }
+        }
+
+        aggregateVisitor= new AggregateASTVisitor(selectRules(rules));
+    }
+
+    /**
+     * Selects the rules to run.
+     *
+     * @param rules the value of the {@link #rules} parameter
+     * @return the rules to run
+     */
+    static List<RefactoringRule> selectRules(String rules) {
+        final List<RefactoringRule> allRules= AllCleanUpRules.getAllCleanUpRules();
+        if (ALL_RULES.equals(rules)) {
+            return allRules;
+        }
+        final boolean isExcluded= rules.startsWith(EXCLUDED_RULE_PREFIX);
+        final String ruleName= isExcluded ? rules.substring(EXCLUDED_RULE_PREFIX.length()) : rules;
+
+        final List<RefactoringRule> selectedRules= new ArrayList<>();
+        boolean found= false;
+        for (RefactoringRule rule : allRules) {
+            final boolean isRule= getRuleName(rule).equals(ruleName);
+            found|= isRule;
+            if (isRule != isExcluded) {
+                selectedRules.add(rule);
+            }
+        }
+        if (!found) {
+            throw new IllegalArgumentException("Unknown rule " + ruleName); //$NON-NLS-1$
+        }
+        return selectedRules;
+    }
+
+    /**
+     * Returns the short name of a rule, as used by the {@link #rules} parameter.
+     *
+     * @param rule the rule
+     * @return the short name of the rule
+     */
+    static String getRuleName(RefactoringRule rule) {
+        final String className= rule.getClass().getSimpleName();
+        if (className.endsWith(CLEANUP_SUFFIX)) {
+            return className.substring(0, className.length() - CLEANUP_SUFFIX.length());
+        }
+        return className;
+    }
+
+    private static long countNodes(CompilationUnit astRoot) {
+        final long[] nbNodes= { 0 };
+        astRoot.accept(new ASTVisitor(true) {
+            @Override
+            public void preVisit(ASTNode node) {
+                nbNodes[0]++;
+            }
+        });
+        return nbNodes[0];
+    }
+
+    /**
+     * Parses, refactors and rewrites all the samples once.
+     *
+     * @param counters the counters of files and nodes
+     * @return the total length of the rewritten sources, so it cannot be optimized
+     *         away
+     */
+    @Benchmark
+    public long refactorSamples(Counters counters) {
+        long length= 0;
+        for (Sample sample : samples) {
+            final CompilationUnit astRoot= Benchmarks.parse(sample.unitName, sample.source, true);
+            aggregateVisitor.setRefactoringContext(Benchmarks.newRefactoringContext(astRoot));
+            final Refactorings refactorings= aggregateVisitor.getRefactorings(astRoot);
+
+            final Document document= new Document(new String(sample.source));
+            if (refactorings.hasRefactorings()) {
+                try {
+                    refactorings.applyTo(document, true);
+                } catch (Exception e) {
+                    // Like the refactoring job, give up on this file
+                    counters.failures++;
+                }
+            }
+            length+= document.getLength();
+            counters.files++;
+            counters.nodes+= sample.nbNodes;
+        }
+        return length;
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2019 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+import org.autorefactor.jdt.internal.corext.dom.RefactoringRule;
+import org.autorefactor.jdt.internal.ui.fix.AllCleanUpRules;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Runs {@link PipelineBenchmark} with all the rules, then for each rule alone
+ * and without it, and prints a per rule report of the throughput and of the
+ * allocations.
+ * <p>
+ * The names of the rules to measure can be passed as arguments, like
+ * <code>InvertEquals</code> for <code>InvertEqualsCleanUp</code>. All the rules
+ * are measured otherwise, which takes a long time.
+ */
+public final class PipelineBenchmarkRunner {
+    private static final String ALLOCATIONS= "\u00b7gc.alloc.rate.norm"; //$NON-NLS-1$
+    private static final String ROW_FORMAT= "%-50s %12s %12s %14s %12s %10s%n"; //$NON-NLS-1$
+
+    private PipelineBenchmarkRunner() {
+    }
+
+    /**
+     * Runs the benchmarks.
+     *
+     * @param args the names of the rules to measure, all the rules if empty
+     * @throws RunnerException if a benchmark fails
+     */
+    public static void main(String[] args) throws RunnerException {
+        final Collection<String> ruleNames= args.length > 0 ? Arrays.asList(args) : getAllRuleNames();
+
+        final RunResult allRules= run(PipelineBenchmark.ALL_RULES);
+        final List<String> rows= new ArrayList<>();
+        for (String ruleName : ruleNames) {
+            final RunResult alone= run(ruleName);
+            final RunResult without= run(PipelineBenchmark.EXCLUDED_RULE_PREFIX + ruleName);
+            rows.add(String.format(Locale.ENGLISH, ROW_FORMAT, ruleName, format(getFiles(alone)),
+                    format(getAllocations(alone) / 1024 / 1024), format(getFiles(without)),
+                    format((getAllocations(allRules) - getAllocations(without)) / 1024 / 1024),
+                    format(100 * getTimeShare(allRules, without))));
+        }
+
+        System.out.printf(Locale.ENGLISH, "%nAll rules: %s files/s, %s nodes/s, %s MB allocated per run%n%n", //$NON-NLS-1$
+                format(getFiles(allRules)), format(getSecondaryScore(allRules, "nodes")), //$NON-NLS-1$
+                format(getAllocations(allRules) / 1024 / 1024));
+        System.out.printf(Locale.ENGLISH, ROW_FORMAT, "Rule", "Alone f/s", "Alone MB/run", //$NON-NLS-1$ $NON-NLS-2$ $NON-NLS-3$
+                "Without f/s", "Rule MB/run", "Time %"); //$NON-NLS-1$ $NON-NLS-2$ $NON-NLS-3$
+        for (String row : rows) {
+            System.out.print(row);
+        }
+    }
+
+    private static Collection<String> getAllRuleNames() {
+        final List<String> ruleNames= new ArrayList<>();
+        for (RefactoringRule rule : AllCleanUpRules.getAllCleanUpRules()) {
+            ruleNames.add(PipelineBenchmark.getRuleName(rule));
+        }
+        return ruleNames;
+    }
+
+    private static RunResult run(String rules) throws RunnerException {
+        return new Runner(new OptionsBuilder()
+                .include(PipelineBenchmark.class.getName())
+                .param("rules", rules) //$NON-NLS-1$
+                .warmupIterations(1)
+                .measurementIterations(3)
+                .measurementTime(TimeValue.seconds(5))
+                .addProfiler(GCProfiler.class)
+                .build()).runSingle();
+    }
+
+    private static double getFiles(RunResult result) {
+        return getSecondaryScore(result, "files"); //$NON-NLS-1$
+    }
+
+    private static double getAllocations(RunResult result) {
+        return getSecondaryScore(result, ALLOCATIONS);
+    }
+
+    private static double getSecondaryScore(RunResult result, String label) {
+        final Result<?> secondaryResult= result.getSecondaryResults().get(label);
+        return secondaryResult != null ? secondaryResult.getScore() : Double.NaN;
+    }
+
+    /**
+     * Returns the share of the time spent by all the rules that is saved by
+     * removing one rule.
+     */
+    private static double getTimeShare(RunResult allRules, RunResult without) {
+        final double allRulesTime= 1 / allRules.getPrimaryResult().getScore();
+        final double withoutTime= 1 / without.getPrimaryResult().getScore();
+        return (allRulesTime - withoutTime) / allRulesTime;
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ENGLISH, "%.1f", value); //$NON-NLS-1$
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2019 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.cfg;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.autorefactor.jdt.internal.corext.dom.JavaProjectOptionsImpl;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.SingleVariableDeclaration;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+import org.eclipse.jdt.core.dom.WhileStatement;
+import org.junit.Test;
+
+public class DataFlowAnalysisTest {
+    private static final String SOURCE= "package sample;\n" //$NON-NLS-1$
+            + "class Sample {\n" //$NON-NLS-1$
+            + "    void sample(boolean b) {\n" //$NON-NLS-1$
+            + "        int x= 1;\n" //$NON-NLS-1$
+            + "        int y= 2;\n" //$NON-NLS-1$
+            + "        y= 3;\n" //$NON-NLS-1$
+            + "        if (b) {\n" //$NON-NLS-1$
+            + "            x= 4;\n" //$NON-NLS-1$
+            + "        }\n" //$NON-NLS-1$
+            + "        int i= 0;\n" //$NON-NLS-1$
+            + "        while (i < x) {\n" //$NON-NLS-1$
+            + "            i++;\n" //$NON-NLS-1$
+            + "        }\n" //$NON-NLS-1$
+            + "        System.out.println(x + y);\n" //$NON-NLS-1$
+            + "    }\n" //$NON-NLS-1$
+            + "}\n"; //$NON-NLS-1$
+
+    private MethodDeclaration method;
+    private JavaProjectOptionsImpl projectOptions;
+    private CFGBasicBlock entryBlock;
+    private ControlFlowGraph graph;
+    private IVariableBinding parameter;
+    private final List<VariableAccess> accesses= new ArrayList<>();
+
+    private void buildCFG() {
+        final Map<String, String> options= new HashMap<>();
+        JavaCore.setComplianceOptions("1.8", options); //$NON-NLS-1$
+        final ASTParser parser= ASTParser.newParser(AST.JLS8);
+        parser.setCompilerOptions(options);
+        parser.setSource(SOURCE.toCharArray());
+        parser.setUnitName("Sample.java"); //$NON-NLS-1$
+        parser.setEnvironment(System.getProperty("java.class.path").split(File.pathSeparator), null, null, true); //$NON-NLS-1$
+        parser.setResolveBindings(true);
+        final CompilationUnit astRoot= (CompilationUnit) parser.createAST(null);
+        method= ((TypeDeclaration) astRoot.types().get(0)).getMethods()[0];
+        parameter= ((SingleVariableDeclaration) method.parameters().get(0)).resolveBinding();
+
+        projectOptions= new JavaProjectOptionsImpl(options);
+        projectOptions.setTabSize(4);
+        entryBlock= new CFGBuilder(SOURCE, projectOptions).buildCFG(method);
+        graph= new ControlFlowGraph(entryBlock);
+        for (int block= 0; block < graph.getNbBlocks(); block++) {
+            accesses.addAll(Arrays.asList(graph.getVariableAccesses(block)));
+        }
+    }
+
+    /** Returns the access to the provided variable on the provided line, 1-based. */
+    private VariableAccess getAccess(String variable, int line, int accessType) {
+        final CompilationUnit astRoot= (CompilationUnit) entryBlock.getNode().getRoot();
+        for (VariableAccess access : accesses) {
+            if (access.getName() != null && variable.equals(access.getName().toString())
+                    && astRoot.getLineNumber(access.getAstNode().getStartPosition()) == line
+                    && (access.getAccessType() & accessType) != 0) {
+                return access;
+            }
+        }
+        throw new AssertionError("No access to " + variable + " on line " + line); //$NON-NLS-1$ $NON-NLS-2$
+    }
+
+    @Test
+    public void controlFlowGraph() {
+        buildCFG();
+
+        assertEquals(entryBlock, graph.getBlock(graph.getEntryBlockId()));
+        assertTrue(graph.getBlock(graph.getExitBlockId()).isExitBlock());
+        // Entry, declarations, if, then, i declaration, while condition, while body, println, exit
+        assertEquals(9, graph.getNbBlocks());
+        for (int block= 0; block < graph.getNbBlocks(); block++) {
+            for (int i= 0; i < graph.getNbSuccessors(block); i++) {
+                final int successor= graph.getSuccessor(block, i);
+                assertEquals(graph.getBlock(successor), graph.getOutgoingEdge(block, i).getTargetBlock());
+                assertTrue("Only the loop back edge goes backward", //$NON-NLS-1$
+                        successor > block || graph.getBlock(successor).getNode().getParent() instanceof WhileStatement);
+                assertTrue(hasPredecessor(successor, block));
+            }
+        }
+    }
+
+    private boolean hasPredecessor(int block, int predecessor) {
+        for (int i= 0; i < graph.getNbPredecessors(block); i++) {
+            if (graph.getPredecessor(block, i) == predecessor) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Returns the block whose code excerpt starts with the provided code. */
+    private int getBlock(String codeExcerptStart) {
+        for (int block= 0; block < graph.getNbBlocks(); block++) {
+            final String codeExcerpt= graph.getBlock(block).getCodeExcerpt();
+            if (codeExcerpt != null && codeExcerpt.startsWith(codeExcerptStart)) {
+                return block;
+            }
+        }
+        throw new AssertionError("No block for " + codeExcerptStart); //$NON-NLS-1$
+    }
+
+    @Test
+    public void controlFlowGraphCache() {
+        buildCFG();
+        final ControlFlowGraphCache cache= new ControlFlowGraphCache(SOURCE, projectOptions);
+
+        final ControlFlowGraph cachedGraph= cache.getControlFlowGraph(method);
+        assertEquals(graph.getNbBlocks(), cachedGraph.getNbBlocks());
+        assertSame(cachedGraph, cache.getControlFlowGraph(method));
+        assertEquals(1, cache.getNbMisses());
+        assertEquals(1, cache.getNbHits());
+    }
+
+    @Test
+    public void dominators() {
+        buildCFG();
+        final DominatorTree dominators= new DominatorTree(graph, false);
+
+        final int ifBlock= getBlock("if (b)"); //$NON-NLS-1$
+        final int thenBlock= getBlock("x=4"); //$NON-NLS-1$
+        final int afterIfBlock= getBlock("int i=0"); //$NON-NLS-1$
+        final int conditionBlock= getBlock("i < x"); //$NON-NLS-1$
+        final int bodyBlock= getBlock("i++"); //$NON-NLS-1$
+        final int printBlock= getBlock("System.out"); //$NON-NLS-1$
+        assertEquals(ifBlock, dominators.getImmediateDominator(afterIfBlock));
+        assertEquals(-1, dominators.getImmediateDominator(graph.getEntryBlockId()));
+        assertTrue(dominators.dominates(graph.getEntryBlockId(), printBlock));
+        assertTrue(dominators.dominates(ifBlock, ifBlock));
+        assertTrue(dominators.dominates(ifBlock, printBlock));
+        assertFalse("The else path skips it", dominators.dominates(thenBlock, afterIfBlock)); //$NON-NLS-1$
+        assertTrue(dominators.dominates(conditionBlock, bodyBlock));
+        assertFalse("The loop may not run", dominators.dominates(bodyBlock, printBlock)); //$NON-NLS-1$
+    }
+
+    @Test
+    public void postDominators() {
+        buildCFG();
+        final DominatorTree postDominators= new DominatorTree(graph, true);
+
+        final int ifBlock= getBlock("if (b)"); //$NON-NLS-1$
+        final int thenBlock= getBlock("x=4"); //$NON-NLS-1$
+        final int afterIfBlock= getBlock("int i=0"); //$NON-NLS-1$
+        final int conditionBlock= getBlock("i < x"); //$NON-NLS-1$
+        final int bodyBlock= getBlock("i++"); //$NON-NLS-1$
+        assertEquals(afterIfBlock, postDominators.getImmediateDominator(ifBlock));
+        assertEquals(afterIfBlock, postDominators.getImmediateDominator(thenBlock));
+        assertTrue(postDominators.dominates(graph.getExitBlockId(), graph.getEntryBlockId()));
+        assertTrue(postDominators.dominates(conditionBlock, bodyBlock));
+        assertFalse(postDominators.dominates(thenBlock, ifBlock));
+        assertFalse(postDominators.dominates(bodyBlock, conditionBlock));
+    }
+
+    @Test
+    public void liveness() {
+        buildCFG();
+        final LivenessAnalysis liveness= new LivenessAnalysis(graph);
+
+        assertFalse("Declared by the entry block", liveness.isLiveAtEntry(entryBlock, parameter)); //$NON-NLS-1$
+        assertTrue(liveness.isLiveAtExit(entryBlock, parameter));
+        assertTrue(liveness.isLiveAfter(getAccess("x", 4, VariableAccess.WRITE))); //$NON-NLS-1$
+        assertFalse("Overwritten before being read", //$NON-NLS-1$
+                liveness.isLiveAfter(getAccess("y", 5, VariableAccess.WRITE))); //$NON-NLS-1$
+        assertTrue(liveness.isLiveAfter(getAccess("y", 6, VariableAccess.WRITE))); //$NON-NLS-1$
+        assertTrue("Read by the loop condition", //$NON-NLS-1$
+                liveness.isLiveAfter(getAccess("i", 12, VariableAccess.WRITE))); //$NON-NLS-1$
+        assertFalse(liveness.isLiveAfter(getAccess("y", 14, VariableAccess.READ))); //$NON-NLS-1$
+    }
+
+    @Test
+    public void reachingDefinitions() {
+        buildCFG();
+        final ReachingDefinitionsAnalysis reachingDefinitions= new ReachingDefinitionsAnalysis(graph);
+
+        final List<VariableAccess> xDefinitions= reachingDefinitions
+                .getReachingDefinitions(getAccess("x", 14, VariableAccess.READ)); //$NON-NLS-1$
+        assertEquals(2, xDefinitions.size());
+        assertTrue(xDefinitions.contains(getAccess("x", 4, VariableAccess.WRITE))); //$NON-NLS-1$
+        assertTrue(xDefinitions.contains(getAccess("x", 8, VariableAccess.WRITE))); //$NON-NLS-1$
+
+        final List<VariableAccess> yDefinitions= reachingDefinitions
+                .getReachingDefinitions(getAccess("y", 14, VariableAccess.READ)); //$NON-NLS-1$
+        assertEquals(1, yDefinitions.size());
+        assertEquals(getAccess("y", 6, VariableAccess.WRITE), yDefinitions.get(0)); //$NON-NLS-1$
+
+        final List<VariableAccess> iDefinitions= reachingDefinitions
+                .getReachingDefinitions(getAccess("i", 11, VariableAccess.READ)); //$NON-NLS-1$
+        assertEquals(2, iDefinitions.size());
+        final VariableAccess increment= getAccess("i", 12, VariableAccess.WRITE); //$NON-NLS-1$
+        assertTrue(iDefinitions.contains(increment));
+        assertEquals("The increment reads the previous definitions", //$NON-NLS-1$
+                iDefinitions, reachingDefinitions.getReachingDefinitions(increment));
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2019 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.headless;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class HeadlessArgumentsTest {
+    @Rule
+    public TemporaryFolder tmpFolder= new TemporaryFolder();
+
+    @Test
+    public void parseAllArguments() throws Exception {
+        final File src= tmpFolder.newFolder("src"); //$NON-NLS-1$
+        final File testSrc= tmpFolder.newFolder("test"); //$NON-NLS-1$
+        final File jar= new File(tmpFolder.getRoot(), "lib.jar"); //$NON-NLS-1$
+        final File classes= new File(tmpFolder.getRoot(), "classes"); //$NON-NLS-1$
+
+        final HeadlessArguments arguments= new HeadlessArguments("-source", src + File.pathSeparator + testSrc, //$NON-NLS-1$
+                "-classpath", jar + File.pathSeparator + classes, "-threads", "3", "-javaVersion", "1.7", //$NON-NLS-1$ $NON-NLS-2$ $NON-NLS-3$ $NON-NLS-4$ $NON-NLS-5$
+                "-rules", "InvertEquals,StringCleanUp", "-incremental", "-disjoint", "-profile", "-cache"); //$NON-NLS-1$ $NON-NLS-2$ $NON-NLS-3$ $NON-NLS-4$ $NON-NLS-5$ $NON-NLS-6$
+
+        assertEquals(Arrays.asList(src.getAbsoluteFile(), testSrc.getAbsoluteFile()), arguments.getSourceFolders());
+        assertEquals(Arrays.asList(jar.getAbsoluteFile(), classes.getAbsoluteFile()), arguments.getClasspath());
+        assertEquals(3, arguments.getNbThreads());
+        assertEquals("1.7", arguments.getJavaVersion()); //$NON-NLS-1$
+        assertEquals(Arrays.asList("InvertEquals", "StringCleanUp"), arguments.getRuleNames()); //$NON-NLS-1$ $NON-NLS-2$
+        assertTrue(arguments.isIncrementalParsingOn());
+        assertTrue(arguments.isDisjointRefactoringsOn());
+        assertTrue(arguments.isProfilingOn());
+        assertTrue(arguments.isResultCacheOn());
+    }
+
+    @Test
+    public void useDefaultValues() throws Exception {
+        final File src= tmpFolder.newFolder("src"); //$NON-NLS-1$
+
+        final HeadlessArguments arguments= new HeadlessArguments("-source", src.getPath()); //$NON-NLS-1$
+
+        assertEquals(Arrays.asList(src.getAbsoluteFile()), arguments.getSourceFolders());
+        assertEquals(Collections.emptyList(), arguments.getClasspath());
+        assertEquals(Runtime.getRuntime().availableProcessors(), arguments.getNbThreads());
+        assertEquals("1.8", arguments.getJavaVersion()); //$NON-NLS-1$
+        assertNull(arguments.getRuleNames());
+        assertFalse(arguments.isIncrementalParsingOn());
+        assertFalse(arguments.isDisjointRefactoringsOn());
+        assertFalse(arguments.isProfilingOn());
+        assertFalse(arguments.isResultCacheOn());
+    }
+
+    @Test
+    public void rejectInvalidArguments() throws Exception {
+        final String src= tmpFolder.newFolder("src").getPath(); //$NON-NLS-1$
+
+        assertInvalid("At least one source folder is required"); //$NON-NLS-1$
+        assertInvalid("At least one source folder is required", "-profile"); //$NON-NLS-1$ $NON-NLS-2$
+        assertInvalid("does not exist", "-source", new File(tmpFolder.getRoot(), "missing").getPath()); //$NON-NLS-1$ $NON-NLS-2$ $NON-NLS-3$
+        assertInvalid("Missing value for argument -source", "-source"); //$NON-NLS-1$ $NON-NLS-2$
+        assertInvalid("Missing value for argument -threads", "-source", src, "-threads"); //$NON-NLS-1$ $NON-NLS-2$ $NON-NLS-3$
+        assertInvalid("Unknown argument -verbose", "-source", src, "-verbose"); //$NON-NLS-1$ $NON-NLS-2$ $NON-NLS-3$
+        assertInvalid("expects a positive number, not 0", "-source", src, "-threads", "0"); //$NON-NLS-1$ $NON-NLS-2$ $NON-NLS-3$ $NON-NLS-4$
+        assertInvalid("expects a positive number, not many", "-source", src, "-threads", "many"); //$NON-NLS-1$ $NON-NLS-2$ $NON-NLS-3$ $NON-NLS-4$
+    }
+
+    private void assertInvalid(String expectedMessage, String... args) {
+        try {
+            new HeadlessArguments(args);
+            fail("Arguments should be rejected: " + Arrays.toString(args)); //$NON-NLS-1$
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(expectedMessage));
+        }
+    }
+}
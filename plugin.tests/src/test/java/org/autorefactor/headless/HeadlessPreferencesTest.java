@@ -0,0 +1,97 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2019 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.headless;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.autorefactor.jdt.internal.ui.fix.BooleanCleanUp;
+import org.autorefactor.jdt.internal.ui.fix.InvertEqualsCleanUp;
+import org.autorefactor.jdt.internal.ui.fix.StringCleanUp;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class HeadlessPreferencesTest {
+    @Rule
+    public TemporaryFolder tmpFolder= new TemporaryFolder();
+
+    @Test
+    public void enableNamedRules() throws Exception {
+        final HeadlessPreferences preferences= newPreferences("-rules", "InvertEquals,StringCleanUp"); //$NON-NLS-1$ $NON-NLS-2$
+
+        assertTrue(preferences.isEnabled(InvertEqualsCleanUp.class));
+        assertTrue(preferences.isEnabled(StringCleanUp.class));
+        assertFalse(preferences.isEnabled(BooleanCleanUp.class));
+    }
+
+    @Test
+    public void enableDefaultRules() throws Exception {
+        final HeadlessPreferences preferences= newPreferences();
+
+        assertEquals(new InvertEqualsCleanUp().isByDefault(), preferences.isEnabled(InvertEqualsCleanUp.class));
+        assertEquals(new BooleanCleanUp().isByDefault(), preferences.isEnabled(BooleanCleanUp.class));
+    }
+
+    @Test
+    public void rejectUnknownRules() throws Exception {
+        try {
+            newPreferences("-rules", "InvertEquals,NoSuchRule"); //$NON-NLS-1$ $NON-NLS-2$
+            fail("Unknown rules should be rejected"); //$NON-NLS-1$
+        } catch (IllegalArgumentException e) {
+            assertEquals("Unknown rules [NoSuchRule]", e.getMessage()); //$NON-NLS-1$
+        }
+    }
+
+    @Test
+    public void readFlags() throws Exception {
+        final HeadlessPreferences defaultPreferences= newPreferences();
+        assertFalse(defaultPreferences.incrementalParsingOn());
+        assertFalse(defaultPreferences.disjointRefactoringsOn());
+        assertFalse(defaultPreferences.profilingOn());
+        assertFalse(defaultPreferences.resultCacheOn());
+        assertFalse(defaultPreferences.debugModeOn());
+        assertEquals(0, defaultPreferences.saveActionTimeBudget());
+
+        final HeadlessPreferences preferences= newPreferences("-incremental", "-disjoint", "-profile", "-cache"); //$NON-NLS-1$ $NON-NLS-2$ $NON-NLS-3$ $NON-NLS-4$
+        assertTrue(preferences.incrementalParsingOn());
+        assertTrue(preferences.disjointRefactoringsOn());
+        assertTrue(preferences.profilingOn());
+        assertTrue(preferences.resultCacheOn());
+        assertFalse(preferences.debugModeOn());
+        assertEquals(0, preferences.saveActionTimeBudget());
+    }
+
+    private HeadlessPreferences newPreferences(String... flags) throws Exception {
+        final String[] args= new String[flags.length + 2];
+        args[0]= "-source"; //$NON-NLS-1$
+        args[1]= tmpFolder.newFolder().getPath();
+        System.arraycopy(flags, 0, args, 2, flags.length);
+        return new HeadlessPreferences(new HeadlessArguments(args));
+    }
+}
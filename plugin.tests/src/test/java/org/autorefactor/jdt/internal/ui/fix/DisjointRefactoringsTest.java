@@ -0,0 +1,223 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2019 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.jdt.internal.ui.fix;
+
+import static org.autorefactor.test.TestHelper.TEST_ENVIRONMENT;
+import static org.autorefactor.test.TestHelper.newJavaProjectOptions;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.List;
+
+import org.autorefactor.environment.CurrentThreadEventLoop;
+import org.autorefactor.environment.Environment;
+import org.autorefactor.jdt.internal.corext.dom.ApplyRefactoringsJob;
+import org.autorefactor.jdt.internal.corext.dom.RefactoringRule;
+import org.autorefactor.jdt.internal.corext.dom.Release;
+import org.autorefactor.preferences.Preferences;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.Block;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.NumberLiteral;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.text.edits.TextEdit;
+import org.junit.Test;
+
+/**
+ * Runs the iterations of {@link ApplyRefactoringsJob} with the disjoint
+ * refactorings on.
+ */
+public class DisjointRefactoringsTest {
+    private static final String PACKAGE_NAME= "org.autorefactor.disjoint"; //$NON-NLS-1$
+
+    @Test
+    public void refactorDisjointSubtreeInSamePass() throws Exception {
+        final String source= "package org.autorefactor.disjoint;\n" //$NON-NLS-1$
+                + "public class DisjointSubtreeSample {\n" //$NON-NLS-1$
+                + "    public int m() { return 1; }\n" //$NON-NLS-1$
+                + "}\n"; //$NON-NLS-1$
+        final String expected= source.replace("m()", "renamed()").replace("return 1;", "return 0;"); //$NON-NLS-1$ $NON-NLS-2$ $NON-NLS-3$ $NON-NLS-4$
+
+        // The body of the renamed method is visited in the same pass
+        final IDocument doc= new Document(source);
+        assertEquals(1, refactor("DisjointSubtreeSample.java", doc, true, new RenameCleanUp("m", "renamed"), //$NON-NLS-1$ $NON-NLS-2$ $NON-NLS-3$
+                new DecrementCleanUp()).size());
+        assertEquals(expected, doc.get());
+
+        // By default, it waits for the next pass
+        final IDocument defaultDoc= new Document(source);
+        assertEquals(2, refactor("DisjointSubtreeSample.java", defaultDoc, false, //$NON-NLS-1$
+                new RenameCleanUp("m", "renamed"), new DecrementCleanUp()).size()); //$NON-NLS-1$ $NON-NLS-2$
+        assertEquals(expected, defaultDoc.get());
+    }
+
+    @Test
+    public void deferOverlappingRefactoring() throws Exception {
+        final String source= "package org.autorefactor.disjoint;\n" //$NON-NLS-1$
+                + "public class OverlappingSample {\n" //$NON-NLS-1$
+                + "    public int m() { return 0; }\n" //$NON-NLS-1$
+                + "}\n"; //$NON-NLS-1$
+
+        // The replaced name is only renamed again in the next pass
+        final IDocument doc= new Document(source);
+        assertEquals(2, refactor("OverlappingSample.java", doc, true, new RenameCleanUp("m", "renamed"), //$NON-NLS-1$ $NON-NLS-2$ $NON-NLS-3$
+                new SuffixCleanUp()).size());
+        assertEquals(source.replace("m()", "renamedSuffix()"), doc.get()); //$NON-NLS-1$ $NON-NLS-2$
+    }
+
+    @Test
+    public void deferRefactoringNextToInsert() throws Exception {
+        final String source= "package org.autorefactor.disjoint;\n" //$NON-NLS-1$
+                + "public class InsertSample {\n" //$NON-NLS-1$
+                + "    public int m() {\n" //$NON-NLS-1$
+                + "        int a= 1;\n" //$NON-NLS-1$
+                + "        return 1;\n" //$NON-NLS-1$
+                + "    }\n" //$NON-NLS-1$
+                + "}\n"; //$NON-NLS-1$
+
+        // The statement next to the insert is only refactored in the next pass, unlike the last one
+        final IDocument doc= new Document(source);
+        assertEquals(2, refactor("InsertSample.java", doc, true, new InsertFirstCleanUp(), new DecrementCleanUp()) //$NON-NLS-1$
+                .size());
+        assertTrue(doc.get(), doc.get().contains("int zero= 0;")); //$NON-NLS-1$
+        assertTrue(doc.get(), doc.get().contains("int a= 0;")); //$NON-NLS-1$
+        assertTrue(doc.get(), doc.get().contains("return 0;")); //$NON-NLS-1$
+    }
+
+    private List<TextEdit> refactor(String fileName, IDocument doc, boolean disjointRefactoringsOn,
+            RefactoringRule... rules) throws Exception {
+        final String source= doc.get();
+        final IPackageFragment packageFragment= JavaCoreHelper.getPackageFragment(PACKAGE_NAME);
+        final ICompilationUnit cu= packageFragment.createCompilationUnit(fileName, source, true, null);
+        cu.getBuffer().setContents(source);
+        cu.save(null, true);
+
+        final Environment environment= new Environment(new CurrentThreadEventLoop(), null,
+                TEST_ENVIRONMENT.getLogger(), newPreferences(disjointRefactoringsOn));
+        return new ApplyRefactoringsJob(null, null, environment).applyRefactoring(doc, cu,
+                new AggregateASTVisitor(Arrays.asList(rules)), newJavaProjectOptions(Release.javaSE("1.8.0"), 4), //$NON-NLS-1$
+                SubMonitor.convert(new NullProgressMonitor()), true);
+    }
+
+    private Preferences newPreferences(final boolean disjointRefactoringsOn) {
+        return (Preferences) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Preferences.class },
+                new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        if (Integer.TYPE.equals(method.getReturnType())) {
+                            return 0;
+                        }
+                        if ("disjointRefactoringsOn".equals(method.getName())) { //$NON-NLS-1$
+                            return disjointRefactoringsOn;
+                        }
+                        return "isEnabled".equals(method.getName()); //$NON-NLS-1$
+                    }
+                });
+    }
+
+    /** Names the rules after their class. */
+    private abstract static class TestCleanUp extends AbstractCleanUpRule {
+        public String getName() {
+            return getClass().getSimpleName();
+        }
+
+        public String getDescription() {
+            return getClass().getSimpleName();
+        }
+
+        public String getReason() {
+            return getClass().getSimpleName();
+        }
+    }
+
+    /** Renames a method, and does not visit the rest of the method by itself. */
+    private static final class RenameCleanUp extends TestCleanUp {
+        private final String oldName;
+        private final String newName;
+
+        private RenameCleanUp(String oldName, String newName) {
+            this.oldName= oldName;
+            this.newName= newName;
+        }
+
+        @Override
+        public boolean visit(MethodDeclaration node) {
+            if (oldName.equals(node.getName().getIdentifier())) {
+                ctx.getRefactorings().replace(node.getName(), ctx.getASTBuilder().simpleName(newName));
+                return false;
+            }
+            return true;
+        }
+    }
+
+    /** Adds a suffix to the method names. */
+    private static final class SuffixCleanUp extends TestCleanUp {
+        @Override
+        public boolean visit(SimpleName node) {
+            if (node.getLocationInParent() == MethodDeclaration.NAME_PROPERTY
+                    && !node.getIdentifier().endsWith("Suffix")) { //$NON-NLS-1$
+                ctx.getRefactorings().replace(node, ctx.getASTBuilder().simpleName(node.getIdentifier() + "Suffix")); //$NON-NLS-1$
+                return false;
+            }
+            return true;
+        }
+    }
+
+    /** Inserts a statement at the start of the methods with two statements. */
+    private static final class InsertFirstCleanUp extends TestCleanUp {
+        @Override
+        public boolean visit(Block node) {
+            if (node.getParent() instanceof MethodDeclaration && node.statements().size() == 2) {
+                ctx.getRefactorings().insertFirst(node, Block.STATEMENTS_PROPERTY, ctx.getRefactorings().getRewrite()
+                        .createStringPlaceholder("int zero= 0;", ASTNode.VARIABLE_DECLARATION_STATEMENT)); //$NON-NLS-1$
+                return false;
+            }
+            return true;
+        }
+    }
+
+    /** Decrements the positive integer literals, one step per pass. */
+    private static final class DecrementCleanUp extends TestCleanUp {
+        @Override
+        public boolean visit(NumberLiteral node) {
+            final int value= Integer.parseInt(node.getToken());
+            if (value > 0) {
+                ctx.getRefactorings().replace(node, ctx.getASTBuilder().number(String.valueOf(value - 1)));
+                return false;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2019 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.jdt.internal.ui.fix;
+
+import static org.autorefactor.test.TestHelper.TEST_ENVIRONMENT;
+import static org.autorefactor.test.TestHelper.newJavaProjectOptions;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.autorefactor.environment.CurrentThreadEventLoop;
+import org.autorefactor.environment.Environment;
+import org.autorefactor.jdt.internal.corext.dom.ApplyRefactoringsJob;
+import org.autorefactor.jdt.internal.corext.dom.RefactoringRule;
+import org.autorefactor.jdt.internal.corext.dom.Release;
+import org.autorefactor.jdt.internal.corext.dom.SourceLocation;
+import org.autorefactor.preferences.Preferences;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.NumberLiteral;
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
+import org.junit.Test;
+
+/**
+ * Runs the iterations of {@link ApplyRefactoringsJob} with the incremental
+ * parsing on.
+ */
+public class IncrementalRefactoringTest {
+    private static final String PACKAGE_NAME= "org.autorefactor.incremental"; //$NON-NLS-1$
+
+    @Test
+    public void changeInOneMethod() throws Exception {
+        final MethodRecorderCleanUp recorder= new MethodRecorderCleanUp();
+        final DecrementCleanUp decrement= new DecrementCleanUp();
+        final String source= "package org.autorefactor.incremental;\n" //$NON-NLS-1$
+                + "public class OneMethodSample {\n" //$NON-NLS-1$
+                + "    public int one() { return 3; }\n" //$NON-NLS-1$
+                + "    public int two() { return 0; }\n" //$NON-NLS-1$
+                + "}\n"; //$NON-NLS-1$
+
+        final IDocument doc= refactor("OneMethodSample.java", source, recorder, decrement); //$NON-NLS-1$
+
+        assertEquals(source.replace("return 3;", "return 0;"), doc.get()); //$NON-NLS-1$ $NON-NLS-2$
+        // Full visit, three visits of the changed method alone, then a full visit
+        // after the last visit of the changed method finds nothing
+        assertEquals(Arrays.asList("one", "two", "one", "one", "one", "one", "two"), decrement.visitedMethods); //$NON-NLS-1$ $NON-NLS-2$ $NON-NLS-3$ $NON-NLS-4$ $NON-NLS-5$ $NON-NLS-6$ $NON-NLS-7$
+        // The rule which is not body local only takes part in the full visits
+        assertEquals(Arrays.asList("one", "two", "one", "two"), recorder.visitedMethods); //$NON-NLS-1$ $NON-NLS-2$ $NON-NLS-3$ $NON-NLS-4$
+        // Only the first and the last visits need the whole file:
+        // the visits of the changed method skip the body of the other method
+        assertEquals(Arrays.asList(true, true, false, false, false, true, true), getWholeFileParsed(decrement));
+        assertSame(decrement.visitedRoots.get(0), decrement.visitedRoots.get(1));
+        assertNotSame(decrement.visitedRoots.get(1), decrement.visitedRoots.get(5));
+    }
+
+    @Test
+    public void changeInSeveralDeclarations() throws Exception {
+        final DecrementCleanUp decrement= new DecrementCleanUp();
+        final String source= "package org.autorefactor.incremental;\n" //$NON-NLS-1$
+                + "public class SeveralDeclarationsSample {\n" //$NON-NLS-1$
+                + "    public int one() { return 1; }\n" //$NON-NLS-1$
+                + "    public int two() { return 1; }\n" //$NON-NLS-1$
+                + "}\n"; //$NON-NLS-1$
+
+        final IDocument doc= refactor("SeveralDeclarationsSample.java", source, decrement); //$NON-NLS-1$
+
+        assertEquals(source.replace("return 1;", "return 0;"), doc.get()); //$NON-NLS-1$ $NON-NLS-2$
+        // The changes span two methods: the second iteration visits the whole file
+        assertEquals(Arrays.asList("one", "two", "one", "two"), decrement.visitedMethods); //$NON-NLS-1$ $NON-NLS-2$ $NON-NLS-3$ $NON-NLS-4$
+        assertEquals(Arrays.asList(true, true, true, true), getWholeFileParsed(decrement));
+    }
+
+    @Test
+    public void newClassImportRuleWaitsForFullVisit() throws Exception {
+        final String source= "package org.autorefactor.incremental;\n" //$NON-NLS-1$
+                + "public class NewClassImportSample {\n" //$NON-NLS-1$
+                + "    public int one() { return 1; }\n" //$NON-NLS-1$
+                + "}\n"; //$NON-NLS-1$
+
+        // The stack only appears in the changed method, after the first iteration
+        final IDocument doc= refactor("NewClassImportSample.java", source, new BodyLocalArrayDequeCleanUp(), //$NON-NLS-1$
+                new NewStackCleanUp());
+
+        assertTrue(doc.get(), doc.get().contains("import java.util.ArrayDeque;")); //$NON-NLS-1$
+        assertTrue(doc.get(), doc.get().contains("return new ArrayDeque<String>().size();")); //$NON-NLS-1$
+    }
+
+    private IDocument refactor(String fileName, String source, RefactoringRule... rules) throws Exception {
+        final IPackageFragment packageFragment= JavaCoreHelper.getPackageFragment(PACKAGE_NAME);
+        final ICompilationUnit cu= packageFragment.createCompilationUnit(fileName, source, true, null);
+        cu.getBuffer().setContents(source);
+        cu.save(null, true);
+
+        final IDocument doc= new Document(source);
+        final Environment environment= new Environment(new CurrentThreadEventLoop(), null,
+                TEST_ENVIRONMENT.getLogger(), newIncrementalPreferences());
+        new ApplyRefactoringsJob(null, null, environment).applyRefactoring(doc, cu,
+                new AggregateASTVisitor(Arrays.asList(rules)), newJavaProjectOptions(Release.javaSE("1.8.0"), 4), //$NON-NLS-1$
+                SubMonitor.convert(new NullProgressMonitor()), true);
+        return doc;
+    }
+
+    /** Returns, for each visited method, whether the bodies of all the methods of its AST have been parsed. */
+    private List<Boolean> getWholeFileParsed(MethodRecorderCleanUp recorder) {
+        final List<Boolean> wholeFileParsed= new ArrayList<>();
+        for (ASTNode root : recorder.visitedRoots) {
+            final boolean[] hasEmptyBody= { false };
+            root.accept(new ASTVisitor() {
+                @Override
+                public boolean visit(MethodDeclaration node) {
+                    // Each method of the samples returns a value
+                    hasEmptyBody[0]|= node.getBody().statements().isEmpty();
+                    return true;
+                }
+            });
+            wholeFileParsed.add(!hasEmptyBody[0]);
+        }
+        return wholeFileParsed;
+    }
+
+    private Preferences newIncrementalPreferences() {
+        return (Preferences) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Preferences.class },
+                new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        if (Integer.TYPE.equals(method.getReturnType())) {
+                            return 0;
+                        }
+                        return "incrementalParsingOn".equals(method.getName()) || "isEnabled".equals(method.getName()); //$NON-NLS-1$ $NON-NLS-2$
+                    }
+                });
+    }
+
+    /** Records the methods it visits. */
+    private static class MethodRecorderCleanUp extends AbstractCleanUpRule {
+        final List<String> visitedMethods= new ArrayList<>();
+        final List<ASTNode> visitedRoots= new ArrayList<>();
+
+        public String getName() {
+            return getClass().getSimpleName();
+        }
+
+        public String getDescription() {
+            return getClass().getSimpleName();
+        }
+
+        public String getReason() {
+            return getClass().getSimpleName();
+        }
+
+        @Override
+        public boolean visit(MethodDeclaration node) {
+            visitedMethods.add(node.getName().getIdentifier());
+            visitedRoots.add(node.getRoot());
+            return true;
+        }
+    }
+
+    /**
+     * Wrongly declares itself body local: as a new class import rule, it must
+     * still only take part in the visits of the whole file.
+     */
+    private static final class BodyLocalArrayDequeCleanUp extends ArrayDequeRatherThanStackCleanUp
+            implements BodyLocalRule {
+    }
+
+    /** Replaces the literal 1 by the size of a new stack. */
+    private static final class NewStackCleanUp extends MethodRecorderCleanUp implements BodyLocalRule {
+        @Override
+        public boolean visit(NumberLiteral node) {
+            if ("1".equals(node.getToken())) { //$NON-NLS-1$
+                ctx.getRefactorings().replace(new SourceLocation(node), "new java.util.Stack<String>().size()"); //$NON-NLS-1$
+                return false;
+            }
+            return true;
+        }
+    }
+
+    /** Decrements the positive integer literals, one step per iteration. */
+    private static final class DecrementCleanUp extends MethodRecorderCleanUp implements BodyLocalRule {
+        @Override
+        public boolean visit(NumberLiteral node) {
+            final int value= Integer.parseInt(node.getToken());
+            if (value > 0) {
+                ctx.getRefactorings().replace(node, ctx.getASTBuilder().number(String.valueOf(value - 1)));
+                return false;
+            }
+            return true;
+        }
+    }
+}
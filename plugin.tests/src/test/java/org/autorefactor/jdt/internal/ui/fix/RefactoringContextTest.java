@@ -0,0 +1,72 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2019 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.jdt.internal.ui.fix;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.autorefactor.jdt.internal.corext.dom.JavaProjectOptions;
+import org.autorefactor.jdt.internal.corext.dom.Release;
+import org.autorefactor.test.TestHelper;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.junit.Test;
+
+public class RefactoringContextTest {
+    @Test
+    public void lombokImport() {
+        assertTrue(newContext("import lombok.Data; @Data public class A { int i; }").isUsingLombok()); //$NON-NLS-1$
+    }
+
+    @Test
+    public void lombokOnDemandImport() {
+        assertTrue(newContext("import lombok.*; @Data public class A { int i; }").isUsingLombok()); //$NON-NLS-1$
+    }
+
+    @Test
+    public void lombokQualifiedAnnotation() {
+        final String source= "public class A { @lombok.Getter(lazy=true) private final int i= 0; }"; //$NON-NLS-1$
+        assertTrue(newContext(source).isUsingLombok());
+    }
+
+    @Test
+    public void noLombok() {
+        final String source= "import java.util.List; @Deprecated public class A { List<String> lombok; }"; //$NON-NLS-1$
+        assertFalse(newContext(source).isUsingLombok());
+    }
+
+    private RefactoringContext newContext(String source) {
+        final ASTParser parser= ASTParser.newParser(AST.JLS8);
+        parser.setSource(source.toCharArray());
+        final CompilationUnit astRoot= (CompilationUnit) parser.createAST(null);
+        final JavaProjectOptions options= TestHelper.newJavaProjectOptions(Release.javaSE("1.8.0"), 4); //$NON-NLS-1$
+        return new RefactoringContext(null, astRoot, options, SubMonitor.convert(new NullProgressMonitor()),
+                TestHelper.TEST_ENVIRONMENT);
+    }
+}
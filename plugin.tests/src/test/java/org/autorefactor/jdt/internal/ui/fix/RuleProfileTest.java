@@ -0,0 +1,100 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2019 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.jdt.internal.ui.fix;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.autorefactor.jdt.internal.corext.dom.RefactoringRule;
+import org.autorefactor.jdt.internal.corext.dom.Release;
+import org.autorefactor.test.TestHelper;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.MethodInvocation;
+import org.junit.Test;
+
+public class RuleProfileTest {
+    private static final String SOURCE= "public class A { void m() { m(); m(); } }"; //$NON-NLS-1$
+
+    @Test
+    public void profileRules() {
+        final List<RefactoringRule> rules= Arrays.<RefactoringRule>asList(new MethodInvocationRule(),
+                new Java9MethodInvocationRule());
+        final AggregateASTVisitor visitor= new AggregateASTVisitor(rules);
+        final RuleProfile profile= new RuleProfile(rules);
+        visitor.setProfile(profile);
+
+        final ASTParser parser= ASTParser.newParser(AST.JLS8);
+        parser.setSource(SOURCE.toCharArray());
+        final CompilationUnit astRoot= (CompilationUnit) parser.createAST(null);
+        visitor.setRefactoringContext(new RefactoringContext(null, astRoot,
+                TestHelper.newJavaProjectOptions(Release.javaSE("1.8.0"), 4), //$NON-NLS-1$
+                SubMonitor.convert(new NullProgressMonitor()), TestHelper.TEST_ENVIRONMENT));
+        visitor.getRefactorings(astRoot);
+
+        final String[] csv= profile.toCsv().split("\n"); //$NON-NLS-1$
+        assertEquals("rule,wallTimeNanos,invocations,skippedNodes,refactorings,MethodInvocation", csv[0]); //$NON-NLS-1$
+        assertTrue(csv[1], csv[1].matches("MethodInvocationRule,\\d+,2,0,0,2")); //$NON-NLS-1$
+        assertTrue(csv[2], csv[2].matches("Java9MethodInvocationRule,\\d+,0,2,0,0")); //$NON-NLS-1$
+        assertTrue(profile.toJson(), profile.toJson().contains("\"invocations\": {\"MethodInvocation\": 2}")); //$NON-NLS-1$
+        assertTrue(profile.getSlowestRulesReport(1).contains("2 visits")); //$NON-NLS-1$
+    }
+
+    private static class MethodInvocationRule extends AbstractCleanUpRule {
+        @Override
+        public String getName() {
+            return getClass().getSimpleName();
+        }
+
+        @Override
+        public String getDescription() {
+            return getName();
+        }
+
+        @Override
+        public String getReason() {
+            return getName();
+        }
+
+        @Override
+        public boolean visit(MethodInvocation node) {
+            return true;
+        }
+    }
+
+    private static final class Java9MethodInvocationRule extends MethodInvocationRule {
+        @Override
+        public boolean isJavaVersionSupported(Release javaSeRelease) {
+            return javaSeRelease.isCompatibleWith(Release.javaSE("9.0.0")); //$NON-NLS-1$
+        }
+    }
+}
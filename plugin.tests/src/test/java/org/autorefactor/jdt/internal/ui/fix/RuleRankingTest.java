@@ -0,0 +1,171 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2019 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.jdt.internal.ui.fix;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.autorefactor.environment.Logger;
+import org.autorefactor.jdt.internal.corext.dom.RefactoringRule;
+import org.junit.Test;
+
+public class RuleRankingTest {
+    private final RefactoringRule slowRule= new StringCleanUp();
+    private final RefactoringRule fastRule= new BigNumberCleanUp();
+    private final RefactoringRule productiveRule= new InvertEqualsCleanUp();
+    private final RefactoringRule newRule= new BooleanConstantRatherThanValueOfCleanUp();
+
+    @Test
+    public void keepConfiguredOrder() {
+        final RuleRanking ranking= new RuleRanking();
+        final List<RefactoringRule> rules= Arrays.asList(slowRule, fastRule, productiveRule);
+        final RuleProfile profile= new RuleProfile(rules);
+        profile.recordTime(0, 1000);
+        profile.recordTime(1, 10);
+        profile.recordTime(2, 100);
+        for (int i= 0; i < 50; i++) {
+            profile.recordRefactoring(2);
+        }
+        ranking.record(rules, rules, profile);
+
+        assertEquals(Arrays.asList(slowRule, fastRule, productiveRule, newRule),
+                ranking.rank(Arrays.asList(slowRule, fastRule, productiveRule, newRule), Long.MAX_VALUE, null));
+    }
+
+    @Test
+    public void keepRulesFittingTheBudget() {
+        final RuleRanking ranking= new RuleRanking();
+        final List<RefactoringRule> rules= Arrays.asList(slowRule, fastRule, productiveRule);
+        final RuleProfile profile= new RuleProfile(rules);
+        profile.recordTime(0, 1000);
+        profile.recordTime(1, 10);
+        profile.recordTime(2, 100);
+        ranking.record(rules, rules, profile);
+        ranking.record(rules, rules, profile);
+
+        assertEquals(Arrays.asList(fastRule, productiveRule, newRule),
+                ranking.rank(Arrays.asList(slowRule, fastRule, productiveRule, newRule), 500, null));
+        assertEquals(Arrays.asList(fastRule), ranking.rank(rules, 50, null));
+    }
+
+    @Test
+    public void selectSkippedRuleAgain() {
+        final RuleRanking ranking= new RuleRanking();
+        final List<RefactoringRule> rules= Arrays.asList(slowRule, fastRule);
+        final RuleProfile profile= new RuleProfile(rules);
+        profile.recordTime(0, 1000);
+        profile.recordTime(1, 10);
+        ranking.record(rules, rules, profile);
+
+        for (int i= 0; i < RuleRanking.MAX_SKIPPED_RUNS; i++) {
+            assertEquals(Arrays.asList(fastRule), ranking.rank(rules, 50, null));
+        }
+        assertEquals(rules, ranking.rank(rules, 50, null));
+        assertEquals(Arrays.asList(fastRule), ranking.rank(rules, 50, null));
+    }
+
+    @Test
+    public void forgetOldRuns() {
+        final RuleRanking ranking= new RuleRanking();
+        final List<RefactoringRule> rules= Arrays.asList(slowRule);
+        final RuleProfile coldProfile= new RuleProfile(rules);
+        coldProfile.recordTime(0, 1000);
+        ranking.record(rules, rules, coldProfile);
+
+        assertEquals(Collections.emptyList(), ranking.rank(rules, 50, null));
+
+        final RuleProfile warmProfile= new RuleProfile(rules);
+        warmProfile.recordTime(0, 10);
+        for (int i= 0; i < 10; i++) {
+            ranking.record(rules, rules, warmProfile);
+        }
+
+        assertEquals(rules, ranking.rank(rules, 50, null));
+    }
+
+    @Test
+    public void onlyRecordSelectedRules() {
+        final RuleRanking ranking= new RuleRanking();
+        final List<RefactoringRule> rules= Arrays.asList(slowRule, fastRule);
+        final RuleProfile coldProfile= new RuleProfile(rules);
+        coldProfile.recordTime(0, 1000);
+        coldProfile.recordTime(1, 10);
+        ranking.record(rules, rules, coldProfile);
+
+        // The slow rule has not run: its cost must not drop
+        final List<RefactoringRule> selectedRules= ranking.rank(rules, 50, null);
+        for (int i= 0; i < 10; i++) {
+            ranking.record(rules, selectedRules, new RuleProfile(rules));
+        }
+
+        assertEquals(Arrays.asList(fastRule), selectedRules);
+        assertEquals(Arrays.asList(fastRule), ranking.rank(rules, 50, null));
+    }
+
+    @Test
+    public void logSkippedRulesOnChange() {
+        final RuleRanking ranking= new RuleRanking();
+        final List<RefactoringRule> rules= Arrays.asList(slowRule, fastRule);
+        final RuleProfile profile= new RuleProfile(rules);
+        profile.recordTime(0, 1000);
+        profile.recordTime(1, 10);
+        ranking.record(rules, rules, profile);
+        final List<String> messages= new ArrayList<>();
+        final Logger logger= new Logger() {
+            public void error(String message) {
+                messages.add(message);
+            }
+
+            public void error(String message, Exception e) {
+                messages.add(message);
+            }
+
+            public void warn(String message) {
+                messages.add(message);
+            }
+
+            public void info(String message) {
+                messages.add(message);
+            }
+        };
+
+        ranking.rank(rules, 50, logger);
+        ranking.rank(rules, 50, logger);
+
+        assertEquals(1, messages.size());
+        assertTrue(messages.get(0), messages.get(0).contains(slowRule.getName()));
+
+        ranking.rank(rules, Long.MAX_VALUE, logger);
+        ranking.rank(rules, 50, logger);
+
+        assertEquals(2, messages.size());
+    }
+}
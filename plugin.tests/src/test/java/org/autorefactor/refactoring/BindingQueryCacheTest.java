@@ -0,0 +1,212 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2019 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.refactoring;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.autorefactor.jdt.internal.corext.dom.ASTNodes;
+import org.autorefactor.jdt.internal.corext.dom.BindingQueryCache;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.Expression;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.MethodInvocation;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BindingQueryCacheTest {
+    private static final String SOURCE= "package sample;\n" //$NON-NLS-1$
+            + "import java.util.*;\n" //$NON-NLS-1$
+            + "class Sample<E> extends ArrayList<E> {\n" //$NON-NLS-1$
+            + "    @Override\n" //$NON-NLS-1$
+            + "    public boolean add(E e) {\n" //$NON-NLS-1$
+            + "        return super.add(e);\n" //$NON-NLS-1$
+            + "    }\n" //$NON-NLS-1$
+            + "    @Override\n" //$NON-NLS-1$
+            + "    public boolean equals(Object o) {\n" //$NON-NLS-1$
+            + "        return super.equals(o);\n" //$NON-NLS-1$
+            + "    }\n" //$NON-NLS-1$
+            + "    int sample(List<String> list, Map<String, Integer> map, Set<Long> set, Sample<String> s) {\n" //$NON-NLS-1$
+            + "        list.add(\"a\");\n" //$NON-NLS-1$
+            + "        list.add(0, \"b\");\n" //$NON-NLS-1$
+            + "        s.add(\"c\");\n" //$NON-NLS-1$
+            + "        set.add(1L);\n" //$NON-NLS-1$
+            + "        map.put(list.get(0), map.get(\"a\"));\n" //$NON-NLS-1$
+            + "        for (Iterator<String> it= list.iterator(); it.hasNext();) {\n" //$NON-NLS-1$
+            + "            if (it.next().equals(s.get(0)) || s.equals(list)) {\n" //$NON-NLS-1$
+            + "                return Math.max(list.size(), set.size());\n" //$NON-NLS-1$
+            + "            }\n" //$NON-NLS-1$
+            + "        }\n" //$NON-NLS-1$
+            + "        return new StringBuilder().append(\"x\").append(1).length();\n" //$NON-NLS-1$
+            + "    }\n" //$NON-NLS-1$
+            + "}\n"; //$NON-NLS-1$
+
+    private static final String[][] SIGNATURES= {
+        { "java.util.Collection", "add", "java.lang.Object" }, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        { "java.util.List", "add", "int", "java.lang.Object" }, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        { "java.util.ArrayList", "add", "java.lang.Object" }, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        { "java.util.Collection", "size" }, //$NON-NLS-1$ //$NON-NLS-2$
+        { "java.util.List", "get", "int" }, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        { "java.util.Map", "get", "java.lang.Object" }, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        { "java.util.Map", "put", "java.lang.Object", "java.lang.Object" }, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        { "java.util.Iterator", "hasNext" }, //$NON-NLS-1$ //$NON-NLS-2$
+        { "java.lang.Object", "equals", "java.lang.Object" }, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        { "java.lang.Math", "max", "int", "int" }, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        { "java.lang.StringBuilder", "append", "java.lang.String" }, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        { "java.lang.StringBuilder", "append", "int" } }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+    private static final String[] TYPES= { "java.util.Collection", "java.util.List", "java.util.Set", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        "java.util.Map", "java.lang.Iterable", "java.util.AbstractList", "java.lang.Object" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+
+    private CompilationUnit astRoot;
+    private final List<MethodInvocation> invocations= new ArrayList<>();
+    private final List<MethodDeclaration> methods= new ArrayList<>();
+    private final List<Expression> expressions= new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        final Map<String, String> options= new HashMap<>();
+        JavaCore.setComplianceOptions("1.8", options); //$NON-NLS-1$
+        final ASTParser parser= ASTParser.newParser(AST.JLS8);
+        parser.setCompilerOptions(options);
+        parser.setSource(SOURCE.toCharArray());
+        parser.setUnitName("Sample.java"); //$NON-NLS-1$
+        parser.setEnvironment(System.getProperty("java.class.path").split(File.pathSeparator), null, null, true); //$NON-NLS-1$
+        parser.setResolveBindings(true);
+        astRoot= (CompilationUnit) parser.createAST(null);
+        astRoot.accept(new ASTVisitor() {
+            @Override
+            public boolean visit(MethodInvocation node) {
+                invocations.add(node);
+                if (node.getExpression() != null) {
+                    expressions.add(node.getExpression());
+                }
+                return true;
+            }
+
+            @Override
+            public boolean visit(MethodDeclaration node) {
+                methods.add(node);
+                return true;
+            }
+        });
+    }
+
+    @Test
+    public void attach() {
+        assertNull(BindingQueryCache.get(astRoot));
+        final BindingQueryCache cache= BindingQueryCache.attach(astRoot);
+        assertSame(cache, BindingQueryCache.get(invocations.get(invocations.size() - 1)));
+        assertNull(BindingQueryCache.get(ASTNode.copySubtree(astRoot.getAST(), invocations.get(0))));
+    }
+
+    @Test
+    public void usesGivenSignatureLikeWithoutCache() {
+        final List<Boolean> expected= new ArrayList<>();
+        int nbMatches= 0;
+        for (String[] signature : SIGNATURES) {
+            for (MethodInvocation invocation : invocations) {
+                expected.add(usesGivenSignature(invocation, signature));
+                nbMatches+= expected.get(expected.size() - 1) ? 1 : 0;
+            }
+            for (MethodDeclaration method : methods) {
+                expected.add(usesGivenSignature(method, signature));
+            }
+        }
+        assertTrue(nbMatches > 10);
+
+        final BindingQueryCache cache= BindingQueryCache.attach(astRoot);
+        int nbMisses= 0;
+        for (int pass= 0; pass < 2; pass++) {
+            if (pass == 1) {
+                nbMisses= cache.getNbMisses();
+                assertTrue(nbMisses > 0);
+            }
+            int i= 0;
+            for (String[] signature : SIGNATURES) {
+                for (MethodInvocation invocation : invocations) {
+                    assertEquals(invocation + " " + signature[1], expected.get(i++), //$NON-NLS-1$
+                            usesGivenSignature(invocation, signature));
+                }
+                for (MethodDeclaration method : methods) {
+                    assertEquals(method.getName() + " " + signature[1], expected.get(i++), //$NON-NLS-1$
+                            usesGivenSignature(method, signature));
+                }
+            }
+        }
+        assertEquals(nbMisses, cache.getNbMisses());
+    }
+
+    @Test
+    public void instanceOfLikeWithoutCache() {
+        final List<Boolean> expected= new ArrayList<>();
+        final List<ITypeBinding> expectedTypes= new ArrayList<>();
+        for (String type : TYPES) {
+            for (Expression expression : expressions) {
+                expected.add(ASTNodes.instanceOf(expression, type));
+                expectedTypes.add(ASTNodes.findImplementedType(expression.resolveTypeBinding(), type));
+            }
+        }
+
+        final BindingQueryCache cache= BindingQueryCache.attach(astRoot);
+        int i= 0;
+        for (String type : TYPES) {
+            for (Expression expression : expressions) {
+                assertEquals(expression + " " + type, expected.get(i), ASTNodes.instanceOf(expression, type)); //$NON-NLS-1$
+                assertSame(expression + " " + type, expectedTypes.get(i++), //$NON-NLS-1$
+                        cache.findImplementedType(expression.resolveTypeBinding(), type));
+            }
+        }
+    }
+
+    private static boolean usesGivenSignature(MethodInvocation invocation, String[] signature) {
+        return ASTNodes.usesGivenSignature(invocation, signature[0], signature[1], getParameterTypes(signature));
+    }
+
+    private static boolean usesGivenSignature(MethodDeclaration method, String[] signature) {
+        return ASTNodes.usesGivenSignature(method, signature[0], signature[1], getParameterTypes(signature));
+    }
+
+    private static String[] getParameterTypes(String[] signature) {
+        final String[] parameterTypes= new String[signature.length - 2];
+        System.arraycopy(signature, 2, parameterTypes, 0, parameterTypes.length);
+        return parameterTypes;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2019 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.refactoring;
+
+import static org.junit.Assert.assertEquals;
+
+import org.autorefactor.jdt.internal.corext.dom.LineIndex;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.junit.Test;
+
+public class LineIndexTest {
+    private static final String SOURCE= "class A {\r\n\tint i;\n\n  \tint j;\r}"; //$NON-NLS-1$
+
+    @Test
+    public void lineNumberLikeCompilationUnit() {
+        final ASTParser parser= ASTParser.newParser(AST.JLS8);
+        parser.setSource(SOURCE.toCharArray());
+        final CompilationUnit astRoot= (CompilationUnit) parser.createAST(null);
+        final LineIndex lineIndex= new LineIndex(SOURCE);
+
+        assertEquals(5, lineIndex.getNbLines());
+        for (int position= 0; position < SOURCE.length(); position++) {
+            assertEquals("Line of position " + position, astRoot.getLineNumber(position), //$NON-NLS-1$
+                    lineIndex.getLineNumber(position));
+        }
+    }
+
+    @Test
+    public void lineBounds() {
+        final LineIndex lineIndex= new LineIndex(SOURCE);
+
+        assertEquals(0, lineIndex.getLineStart(1));
+        assertEquals(11, lineIndex.getLineEnd(1));
+        assertEquals(11, lineIndex.getLineStartOf(15));
+        assertEquals(SOURCE.length(), lineIndex.getLineEnd(5));
+    }
+
+    @Test
+    public void columnNumberExpandsTabs() {
+        final LineIndex lineIndex= new LineIndex(SOURCE);
+
+        assertEquals(1, lineIndex.getColumnNumber(0, 4));
+        assertEquals(5, lineIndex.getColumnNumber(SOURCE.indexOf("int i"), 4)); //$NON-NLS-1$
+        assertEquals(5, lineIndex.getColumnNumber(SOURCE.indexOf("int j"), 4)); //$NON-NLS-1$
+        assertEquals(9, lineIndex.getColumnNumber(SOURCE.indexOf("int j"), 8)); //$NON-NLS-1$
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2019 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.refactoring;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.autorefactor.jdt.internal.corext.dom.JavaProjectOptionsImpl;
+import org.autorefactor.jdt.internal.corext.dom.RefactoringResultCache;
+import org.autorefactor.jdt.internal.corext.dom.RefactoringRule;
+import org.autorefactor.jdt.internal.ui.fix.BooleanCleanUp;
+import org.autorefactor.jdt.internal.ui.fix.InvertEqualsCleanUp;
+import org.eclipse.jdt.core.JavaCore;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class RefactoringResultCacheTest {
+    private static final List<RefactoringRule> RULES= Arrays.<RefactoringRule>asList(new InvertEqualsCleanUp(),
+            new BooleanCleanUp());
+    private static final String SOURCE= "class A {}"; //$NON-NLS-1$
+
+    @Rule
+    public TemporaryFolder tmpFolder= new TemporaryFolder();
+
+    @Test
+    public void keyDependsOnSourceRulesAndOptions() throws Exception {
+        final RefactoringResultCache cache= newCache(10, RULES);
+        final String key= cache.getKey(SOURCE, newOptions("1.8")); //$NON-NLS-1$
+
+        assertEquals(key, cache.getKey(SOURCE, newOptions("1.8"))); //$NON-NLS-1$
+        assertNotEquals(key, cache.getKey("class B {}", newOptions("1.8"))); //$NON-NLS-1$ $NON-NLS-2$
+        assertNotEquals(key, cache.getKey(SOURCE, newOptions("1.7"))); //$NON-NLS-1$
+        final RefactoringResultCache otherRulesCache= newCache(10, RULES.subList(0, 1));
+        assertNotEquals(key, otherRulesCache.getKey(SOURCE, newOptions("1.8"))); //$NON-NLS-1$
+    }
+
+    @Test
+    public void countsHitsAndMisses() throws Exception {
+        final RefactoringResultCache cache= newCache(10, RULES);
+        final String key= cache.getKey(SOURCE, newOptions("1.8")); //$NON-NLS-1$
+
+        assertFalse(cache.hasNoRefactoring(key));
+        cache.recordNoRefactoring(key);
+        assertTrue(cache.hasNoRefactoring(key));
+        assertTrue(cache.hasNoRefactoring(key));
+
+        assertEquals(2, cache.getNbHits());
+        assertEquals(1, cache.getNbMisses());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedKeys() throws Exception {
+        final RefactoringResultCache cache= newCache(2, RULES);
+        cache.recordNoRefactoring("a"); //$NON-NLS-1$
+        cache.recordNoRefactoring("b"); //$NON-NLS-1$
+        assertTrue(cache.hasNoRefactoring("a")); //$NON-NLS-1$
+        cache.recordNoRefactoring("c"); //$NON-NLS-1$
+
+        assertEquals(2, cache.size());
+        assertTrue(cache.hasNoRefactoring("a")); //$NON-NLS-1$
+        assertFalse(cache.hasNoRefactoring("b")); //$NON-NLS-1$
+        assertTrue(cache.hasNoRefactoring("c")); //$NON-NLS-1$
+    }
+
+    @Test
+    public void savedKeysAreLoadedByTheNextRun() throws Exception {
+        final RefactoringResultCache cache= newCache(10, RULES);
+        final String key= cache.getKey(SOURCE, newOptions("1.8")); //$NON-NLS-1$
+        cache.recordNoRefactoring(key);
+        cache.save();
+
+        final RefactoringResultCache nextRunCache= newCache(10, RULES);
+        nextRunCache.load();
+        assertTrue(nextRunCache.hasNoRefactoring(nextRunCache.getKey(SOURCE, newOptions("1.8")))); //$NON-NLS-1$
+    }
+
+    private RefactoringResultCache newCache(int maxSize, List<RefactoringRule> rules) {
+        final File file= new File(tmpFolder.getRoot(), "cache.txt"); //$NON-NLS-1$
+        return new RefactoringResultCache(file, maxSize, rules, "1.0.0"); //$NON-NLS-1$
+    }
+
+    private JavaProjectOptionsImpl newOptions(String javaVersion) {
+        final Map<String, String> options= new HashMap<>();
+        JavaCore.setComplianceOptions(javaVersion, options);
+        return new JavaProjectOptionsImpl(options);
+    }
+}
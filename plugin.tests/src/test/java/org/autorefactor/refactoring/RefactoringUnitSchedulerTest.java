@@ -0,0 +1,231 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2019 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.refactoring;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+
+import org.autorefactor.environment.Logger;
+import org.autorefactor.jdt.internal.corext.dom.RefactoringUnit;
+import org.autorefactor.jdt.internal.corext.dom.RefactoringUnitScheduler;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class RefactoringUnitSchedulerTest {
+    @Rule
+    public TemporaryFolder tmpFolder= new TemporaryFolder();
+
+    @Test
+    public void pollsLargestUnitsFirst() throws Exception {
+        final List<RefactoringUnit> units= newRefactoringUnits(30, 10, 50, 20, 40);
+        final RefactoringUnitScheduler scheduler= new RefactoringUnitScheduler(units, 1, null);
+        final Queue<RefactoringUnit> worker0= scheduler.getQueue(0);
+
+        assertEquals(units.get(2), worker0.peek());
+        assertEquals(Arrays.asList(units.get(2), units.get(4), units.get(0), units.get(3), units.get(1)),
+                new ArrayList<>(worker0));
+        assertEquals(units.get(2), worker0.poll());
+        assertEquals(units.get(4), worker0.poll());
+        assertEquals(units.get(0), worker0.poll());
+        assertEquals(units.get(3), worker0.poll());
+        assertEquals(units.get(1), worker0.poll());
+        assertNull(worker0.poll());
+    }
+
+    @Test
+    public void idleWorkerStealsSmallestUnitsFirst() throws Exception {
+        final List<RefactoringUnit> units= newRefactoringUnits(30, 10, 50, 20, 40);
+        final RefactoringUnitScheduler scheduler= new RefactoringUnitScheduler(units, 2, null);
+        final Queue<RefactoringUnit> worker0= scheduler.getQueue(0);
+        final Queue<RefactoringUnit> worker1= scheduler.getQueue(1);
+
+        // Worker 0 gets 50, 30 and 10, worker 1 gets 40 and 20
+        assertEquals(Arrays.asList(units.get(2), units.get(0), units.get(1), units.get(3), units.get(4)),
+                new ArrayList<>(worker0));
+        assertEquals(Arrays.asList(units.get(4), units.get(3), units.get(1), units.get(0), units.get(2)),
+                new ArrayList<>(worker1));
+        assertEquals(units.get(2), worker0.poll());
+        assertEquals(units.get(0), worker0.poll());
+        assertEquals(units.get(1), worker0.poll());
+        assertEquals(units.get(3), worker0.poll());
+        assertEquals(units.get(4), worker0.poll());
+        assertNull(worker1.poll());
+    }
+
+    @Test
+    public void batchesShrinkWhenUnitsRunLow() throws Exception {
+        final List<RefactoringUnit> units= newRefactoringUnits(20);
+        final RefactoringUnitScheduler scheduler= new RefactoringUnitScheduler(units, 2, null);
+        final RefactoringUnitScheduler.WorkerQueue worker0= scheduler.getQueue(0);
+
+        assertEquals(8, worker0.pollBatch(8).size());
+        assertEquals(6, worker0.pollBatch(8).size());
+        assertEquals(3, worker0.pollBatch(8).size());
+        assertEquals(1, worker0.pollBatch(8).size());
+        assertEquals(1, worker0.pollBatch(8).size());
+        assertEquals(1, worker0.pollBatch(8).size());
+        assertTrue(worker0.pollBatch(8).isEmpty());
+    }
+
+    @Test
+    public void reportsOnceAllUnitsAreDone() throws Exception {
+        final List<RefactoringUnit> units= newRefactoringUnits(3);
+        final List<String> reports= new ArrayList<>();
+        final RefactoringUnitScheduler scheduler= new RefactoringUnitScheduler(units, 2,
+                newProxy(Logger.class, new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        reports.add((String) args[0]);
+                        return null;
+                    }
+                }));
+        final RefactoringUnitScheduler.WorkerQueue worker0= scheduler.getQueue(0);
+        final RefactoringUnitScheduler.WorkerQueue worker1= scheduler.getQueue(1);
+
+        assertEquals(1, worker0.pollBatch(8).size());
+        assertEquals(1, worker1.pollBatch(8).size());
+        assertEquals(1, worker0.pollBatch(8).size());
+        assertTrue(worker0.isEmpty());
+        worker1.unitDone();
+        worker0.unitDone();
+        assertTrue(reports.isEmpty());
+
+        worker0.unitDone();
+        assertEquals(1, reports.size());
+        assertFalse(reports.get(0).isEmpty());
+    }
+
+    @Test
+    public void idleWorkerStealsRemainingUnits() throws Exception {
+        final List<RefactoringUnit> units= newRefactoringUnits(5);
+        final RefactoringUnitScheduler scheduler= new RefactoringUnitScheduler(units, 2, null);
+        final Queue<RefactoringUnit> worker0= scheduler.getQueue(0);
+        final Queue<RefactoringUnit> worker1= scheduler.getQueue(1);
+        assertEquals(5, worker0.size());
+        assertEquals(5, worker1.size());
+        assertEquals(5, new ArrayList<>(worker0).size());
+        assertEquals(5, new ArrayList<>(worker1).size());
+
+        final Set<RefactoringUnit> polled= new HashSet<>();
+        RefactoringUnit unit;
+        while ((unit= worker0.poll()) != null) {
+            assertTrue("Unit " + unit + " has been polled twice", polled.add(unit)); //$NON-NLS-1$ $NON-NLS-2$
+        }
+
+        assertEquals(new HashSet<>(units), polled);
+        assertTrue(worker1.isEmpty());
+        assertNull(worker1.poll());
+    }
+
+    @Test
+    public void workersShareAllUnits() throws Exception {
+        final List<RefactoringUnit> units= newRefactoringUnits(7);
+        final RefactoringUnitScheduler scheduler= new RefactoringUnitScheduler(units, 3, null);
+
+        final Set<RefactoringUnit> polled= new HashSet<>();
+        boolean hasPolled;
+        do {
+            hasPolled= false;
+            for (int i= 0; i < 3; i++) {
+                final RefactoringUnit unit= scheduler.getQueue(i).poll();
+                if (unit != null) {
+                    assertTrue("Unit " + unit + " has been polled twice", polled.add(unit)); //$NON-NLS-1$ $NON-NLS-2$
+                    hasPolled= true;
+                }
+            }
+        } while (hasPolled);
+
+        assertEquals(new HashSet<>(units), polled);
+    }
+
+    private List<RefactoringUnit> newRefactoringUnits(int nbUnits) throws IOException {
+        final int[] sourceLengths= new int[nbUnits];
+        for (int i= 0; i < nbUnits; i++) {
+            sourceLengths[i]= i + 1;
+        }
+        return newRefactoringUnits(sourceLengths);
+    }
+
+    private List<RefactoringUnit> newRefactoringUnits(int... sourceLengths) throws IOException {
+        final List<RefactoringUnit> units= new ArrayList<>(sourceLengths.length);
+        for (int i= 0; i < sourceLengths.length; i++) {
+            final File sourceFile= tmpFolder.newFile("Unit" + i + ".java"); //$NON-NLS-1$ $NON-NLS-2$
+            Files.write(sourceFile.toPath(), new byte[sourceLengths[i]]);
+            units.add(new RefactoringUnit(newCompilationUnit("Unit" + i, sourceFile), null)); //$NON-NLS-1$
+        }
+        return units;
+    }
+
+    private ICompilationUnit newCompilationUnit(final String name, final File sourceFile) {
+        final IResource resource= newProxy(IResource.class, new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if ("getLocation".equals(method.getName())) { //$NON-NLS-1$
+                    return Path.fromOSString(sourceFile.getAbsolutePath());
+                }
+                return null;
+            }
+        });
+        return newProxy(ICompilationUnit.class, new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if ("toString".equals(method.getName())) { //$NON-NLS-1$
+                    return name;
+                }
+                if ("getResource".equals(method.getName())) { //$NON-NLS-1$
+                    return resource;
+                }
+                if ("hashCode".equals(method.getName())) { //$NON-NLS-1$
+                    return System.identityHashCode(proxy);
+                }
+                if ("equals".equals(method.getName())) { //$NON-NLS-1$
+                    return proxy == args[0];
+                }
+                return null;
+            }
+        });
+    }
+
+    private <T> T newProxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { type }, handler));
+    }
+}
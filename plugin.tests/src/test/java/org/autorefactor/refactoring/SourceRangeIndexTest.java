@@ -0,0 +1,105 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2019 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.refactoring;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.autorefactor.jdt.internal.corext.dom.SourceLocation;
+import org.autorefactor.jdt.internal.corext.dom.SourceRangeIndex;
+import org.eclipse.text.edits.DeleteEdit;
+import org.eclipse.text.edits.InsertEdit;
+import org.eclipse.text.edits.MultiTextEdit;
+import org.eclipse.text.edits.ReplaceEdit;
+import org.eclipse.text.edits.TextEdit;
+import org.junit.Test;
+
+public class SourceRangeIndexTest {
+    @Test
+    public void overlapsTheEditTree() {
+        final MultiTextEdit edits= new MultiTextEdit();
+        final ReplaceEdit replaceEdit= new ReplaceEdit(10, 10, "x"); //$NON-NLS-1$
+        replaceEdit.addChild(new DeleteEdit(12, 2));
+        edits.addChild(replaceEdit);
+        edits.addChild(new InsertEdit(40, "y")); //$NON-NLS-1$
+        final SourceRangeIndex index= new SourceRangeIndex(edits);
+
+        assertFalse(index.overlaps(new DeleteEdit(0, 9)));
+        assertTrue(index.overlaps(new DeleteEdit(0, 10)));
+        assertTrue(index.overlaps(new InsertEdit(15, "z"))); //$NON-NLS-1$
+        assertTrue(index.overlaps(new InsertEdit(20, "z"))); //$NON-NLS-1$
+        assertFalse(index.overlaps(new DeleteEdit(21, 18)));
+        assertTrue(index.overlaps(new DeleteEdit(21, 19)));
+        assertTrue(index.overlaps(new InsertEdit(40, "z"))); //$NON-NLS-1$
+        assertFalse(index.overlaps(new InsertEdit(41, "z"))); //$NON-NLS-1$
+        assertTrue(index.overlapsAny(Arrays.<TextEdit>asList(new InsertEdit(41, "z"), new DeleteEdit(5, 5)))); //$NON-NLS-1$
+    }
+
+    @Test
+    public void contains() {
+        final SourceRangeIndex index= new SourceRangeIndex();
+        index.add(10, 5);
+        index.add(15, 5);
+        index.add(30, 10);
+
+        assertTrue(index.contains(10, 10));
+        assertTrue(index.contains(12, 3));
+        assertTrue(index.contains(30, 10));
+        assertFalse(index.contains(5, 10));
+        assertFalse(index.contains(20, 1));
+        assertFalse(index.contains(18, 13));
+        assertFalse(index.contains(40, 1));
+        assertFalse(index.contains(0, 1));
+    }
+
+    @Test
+    public void overlapsLikeSourceLocation() {
+        final Random random= new Random(42);
+        final SourceRangeIndex index= new SourceRangeIndex();
+        final List<SourceLocation> ranges= new ArrayList<>();
+
+        for (int i= 0; i < 500; i++) {
+            final DeleteEdit edit= new DeleteEdit(random.nextInt(1000), random.nextInt(10));
+            final SourceLocation range= new SourceLocation(edit.getOffset(), edit.getLength());
+            boolean overlaps= false;
+            for (SourceLocation existingRange : ranges) {
+                overlaps|= range.overlapsWith(existingRange);
+            }
+
+            assertEquals(range.toString(), overlaps, index.overlaps(edit));
+            if (random.nextBoolean()) {
+                index.add(edit);
+                ranges.add(range);
+            }
+        }
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2019 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.refactoring;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.autorefactor.jdt.internal.corext.dom.ASTNodes;
+import org.autorefactor.jdt.internal.corext.dom.ASTSemanticMatcher;
+import org.autorefactor.jdt.internal.corext.dom.StructuralFingerprints;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.Expression;
+import org.eclipse.jdt.core.dom.ExpressionStatement;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.Statement;
+import org.junit.Before;
+import org.junit.Test;
+
+public class StructuralFingerprintsTest {
+    private static final String SOURCE= "package sample;\n" //$NON-NLS-1$
+            + "class Sample {\n" //$NON-NLS-1$
+            + "    private static final int ONE= 1;\n" //$NON-NLS-1$
+            + "    int sample(int i, int j, boolean a, boolean b, String s) {\n" //$NON-NLS-1$
+            + "        i++;\n" //$NON-NLS-1$
+            + "        ++i;\n" //$NON-NLS-1$
+            + "        i = i + 1;\n" //$NON-NLS-1$
+            + "        i = 1 + i;\n" //$NON-NLS-1$
+            + "        i = i + ONE;\n" //$NON-NLS-1$
+            + "        i += 1;\n" //$NON-NLS-1$
+            + "        i--;\n" //$NON-NLS-1$
+            + "        i = i - 1;\n" //$NON-NLS-1$
+            + "        i = i * j;\n" //$NON-NLS-1$
+            + "        i *= j;\n" //$NON-NLS-1$
+            + "        i = (j + i);\n" //$NON-NLS-1$
+            + "        i = j + i;\n" //$NON-NLS-1$
+            + "        a = !(i < j);\n" //$NON-NLS-1$
+            + "        a = i >= j;\n" //$NON-NLS-1$
+            + "        a = j <= i;\n" //$NON-NLS-1$
+            + "        a = !!b;\n" //$NON-NLS-1$
+            + "        a = b;\n" //$NON-NLS-1$
+            + "        a = b && !true;\n" //$NON-NLS-1$
+            + "        a = false && b;\n" //$NON-NLS-1$
+            + "        a = !(!a || !b);\n" //$NON-NLS-1$
+            + "        a = a && b;\n" //$NON-NLS-1$
+            + "        s = a ? s : \"x\";\n" //$NON-NLS-1$
+            + "        s = !a ? \"x\" : s;\n" //$NON-NLS-1$
+            + "        s = s.trim() + \"y\";\n" //$NON-NLS-1$
+            + "        if (i < j) {\n" //$NON-NLS-1$
+            + "            s.trim();\n" //$NON-NLS-1$
+            + "        } else {\n" //$NON-NLS-1$
+            + "            s.length();\n" //$NON-NLS-1$
+            + "        }\n" //$NON-NLS-1$
+            + "        if (i >= j) {\n" //$NON-NLS-1$
+            + "            s.length();\n" //$NON-NLS-1$
+            + "        } else {\n" //$NON-NLS-1$
+            + "            s.trim();\n" //$NON-NLS-1$
+            + "        }\n" //$NON-NLS-1$
+            + "        if (i < j) s.trim(); else s.length();\n" //$NON-NLS-1$
+            + "        while (a) {\n" //$NON-NLS-1$
+            + "            i++;\n" //$NON-NLS-1$
+            + "        }\n" //$NON-NLS-1$
+            + "        while (a) i += 1;\n" //$NON-NLS-1$
+            + "        for (int k = 0; k < i; k++) {\n" //$NON-NLS-1$
+            + "            j = j * k;\n" //$NON-NLS-1$
+            + "            s = s + k;\n" //$NON-NLS-1$
+            + "        }\n" //$NON-NLS-1$
+            + "        for (int k = 0; i > k; ++k) {\n" //$NON-NLS-1$
+            + "            j *= k;\n" //$NON-NLS-1$
+            + "            s = s + k;\n" //$NON-NLS-1$
+            + "        }\n" //$NON-NLS-1$
+            + "        return i + j;\n" //$NON-NLS-1$
+            + "    }\n" //$NON-NLS-1$
+            + "}\n"; //$NON-NLS-1$
+
+    private static final List<String> INCREMENTS= Arrays.asList("i++;", "++i;", "i = i + 1;", "i = 1 + i;", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+            "i = i + ONE;", "i += 1;"); //$NON-NLS-1$ //$NON-NLS-2$
+
+    private CompilationUnit astRoot;
+    private final List<ASTNode> nodes= new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        final Map<String, String> options= new HashMap<>();
+        JavaCore.setComplianceOptions("1.8", options); //$NON-NLS-1$
+        final ASTParser parser= ASTParser.newParser(AST.JLS8);
+        parser.setCompilerOptions(options);
+        parser.setSource(SOURCE.toCharArray());
+        parser.setUnitName("Sample.java"); //$NON-NLS-1$
+        parser.setEnvironment(System.getProperty("java.class.path").split(File.pathSeparator), null, null, true); //$NON-NLS-1$
+        parser.setResolveBindings(true);
+        astRoot= (CompilationUnit) parser.createAST(null);
+        astRoot.accept(new ASTVisitor() {
+            @Override
+            public void preVisit(ASTNode node) {
+                if (node instanceof Statement || node instanceof Expression) {
+                    nodes.add(node);
+                }
+            }
+        });
+    }
+
+    @Test
+    public void attach() {
+        assertNull(StructuralFingerprints.get(astRoot));
+        final StructuralFingerprints structuralFingerprints= StructuralFingerprints.attach(astRoot);
+        assertSame(structuralFingerprints, StructuralFingerprints.get(nodes.get(nodes.size() - 1)));
+        assertNull(StructuralFingerprints.get(ASTNode.copySubtree(astRoot.getAST(), nodes.get(0))));
+    }
+
+    @Test
+    public void matchingNodesHaveSameFingerprint() {
+        final StructuralFingerprints structuralFingerprints= StructuralFingerprints.attach(astRoot);
+        int nbMatches= 0;
+        for (ASTNode node1 : nodes) {
+            for (ASTNode node2 : nodes) {
+                if (node1 != node2 && new ASTSemanticMatcher().safeSubtreeMatch(node1, node2)) {
+                    assertEquals(node1 + " / " + node2, structuralFingerprints.getFingerprint(node1), //$NON-NLS-1$
+                            structuralFingerprints.getFingerprint(node2));
+                    nbMatches++;
+                }
+            }
+        }
+        assertTrue(nbMatches > 20);
+    }
+
+    @Test
+    public void matchLikeWithoutFingerprints() {
+        final List<Boolean> expected= new ArrayList<>();
+        for (ASTNode node1 : nodes) {
+            for (ASTNode node2 : nodes) {
+                expected.add(ASTNodes.match(new ASTSemanticMatcher(), node1, node2));
+            }
+        }
+
+        final StructuralFingerprints structuralFingerprints= StructuralFingerprints.attach(astRoot);
+        int i= 0;
+        for (ASTNode node1 : nodes) {
+            for (ASTNode node2 : nodes) {
+                assertEquals(node1 + " / " + node2, expected.get(i++), //$NON-NLS-1$
+                        ASTNodes.match(new ASTSemanticMatcher(), node1, node2));
+            }
+        }
+        assertTrue(structuralFingerprints.getNbRejections() > nodes.size());
+    }
+
+    @Test
+    public void incrementsHaveSameFingerprint() {
+        final StructuralFingerprints structuralFingerprints= StructuralFingerprints.attach(astRoot);
+        final List<Statement> increments= new ArrayList<>();
+        for (ASTNode node : nodes) {
+            if (node instanceof ExpressionStatement && node.getParent().getParent() instanceof MethodDeclaration
+                    && INCREMENTS.contains(SOURCE.substring(node.getStartPosition(), node.getStartPosition() + node.getLength()))) {
+                increments.add((Statement) node);
+            }
+        }
+        assertEquals(INCREMENTS.size(), increments.size());
+        for (Statement increment : increments) {
+            assertEquals(increment.toString(), structuralFingerprints.getFingerprint(increments.get(0)),
+                    structuralFingerprints.getFingerprint(increment));
+        }
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2019 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.refactoring;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.autorefactor.jdt.internal.corext.dom.ASTNodes;
+import org.autorefactor.jdt.internal.corext.dom.SymbolIndex;
+import org.autorefactor.jdt.internal.corext.dom.VarOccurrenceVisitor;
+import org.autorefactor.jdt.internal.ui.fix.VariableDefinitionsUsesVisitor;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jdt.core.dom.SingleVariableDeclaration;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SymbolIndexTest {
+    private static final String SOURCE= "package sample;\n" //$NON-NLS-1$
+            + "import static java.util.Collections.emptyList;\n" //$NON-NLS-1$
+            + "import java.util.List;\n" //$NON-NLS-1$
+            + "import java.util.concurrent.*;\n" //$NON-NLS-1$
+            + "class Sample {\n" //$NON-NLS-1$
+            + "    int field;\n" //$NON-NLS-1$
+            + "    int sample(List<String> list, int i) {\n" //$NON-NLS-1$
+            + "        int sum= 0;\n" //$NON-NLS-1$
+            + "        for (String s : list) {\n" //$NON-NLS-1$
+            + "            int length= s.length();\n" //$NON-NLS-1$
+            + "            sum+= length;\n" //$NON-NLS-1$
+            + "            if (length > i) {\n" //$NON-NLS-1$
+            + "                int j= length - i;\n" //$NON-NLS-1$
+            + "                i= j;\n" //$NON-NLS-1$
+            + "            }\n" //$NON-NLS-1$
+            + "        }\n" //$NON-NLS-1$
+            + "        Runnable r= new Runnable() {\n" //$NON-NLS-1$
+            + "            int other;\n" //$NON-NLS-1$
+            + "            public void run() {\n" //$NON-NLS-1$
+            + "                int sum= field;\n" //$NON-NLS-1$
+            + "                other= sum;\n" //$NON-NLS-1$
+            + "            }\n" //$NON-NLS-1$
+            + "        };\n" //$NON-NLS-1$
+            + "        java.util.function.IntUnaryOperator op= x -> { int y= x + sum; return y; };\n" //$NON-NLS-1$
+            + "        try { sum++; } catch (RuntimeException e) { sum--; }\n" //$NON-NLS-1$
+            + "        return sum + field;\n" //$NON-NLS-1$
+            + "    }\n" //$NON-NLS-1$
+            + "}\n"; //$NON-NLS-1$
+
+    private CompilationUnit astRoot;
+    private final List<ASTNode> nodes= new ArrayList<>();
+    private final Set<IVariableBinding> localVariables= new LinkedHashSet<>();
+    private final Set<String> identifiers= new LinkedHashSet<>();
+
+    @Before
+    public void setUp() {
+        final Map<String, String> options= new HashMap<>();
+        JavaCore.setComplianceOptions("1.8", options); //$NON-NLS-1$
+        final ASTParser parser= ASTParser.newParser(AST.JLS8);
+        parser.setCompilerOptions(options);
+        parser.setSource(SOURCE.toCharArray());
+        parser.setUnitName("Sample.java"); //$NON-NLS-1$
+        parser.setEnvironment(System.getProperty("java.class.path").split(File.pathSeparator), null, null, true); //$NON-NLS-1$
+        parser.setResolveBindings(true);
+        astRoot= (CompilationUnit) parser.createAST(null);
+        astRoot.accept(new ASTVisitor() {
+            @Override
+            public void preVisit(ASTNode node) {
+                nodes.add(node);
+            }
+
+            @Override
+            public boolean visit(SingleVariableDeclaration node) {
+                localVariables.add(node.resolveBinding());
+                return true;
+            }
+
+            @Override
+            public boolean visit(VariableDeclarationFragment node) {
+                if (ASTNodes.isLocalVariable(node.resolveBinding())) {
+                    localVariables.add(node.resolveBinding());
+                }
+                return true;
+            }
+
+            @Override
+            public boolean visit(SimpleName node) {
+                identifiers.add(node.getIdentifier());
+                return true;
+            }
+        });
+    }
+
+    @Test
+    public void attach() {
+        assertNull(SymbolIndex.get(astRoot));
+        final SymbolIndex index= SymbolIndex.attach(astRoot);
+        assertSame(index, SymbolIndex.get(nodes.get(nodes.size() - 1)));
+        assertNull(SymbolIndex.get(ASTNode.copySubtree(astRoot.getAST(), nodes.get(nodes.size() - 1))));
+    }
+
+    @Test
+    public void localVariableIdentifiersLikeVisitor() {
+        final Map<ASTNode, Set<String>> expected= new HashMap<>();
+        final Map<ASTNode, Set<String>> expectedInCurrentScope= new HashMap<>();
+        for (ASTNode node : nodes) {
+            expected.put(node, ASTNodes.getLocalVariableIdentifiers(node, true));
+            expectedInCurrentScope.put(node, ASTNodes.getLocalVariableIdentifiers(node, false));
+        }
+
+        SymbolIndex.attach(astRoot);
+        for (ASTNode node : nodes) {
+            assertEquals(node.toString(), expected.get(node), ASTNodes.getLocalVariableIdentifiers(node, true));
+            assertEquals(node.toString(), expectedInCurrentScope.get(node),
+                    ASTNodes.getLocalVariableIdentifiers(node, false));
+        }
+    }
+
+    @Test
+    public void definitionsAndUsesLikeVisitor() {
+        final List<List<SimpleName>> expected= new ArrayList<>();
+        for (IVariableBinding variable : localVariables) {
+            for (ASTNode node : nodes) {
+                for (boolean includeInnerScopes : new boolean[] { true, false }) {
+                    final VariableDefinitionsUsesVisitor visitor= new VariableDefinitionsUsesVisitor(variable, node,
+                            includeInnerScopes).find();
+                    expected.add(visitor.getDefinitions());
+                    expected.add(visitor.getUses());
+                }
+            }
+        }
+
+        SymbolIndex.attach(astRoot);
+        int i= 0;
+        for (IVariableBinding variable : localVariables) {
+            for (ASTNode node : nodes) {
+                for (boolean includeInnerScopes : new boolean[] { true, false }) {
+                    final VariableDefinitionsUsesVisitor visitor= new VariableDefinitionsUsesVisitor(variable, node,
+                            includeInnerScopes).find();
+                    assertEquals(variable.getName() + " in " + node, expected.get(i++), visitor.getDefinitions()); //$NON-NLS-1$
+                    assertEquals(variable.getName() + " in " + node, expected.get(i++), visitor.getUses()); //$NON-NLS-1$
+                }
+            }
+        }
+    }
+
+    @Test
+    public void occurrencesLikeVisitor() {
+        final List<Boolean> expected= new ArrayList<>();
+        for (String identifier : identifiers) {
+            for (ASTNode node : nodes) {
+                expected.add(isVarUsed(Collections.singleton(identifier), node));
+            }
+        }
+
+        SymbolIndex.attach(astRoot);
+        int i= 0;
+        for (String identifier : identifiers) {
+            for (ASTNode node : nodes) {
+                assertEquals(identifier + " in " + node, expected.get(i++), //$NON-NLS-1$
+                        isVarUsed(Collections.singleton(identifier), node));
+            }
+        }
+    }
+
+    @Test
+    public void variableNames() {
+        final SymbolIndex index= SymbolIndex.attach(astRoot);
+
+        assertEquals(Collections.emptyList(), index.getVariableNames(astRoot));
+        final MethodDeclaration method= ((TypeDeclaration) astRoot.types().get(0)).getMethods()[0];
+        assertEquals(Arrays.asList("list", "i", "sum", "s", "list", "length", "s", "sum", "length", "length", "i", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$ //$NON-NLS-9$ //$NON-NLS-10$ //$NON-NLS-11$
+                "j", "length", "i", "i", "j", "r", "op", "x", "y", "x", "sum", "y", "sum", "e", "sum", "sum", "field"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$ //$NON-NLS-9$ //$NON-NLS-10$ //$NON-NLS-11$ //$NON-NLS-12$ //$NON-NLS-13$ //$NON-NLS-14$ //$NON-NLS-15$ //$NON-NLS-16$
+                index.getVariableNames(method));
+    }
+
+    @Test
+    public void imports() {
+        final SymbolIndex index= SymbolIndex.attach(astRoot);
+
+        assertTrue(index.isImported("java.util.List")); //$NON-NLS-1$
+        assertTrue(index.isImported("java.util.concurrent.Callable")); //$NON-NLS-1$
+        assertFalse(index.isImported("java.util.Collections")); //$NON-NLS-1$
+        assertFalse(index.isImported("java.util.Map")); //$NON-NLS-1$
+        assertTrue(index.isSimpleNameImported("List")); //$NON-NLS-1$
+        assertFalse(index.isSimpleNameImported("Callable")); //$NON-NLS-1$
+    }
+
+    @Test
+    public void typeNames() {
+        final SymbolIndex index= SymbolIndex.attach(astRoot);
+
+        assertTrue(index.isTypeName("Sample")); //$NON-NLS-1$
+        assertTrue(index.isTypeName("String")); //$NON-NLS-1$
+        assertTrue(index.isTypeName("Runnable")); //$NON-NLS-1$
+        assertFalse(index.isTypeName("IntUnaryOperator")); //$NON-NLS-1$
+        assertFalse(index.isTypeName("sum")); //$NON-NLS-1$
+    }
+
+    private boolean isVarUsed(Set<String> localVarIds, ASTNode node) {
+        final VarOccurrenceVisitor visitor= new VarOccurrenceVisitor(localVarIds);
+        visitor.visitNode(node);
+        return visitor.isVarUsed();
+    }
+}
@@ -32,6 +32,7 @@ import org.autorefactor.environment.JobManager;
 import org.autorefactor.environment.Logger;
 import org.autorefactor.preferences.PreferenceConstants;
 import org.autorefactor.ui.DisplayEventLoop;
+import org.autorefactor.ui.SaveActionRuleCache;
 import org.autorefactor.ui.preferences.EclipsePreferences;
 import org.autorefactor.util.UnhandledException;
 import org.eclipse.core.runtime.ILog;
@@ -50,6 +51,7 @@ public class AutoRefactorPlugin extends AbstractUIPlugin {
     /** The shared instance. */
     private static AutoRefactorPlugin plugin;
     private static Environment environment;
+    private static SaveActionRuleCache saveActionRuleCache;
 
     @Override
     public void start(final BundleContext context) throws Exception {
@@ -57,10 +59,14 @@ public class AutoRefactorPlugin extends AbstractUIPlugin {
         plugin= this;
         environment= new Environment(new DisplayEventLoop(), new JobManagerImpl(), new LoggerImpl(),
                 new EclipsePreferences(plugin.getPreferenceStore()));
+        saveActionRuleCache= new SaveActionRuleCache();
+        plugin.getPreferenceStore().addPropertyChangeListener(saveActionRuleCache);
     }
 
     @Override
     public void stop(final BundleContext context) throws Exception {
+        getPreferenceStore().removePropertyChangeListener(saveActionRuleCache);
+        saveActionRuleCache= null;
         plugin= null;
         ((JobManagerImpl) environment.getJobManager()).cancelJobs();
         environment= null;
@@ -80,6 +86,16 @@ public class AutoRefactorPlugin extends AbstractUIPlugin {
             log.log(new Status(severity, PLUGIN_ID, message, e));
         }
 
+        /**
+         * Log an informational message. It is never turned into an exception,
+         * even in debug mode.
+         *
+         * @param message the message
+         */
+        public void info(String message) {
+            getDefault().getLog().log(new Status(IStatus.INFO, PLUGIN_ID, message));
+        }
+
         /**
          * Log a warning message.
          *
@@ -141,6 +157,15 @@ public class AutoRefactorPlugin extends AbstractUIPlugin {
         return environment;
     }
 
+    /**
+     * Returns the cleanup rules of the save action.
+     *
+     * @return the cleanup rules of the save action
+     */
+    public static SaveActionRuleCache getSaveActionRuleCache() {
+        return saveActionRuleCache;
+    }
+
     /**
      * Turns on the debug mode.
      * <p>
@@ -27,6 +27,8 @@ package org.autorefactor.ui;
 
 import java.util.HashMap;
 
+import org.autorefactor.AutoRefactorPlugin;
+import org.autorefactor.preferences.Preferences;
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -80,6 +82,11 @@ public class AutoRefactorCleanUp implements ICleanUp {
      */
     public String[] getStepDescriptions() {
         if (fOptions.isEnabled(KEY)) {
+            final Preferences preferences= AutoRefactorPlugin.getEnvironment().getPreferences();
+
+            if (preferences != null && preferences.saveActionTimeBudget() > 0) {
+                return new String[] { "AutoRefactor (passes within " + preferences.saveActionTimeBudget() + " ms)" }; //$NON-NLS-1$ //$NON-NLS-2$
+            }
             return new String[] { "AutoRefactor (only 1 pass)" }; //$NON-NLS-1$
         } else {
             return new String[0];
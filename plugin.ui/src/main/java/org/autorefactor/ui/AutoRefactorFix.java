@@ -42,6 +42,9 @@ import org.autorefactor.jdt.internal.corext.dom.RefactoringRule;
 import org.autorefactor.jdt.internal.corext.dom.RefactoringUnit;
 import org.autorefactor.jdt.internal.ui.fix.AggregateASTVisitor;
 import org.autorefactor.jdt.internal.ui.fix.AllCleanUpRules;
+import org.autorefactor.jdt.internal.ui.fix.RuleProfile;
+import org.autorefactor.jdt.internal.ui.fix.RuleRanking;
+import org.autorefactor.ui.SaveActionRuleCache.RuleSet;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.SubMonitor;
@@ -57,6 +60,11 @@ import org.eclipse.text.edits.TextEdit;
 /** AutoRefactorFix. */
 @SuppressWarnings("restriction")
 public class AutoRefactorFix implements ICleanUpFix {
+    private static final int NB_REPORTED_RULES= 10;
+
+    /** The statistics of the rules over the previous save actions, to select the ones fitting the time budget. */
+    private static final RuleRanking RULE_RANKING= new RuleRanking();
+
     private CleanUpChange cleanUpChange;
 
     /**
@@ -79,30 +87,59 @@ public class AutoRefactorFix implements ICleanUpFix {
             final JavaProjectOptions options= new JavaProjectOptionsImpl(javaProject.getOptions(true));
 
             final Environment environment= getEnvironment();
-            final List<RefactoringRule> refactoringRules= getConfiguredRefactoringRules(fOptions);
+            final long budgetNanos= getTimeBudget(environment) * 1000000L;
+            final SaveActionRuleCache ruleCache= AutoRefactorPlugin.getSaveActionRuleCache();
+            final RuleSet ruleSet= ruleCache.acquire();
+            final List<RefactoringRule> refactoringRules= ruleSet.getRules();
+            final List<RefactoringRule> selectedRules= budgetNanos > 0
+                    ? RULE_RANKING.rank(refactoringRules, budgetNanos, environment.getLogger())
+                    : refactoringRules;
             final SubMonitor loopMonitor= SubMonitor.convert(null, 1);
             final Queue<RefactoringUnit> refactoringUnits= new ConcurrentLinkedQueue<>();
             refactoringUnits.add(new RefactoringUnit(iCompilationUnit, options));
 
             final ApplyRefactoringsJob applyRefactoringsJob= new ApplyRefactoringsJob(refactoringUnits,
                     refactoringRules, environment);
-            final AggregateASTVisitor visitor= new AggregateASTVisitor(refactoringRules);
+            final AggregateASTVisitor visitor= new AggregateASTVisitor(refactoringRules, ruleSet.getDispatchTables());
+            // The dispatch tables of all the rules are kept from one save to the next one
+            visitor.setSelectedVisitors(selectedRules);
+            // The ranking needs the profile of every multi-pass run
+            final RuleProfile profile= budgetNanos > 0 || isProfilingOn(environment)
+                    ? new RuleProfile(refactoringRules)
+                    : null;
+            visitor.setProfile(profile);
+            final long start= System.nanoTime();
             try {
-                List<TextEdit> textEdits= applyRefactoringsJob.applyRefactoring(iCompilationUnit, visitor, options,
-                        loopMonitor, false);
-
-                for (TextEdit textEdit : textEdits) {
-                    if (hasChanges) {
-                        allEdits= TextEditUtil.merge(allEdits, textEdit);
-                    } else {
-                        hasChanges= true;
-                        allEdits= textEdit;
+                // The AST of the save action already has its bindings: do not parse it again
+                if (budgetNanos > 0) {
+                    allEdits= applyRefactoringsJob.applyRefactoringInMemory(iCompilationUnit, compilationUnit,
+                            visitor, options, loopMonitor, start + budgetNanos);
+                    hasChanges= allEdits != null;
+                } else {
+                    List<TextEdit> textEdits= applyRefactoringsJob.applyRefactoring(iCompilationUnit,
+                            compilationUnit, visitor, options, loopMonitor, false);
+
+                    for (TextEdit textEdit : textEdits) {
+                        if (hasChanges) {
+                            allEdits= TextEditUtil.merge(allEdits, textEdit);
+                        } else {
+                            hasChanges= true;
+                            allEdits= textEdit;
+                        }
                     }
                 }
             } catch (Exception e) {
                 if (!hasChanges) {
                     return null;
                 }
+            } finally {
+                ruleCache.release(ruleSet);
+                if (budgetNanos > 0) {
+                    RULE_RANKING.record(refactoringRules, selectedRules, profile);
+                }
+                if (profile != null && isProfilingOn(environment)) {
+                    reportProfile(environment, iCompilationUnit, profile, System.nanoTime() - start);
+                }
             }
         }
 
@@ -116,6 +153,20 @@ public class AutoRefactorFix implements ICleanUpFix {
         return autoRefactorFix;
     }
 
+    private static int getTimeBudget(final Environment environment) {
+        return environment.getPreferences() != null ? environment.getPreferences().saveActionTimeBudget() : 0;
+    }
+
+    private static boolean isProfilingOn(final Environment environment) {
+        return environment.getPreferences() != null && environment.getPreferences().profilingOn();
+    }
+
+    private static void reportProfile(final Environment environment, final ICompilationUnit compilationUnit,
+            final RuleProfile profile, final long nanos) {
+        environment.getLogger().info("Save action on " + compilationUnit.getElementName() + " took " //$NON-NLS-1$ //$NON-NLS-2$
+                + nanos / 1000000 + " ms\n" + profile.getSlowestRulesReport(NB_REPORTED_RULES)); //$NON-NLS-1$
+    }
+
     /**
      * Returns the cleanup rules which have been enabled from the Eclipse
      * preferences.
@@ -125,6 +176,17 @@ public class AutoRefactorFix implements ICleanUpFix {
      *         preferences
      */
     public static List<RefactoringRule> getConfiguredRefactoringRules(final CleanUpOptions options) {
+        return getConfiguredRefactoringRules();
+    }
+
+    /**
+     * Returns new instances of the cleanup rules which have been enabled from the
+     * Eclipse preferences.
+     *
+     * @return the cleanup rules which have been enabled from the Eclipse
+     *         preferences
+     */
+    static List<RefactoringRule> getConfiguredRefactoringRules() {
         final List<RefactoringRule> refactorings= AllCleanUpRules.getAllCleanUpRules();
         for (final Iterator<RefactoringRule> iter= refactorings.iterator(); iter.hasNext();) {
             final RefactoringRule refactoring= iter.next();
@@ -0,0 +1,122 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2019 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.ui;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.autorefactor.jdt.internal.corext.dom.RefactoringRule;
+import org.autorefactor.jdt.internal.ui.fix.AggregateASTVisitor.DispatchTables;
+import org.eclipse.jface.util.IPropertyChangeListener;
+import org.eclipse.jface.util.PropertyChangeEvent;
+
+/**
+ * Keeps the cleanup rules enabled for the save action, already instantiated
+ * and analyzed, from one save to the next one.
+ * <p>
+ * The rules are read from the preferences again only after a preference has
+ * changed. The rules are stateful, so a rule set is only used by one save
+ * action at a time: a concurrent save action builds its own rule set.
+ */
+public final class SaveActionRuleCache implements IPropertyChangeListener {
+    /** The enabled rules for a given state of the preferences. */
+    public static final class RuleSet {
+        private final int preferencesVersion;
+        private final List<RefactoringRule> rules;
+        private DispatchTables dispatchTables;
+
+        private RuleSet(int preferencesVersion, List<RefactoringRule> rules) {
+            this.preferencesVersion= preferencesVersion;
+            this.rules= rules;
+        }
+
+        /**
+         * Returns the enabled rules. The list must not be modified.
+         *
+         * @return the enabled rules
+         */
+        public List<RefactoringRule> getRules() {
+            return rules;
+        }
+
+        /**
+         * Returns the dispatch tables of {@link #getRules()}, analyzed on the
+         * first call only.
+         *
+         * @return the dispatch tables of the enabled rules
+         */
+        public DispatchTables getDispatchTables() {
+            if (dispatchTables == null) {
+                dispatchTables= new DispatchTables(rules);
+            }
+            return dispatchTables;
+        }
+    }
+
+    private final AtomicInteger preferencesVersion= new AtomicInteger();
+    /** The rule set not currently used by a save action, if any. */
+    private final AtomicReference<RuleSet> availableRuleSet= new AtomicReference<>();
+
+    /**
+     * Returns a rule set matching the current preferences for the exclusive use
+     * of the caller, until it calls {@link #release(RuleSet)}.
+     *
+     * @return a rule set matching the current preferences
+     */
+    public RuleSet acquire() {
+        final int version= preferencesVersion.get();
+        final RuleSet ruleSet= availableRuleSet.getAndSet(null);
+
+        if (ruleSet != null && ruleSet.preferencesVersion == version) {
+            return ruleSet;
+        }
+        return new RuleSet(version, AutoRefactorFix.getConfiguredRefactoringRules());
+    }
+
+    /**
+     * Gives back a rule set returned by {@link #acquire()}, so the next save
+     * action reuses it.
+     *
+     * @param ruleSet the rule set
+     */
+    public void release(RuleSet ruleSet) {
+        if (ruleSet.preferencesVersion == preferencesVersion.get()) {
+            availableRuleSet.set(ruleSet);
+        }
+    }
+
+    /**
+     * Drops the cached rules, they are read from the preferences again on the
+     * next save action.
+     *
+     * @param event the preference change
+     */
+    public void propertyChange(PropertyChangeEvent event) {
+        preferencesVersion.incrementAndGet();
+        availableRuleSet.set(null);
+    }
+}
@@ -26,6 +26,11 @@
 package org.autorefactor.ui.preferences;
 
 import static org.autorefactor.preferences.PreferenceConstants.DEBUG_MODE_ON;
+import static org.autorefactor.preferences.PreferenceConstants.DISJOINT_REFACTORINGS_ON;
+import static org.autorefactor.preferences.PreferenceConstants.INCREMENTAL_PARSING_ON;
+import static org.autorefactor.preferences.PreferenceConstants.PROFILING_ON;
+import static org.autorefactor.preferences.PreferenceConstants.RESULT_CACHE_ON;
+import static org.autorefactor.preferences.PreferenceConstants.SAVE_ACTION_TIME_BUDGET;
 
 import org.autorefactor.jdt.internal.ui.fix.AbstractCleanUpRule;
 import org.autorefactor.preferences.PreferenceConstants;
@@ -58,6 +63,51 @@ public class EclipsePreferences implements Preferences {
         return getBoolean(DEBUG_MODE_ON);
     }
 
+    /**
+     * True if the disjoint refactorings are on.
+     *
+     * @return True if the disjoint refactorings are on.
+     */
+    public boolean disjointRefactoringsOn() {
+        return getBoolean(DISJOINT_REFACTORINGS_ON);
+    }
+
+    /**
+     * True if incremental parsing is on.
+     *
+     * @return True if incremental parsing is on.
+     */
+    public boolean incrementalParsingOn() {
+        return getBoolean(INCREMENTAL_PARSING_ON);
+    }
+
+    /**
+     * True if profiling is on.
+     *
+     * @return True if profiling is on.
+     */
+    public boolean profilingOn() {
+        return getBoolean(PROFILING_ON);
+    }
+
+    /**
+     * True if the result cache is on.
+     *
+     * @return True if the result cache is on.
+     */
+    public boolean resultCacheOn() {
+        return getBoolean(RESULT_CACHE_ON);
+    }
+
+    /**
+     * The time budget of the save action.
+     *
+     * @return The time budget of the save action in milliseconds.
+     */
+    public int saveActionTimeBudget() {
+        return preferenceStore.getInt(SAVE_ACTION_TIME_BUDGET.getName());
+    }
+
     /**
      * True if it is enabled.
      *
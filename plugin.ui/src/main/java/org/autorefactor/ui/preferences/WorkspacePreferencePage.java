@@ -27,6 +27,11 @@
 package org.autorefactor.ui.preferences;
 
 import static org.autorefactor.preferences.PreferenceConstants.DEBUG_MODE_ON;
+import static org.autorefactor.preferences.PreferenceConstants.DISJOINT_REFACTORINGS_ON;
+import static org.autorefactor.preferences.PreferenceConstants.INCREMENTAL_PARSING_ON;
+import static org.autorefactor.preferences.PreferenceConstants.PROFILING_ON;
+import static org.autorefactor.preferences.PreferenceConstants.RESULT_CACHE_ON;
+import static org.autorefactor.preferences.PreferenceConstants.SAVE_ACTION_TIME_BUDGET;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -38,6 +43,7 @@ import org.autorefactor.jdt.internal.corext.dom.RefactoringRule;
 import org.autorefactor.jdt.internal.ui.fix.AllCleanUpRules;
 import org.eclipse.jface.preference.BooleanFieldEditor;
 import org.eclipse.jface.preference.FieldEditor;
+import org.eclipse.jface.preference.IntegerFieldEditor;
 import org.eclipse.jface.preference.PreferencePage;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.events.SelectionAdapter;
@@ -164,9 +170,18 @@ public class WorkspacePreferencePage extends PreferencePage implements IWorkbenc
      * @param allRefactoringRules allCleanupRules
      */
     protected void initFields(final List<RefactoringRule> allRefactoringRules) {
-        fields= new ArrayList<FieldEditor>(1 + allRefactoringRules.size());
+        fields= new ArrayList<FieldEditor>(6 + allRefactoringRules.size());
 
         fields.add(new BooleanFieldEditor(DEBUG_MODE_ON.getName(), DEBUG_MODE_ON.getDescription(), fieldEditorParent));
+        fields.add(new BooleanFieldEditor(INCREMENTAL_PARSING_ON.getName(), INCREMENTAL_PARSING_ON.getDescription(),
+                fieldEditorParent));
+        fields.add(new BooleanFieldEditor(DISJOINT_REFACTORINGS_ON.getName(), DISJOINT_REFACTORINGS_ON.getDescription(),
+                fieldEditorParent));
+        fields.add(new BooleanFieldEditor(PROFILING_ON.getName(), PROFILING_ON.getDescription(), fieldEditorParent));
+        fields.add(new BooleanFieldEditor(RESULT_CACHE_ON.getName(), RESULT_CACHE_ON.getDescription(),
+                fieldEditorParent));
+        fields.add(new IntegerFieldEditor(SAVE_ACTION_TIME_BUDGET.getName(), SAVE_ACTION_TIME_BUDGET.getDescription(),
+                fieldEditorParent));
     }
 
     private void invalidateToggleRules(final Composite ruleGroup) {
@@ -25,12 +25,14 @@
  */
 package org.autorefactor.cfg;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedList;
+import java.util.List;
 import java.util.Objects;
 
 import org.autorefactor.util.IllegalArgumentException;
 import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.Expression;
 
 /**
  * Control Flow Graph Basic Block. Basic blocks here are a little different from
@@ -38,6 +40,9 @@ import org.eclipse.jdt.core.dom.ASTNode;
  * Here, things like for statement initializers, if conditions, while conditions
  * all receive their own basic block in order to be able to link variable uses
  * to one basic block. It also mixes in lexical scoping.
+ * <p>
+ * Blocks are linked while the CFG is built, then {@link ControlFlowGraph}
+ * gives an index based view of them for the analyses.
  *
  * @see <a href="http://en.wikipedia.org/wiki/Control_flow_graph">Control flow
  *      graph on wikipedia</a>
@@ -47,7 +52,10 @@ import org.eclipse.jdt.core.dom.ASTNode;
 public class CFGBasicBlock implements Comparable<CFGBasicBlock> {
     private final ASTNode node;
     private final String fileName;
-    private final String codeExcerpt;
+    /** Computed on demand from the node or the expressions when null. */
+    private String codeExcerpt;
+    /** The expressions represented by this block when there are several of them. */
+    private final List<Expression> excerptExpressions;
     private final boolean isDecision;
     /**
      * true means entry block, false means exit block, null means neither entry nor
@@ -55,12 +63,13 @@ public class CFGBasicBlock implements Comparable<CFGBasicBlock> {
      */
     private final Boolean isEntryBlock;
     private final LineAndColumn lineAndColumn;
-    private final Collection<CFGEdge> incomingEdges= new LinkedList<>();
-    private final Collection<Object> outgoingEdgesAndVariableAccesses= new LinkedList<>();
+    private final Collection<CFGEdge> incomingEdges= new ArrayList<>(2);
+    private final Collection<Object> outgoingEdgesAndVariableAccesses= new ArrayList<>(4);
 
-    private CFGBasicBlock(ASTNode node, String fileName, String codeExcerpt, boolean isDecision, Boolean isEntryBlock,
-            LineAndColumn lineAndColumn) {
+    private CFGBasicBlock(ASTNode node, List<Expression> excerptExpressions, String fileName, String codeExcerpt,
+            boolean isDecision, Boolean isEntryBlock, LineAndColumn lineAndColumn) {
         this.node= node;
+        this.excerptExpressions= excerptExpressions;
         this.fileName= fileName;
         this.codeExcerpt= codeExcerpt;
         this.isDecision= isDecision;
@@ -79,7 +88,32 @@ public class CFGBasicBlock implements Comparable<CFGBasicBlock> {
      */
     public CFGBasicBlock(ASTNode node, String fileName, String codeExcerpt, boolean isDecision,
             LineAndColumn lineAndColumn) {
-        this(node, fileName, codeExcerpt, isDecision, null, lineAndColumn);
+        this(node, null, fileName, codeExcerpt, isDecision, null, lineAndColumn);
+    }
+
+    /**
+     * Constructor for a new block whose code excerpt is only computed when
+     * needed.
+     *
+     * @param node          the AST node that led to the creation of this block
+     * @param fileName      the file name where this block is coming from
+     * @param isDecision    whether this block is a decision block
+     * @param lineAndColumn the line and column information for this block
+     */
+    CFGBasicBlock(ASTNode node, String fileName, boolean isDecision, LineAndColumn lineAndColumn) {
+        this(node, null, fileName, null, isDecision, null, lineAndColumn);
+    }
+
+    /**
+     * Constructor for a new block of several expressions whose code excerpt is
+     * only computed when needed.
+     *
+     * @param expressions   the expressions that led to the creation of this block
+     * @param fileName      the file name where this block is coming from
+     * @param lineAndColumn the line and column information for this block
+     */
+    CFGBasicBlock(List<Expression> expressions, String fileName, LineAndColumn lineAndColumn) {
+        this(expressions.get(0), expressions, fileName, null, false, null, lineAndColumn);
     }
 
     /**
@@ -87,11 +121,12 @@ public class CFGBasicBlock implements Comparable<CFGBasicBlock> {
      *
      * @param node        the AST node that led to the creation of this entry block
      * @param fileName    the file name where this entry block is coming from
-     * @param codeExcerpt a code excerpt to display for this block
+     * @param codeExcerpt a code excerpt to display for this block, null to compute
+     *                    it from the node when needed
      * @return a new entry block
      */
     public static CFGBasicBlock buildEntryBlock(ASTNode node, String fileName, String codeExcerpt) {
-        return new CFGBasicBlock(node, fileName, codeExcerpt, false, true, new LineAndColumn(0, 1, 1));
+        return new CFGBasicBlock(node, null, fileName, codeExcerpt, false, true, new LineAndColumn(0, 1, 1));
     }
 
     /**
@@ -99,13 +134,14 @@ public class CFGBasicBlock implements Comparable<CFGBasicBlock> {
      *
      * @param node          the AST node that led to the creation of this exit block
      * @param fileName      the file name where this exit block is coming from
-     * @param codeExcerpt   a code excerpt to display for this block
+     * @param codeExcerpt   a code excerpt to display for this block, null to
+     *                      compute it from the node when needed
      * @param lineAndColumn the line and column information for this exit block
      * @return a new exit block
      */
     public static CFGBasicBlock buildExitBlock(ASTNode node, String fileName, String codeExcerpt,
             LineAndColumn lineAndColumn) {
-        return new CFGBasicBlock(node, fileName, codeExcerpt, false, false, lineAndColumn);
+        return new CFGBasicBlock(node, null, fileName, codeExcerpt, false, false, lineAndColumn);
     }
 
     /**
@@ -248,6 +284,10 @@ public class CFGBasicBlock implements Comparable<CFGBasicBlock> {
      * @return a code excerpt for this basic block
      */
     public String getCodeExcerpt() {
+        if (codeExcerpt == null && node != null) {
+            codeExcerpt= excerptExpressions != null ? ASTPrintHelper.codeExcerpt(excerptExpressions)
+                    : ASTPrintHelper.codeExcerpt(node);
+        }
         return codeExcerpt;
     }
 
@@ -289,7 +329,7 @@ public class CFGBasicBlock implements Comparable<CFGBasicBlock> {
      * @return the provided string builder
      */
     StringBuilder appendDotNodeLabel(StringBuilder sb) {
-        sb.append(this.codeExcerpt).append("\\n("); //$NON-NLS-1$
+        sb.append(getCodeExcerpt()).append("\\n("); //$NON-NLS-1$
         LineAndColumn lal= this.lineAndColumn;
         sb.append(lal.getLine()).append(",").append(lal.getColumn()).append(")"); //$NON-NLS-1$ $NON-NLS-2$
         return sb;
@@ -303,7 +343,7 @@ public class CFGBasicBlock implements Comparable<CFGBasicBlock> {
     }
 
     private void toString(final StringBuilder sb) {
-        if (this.codeExcerpt == null) {
+        if (getCodeExcerpt() == null) {
             return;
         }
         appendDotNodeLabel(sb);
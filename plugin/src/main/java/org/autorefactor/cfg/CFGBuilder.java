@@ -86,17 +86,16 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
-import java.util.regex.MatchResult;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.autorefactor.jdt.internal.corext.dom.ASTNodes;
 import org.autorefactor.jdt.internal.corext.dom.JavaProjectOptions;
+import org.autorefactor.jdt.internal.corext.dom.LineIndex;
 import org.autorefactor.jdt.internal.corext.dom.TypeNameDecider;
 import org.autorefactor.util.IllegalStateException;
 import org.autorefactor.util.NotImplementedException;
 import org.autorefactor.util.UnhandledException;
 import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTVisitor;
 import org.eclipse.jdt.core.dom.AbstractTypeDeclaration;
 import org.eclipse.jdt.core.dom.AnonymousClassDeclaration;
 import org.eclipse.jdt.core.dom.ArrayAccess;
@@ -124,8 +123,10 @@ import org.eclipse.jdt.core.dom.ExpressionStatement;
 import org.eclipse.jdt.core.dom.FieldAccess;
 import org.eclipse.jdt.core.dom.FieldDeclaration;
 import org.eclipse.jdt.core.dom.ForStatement;
+import org.eclipse.jdt.core.dom.IBinding;
 import org.eclipse.jdt.core.dom.IMethodBinding;
 import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.IVariableBinding;
 import org.eclipse.jdt.core.dom.IfStatement;
 import org.eclipse.jdt.core.dom.InfixExpression;
 import org.eclipse.jdt.core.dom.Initializer;
@@ -261,9 +262,7 @@ public class CFGBuilder {
         }
     }
 
-    private static final Pattern NEWLINE= Pattern.compile("\r\n|\r|\n"); //$NON-NLS-1$
-
-    private final String source;
+    private final LineIndex lineIndex;
     private final int tabSize;
     /**
      * Edges to be built after visiting the statement used as the key.
@@ -295,7 +294,18 @@ public class CFGBuilder {
      * @param options the Java project options used to compile the project
      */
     public CFGBuilder(String source, JavaProjectOptions options) {
-        this.source= source;
+        this(new LineIndex(source), options);
+    }
+
+    /**
+     * Builds an instance of this class sharing the line index of the source, for
+     * instance to build the CFGs of several methods of the same file.
+     *
+     * @param lineIndex the line index of the java source code to work from
+     * @param options   the Java project options used to compile the project
+     */
+    public CFGBuilder(LineIndex lineIndex, JavaProjectOptions options) {
+        this.lineIndex= lineIndex;
         this.tabSize= options.getTabSize();
     }
 
@@ -310,8 +320,9 @@ public class CFGBuilder {
         switch (node.getNodeType()) {
         case ARRAY_ACCESS:
             ArrayAccess aa= (ArrayAccess) node;
-            addVariableAccess(basicBlock, aa.getArray(), flags, throwers);
-            addVariableAccess(basicBlock, aa.getIndex(), flags, throwers);
+            // Writing an array element only reads the array variable
+            addVariableAccess(basicBlock, aa.getArray(), VariableAccess.READ, throwers);
+            addVariableAccess(basicBlock, aa.getIndex(), VariableAccess.READ, throwers);
             throwers.addThrow(aa, newException(node, ArrayIndexOutOfBoundsException.class.getCanonicalName()));
             return true;
         case ARRAY_CREATION:
@@ -324,8 +335,11 @@ public class CFGBuilder {
             return addVariableAccesses(basicBlock, ai.expressions(), flags, throwers);
         case ASSIGNMENT:
             Assignment a= (Assignment) node;
-            boolean aMightThrow1= addVariableAccess(basicBlock, a.getLeftHandSide(), VariableAccess.WRITE, throwers);
-            boolean aMightThrow2= addVariableAccess(basicBlock, a.getRightHandSide(), VariableAccess.READ, throwers);
+            // The right hand side is evaluated before the variable is written
+            boolean aMightThrow1= addVariableAccess(basicBlock, a.getRightHandSide(), VariableAccess.READ, throwers);
+            final int lhsFlags= Assignment.Operator.ASSIGN.equals(a.getOperator()) ? VariableAccess.WRITE
+                    : VariableAccess.READ | VariableAccess.WRITE;
+            boolean aMightThrow2= addVariableAccess(basicBlock, a.getLeftHandSide(), lhsFlags, throwers);
             return aMightThrow1 || aMightThrow2;
         case BOOLEAN_LITERAL:
         case CHARACTER_LITERAL:
@@ -342,6 +356,7 @@ public class CFGBuilder {
             ClassInstanceCreation cic= (ClassInstanceCreation) node;
             addVariableAccess(basicBlock, cic.getExpression(), flags, throwers);
             addVariableAccesses(basicBlock, cic.arguments(), flags, throwers);
+            addCapturedVariableAccesses(basicBlock, cic.getAnonymousClassDeclaration());
             IMethodBinding cicBinding= cic.resolveConstructorBinding();
             if (cicBinding != null) {
                 ITypeBinding[] declaredThrows= cicBinding.getExceptionTypes();
@@ -357,7 +372,7 @@ public class CFGBuilder {
             return mightThrow1 || mightThrow2 || mightThrow3;
         case FIELD_ACCESS:
             FieldAccess fa= (FieldAccess) node;
-            boolean mightThrow= addVariableAccess(basicBlock, fa.getExpression(), flags, throwers);
+            boolean mightThrow= addVariableAccess(basicBlock, fa.getExpression(), VariableAccess.READ, throwers);
             basicBlock.addVariableAccess(new VariableAccess(fa, flags));
             if (is(flags, VariableAccess.READ)) {
                 throwers.addThrow(fa, newException(node, NullPointerException.class.getCanonicalName()));
@@ -401,10 +416,16 @@ public class CFGBuilder {
             return addVariableAccess(basicBlock, pe.getExpression(), flags, throwers);
         case POSTFIX_EXPRESSION:
             PostfixExpression poe= (PostfixExpression) node;
-            return addVariableAccess(basicBlock, poe.getOperand(), flags, throwers);
+            // Both increment and decrement read then write the variable
+            return addVariableAccess(basicBlock, poe.getOperand(), VariableAccess.READ | VariableAccess.WRITE,
+                    throwers);
         case PREFIX_EXPRESSION:
             PrefixExpression pre= (PrefixExpression) node;
-            return addVariableAccess(basicBlock, pre.getOperand(), flags, throwers);
+            final int preFlags= PrefixExpression.Operator.INCREMENT.equals(pre.getOperator())
+                    || PrefixExpression.Operator.DECREMENT.equals(pre.getOperator())
+                            ? VariableAccess.READ | VariableAccess.WRITE
+                            : flags;
+            return addVariableAccess(basicBlock, pre.getOperand(), preFlags, throwers);
         case SUPER_FIELD_ACCESS:
             SuperFieldAccess sfa= (SuperFieldAccess) node;
             boolean sfaMightThrow1= addVariableAccess(basicBlock, sfa.getQualifier(), flags, throwers);
@@ -432,6 +453,32 @@ public class CFGBuilder {
         }
     }
 
+    /** The local variables used in an anonymous class are read when the instance is created. */
+    private void addCapturedVariableAccesses(final CFGBasicBlock basicBlock,
+            final AnonymousClassDeclaration anonymousClass) {
+        if (anonymousClass == null) {
+            return;
+        }
+        anonymousClass.accept(new ASTVisitor() {
+            @Override
+            public boolean visit(SimpleName node) {
+                final IBinding binding= node.resolveBinding();
+                if (binding instanceof IVariableBinding && !((IVariableBinding) binding).isField()
+                        && !isDeclaredIn(anonymousClass, (IVariableBinding) binding)) {
+                    basicBlock.addVariableAccess(new VariableAccess(node, VariableAccess.READ));
+                }
+                return true;
+            }
+        });
+    }
+
+    private boolean isDeclaredIn(ASTNode node, IVariableBinding variable) {
+        final int start= node.getStartPosition();
+        final ASTNode declaration= ((CompilationUnit) node.getRoot()).findDeclaringNode(variable);
+        return declaration != null && start <= declaration.getStartPosition()
+                && declaration.getStartPosition() < start + node.getLength();
+    }
+
     private boolean is(int flags, int flag) {
         return (flags & flag) == flag;
     }
@@ -473,8 +520,10 @@ public class CFGBuilder {
     private boolean addDeclaration(final CFGBasicBlock basicBlock, VariableDeclarationFragment vdf, Type type,
             ThrowerBlocks throwers) {
         final int accessType= vdf.getInitializer() == null ? VariableAccess.DECL_UNINIT : VariableAccess.DECL_INIT | VariableAccess.WRITE;
+        // The initializer is evaluated before the variable is written
+        final boolean mightThrow= addVariableAccess(basicBlock, vdf.getInitializer(), VariableAccess.READ, throwers);
         basicBlock.addVariableAccess(new VariableAccess(vdf, vdf.getName(), type, accessType));
-        return addVariableAccess(basicBlock, vdf.getInitializer(), VariableAccess.READ, throwers);
+        return mightThrow;
     }
 
     private boolean addDeclarations(CFGBasicBlock basicBlock, final VariableDeclarationExpression vde,
@@ -870,8 +919,12 @@ public class CFGBuilder {
         addVariableAccess(conditionBlock, node.getExpression(), VariableAccess.READ, throwers);
 
         final CFGEdgeBuilder liveEdge= new CFGEdgeBuilder(node.getExpression(), true, conditionBlock);
-        final LivenessState liveAfterStatement= buildCFG(node.getBody(), LivenessState.of(liveEdge), throwers);
-        liveAfterStatement.add(new CFGEdgeBuilder(node.getExpression(), false, conditionBlock));
+        final LivenessState liveAfterBody= buildCFG(node.getBody(), LivenessState.of(liveEdge), throwers);
+        // The end of the body loops back to the condition
+        buildEdges(liveAfterBody, conditionBlock);
+
+        final LivenessState liveAfterStatement= LivenessState.of(
+                new CFGEdgeBuilder(node.getExpression(), false, conditionBlock));
         buildEdgesAfterBranchableStatement(node, liveAfterStatement, conditionBlock);
         return liveAfterStatement.nextStmtWillCreateNewBlock();
     }
@@ -1663,8 +1716,7 @@ public class CFGBuilder {
             return state.liveBasicBlock;
         }
         final LineAndColumn lineCol= getLineAndColumn(node);
-        final CFGBasicBlock basicBlock= new CFGBasicBlock(node, ASTNodes.getFileName(node), ASTPrintHelper.codeExcerpt(node), isDecision,
-                lineCol);
+        final CFGBasicBlock basicBlock= new CFGBasicBlock(node, ASTNodes.getFileName(node), isDecision, lineCol);
         buildEdges(state, basicBlock);
         return basicBlock;
     }
@@ -1673,8 +1725,8 @@ public class CFGBuilder {
         if (isNotEmpty(expressions)) {
             final Expression firstExpression= expressions.get(0);
             final LineAndColumn lineCol= getLineAndColumn(firstExpression.getStartPosition());
-            final CFGBasicBlock basicBlock= new CFGBasicBlock(expressions.get(0), ASTNodes.getFileName(firstExpression),
-                    ASTPrintHelper.codeExcerpt(expressions), false, lineCol);
+            final CFGBasicBlock basicBlock= new CFGBasicBlock(expressions, ASTNodes.getFileName(firstExpression),
+                    lineCol);
             buildEdges(state, basicBlock);
             return basicBlock;
         }
@@ -1682,12 +1734,12 @@ public class CFGBuilder {
     }
 
     private CFGBasicBlock newEntryBlock(MethodDeclaration node) {
-        return CFGBasicBlock.buildEntryBlock(node, ASTNodes.getFileName(node), ASTPrintHelper.codeExcerpt(node));
+        return CFGBasicBlock.buildEntryBlock(node, ASTNodes.getFileName(node), null);
     }
 
     private CFGBasicBlock newExitBlock(MethodDeclaration node) {
         final LineAndColumn lineCol= getLineAndColumn(node.getStartPosition() + node.getLength());
-        return CFGBasicBlock.buildExitBlock(node, ASTNodes.getFileName(node), ASTPrintHelper.codeExcerpt(node), lineCol);
+        return CFGBasicBlock.buildExitBlock(node, ASTNodes.getFileName(node), null, lineCol);
     }
 
     private LineAndColumn getLineAndColumn(ASTNode node) {
@@ -1695,39 +1747,8 @@ public class CFGBuilder {
     }
 
     private LineAndColumn getLineAndColumn(final int position) {
-        // TODO Use CompilationUnit.getLineNumber() and
-        // CompilationUnit.getColumnNumber()
-        // Return SourceLocation class with also startNodePosition to be used for graph
-        // node names
-        // line number and column number are then used as comments for the node
-        // file starts with line 1
-        int lineNo= 1;
-        int lastMatchPosition= 0;
-        final Matcher matcher= NEWLINE.matcher(source);
-        while (matcher.find()) {
-            final MatchResult matchResult= matcher.toMatchResult();
-            if (matchResult.end() >= position) {
-                final String startOfLine= this.source.substring(lastMatchPosition, position);
-                final int nbChars= countCharacters(startOfLine, tabSize);
-                // + 1 because line starts with column 1
-                return new LineAndColumn(position, lineNo, nbChars + 1);
-            }
-            lastMatchPosition= matchResult.end();
-            ++lineNo;
-        }
-        throw new IllegalStateException(null, "A line and column number should have been found"); //$NON-NLS-1$
-    }
-
-    private int countCharacters(String s, int tabSize) {
-        int result= 0;
-        for (int i= 0; i < s.length(); i++) {
-            if (s.charAt(i) == '\t') {
-                result+= tabSize - i % tabSize;
-            } else {
-                result++;
-            }
-        }
-        return result;
+        return new LineAndColumn(position, lineIndex.getLineNumber(position),
+                lineIndex.getColumnNumber(position, tabSize));
     }
 
     private boolean isNotEmpty(final Collection<?> col) {
@@ -0,0 +1,284 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2019 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.cfg;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.autorefactor.util.IllegalArgumentException;
+
+/**
+ * Immutable, index based view of the CFG of a method, built once from the
+ * blocks linked by {@link CFGBuilder}.
+ * <p>
+ * The blocks reachable from the entry block are numbered from 0 in reverse
+ * postorder, so the entry block is block 0 and a block comes before its
+ * successors, except along the back edges of the loops. The successors and the
+ * predecessors of all the blocks are stored in two flat arrays, and the
+ * variable accesses of each block are stored in a typed array, so the analyses
+ * iterate over ints instead of filtering the objects of the blocks.
+ */
+public final class ControlFlowGraph {
+    private static final VariableAccess[] NO_ACCESSES= new VariableAccess[0];
+
+    /** The blocks, indexed by their id. */
+    private final CFGBasicBlock[] blocks;
+    private final Map<CFGBasicBlock, Integer> blockIds;
+    private final int exitBlock;
+    /** The successors of block i are at indexes successorOffsets[i] to successorOffsets[i + 1] excluded. */
+    private final int[] successorOffsets;
+    private final int[] successors;
+    /** The edge to each successor, at the same index as the successor. */
+    private final CFGEdge[] outgoingEdges;
+    /** The predecessors of block i are at indexes predecessorOffsets[i] to predecessorOffsets[i + 1] excluded. */
+    private final int[] predecessorOffsets;
+    private final int[] predecessors;
+    private final VariableAccess[][] variableAccesses;
+
+    /**
+     * Builds the index based view of the CFG starting at the provided block.
+     *
+     * @param entryBlock the entry block of the CFG of a method
+     */
+    public ControlFlowGraph(CFGBasicBlock entryBlock) {
+        final List<CFGBasicBlock> reversePostorder= collectBlocksInReversePostorder(entryBlock);
+        final int nbBlocks= reversePostorder.size();
+        blocks= reversePostorder.toArray(new CFGBasicBlock[nbBlocks]);
+        blockIds= new IdentityHashMap<>(nbBlocks * 2);
+        int exit= -1;
+        for (int i= 0; i < nbBlocks; i++) {
+            blockIds.put(blocks[i], i);
+            if (blocks[i].isExitBlock()) {
+                exit= i;
+            }
+        }
+        exitBlock= exit;
+
+        successorOffsets= new int[nbBlocks + 1];
+        predecessorOffsets= new int[nbBlocks + 1];
+        variableAccesses= new VariableAccess[nbBlocks][];
+        final List<CFGEdge> edges= new ArrayList<>(nbBlocks * 2);
+        final List<VariableAccess> accesses= new ArrayList<>();
+        for (int i= 0; i < nbBlocks; i++) {
+            successorOffsets[i]= edges.size();
+            accesses.clear();
+            for (Object object : blocks[i].getOutgoingEdgesAndVariableAccesses()) {
+                if (object instanceof CFGEdge) {
+                    final CFGEdge edge= (CFGEdge) object;
+                    edges.add(edge);
+                    predecessorOffsets[blockIds.get(edge.getTargetBlock()) + 1]++;
+                } else {
+                    accesses.add((VariableAccess) object);
+                }
+            }
+            variableAccesses[i]= accesses.isEmpty() ? NO_ACCESSES : accesses.toArray(new VariableAccess[accesses.size()]);
+        }
+        successorOffsets[nbBlocks]= edges.size();
+        outgoingEdges= edges.toArray(new CFGEdge[edges.size()]);
+        successors= new int[outgoingEdges.length];
+        for (int i= 0; i < outgoingEdges.length; i++) {
+            successors[i]= blockIds.get(outgoingEdges[i].getTargetBlock());
+        }
+
+        // Counting sort of the edges by target block
+        for (int i= 0; i < nbBlocks; i++) {
+            predecessorOffsets[i + 1]+= predecessorOffsets[i];
+        }
+        predecessors= new int[successors.length];
+        final int[] nextPredecessor= predecessorOffsets.clone();
+        for (int block= 0; block < nbBlocks; block++) {
+            for (int i= successorOffsets[block]; i < successorOffsets[block + 1]; i++) {
+                predecessors[nextPredecessor[successors[i]]++]= block;
+            }
+        }
+    }
+
+    private static List<CFGBasicBlock> collectBlocksInReversePostorder(CFGBasicBlock entryBlock) {
+        final List<CFGBasicBlock> postorder= new ArrayList<>();
+        final Map<CFGBasicBlock, Boolean> visited= new IdentityHashMap<>();
+        // Iterative depth first search: methods may have thousands of blocks
+        final Deque<CFGBasicBlock> stack= new ArrayDeque<>();
+        final Deque<List<CFGBasicBlock>> remainingSuccessors= new ArrayDeque<>();
+        stack.push(entryBlock);
+        remainingSuccessors.push(getSuccessors(entryBlock));
+        visited.put(entryBlock, Boolean.TRUE);
+        while (!stack.isEmpty()) {
+            final List<CFGBasicBlock> targets= remainingSuccessors.peek();
+            if (!targets.isEmpty()) {
+                // Last successor first: loop bodies then directly follow their condition in reverse postorder
+                final CFGBasicBlock target= targets.remove(targets.size() - 1);
+                if (visited.put(target, Boolean.TRUE) == null) {
+                    stack.push(target);
+                    remainingSuccessors.push(getSuccessors(target));
+                }
+            } else {
+                postorder.add(stack.pop());
+                remainingSuccessors.pop();
+            }
+        }
+
+        final List<CFGBasicBlock> reversePostorder= new ArrayList<>(postorder.size());
+        for (int i= postorder.size() - 1; i >= 0; i--) {
+            reversePostorder.add(postorder.get(i));
+        }
+        return reversePostorder;
+    }
+
+    private static List<CFGBasicBlock> getSuccessors(CFGBasicBlock block) {
+        final List<CFGBasicBlock> targets= new ArrayList<>(2);
+        for (Object object : block.getOutgoingEdgesAndVariableAccesses()) {
+            if (object instanceof CFGEdge) {
+                targets.add(((CFGEdge) object).getTargetBlock());
+            }
+        }
+        return targets;
+    }
+
+    /**
+     * Returns the number of blocks reachable from the entry block.
+     *
+     * @return the number of blocks reachable from the entry block
+     */
+    public int getNbBlocks() {
+        return blocks.length;
+    }
+
+    /**
+     * Returns the block with the provided id.
+     *
+     * @param block the id of the block, between 0 and {@link #getNbBlocks()}
+     *              excluded
+     * @return the block with the provided id
+     */
+    public CFGBasicBlock getBlock(int block) {
+        return blocks[block];
+    }
+
+    /**
+     * Returns the id of the provided block.
+     *
+     * @param block the block
+     * @return the id of the provided block
+     * @throws IllegalArgumentException if the block is not reachable from the
+     *                                  entry block
+     */
+    public int getBlockId(CFGBasicBlock block) {
+        final Integer id= blockIds.get(block);
+        if (id == null) {
+            throw new IllegalArgumentException(block.getNode(), "This block is not reachable from the entry block"); //$NON-NLS-1$
+        }
+        return id;
+    }
+
+    /**
+     * Returns the id of the entry block.
+     *
+     * @return the id of the entry block
+     */
+    public int getEntryBlockId() {
+        return 0;
+    }
+
+    /**
+     * Returns the id of the exit block.
+     *
+     * @return the id of the exit block, -1 if the method never returns normally
+     */
+    public int getExitBlockId() {
+        return exitBlock;
+    }
+
+    /**
+     * Returns the number of successors of the provided block.
+     *
+     * @param block the id of the block
+     * @return the number of successors of the provided block
+     */
+    public int getNbSuccessors(int block) {
+        return successorOffsets[block + 1] - successorOffsets[block];
+    }
+
+    /**
+     * Returns a successor of the provided block.
+     *
+     * @param block the id of the block
+     * @param index the index of the successor, between 0 and
+     *              {@link #getNbSuccessors(int)} excluded
+     * @return the id of the successor
+     */
+    public int getSuccessor(int block, int index) {
+        return successors[successorOffsets[block] + index];
+    }
+
+    /**
+     * Returns the edge to a successor of the provided block.
+     *
+     * @param block the id of the block
+     * @param index the index of the successor, between 0 and
+     *              {@link #getNbSuccessors(int)} excluded
+     * @return the edge to the successor
+     */
+    public CFGEdge getOutgoingEdge(int block, int index) {
+        return outgoingEdges[successorOffsets[block] + index];
+    }
+
+    /**
+     * Returns the number of predecessors of the provided block.
+     *
+     * @param block the id of the block
+     * @return the number of predecessors of the provided block
+     */
+    public int getNbPredecessors(int block) {
+        return predecessorOffsets[block + 1] - predecessorOffsets[block];
+    }
+
+    /**
+     * Returns a predecessor of the provided block.
+     *
+     * @param block the id of the block
+     * @param index the index of the predecessor, between 0 and
+     *              {@link #getNbPredecessors(int)} excluded
+     * @return the id of the predecessor
+     */
+    public int getPredecessor(int block, int index) {
+        return predecessors[predecessorOffsets[block] + index];
+    }
+
+    /**
+     * Returns the variable accesses of the provided block, in evaluation order.
+     * The returned array must not be modified.
+     *
+     * @param block the id of the block
+     * @return the variable accesses of the provided block
+     */
+    public VariableAccess[] getVariableAccesses(int block) {
+        return variableAccesses[block];
+    }
+}
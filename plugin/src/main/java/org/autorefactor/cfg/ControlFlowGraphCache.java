@@ -0,0 +1,122 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2019 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.cfg;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.autorefactor.jdt.internal.corext.dom.JavaProjectOptions;
+import org.autorefactor.jdt.internal.corext.dom.LineIndex;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+
+/**
+ * Builds the CFGs of the methods of one AST on demand and keeps them, so the
+ * rules visiting the same AST share one CFG per method.
+ * <p>
+ * The cached graphs are only valid as long as the AST is not modified: a new
+ * cache must be used for each new AST. This class is not thread-safe.
+ */
+public class ControlFlowGraphCache {
+    private final String source;
+    private final JavaProjectOptions options;
+    private final Map<MethodDeclaration, ControlFlowGraph> graphs= new HashMap<>();
+    /** Lazily created, shares the line index of the source between the methods. */
+    private CFGBuilder builder;
+    private int nbHits;
+    private int nbMisses;
+    private long buildTimeNanos;
+
+    /**
+     * Builds an instance of this class.
+     *
+     * @param source  the source code of the AST
+     * @param options the Java project options used to compile the project
+     */
+    public ControlFlowGraphCache(String source, JavaProjectOptions options) {
+        this.source= source;
+        this.options= options;
+    }
+
+    /**
+     * Returns the CFG of the provided method, building it the first time.
+     *
+     * @param method the method
+     * @return the CFG of the provided method, null if the method has no body
+     */
+    public ControlFlowGraph getControlFlowGraph(MethodDeclaration method) {
+        if (method.getBody() == null) {
+            return null;
+        }
+        ControlFlowGraph graph= graphs.get(method);
+        if (graph != null) {
+            nbHits++;
+            return graph;
+        }
+
+        nbMisses++;
+        final long start= System.nanoTime();
+        if (builder == null) {
+            builder= new CFGBuilder(new LineIndex(source), options);
+        }
+        graph= new ControlFlowGraph(builder.buildCFG(method));
+        buildTimeNanos+= System.nanoTime() - start;
+        graphs.put(method, graph);
+        return graph;
+    }
+
+    /**
+     * Returns the number of times a CFG has been found in this cache.
+     *
+     * @return the number of times a CFG has been found in this cache
+     */
+    public int getNbHits() {
+        return nbHits;
+    }
+
+    /**
+     * Returns the number of CFGs built by this cache.
+     *
+     * @return the number of CFGs built by this cache
+     */
+    public int getNbMisses() {
+        return nbMisses;
+    }
+
+    /**
+     * Returns the time spent building the CFGs.
+     *
+     * @return the time spent building the CFGs, in nanoseconds
+     */
+    public long getBuildTimeNanos() {
+        return buildTimeNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "CFG cache: " + nbHits + " hits, " + nbMisses + " misses, " + buildTimeNanos / 1000000 //$NON-NLS-1$ $NON-NLS-2$ $NON-NLS-3$
+                + " ms building"; //$NON-NLS-1$
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2019 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.cfg;
+
+import java.util.BitSet;
+
+/**
+ * Iterative worklist solver of a data-flow analysis over the CFG of a method,
+ * where the facts are sets of bits: a bit per variable, per definition, etc.
+ * <p>
+ * Subclasses provide the transfer function of each block. The facts of the
+ * predecessors (forward analysis) or of the successors (backward analysis) of a
+ * block are joined with a union. The blocks are visited in reverse postorder
+ * for a forward analysis, in postorder for a backward analysis, so most
+ * analyses converge in a couple of passes.
+ * <p>
+ * Only the blocks reachable from the entry block are analyzed, they are
+ * identified by their id in the {@link ControlFlowGraph}. Like
+ * {@link CFGBuilder}, the analysis does not follow the exceptional control
+ * flow.
+ */
+public abstract class DataFlowAnalysis {
+    private final ControlFlowGraph graph;
+    private final boolean isForward;
+    /** The facts before each block, indexed by block id. */
+    private final BitSet[] factsAtEntry;
+    /** The facts after each block, indexed by block id. */
+    private final BitSet[] factsAtExit;
+    private int nbTransfers;
+
+    /**
+     * Builds an instance of this class.
+     *
+     * @param graph     the CFG of a method
+     * @param isForward true for a forward analysis, false for a backward
+     *                  analysis
+     */
+    protected DataFlowAnalysis(ControlFlowGraph graph, boolean isForward) {
+        this.graph= graph;
+        this.isForward= isForward;
+        final int nbBlocks= graph.getNbBlocks();
+        factsAtEntry= new BitSet[nbBlocks];
+        factsAtExit= new BitSet[nbBlocks];
+        for (int i= 0; i < nbBlocks; i++) {
+            factsAtEntry[i]= new BitSet();
+            factsAtExit[i]= new BitSet();
+        }
+    }
+
+    /**
+     * Computes the facts of each block, then {@link #getFactAtEntry(int)} and
+     * {@link #getFactAtExit(int)} can be queried.
+     */
+    protected final void solve() {
+        final int nbBlocks= graph.getNbBlocks();
+        // Worklist of positions in the visit order: the lowest pending position is visited first
+        final BitSet pending= new BitSet(nbBlocks);
+        pending.set(0, nbBlocks);
+        final BitSet input= new BitSet();
+        final BitSet output= new BitSet();
+        for (int position= pending.nextSetBit(0); position >= 0; position= pending.nextSetBit(0)) {
+            pending.clear(position);
+            // Block ids are in reverse postorder
+            final int block= isForward ? position : nbBlocks - 1 - position;
+
+            input.clear();
+            if (isForward) {
+                for (int i= 0; i < graph.getNbPredecessors(block); i++) {
+                    input.or(factsAtExit[graph.getPredecessor(block, i)]);
+                }
+                factsAtEntry[block].clear();
+                factsAtEntry[block].or(input);
+            } else {
+                for (int i= 0; i < graph.getNbSuccessors(block); i++) {
+                    input.or(factsAtEntry[graph.getSuccessor(block, i)]);
+                }
+                factsAtExit[block].clear();
+                factsAtExit[block].or(input);
+            }
+
+            output.clear();
+            transfer(block, input, output);
+            nbTransfers++;
+            final BitSet result= isForward ? factsAtExit[block] : factsAtEntry[block];
+            if (!output.equals(result)) {
+                result.clear();
+                result.or(output);
+                if (isForward) {
+                    for (int i= 0; i < graph.getNbSuccessors(block); i++) {
+                        pending.set(graph.getSuccessor(block, i));
+                    }
+                } else {
+                    for (int i= 0; i < graph.getNbPredecessors(block); i++) {
+                        pending.set(nbBlocks - 1 - graph.getPredecessor(block, i));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the facts flowing out of a block: the facts after the block for a
+     * forward analysis, the facts before the block for a backward analysis.
+     *
+     * @param block  the id of the block
+     * @param input  the facts flowing into the block, must not be modified
+     * @param output the empty set where to add the facts flowing out of the
+     *               block
+     */
+    protected abstract void transfer(int block, BitSet input, BitSet output);
+
+    /**
+     * Returns the analyzed CFG.
+     *
+     * @return the analyzed CFG
+     */
+    public final ControlFlowGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Returns the facts before the provided block. They must not be modified.
+     *
+     * @param block the id of the block
+     * @return the facts before the provided block
+     */
+    protected final BitSet getFactAtEntry(int block) {
+        return factsAtEntry[block];
+    }
+
+    /**
+     * Returns the facts after the provided block. They must not be modified.
+     *
+     * @param block the id of the block
+     * @return the facts after the provided block
+     */
+    protected final BitSet getFactAtExit(int block) {
+        return factsAtExit[block];
+    }
+
+    /**
+     * Returns the number of times a transfer function has been applied, to
+     * measure how fast the analysis converged.
+     *
+     * @return the number of times a transfer function has been applied
+     */
+    public int getNbTransfers() {
+        return nbTransfers;
+    }
+}
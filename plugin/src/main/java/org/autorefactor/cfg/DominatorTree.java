@@ -0,0 +1,265 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2019 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.cfg;
+
+import java.util.Arrays;
+
+/**
+ * Dominator tree or post-dominator tree of the CFG of a method.
+ * <p>
+ * A block dominates another block when every path from the entry block to the
+ * other block goes through it. A block post-dominates another block when every
+ * path from the other block to the exit block goes through it. Each block is
+ * dominated by itself.
+ * <p>
+ * The tree is built with the iterative algorithm of Cooper, Harvey and Kennedy,
+ * "A Simple, Fast Dominance Algorithm", which converges in a couple of passes
+ * over the blocks in reverse postorder. Then the blocks of the tree are
+ * numbered so dominance queries run in constant time, instead of enumerating
+ * the paths of the CFG.
+ */
+public final class DominatorTree {
+    private final ControlFlowGraph graph;
+    private final boolean isPostDominatorTree;
+    /** The immediate dominator of each block, the root for the root, -1 for the blocks outside the tree. */
+    private final int[] immediateDominators;
+    /** Visit number of each block in the tree, -1 for the blocks outside the tree. */
+    private final int[] preorder;
+    /** Number of each block after visiting its descendants in the tree. */
+    private final int[] postorder;
+
+    /**
+     * Builds the dominator tree or the post-dominator tree of the provided CFG.
+     *
+     * @param graph               the CFG of a method
+     * @param isPostDominatorTree true to build the post-dominator tree rooted at
+     *                            the exit block, false to build the dominator
+     *                            tree rooted at the entry block
+     */
+    public DominatorTree(ControlFlowGraph graph, boolean isPostDominatorTree) {
+        this.graph= graph;
+        this.isPostDominatorTree= isPostDominatorTree;
+        final int nbBlocks= graph.getNbBlocks();
+        immediateDominators= new int[nbBlocks];
+        preorder= new int[nbBlocks];
+        postorder= new int[nbBlocks];
+        Arrays.fill(immediateDominators, -1);
+        Arrays.fill(preorder, -1);
+        Arrays.fill(postorder, -1);
+
+        final int root= isPostDominatorTree ? graph.getExitBlockId() : graph.getEntryBlockId();
+        if (root >= 0) {
+            final int[] blocksInOrder= collectBlocksInReversePostorder(root);
+            computeImmediateDominators(blocksInOrder);
+            numberTree(root, blocksInOrder);
+        }
+    }
+
+    /** The predecessors in the direction of the analysis: the successors for a post-dominator tree. */
+    private int getNbSources(int block) {
+        return isPostDominatorTree ? graph.getNbSuccessors(block) : graph.getNbPredecessors(block);
+    }
+
+    private int getSource(int block, int index) {
+        return isPostDominatorTree ? graph.getSuccessor(block, index) : graph.getPredecessor(block, index);
+    }
+
+    private int getNbTargets(int block) {
+        return isPostDominatorTree ? graph.getNbPredecessors(block) : graph.getNbSuccessors(block);
+    }
+
+    private int getTarget(int block, int index) {
+        return isPostDominatorTree ? graph.getPredecessor(block, index) : graph.getSuccessor(block, index);
+    }
+
+    /** Returns the blocks reachable from the root in the direction of the analysis. */
+    private int[] collectBlocksInReversePostorder(int root) {
+        final int nbBlocks= graph.getNbBlocks();
+        final int[] postorderBlocks= new int[nbBlocks];
+        int nbVisited= 0;
+        final boolean[] isVisited= new boolean[nbBlocks];
+        // Iterative depth first search with the index of the next target of each block of the stack
+        final int[] stack= new int[nbBlocks];
+        final int[] nextTargets= new int[nbBlocks];
+        int stackSize= 0;
+        stack[stackSize++]= root;
+        isVisited[root]= true;
+        while (stackSize > 0) {
+            final int block= stack[stackSize - 1];
+            if (nextTargets[block] < getNbTargets(block)) {
+                final int target= getTarget(block, nextTargets[block]++);
+                if (!isVisited[target]) {
+                    isVisited[target]= true;
+                    stack[stackSize++]= target;
+                }
+            } else {
+                stackSize--;
+                postorderBlocks[nbVisited++]= block;
+            }
+        }
+
+        final int[] blocksInOrder= new int[nbVisited];
+        for (int i= 0; i < nbVisited; i++) {
+            blocksInOrder[i]= postorderBlocks[nbVisited - 1 - i];
+        }
+        return blocksInOrder;
+    }
+
+    private void computeImmediateDominators(int[] blocksInOrder) {
+        final int[] order= new int[graph.getNbBlocks()];
+        for (int i= 0; i < blocksInOrder.length; i++) {
+            order[blocksInOrder[i]]= i;
+        }
+        immediateDominators[blocksInOrder[0]]= blocksInOrder[0];
+
+        boolean changed= true;
+        while (changed) {
+            changed= false;
+            for (int i= 1; i < blocksInOrder.length; i++) {
+                final int block= blocksInOrder[i];
+                int newImmediateDominator= -1;
+                for (int j= 0; j < getNbSources(block); j++) {
+                    final int source= getSource(block, j);
+                    if (immediateDominators[source] != -1) {
+                        newImmediateDominator= newImmediateDominator == -1 ? source
+                                : intersect(source, newImmediateDominator, order);
+                    }
+                }
+                if (immediateDominators[block] != newImmediateDominator) {
+                    immediateDominators[block]= newImmediateDominator;
+                    changed= true;
+                }
+            }
+        }
+    }
+
+    /** Returns the nearest common dominator of the provided blocks. */
+    private int intersect(int block1, int block2, int[] order) {
+        int finger1= block1;
+        int finger2= block2;
+        while (finger1 != finger2) {
+            while (order[finger1] > order[finger2]) {
+                finger1= immediateDominators[finger1];
+            }
+            while (order[finger2] > order[finger1]) {
+                finger2= immediateDominators[finger2];
+            }
+        }
+        return finger1;
+    }
+
+    private void numberTree(int root, int[] blocksInOrder) {
+        final int nbBlocks= graph.getNbBlocks();
+        // Children of each block, stored like the successors of the CFG
+        final int[] childOffsets= new int[nbBlocks + 1];
+        for (int block : blocksInOrder) {
+            if (block != root) {
+                childOffsets[immediateDominators[block] + 1]++;
+            }
+        }
+        for (int i= 0; i < nbBlocks; i++) {
+            childOffsets[i + 1]+= childOffsets[i];
+        }
+        final int[] children= new int[Math.max(0, blocksInOrder.length - 1)];
+        final int[] nextChild= childOffsets.clone();
+        for (int block : blocksInOrder) {
+            if (block != root) {
+                children[nextChild[immediateDominators[block]]++]= block;
+            }
+        }
+
+        int preorderNumber= 0;
+        int postorderNumber= 0;
+        final int[] stack= new int[blocksInOrder.length];
+        int stackSize= 0;
+        stack[stackSize++]= root;
+        preorder[root]= preorderNumber++;
+        // Reuse nextChild as the index of the next child to visit
+        System.arraycopy(childOffsets, 0, nextChild, 0, nbBlocks);
+        while (stackSize > 0) {
+            final int block= stack[stackSize - 1];
+            if (nextChild[block] < childOffsets[block + 1]) {
+                final int child= children[nextChild[block]++];
+                preorder[child]= preorderNumber++;
+                stack[stackSize++]= child;
+            } else {
+                stackSize--;
+                postorder[block]= postorderNumber++;
+            }
+        }
+    }
+
+    /**
+     * Returns whether this tree is a post-dominator tree.
+     *
+     * @return true for a post-dominator tree, false for a dominator tree
+     */
+    public boolean isPostDominatorTree() {
+        return isPostDominatorTree;
+    }
+
+    /**
+     * Returns the immediate dominator (or post-dominator) of the provided block.
+     *
+     * @param block the id of the block
+     * @return the id of the immediate dominator, -1 for the root of the tree or
+     *         a block outside the tree, like a block of an infinite loop in a
+     *         post-dominator tree
+     */
+    public int getImmediateDominator(int block) {
+        final int immediateDominator= immediateDominators[block];
+        return immediateDominator != block ? immediateDominator : -1;
+    }
+
+    /**
+     * Returns whether a block dominates (or post-dominates) another block. For a
+     * dominator tree, it tells whether every path from the entry block to the
+     * other block goes through the dominator. For a post-dominator tree, it tells
+     * whether every path from the other block to the exit block goes through the
+     * post-dominator.
+     *
+     * @param dominator the id of the dominator
+     * @param block     the id of the other block
+     * @return true if the first block dominates the other block, false if one of
+     *         the blocks is outside the tree
+     */
+    public boolean dominates(int dominator, int block) {
+        return preorder[dominator] != -1 && preorder[block] != -1 && preorder[dominator] <= preorder[block]
+                && postorder[block] <= postorder[dominator];
+    }
+
+    /**
+     * Returns whether a block dominates (or post-dominates) another block.
+     *
+     * @param dominator the dominator
+     * @param block     the other block
+     * @return true if the first block dominates the other block
+     * @see #dominates(int, int)
+     */
+    public boolean dominates(CFGBasicBlock dominator, CFGBasicBlock block) {
+        return dominates(graph.getBlockId(dominator), graph.getBlockId(block));
+    }
+}
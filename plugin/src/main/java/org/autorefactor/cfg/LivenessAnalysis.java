@@ -0,0 +1,140 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2019 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.cfg;
+
+import static org.autorefactor.cfg.LocalVariableAccesses.DEF;
+import static org.autorefactor.cfg.LocalVariableAccesses.USE;
+
+import java.util.BitSet;
+
+import org.autorefactor.util.IllegalArgumentException;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+
+/**
+ * Liveness of the local variables: a variable is live at a point when its
+ * current value may be read later.
+ * <p>
+ * For instance, an assignment whose variable is not live after it is useless.
+ */
+public class LivenessAnalysis extends DataFlowAnalysis {
+    private final LocalVariableAccesses accesses;
+    /** The variables read by each block before being written. */
+    private final BitSet[] uses;
+    /** The variables written by each block. */
+    private final BitSet[] defs;
+
+    /**
+     * Computes the liveness of the local variables of the provided CFG.
+     *
+     * @param graph the CFG of a method
+     */
+    public LivenessAnalysis(ControlFlowGraph graph) {
+        super(graph, false);
+        accesses= new LocalVariableAccesses(graph);
+        final int nbBlocks= graph.getNbBlocks();
+        uses= new BitSet[nbBlocks];
+        defs= new BitSet[nbBlocks];
+        for (int block= 0; block < nbBlocks; block++) {
+            uses[block]= new BitSet();
+            defs[block]= new BitSet();
+            for (int i= 0; i < accesses.getAccesses(block).length; i++) {
+                final int variable= accesses.getVariable(block, i);
+                if (variable >= 0) {
+                    if (accesses.is(block, i, USE) && !defs[block].get(variable)) {
+                        uses[block].set(variable);
+                    }
+                    if (accesses.is(block, i, DEF)) {
+                        defs[block].set(variable);
+                    }
+                }
+            }
+        }
+        solve();
+    }
+
+    @Override
+    protected void transfer(int block, BitSet input, BitSet output) {
+        output.or(input);
+        output.andNot(defs[block]);
+        output.or(uses[block]);
+    }
+
+    /**
+     * Returns whether the provided variable is live before the provided block.
+     *
+     * @param block    the block
+     * @param variable the local variable
+     * @return true if the value of the variable before the block may be read
+     */
+    public boolean isLiveAtEntry(CFGBasicBlock block, IVariableBinding variable) {
+        final int index= accesses.getVariableIndex(variable);
+        return index >= 0 && getFactAtEntry(getGraph().getBlockId(block)).get(index);
+    }
+
+    /**
+     * Returns whether the provided variable is live after the provided block.
+     *
+     * @param block    the block
+     * @param variable the local variable
+     * @return true if the value of the variable after the block may be read
+     */
+    public boolean isLiveAtExit(CFGBasicBlock block, IVariableBinding variable) {
+        final int index= accesses.getVariableIndex(variable);
+        return index >= 0 && getFactAtExit(getGraph().getBlockId(block)).get(index);
+    }
+
+    /**
+     * Returns whether the variable of the provided access is live just after the
+     * access. For a write, it tells whether the written value may be read.
+     *
+     * @param access an access to a local variable
+     * @return true if the value of the variable after the access may be read
+     * @throws IllegalArgumentException if the access is not in a block reachable
+     *                                  from the entry block or is not about a
+     *                                  local variable
+     */
+    public boolean isLiveAfter(VariableAccess access) {
+        final int block= accesses.getBlock(access);
+        final int position= block >= 0 ? accesses.indexOf(block, access) : -1;
+        final int variable= position >= 0 ? accesses.getVariable(block, position) : -1;
+        if (variable < 0) {
+            throw new IllegalArgumentException(access.getAstNode(),
+                    "Expected an access to a local variable in a reachable block"); //$NON-NLS-1$
+        }
+        final VariableAccess[] blockAccesses= accesses.getAccesses(block);
+        for (int i= position + 1; i < blockAccesses.length; i++) {
+            if (accesses.getVariable(block, i) == variable) {
+                if (accesses.is(block, i, USE)) {
+                    return true;
+                }
+                if (accesses.is(block, i, DEF)) {
+                    return false;
+                }
+            }
+        }
+        return getFactAtExit(block).get(variable);
+    }
+}
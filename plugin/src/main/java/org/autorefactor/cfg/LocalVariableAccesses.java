@@ -0,0 +1,164 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2019 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.cfg;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+import org.eclipse.jdt.core.dom.Name;
+import org.eclipse.jdt.core.dom.QualifiedName;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jdt.core.dom.VariableDeclaration;
+
+/**
+ * Indexes the accesses to the local variables and parameters made by each
+ * block, in program order. The fields are ignored because they can be modified
+ * by any method call.
+ */
+final class LocalVariableAccesses {
+    /** The access reads the variable. */
+    static final int USE= 1;
+    /** The access writes the variable, after reading it if it is also a use. */
+    static final int DEF= 2;
+
+    private final Map<IVariableBinding, Integer> variableIndexes= new HashMap<>();
+    private final VariableAccess[][] accesses;
+    /** The variable index of each access, -1 if the access is not about a local variable. */
+    private final int[][] variables;
+    /** The combination of {@link #USE} and {@link #DEF} of each access. */
+    private final int[][] kinds;
+    private final Map<VariableAccess, Integer> accessBlocks= new IdentityHashMap<>();
+
+    LocalVariableAccesses(ControlFlowGraph graph) {
+        final int nbBlocks= graph.getNbBlocks();
+        accesses= new VariableAccess[nbBlocks][];
+        variables= new int[nbBlocks][];
+        kinds= new int[nbBlocks][];
+        for (int block= 0; block < nbBlocks; block++) {
+            accesses[block]= graph.getVariableAccesses(block);
+            variables[block]= new int[accesses[block].length];
+            kinds[block]= new int[accesses[block].length];
+            for (int i= 0; i < accesses[block].length; i++) {
+                final VariableAccess access= accesses[block][i];
+                accessBlocks.put(access, block);
+                index(block, i, access);
+            }
+        }
+    }
+
+    private void index(int block, int i, VariableAccess access) {
+        final ASTNode node= access.getAstNode();
+        final int accessType= access.getAccessType();
+        final SimpleName name;
+        if (node instanceof VariableDeclaration) {
+            name= ((VariableDeclaration) node).getName();
+            kinds[block][i]= DEF;
+        } else if (node instanceof SimpleName) {
+            name= (SimpleName) node;
+            kinds[block][i]= ((accessType & VariableAccess.READ) != 0 ? USE : 0)
+                    | ((accessType & VariableAccess.WRITE) != 0 ? DEF : 0);
+        } else if (node instanceof QualifiedName) {
+            // Only the leftmost qualifier may be a local variable, it is read
+            Name qualifier= (QualifiedName) node;
+            while (qualifier instanceof QualifiedName) {
+                qualifier= ((QualifiedName) qualifier).getQualifier();
+            }
+            name= (SimpleName) qualifier;
+            kinds[block][i]= USE;
+        } else {
+            name= null;
+        }
+
+        final IVariableBinding variable= getLocalVariable(name);
+        variables[block][i]= variable != null ? getOrCreateVariableIndex(variable) : -1;
+    }
+
+    private static IVariableBinding getLocalVariable(SimpleName name) {
+        if (name == null) {
+            return null;
+        }
+        final IBinding binding= name.resolveBinding();
+        if (binding instanceof IVariableBinding && !((IVariableBinding) binding).isField()) {
+            return ((IVariableBinding) binding).getVariableDeclaration();
+        }
+        return null;
+    }
+
+    private int getOrCreateVariableIndex(IVariableBinding variable) {
+        Integer index= variableIndexes.get(variable);
+        if (index == null) {
+            index= variableIndexes.size();
+            variableIndexes.put(variable, index);
+        }
+        return index;
+    }
+
+    int getNbVariables() {
+        return variableIndexes.size();
+    }
+
+    int getVariableIndex(IVariableBinding variable) {
+        final Integer index= variable != null ? variableIndexes.get(variable.getVariableDeclaration()) : null;
+        return index != null ? index : -1;
+    }
+
+    VariableAccess[] getAccesses(int block) {
+        return accesses[block];
+    }
+
+    int getVariable(int block, int access) {
+        return variables[block][access];
+    }
+
+    boolean is(int block, int access, int kind) {
+        return (kinds[block][access] & kind) != 0;
+    }
+
+    /**
+     * Returns the block of the provided access.
+     *
+     * @return the block of the provided access, -1 if it is not in a reachable
+     *         block
+     */
+    int getBlock(VariableAccess access) {
+        final Integer block= accessBlocks.get(access);
+        return block != null ? block : -1;
+    }
+
+    int indexOf(int block, VariableAccess access) {
+        final VariableAccess[] blockAccesses= accesses[block];
+        for (int i= 0; i < blockAccesses.length; i++) {
+            if (blockAccesses[i] == access) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2019 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.cfg;
+
+import static org.autorefactor.cfg.LocalVariableAccesses.DEF;
+import static org.autorefactor.cfg.LocalVariableAccesses.USE;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.autorefactor.util.IllegalArgumentException;
+
+/**
+ * Reaching definitions of the local variables: a definition (a declaration or a
+ * write) reaches a point when the written value may still be the value of the
+ * variable at this point.
+ * <p>
+ * For instance, a read reached by a single definition can be replaced by the
+ * written value.
+ */
+public class ReachingDefinitionsAnalysis extends DataFlowAnalysis {
+    private final LocalVariableAccesses accesses;
+    /** The definitions, indexed by their bit in the facts. */
+    private final List<VariableAccess> definitions= new ArrayList<>();
+    private final Map<VariableAccess, Integer> definitionIndexes= new IdentityHashMap<>();
+    /** The variable written by each definition. */
+    private final List<Integer> definitionVariables= new ArrayList<>();
+    /** The definitions of each variable. */
+    private final List<BitSet> variableDefinitions= new ArrayList<>();
+    /** The definitions made by each block and not overwritten in the same block. */
+    private final BitSet[] gens;
+    /** The definitions overwritten by each block. */
+    private final BitSet[] kills;
+
+    /**
+     * Computes the reaching definitions of the local variables of the provided
+     * CFG.
+     *
+     * @param graph the CFG of a method
+     */
+    public ReachingDefinitionsAnalysis(ControlFlowGraph graph) {
+        super(graph, true);
+        accesses= new LocalVariableAccesses(graph);
+        final int nbBlocks= graph.getNbBlocks();
+        for (int i= 0; i < accesses.getNbVariables(); i++) {
+            variableDefinitions.add(new BitSet());
+        }
+        for (int block= 0; block < nbBlocks; block++) {
+            final VariableAccess[] blockAccesses= accesses.getAccesses(block);
+            for (int i= 0; i < blockAccesses.length; i++) {
+                final int variable= accesses.getVariable(block, i);
+                if (variable >= 0 && accesses.is(block, i, DEF)) {
+                    variableDefinitions.get(variable).set(definitions.size());
+                    definitionIndexes.put(blockAccesses[i], definitions.size());
+                    definitions.add(blockAccesses[i]);
+                    definitionVariables.add(variable);
+                }
+            }
+        }
+
+        gens= new BitSet[nbBlocks];
+        kills= new BitSet[nbBlocks];
+        for (int block= 0; block < nbBlocks; block++) {
+            gens[block]= new BitSet();
+            kills[block]= new BitSet();
+            for (VariableAccess access : accesses.getAccesses(block)) {
+                final Integer definition= definitionIndexes.get(access);
+                if (definition != null) {
+                    final BitSet overwritten= variableDefinitions.get(definitionVariables.get(definition));
+                    kills[block].or(overwritten);
+                    gens[block].andNot(overwritten);
+                    gens[block].set(definition);
+                }
+            }
+        }
+        solve();
+    }
+
+    @Override
+    protected void transfer(int block, BitSet input, BitSet output) {
+        output.or(input);
+        output.andNot(kills[block]);
+        output.or(gens[block]);
+    }
+
+    /**
+     * Returns the definitions reaching the provided read of a local variable.
+     *
+     * @param access a read of a local variable
+     * @return the definitions reaching the provided read, in program order
+     * @throws IllegalArgumentException if the access is not a read of a local
+     *                                  variable in a block reachable from the
+     *                                  entry block
+     */
+    public List<VariableAccess> getReachingDefinitions(VariableAccess access) {
+        final int block= accesses.getBlock(access);
+        final int position= block >= 0 ? accesses.indexOf(block, access) : -1;
+        final int variable= position >= 0 ? accesses.getVariable(block, position) : -1;
+        if (variable < 0 || !accesses.is(block, position, USE)) {
+            throw new IllegalArgumentException(access.getAstNode(),
+                    "Expected a read of a local variable in a reachable block"); //$NON-NLS-1$
+        }
+
+        final List<VariableAccess> results= new ArrayList<>();
+        // The last definition before the read in the same block hides all the others
+        final VariableAccess[] blockAccesses= accesses.getAccesses(block);
+        for (int i= position - 1; i >= 0; i--) {
+            if (accesses.getVariable(block, i) == variable && accesses.is(block, i, DEF)) {
+                results.add(blockAccesses[i]);
+                return results;
+            }
+        }
+        final BitSet reaching= getFactAtEntry(block);
+        final BitSet candidates= variableDefinitions.get(variable);
+        for (int i= candidates.nextSetBit(0); i >= 0; i= candidates.nextSetBit(i + 1)) {
+            if (reaching.get(i)) {
+                results.add(definitions.get(i));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Returns whether the provided definition reaches the end of the provided
+     * block.
+     *
+     * @param definition a declaration or a write of a local variable
+     * @param block      the block
+     * @return true if the value written by the definition may still be the value
+     *         of the variable after the block
+     */
+    public boolean reachesExit(VariableAccess definition, CFGBasicBlock block) {
+        final Integer index= definitionIndexes.get(definition);
+        return index != null && getFactAtExit(getGraph().getBlockId(block)).get(index);
+    }
+}
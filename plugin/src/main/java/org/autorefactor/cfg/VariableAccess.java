@@ -70,6 +70,45 @@ public class VariableAccess {
         this(astNode, astNode instanceof Name ? (Name) astNode : null, null, accessType);
     }
 
+    /**
+     * Returns the AST node of the variable.
+     *
+     * @return the AST node of the variable
+     */
+    public ASTNode getAstNode() {
+        return astNode;
+    }
+
+    /**
+     * Returns the name of the variable.
+     *
+     * @return the name of the variable, null if the variable is not accessed
+     *         through a name
+     */
+    public Name getName() {
+        return name;
+    }
+
+    /**
+     * Returns the type of the variable.
+     *
+     * @return the type of the variable, only known for declarations
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Returns the access type to the variable, a combination of
+     * {@link #DECL_INIT}, {@link #DECL_UNINIT}, {@link #READ} and {@link #WRITE}.
+     * A read and write access reads the variable before writing it.
+     *
+     * @return the access type to the variable
+     */
+    public int getAccessType() {
+        return accessType;
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb= new StringBuilder("VAR_ACCESS["); //$NON-NLS-1$
@@ -0,0 +1,99 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2019 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.headless;
+
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.autorefactor.environment.Logger;
+
+/** Logger printing to the console, counting the errors for the final summary. */
+public class ConsoleLogger implements Logger {
+    private final PrintStream out;
+    private final PrintStream err;
+    private final AtomicInteger nbErrors= new AtomicInteger();
+
+    /**
+     * Builds an instance of this class.
+     *
+     * @param out the stream for the informational messages
+     * @param err the stream for the errors and warnings
+     */
+    public ConsoleLogger(PrintStream out, PrintStream err) {
+        this.out= out;
+        this.err= err;
+    }
+
+    /**
+     * Log an informational message.
+     *
+     * @param message the message
+     */
+    public void info(String message) {
+        out.println(message);
+    }
+
+    /**
+     * Log a warning message.
+     *
+     * @param message the message
+     */
+    public void warn(String message) {
+        err.println("WARNING: " + message); //$NON-NLS-1$
+    }
+
+    /**
+     * Log a error message.
+     *
+     * @param message the message
+     */
+    public void error(String message) {
+        nbErrors.incrementAndGet();
+        err.println("ERROR: " + message); //$NON-NLS-1$
+    }
+
+    /**
+     * Log a error message with exception.
+     *
+     * @param message the message
+     * @param e       the exception
+     */
+    public void error(String message, Exception e) {
+        synchronized (err) {
+            error(message);
+            e.printStackTrace(err);
+        }
+    }
+
+    /**
+     * Returns the number of errors logged so far.
+     *
+     * @return the number of errors logged so far
+     */
+    public int getNbErrors() {
+        return nbErrors.get();
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2019 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.headless;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.autorefactor.environment.CurrentThreadEventLoop;
+import org.autorefactor.environment.Environment;
+import org.autorefactor.environment.JobManager;
+import org.autorefactor.jdt.internal.corext.dom.PluginConstant;
+import org.autorefactor.jdt.internal.corext.dom.PrepareApplyRefactoringsJob;
+import org.autorefactor.jdt.internal.corext.dom.RefactoringRule;
+import org.autorefactor.jdt.internal.ui.fix.AllCleanUpRules;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceDescription;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.equinox.app.IApplication;
+import org.eclipse.equinox.app.IApplicationContext;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+
+/**
+ * Eclipse application applying the cleanups to source folders without any
+ * user interface, for instance in continuous integration:
+ *
+ * <pre>
+ * eclipse -nosplash -data /tmp/workspace -application org.autorefactor.plugin.headless \
+ *     -source src/main/java -classpath lib/a.jar:lib/b.jar -threads 8
+ * </pre>
+ *
+ * The source folders are linked into a temporary Java project, refactored in
+ * place on the disk, then the project is deleted. The exit code is 0 when no
+ * error has been logged, 1 otherwise.
+ */
+public class HeadlessApplication implements IApplication {
+    private static final String PROJECT_NAME= "autorefactor-headless"; //$NON-NLS-1$
+    private static final String JRE_CONTAINER= "org.eclipse.jdt.launching.JRE_CONTAINER"; //$NON-NLS-1$
+    private static final Integer EXIT_ERROR= 1;
+
+    private final HeadlessJobManager jobManager= new HeadlessJobManager();
+
+    /** Keeps track of the running jobs, to cancel them when stopping. */
+    private static final class HeadlessJobManager implements JobManager {
+        private final List<Job> jobs= new CopyOnWriteArrayList<>();
+
+        /**
+         * Register a job.
+         *
+         * @param job the job
+         */
+        public void register(Job job) {
+            jobs.add(job);
+        }
+
+        /**
+         * Unregister a job.
+         *
+         * @param job the job
+         */
+        public void unregister(Job job) {
+            jobs.remove(job);
+        }
+
+        private void cancelJobs() {
+            for (Job job : jobs) {
+                job.cancel();
+            }
+        }
+    }
+
+    @Override
+    public Object start(IApplicationContext context) throws Exception {
+        final long startTime= System.nanoTime();
+        final HeadlessArguments arguments;
+        final HeadlessPreferences preferences;
+        try {
+            arguments= new HeadlessArguments((String[]) context.getArguments().get(IApplicationContext.APPLICATION_ARGS));
+            preferences= new HeadlessPreferences(arguments);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(HeadlessArguments.USAGE);
+            return EXIT_ERROR;
+        }
+        final ConsoleLogger logger= new ConsoleLogger(System.out, System.err);
+        final Environment environment= new Environment(new CurrentThreadEventLoop(), jobManager, logger, preferences);
+        final List<RefactoringRule> rules= AllCleanUpRules.getConfiguredRefactoringRules(preferences);
+
+        final IWorkspace workspace= ResourcesPlugin.getWorkspace();
+        disableAutoBuild(workspace);
+        final IJavaProject javaProject= createJavaProject(workspace, arguments);
+        try {
+            final Job job= new PrepareApplyRefactoringsJob(Collections.<IJavaElement>singletonList(javaProject), rules,
+                    environment, arguments.getNbThreads());
+            job.schedule();
+            // The preparing job schedules the refactoring jobs before it ends
+            Job.getJobManager().join(PluginConstant.PLUGIN_ID, null);
+        } finally {
+            javaProject.getProject().delete(true, true, null);
+        }
+
+        logger.info("AutoRefactor applied " + rules.size() + " rules in " //$NON-NLS-1$ $NON-NLS-2$
+                + (System.nanoTime() - startTime) / 1000000 + " ms with " + logger.getNbErrors() + " errors"); //$NON-NLS-1$ $NON-NLS-2$
+        return logger.getNbErrors() == 0 ? EXIT_OK : EXIT_ERROR;
+    }
+
+    @Override
+    public void stop() {
+        jobManager.cancelJobs();
+    }
+
+    /** Nothing must be compiled, this saves the build time at startup. */
+    private static void disableAutoBuild(IWorkspace workspace) throws CoreException {
+        final IWorkspaceDescription description= workspace.getDescription();
+        if (description.isAutoBuilding()) {
+            description.setAutoBuilding(false);
+            workspace.setDescription(description);
+        }
+    }
+
+    private static IJavaProject createJavaProject(IWorkspace workspace, HeadlessArguments arguments)
+            throws CoreException {
+        final IProject project= workspace.getRoot().getProject(PROJECT_NAME);
+        if (project.exists()) {
+            // Left over by a killed run
+            project.delete(true, true, null);
+        }
+        project.create(null);
+        project.open(null);
+        final IProjectDescription description= project.getDescription();
+        description.setNatureIds(new String[] { JavaCore.NATURE_ID });
+        project.setDescription(description, null);
+
+        final List<IClasspathEntry> entries= new ArrayList<>();
+        final List<File> sourceFolders= arguments.getSourceFolders();
+        for (int i= 0; i < sourceFolders.size(); i++) {
+            final IFolder folder= project.getFolder("src" + i); //$NON-NLS-1$
+            // The refactored files are written to the linked folders, so directly on the disk
+            folder.createLink(new Path(sourceFolders.get(i).getPath()), IResource.NONE, null);
+            entries.add(JavaCore.newSourceEntry(folder.getFullPath()));
+        }
+        for (File library : arguments.getClasspath()) {
+            entries.add(JavaCore.newLibraryEntry(new Path(library.getPath()), null, null));
+        }
+        entries.add(JavaCore.newContainerEntry(new Path(JRE_CONTAINER)));
+
+        final IJavaProject javaProject= JavaCore.create(project);
+        javaProject.setRawClasspath(entries.toArray(new IClasspathEntry[entries.size()]),
+                project.getFullPath().append("bin"), null); //$NON-NLS-1$
+        @SuppressWarnings("unchecked")
+        final Map<String, String> options= javaProject.getOptions(false);
+        JavaCore.setComplianceOptions(arguments.getJavaVersion(), options);
+        javaProject.setOptions(options);
+        return javaProject;
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2019 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.headless;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/** The command line arguments of the {@link HeadlessApplication}. */
+public class HeadlessArguments {
+    /** The usage of the headless application. */
+    public static final String USAGE= "Usage: -source <dirs> [-classpath <entries>] [-threads <n>]" //$NON-NLS-1$
+            + " [-javaVersion <version>] [-rules <names>] [-incremental] [-disjoint] [-profile] [-cache]\n" //$NON-NLS-1$
+            + "  -source       source folders to refactor in place, separated by " + File.pathSeparator + "\n" //$NON-NLS-1$ $NON-NLS-2$
+            + "  -classpath    jars and class folders needed to resolve the sources, separated by " //$NON-NLS-1$
+            + File.pathSeparator + "\n" //$NON-NLS-1$
+            + "  -threads      number of threads, defaults to the number of processors\n" //$NON-NLS-1$
+            + "  -javaVersion  Java version of the sources, defaults to 1.8\n" //$NON-NLS-1$
+            + "  -rules        comma separated names of the rules to apply, like InvertEquals," //$NON-NLS-1$
+            + " defaults to the rules enabled by default\n" //$NON-NLS-1$
+            + "  -incremental  only re-analyze the modified method body between iterations\n" //$NON-NLS-1$
+            + "  -disjoint     apply the refactorings of disjoint subtrees in the same iteration\n" //$NON-NLS-1$
+            + "  -profile      report the slowest rules\n" //$NON-NLS-1$
+            + "  -cache        skip the files left unchanged since a run that did not refactor them"; //$NON-NLS-1$
+
+    private final List<File> sourceFolders= new ArrayList<>();
+    private final List<File> classpath= new ArrayList<>();
+    private int nbThreads= Runtime.getRuntime().availableProcessors();
+    private String javaVersion= "1.8"; //$NON-NLS-1$
+    private Collection<String> ruleNames;
+    private boolean incrementalParsingOn;
+    private boolean disjointRefactoringsOn;
+    private boolean profilingOn;
+    private boolean resultCacheOn;
+
+    /**
+     * Parses the provided command line arguments.
+     *
+     * @param args the command line arguments
+     * @throws IllegalArgumentException if the arguments are not valid
+     */
+    public HeadlessArguments(String... args) {
+        for (int i= 0; i < args.length; i++) {
+            final String arg= args[i];
+            if ("-source".equals(arg)) { //$NON-NLS-1$
+                sourceFolders.addAll(toFiles(getValue(args, ++i, arg)));
+            } else if ("-classpath".equals(arg)) { //$NON-NLS-1$
+                classpath.addAll(toFiles(getValue(args, ++i, arg)));
+            } else if ("-threads".equals(arg)) { //$NON-NLS-1$
+                nbThreads= toPositiveInt(getValue(args, ++i, arg), arg);
+            } else if ("-javaVersion".equals(arg)) { //$NON-NLS-1$
+                javaVersion= getValue(args, ++i, arg);
+            } else if ("-rules".equals(arg)) { //$NON-NLS-1$
+                ruleNames= Arrays.asList(getValue(args, ++i, arg).split(",")); //$NON-NLS-1$
+            } else if ("-incremental".equals(arg)) { //$NON-NLS-1$
+                incrementalParsingOn= true;
+            } else if ("-disjoint".equals(arg)) { //$NON-NLS-1$
+                disjointRefactoringsOn= true;
+            } else if ("-profile".equals(arg)) { //$NON-NLS-1$
+                profilingOn= true;
+            } else if ("-cache".equals(arg)) { //$NON-NLS-1$
+                resultCacheOn= true;
+            } else {
+                throw new IllegalArgumentException("Unknown argument " + arg); //$NON-NLS-1$
+            }
+        }
+        if (sourceFolders.isEmpty()) {
+            throw new IllegalArgumentException("At least one source folder is required"); //$NON-NLS-1$
+        }
+        for (File sourceFolder : sourceFolders) {
+            if (!sourceFolder.isDirectory()) {
+                throw new IllegalArgumentException("The source folder " + sourceFolder + " does not exist"); //$NON-NLS-1$ $NON-NLS-2$
+            }
+        }
+    }
+
+    private static String getValue(String[] args, int index, String arg) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for argument " + arg); //$NON-NLS-1$
+        }
+        return args[index];
+    }
+
+    private static List<File> toFiles(String paths) {
+        final List<File> files= new ArrayList<>();
+        for (String path : paths.split(File.pathSeparator)) {
+            if (!path.isEmpty()) {
+                files.add(new File(path).getAbsoluteFile());
+            }
+        }
+        return files;
+    }
+
+    private static int toPositiveInt(String value, String arg) {
+        try {
+            final int result= Integer.parseInt(value);
+            if (result > 0) {
+                return result;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Argument " + arg + " expects a positive number, not " + value); //$NON-NLS-1$ $NON-NLS-2$
+    }
+
+    /**
+     * Returns the source folders to refactor.
+     *
+     * @return the source folders to refactor
+     */
+    public List<File> getSourceFolders() {
+        return sourceFolders;
+    }
+
+    /**
+     * Returns the jars and class folders needed to resolve the sources.
+     *
+     * @return the jars and class folders needed to resolve the sources
+     */
+    public List<File> getClasspath() {
+        return classpath;
+    }
+
+    /**
+     * Returns the number of threads applying the cleanups.
+     *
+     * @return the number of threads applying the cleanups
+     */
+    public int getNbThreads() {
+        return nbThreads;
+    }
+
+    /**
+     * Returns the Java version of the sources.
+     *
+     * @return the Java version of the sources
+     */
+    public String getJavaVersion() {
+        return javaVersion;
+    }
+
+    /**
+     * Returns the names of the rules to apply.
+     *
+     * @return the names of the rules to apply, null for the rules enabled by
+     *         default
+     */
+    public Collection<String> getRuleNames() {
+        return ruleNames;
+    }
+
+    /**
+     * Returns whether incremental parsing is on.
+     *
+     * @return true if incremental parsing is on, false otherwise
+     */
+    public boolean isIncrementalParsingOn() {
+        return incrementalParsingOn;
+    }
+
+    /**
+     * Returns whether the refactorings of disjoint subtrees are applied in the
+     * same iteration.
+     *
+     * @return true if the refactorings of disjoint subtrees are applied in the
+     *         same iteration, false otherwise
+     */
+    public boolean isDisjointRefactoringsOn() {
+        return disjointRefactoringsOn;
+    }
+
+    /**
+     * Returns whether the profiling of the cleanup rules is on.
+     *
+     * @return true if the profiling of the cleanup rules is on, false otherwise
+     */
+    public boolean isProfilingOn() {
+        return profilingOn;
+    }
+
+    /**
+     * Returns whether the cache of the files without any refactoring is on.
+     *
+     * @return true if the cache of the files without any refactoring is on,
+     *         false otherwise
+     */
+    public boolean isResultCacheOn() {
+        return resultCacheOn;
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2019 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.headless;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.autorefactor.jdt.internal.corext.dom.RefactoringRule;
+import org.autorefactor.jdt.internal.ui.fix.AbstractCleanUpRule;
+import org.autorefactor.jdt.internal.ui.fix.AllCleanUpRules;
+import org.autorefactor.preferences.Preferences;
+
+/** The preferences of the {@link HeadlessApplication}, read from its arguments. */
+public class HeadlessPreferences implements Preferences {
+    private static final String CLEANUP_SUFFIX= "CleanUp"; //$NON-NLS-1$
+
+    private final HeadlessArguments arguments;
+    private final Set<Class<?>> enabledRules= new HashSet<>();
+
+    /**
+     * Builds an instance of this class.
+     *
+     * @param arguments the arguments of the headless application
+     * @throws IllegalArgumentException if a rule name is unknown
+     */
+    public HeadlessPreferences(HeadlessArguments arguments) {
+        this.arguments= arguments;
+        final Collection<String> ruleNames= arguments.getRuleNames();
+        final Set<String> unknownRuleNames= ruleNames != null ? new HashSet<>(ruleNames) : new HashSet<String>();
+        for (RefactoringRule rule : AllCleanUpRules.getAllCleanUpRules()) {
+            final String className= rule.getClass().getSimpleName();
+            final String ruleName= className.endsWith(CLEANUP_SUFFIX)
+                    ? className.substring(0, className.length() - CLEANUP_SUFFIX.length())
+                    : className;
+            if (ruleNames == null ? rule.isByDefault() : ruleNames.contains(ruleName) || ruleNames.contains(className)) {
+                enabledRules.add(rule.getClass());
+                unknownRuleNames.remove(ruleName);
+                unknownRuleNames.remove(className);
+            }
+        }
+        if (!unknownRuleNames.isEmpty()) {
+            throw new IllegalArgumentException("Unknown rules " + unknownRuleNames); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * The debug mode is always off: errors are reported, not thrown.
+     *
+     * @return false
+     */
+    public boolean debugModeOn() {
+        return false;
+    }
+
+    /**
+     * True if the disjoint refactorings are on.
+     *
+     * @return True if the disjoint refactorings are on.
+     */
+    public boolean disjointRefactoringsOn() {
+        return arguments.isDisjointRefactoringsOn();
+    }
+
+    /**
+     * True if incremental parsing is on.
+     *
+     * @return True if incremental parsing is on.
+     */
+    public boolean incrementalParsingOn() {
+        return arguments.isIncrementalParsingOn();
+    }
+
+    /**
+     * True if profiling is on.
+     *
+     * @return True if profiling is on.
+     */
+    public boolean profilingOn() {
+        return arguments.isProfilingOn();
+    }
+
+    /**
+     * True if the result cache is on.
+     *
+     * @return True if the result cache is on.
+     */
+    public boolean resultCacheOn() {
+        return arguments.isResultCacheOn();
+    }
+
+    /**
+     * The headless application has no save action.
+     *
+     * @return 0
+     */
+    public int saveActionTimeBudget() {
+        return 0;
+    }
+
+    /**
+     * True if it is enabled.
+     *
+     * @param clazz the class
+     *
+     * @return True if it is enabled.
+     */
+    public boolean isEnabled(Class<? extends AbstractCleanUpRule> clazz) {
+        return enabledRules.contains(clazz);
+    }
+}
@@ -26,6 +26,7 @@
 package org.autorefactor.jdt.internal.corext.dom;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
@@ -33,8 +34,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
-import java.util.TreeSet;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -50,10 +49,8 @@ import org.eclipse.jdt.core.dom.LineComment;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.text.edits.DeleteEdit;
 import org.eclipse.text.edits.InsertEdit;
-import org.eclipse.text.edits.MultiTextEdit;
 import org.eclipse.text.edits.ReplaceEdit;
 import org.eclipse.text.edits.TextEdit;
-import org.eclipse.text.edits.TextEditVisitor;
 
 /** This class rewrites AST comments. */
 public class ASTCommentRewriter {
@@ -83,6 +80,10 @@ public class ASTCommentRewriter {
     }
 
     private String findRecommendedLineSeparator(CompilationUnit astRoot) {
+        if (astRoot.getTypeRoot() == null) {
+            // The AST has been parsed from source, outside of any Java project
+            return null;
+        }
         try {
             return astRoot.getTypeRoot().findRecommendedLineSeparator();
         } catch (JavaModelException e) {
@@ -136,63 +137,42 @@ public class ASTCommentRewriter {
     /**
      * Adds the edits contained in the current instance to the provided edits for
      * the provided document.
+     * <p>
+     * The edits of a comment overlapping the provided edits, or the edits of a
+     * previous comment, are not added: code edits take priority. They will be
+     * retried in the next cleanup loop.
      *
      * @param document the provided document to edit
      * @param edits    where to add edits
+     * @param index    the source ranges of the provided edits, the added edits
+     *                 are added to it
      */
-    public void addEdits(IDocument document, TextEdit edits) {
+    public void addEdits(IDocument document, TextEdit edits, SourceRangeIndex index) {
         final String source= document.get();
-        final List<TextEdit> commentEdits= new ArrayList<TextEdit>(nbEdits());
+        // The edits of each comment are added together or not at all
+        final List<List<TextEdit>> commentEdits= new ArrayList<List<TextEdit>>(nbEdits());
         addRemovalEdits(commentEdits, source);
         addReplacementEdits(commentEdits);
         addBlockCommentToJavadocEdits(commentEdits);
         addLineCommentsToJavadocEdits(commentEdits, source);
-        if (!commentEdits.isEmpty() && !anyOverlaps(edits, commentEdits)) {
-            edits.addChildren(commentEdits.toArray(new TextEdit[commentEdits.size()]));
-        }
-        // Else, code edits take priority. Give up applying current text edits.
-        // They will be retried in the next cleanup loop.
-    }
-
-    private int nbEdits() {
-        return removals.size() + replacements.size() + blockCommentToJavadoc.size() + lineCommentsToJavadoc.size();
-    }
 
-    private boolean anyOverlaps(TextEdit edits, List<TextEdit> commentEdits) {
-        for (TextEdit commentEdit : commentEdits) {
-            if (overlaps(edits, commentEdit)) {
-                return true;
+        final List<TextEdit> editsToAdd= new ArrayList<>();
+        for (List<TextEdit> edit : commentEdits) {
+            if (!index.overlapsAny(edit)) {
+                index.addAll(edit);
+                editsToAdd.addAll(edit);
             }
         }
-        return false;
-    }
-
-    private boolean overlaps(TextEdit edits, TextEdit edit2) {
-        final SourceLocation range= toSourceLoc(edit2);
-        final AtomicBoolean overlaps= new AtomicBoolean();
-        edits.accept(new TextEditVisitor() {
-            @Override
-            public boolean visit(MultiTextEdit edit) {
-                // Move on there is nothing to check here
-                return true;
-            }
-
-            @Override
-            public boolean visitNode(TextEdit edit) {
-                if (!overlaps.get()) {
-                    overlaps.set(range.overlapsWith(toSourceLoc(edit)));
-                }
-                return !overlaps.get();
-            }
-        });
-        return overlaps.get();
+        if (!editsToAdd.isEmpty()) {
+            edits.addChildren(editsToAdd.toArray(new TextEdit[editsToAdd.size()]));
+        }
     }
 
-    private SourceLocation toSourceLoc(TextEdit edit) {
-        return new SourceLocation(edit.getOffset(), edit.getLength());
+    private int nbEdits() {
+        return removals.size() + replacements.size() + blockCommentToJavadoc.size() + lineCommentsToJavadoc.size();
     }
 
-    private void addRemovalEdits(List<TextEdit> commentEdits, String source) {
+    private void addRemovalEdits(List<List<TextEdit>> commentEdits, String source) {
         if (this.removals.isEmpty()) {
             return;
         }
@@ -205,11 +185,11 @@ public class ASTCommentRewriter {
             final int endToRemove= chompWhitespacesAfter(source, start + length);
             final int lengthToRemove= endToRemove - startToRemove;
 
-            commentEdits.add(new DeleteEdit(startToRemove, lengthToRemove));
+            commentEdits.add(Collections.<TextEdit>singletonList(new DeleteEdit(startToRemove, lengthToRemove)));
         }
     }
 
-    private void addReplacementEdits(List<TextEdit> commentEdits) {
+    private void addReplacementEdits(List<List<TextEdit>> commentEdits) {
         if (this.replacements.isEmpty()) {
             return;
         }
@@ -217,48 +197,39 @@ public class ASTCommentRewriter {
             final Comment node= pair.getFirst();
             final int start= node.getStartPosition();
             final int length= node.getLength();
-            commentEdits.add(new ReplaceEdit(start, length, pair.getSecond()));
+            commentEdits.add(Collections.<TextEdit>singletonList(new ReplaceEdit(start, length, pair.getSecond())));
         }
     }
 
-    private void addBlockCommentToJavadocEdits(List<TextEdit> commentEdits) {
+    private void addBlockCommentToJavadocEdits(List<List<TextEdit>> commentEdits) {
         for (BlockComment blockComment : this.blockCommentToJavadoc) {
             final int offset= blockComment.getStartPosition() + "/*".length(); //$NON-NLS-1$
-            commentEdits.add(new InsertEdit(offset, "*")); //$NON-NLS-1$
+            commentEdits.add(Collections.<TextEdit>singletonList(new InsertEdit(offset, "*"))); //$NON-NLS-1$
         }
     }
 
-    private void addLineCommentsToJavadocEdits(List<TextEdit> commentEdits, String source) {
+    private void addLineCommentsToJavadocEdits(List<List<TextEdit>> commentEdits, String source) {
         if (this.lineCommentsToJavadoc.isEmpty()) {
             return;
         }
-        final TreeSet<Integer> lineStarts= getLineStarts(source);
+        final LineIndex lineIndex= new LineIndex(source);
         for (Entry<ASTNode, List<LineComment>> entry : this.lineCommentsToJavadoc.entrySet()) {
             final List<LineComment> lineComments= entry.getValue();
+            final List<TextEdit> javadocEdits= new ArrayList<>();
             // TODO Collect all words from the line comments,
             // then get access to indent settings, line length and newline chars
             // then spread them across several lines if needed or folded on one line only
             if (lineComments.size() == 1) {
-                addSingleLineCommentToJavadocEdits(commentEdits, entry.getKey(), lineComments, source, lineStarts);
+                addSingleLineCommentToJavadocEdits(javadocEdits, entry.getKey(), lineComments, source, lineIndex);
             } else {
-                addMultiLineCommentsToJavadocEdits(commentEdits, entry.getKey(), lineComments, source, lineStarts);
+                addMultiLineCommentsToJavadocEdits(javadocEdits, entry.getKey(), lineComments, source, lineIndex);
             }
+            commentEdits.add(javadocEdits);
         }
     }
 
-    private TreeSet<Integer> getLineStarts(String source) {
-        final TreeSet<Integer> lineStarts= new TreeSet<>();
-        lineStarts.add(0);
-
-        final Matcher matcher= Pattern.compile("\\r\\n|\\r|\\n").matcher(source); //$NON-NLS-1$
-        while (matcher.find()) {
-            lineStarts.add(matcher.end());
-        }
-        return lineStarts;
-    }
-
     private void addSingleLineCommentToJavadocEdits(List<TextEdit> commentEdits, ASTNode nextNode,
-            List<LineComment> lineComments, String source, TreeSet<Integer> lineStarts) {
+            List<LineComment> lineComments, String source, LineIndex lineIndex) {
         final int nodeStart= nextNode.getStartPosition();
         final LineComment lineComment= lineComments.get(0);
 
@@ -277,7 +248,7 @@ public class ASTCommentRewriter {
 
             appendCommentTextReplaceEndsOfBlockComment(newJavadoc, lineComment, source);
 
-            SourceLocation indent= getIndent(nextNode, lineStarts);
+            SourceLocation indent= getIndent(nextNode, lineIndex);
             newJavadoc.append(getSpaceAtEnd(source, lineComment)).append("*/").append(lineSeparator).append(source, //$NON-NLS-1$
                     indent.getStartPosition(), indent.getEndPosition());
             commentEdits.add(new InsertEdit(nodeStart, newJavadoc.toString()));
@@ -326,23 +297,23 @@ public class ASTCommentRewriter {
     }
 
     private void addMultiLineCommentsToJavadocEdits(List<TextEdit> commentEdits, ASTNode node,
-            List<LineComment> lineComments, String source, TreeSet<Integer> lineStarts) {
+            List<LineComment> lineComments, String source, LineIndex lineIndex) {
         for (int i= 0; i < lineComments.size(); i++) {
             final LineComment lineComment= lineComments.get(i);
             if (lineComment.getStartPosition() <= node.getStartPosition()) {
-                replaceLineCommentBeforeJavaElement(commentEdits, lineComment, lineComments, i, source, lineStarts);
+                replaceLineCommentBeforeJavaElement(commentEdits, lineComment, lineComments, i, source, lineIndex);
             } else {
-                replaceLineCommentAfterJavaElement(commentEdits, lineComment, lineComments, i, source, lineStarts);
+                replaceLineCommentAfterJavaElement(commentEdits, lineComment, lineComments, i, source, lineIndex);
             }
         }
     }
 
     private void replaceLineCommentBeforeJavaElement(List<TextEdit> commentEdits, LineComment lineComment,
-            List<LineComment> lineComments, int i, String source, TreeSet<Integer> lineStarts) {
+            List<LineComment> lineComments, int i, String source, LineIndex lineIndex) {
         final int replaceLength= "//".length(); //$NON-NLS-1$
         final boolean isFirst= i == 0;
         String replacementText;
-        final SourceLocation indentLoc= getIndentForJavadoc(lineComment, source, lineStarts);
+        final SourceLocation indentLoc= getIndentForJavadoc(lineComment, source, lineIndex);
         if (isFirst) {
             // TODO JNR how to obey configured indentation?
             replacementText= "/**" + lineSeparator + indentLoc.substring(source) + " *"; //$NON-NLS-1$ $NON-NLS-2$
@@ -378,7 +349,7 @@ public class ASTCommentRewriter {
     }
 
     private void replaceLineCommentAfterJavaElement(List<TextEdit> commentEdits, LineComment lineComment,
-            List<LineComment> lineComments, int i, String source, TreeSet<Integer> lineStarts) {
+            List<LineComment> lineComments, int i, String source, LineIndex lineIndex) {
         if (i - 1 < 0) {
             throw new NotImplementedException(lineComment,
                     "for a line comment situated after the java elements that it documents," //$NON-NLS-1$
@@ -387,7 +358,7 @@ public class ASTCommentRewriter {
 
         final LineComment previousLineComment= lineComments.get(i - 1);
         final int position= SourceLocation.getEndPosition(previousLineComment);
-        final String indent= getIndentForJavadoc(previousLineComment, source, lineStarts).substring(source);
+        final String indent= getIndentForJavadoc(previousLineComment, source, lineIndex).substring(source);
         final StringBuilder newJavadoc= new StringBuilder(lineSeparator).append(indent).append(" *"); //$NON-NLS-1$
 
         appendCommentTextReplaceEndsOfBlockComment(newJavadoc, lineComment, source);
@@ -397,8 +368,8 @@ public class ASTCommentRewriter {
         deleteLineCommentAfterNode(commentEdits, source, lineComment);
     }
 
-    private SourceLocation getIndentForJavadoc(LineComment lineComment, String source, TreeSet<Integer> lineStarts) {
-        final SourceLocation indentLoc= getIndent(lineComment, lineStarts);
+    private SourceLocation getIndentForJavadoc(LineComment lineComment, String source, LineIndex lineIndex) {
+        final SourceLocation indentLoc= getIndent(lineComment, lineIndex);
         final Matcher matcher= INDENT.matcher(source).region(indentLoc.getStartPosition(), indentLoc.getEndPosition());
         if (matcher.matches()) {
             return indentLoc;
@@ -406,19 +377,9 @@ public class ASTCommentRewriter {
         return SourceLocation.fromPositions(0, 0);
     }
 
-    private SourceLocation getIndent(ASTNode node, TreeSet<Integer> lineStarts) {
-        if (lineStarts.isEmpty()) {
-            // No match, return empty range
-            return SourceLocation.fromPositions(0, 0);
-        }
-
+    private SourceLocation getIndent(ASTNode node, LineIndex lineIndex) {
         final int commentStart= node.getStartPosition();
-        final int previousLineStart= findPreviousLineStart(lineStarts, commentStart);
-        return SourceLocation.fromPositions(previousLineStart, commentStart);
-    }
-
-    private int findPreviousLineStart(TreeSet<Integer> lineStarts, final int commentStart) {
-        return lineStarts.headSet(commentStart + 1).last();
+        return SourceLocation.fromPositions(lineIndex.getLineStartOf(commentStart), commentStart);
     }
 
     private int chompWhitespacesBefore(final String text, int start) {
@@ -1418,7 +1418,9 @@ public final class ASTNodes {
      *         qualified type name, {@code false} otherwise
      */
     public static boolean instanceOf(Expression expression, String qualifiedTypeName) {
-        return expression != null && instanceOf(expression.resolveTypeBinding(), qualifiedTypeName);
+        return expression != null
+                && findImplementedType(BindingQueryCache.get(expression), expression.resolveTypeBinding(),
+                        qualifiedTypeName) != null;
     }
 
     /**
@@ -1702,6 +1704,14 @@ public final class ASTNodes {
         return findImplementedType(typeBinding, qualifiedTypeName, visitedClasses);
     }
 
+    private static ITypeBinding findImplementedType(BindingQueryCache cache, ITypeBinding typeBinding,
+            String qualifiedTypeName) {
+        if (cache != null) {
+            return cache.findImplementedType(typeBinding, qualifiedTypeName);
+        }
+        return findImplementedType(typeBinding, qualifiedTypeName);
+    }
+
     private static ITypeBinding findImplementedType(ITypeBinding typeBinding, String qualifiedTypeName,
             Set<String> visitedInterfaces) {
         final ITypeBinding superclass= typeBinding.getSuperclass();
@@ -1867,8 +1877,8 @@ public final class ASTNodes {
      */
     public static boolean usesGivenSignature(MethodInvocation node, String typeQualifiedName, String methodName,
             String... parameterTypesQualifiedNames) {
-        return node != null
-                && usesGivenSignature(node.resolveMethodBinding(), typeQualifiedName, methodName, parameterTypesQualifiedNames);
+        return node != null && usesGivenSignature(BindingQueryCache.get(node), node.resolveMethodBinding(),
+                typeQualifiedName, methodName, parameterTypesQualifiedNames);
     }
 
     /**
@@ -1887,8 +1897,8 @@ public final class ASTNodes {
      */
     public static boolean usesGivenSignature(MethodDeclaration node, String typeQualifiedName, String methodName,
             String... parameterTypesQualifiedNames) {
-        return node != null
-                && usesGivenSignature(node.resolveBinding(), typeQualifiedName, methodName, parameterTypesQualifiedNames);
+        return node != null && usesGivenSignature(BindingQueryCache.get(node), node.resolveBinding(),
+                typeQualifiedName, methodName, parameterTypesQualifiedNames);
     }
 
     /**
@@ -1907,15 +1917,41 @@ public final class ASTNodes {
      */
     public static boolean usesGivenSignature(IMethodBinding methodBinding, String typeQualifiedName, String methodName,
             String... parameterTypesQualifiedNames) {
+        return usesGivenSignature(null, methodBinding, typeQualifiedName, methodName, parameterTypesQualifiedNames);
+    }
+
+    private static boolean usesGivenSignature(BindingQueryCache cache, IMethodBinding methodBinding,
+            String typeQualifiedName, String methodName, String[] parameterTypesQualifiedNames) {
         // Let's do the fast checks first
         if (methodBinding == null || !methodName.equals(methodBinding.getName())
                 || methodBinding.getParameterTypes().length != parameterTypesQualifiedNames.length) {
             return false;
         }
-        // OK more heavy checks now
+        if (cache != null) {
+            return cache.usesGivenSignature(methodBinding, typeQualifiedName, methodName, parameterTypesQualifiedNames);
+        }
+        return matchesGivenSignature(null, methodBinding, typeQualifiedName, methodName, parameterTypesQualifiedNames);
+    }
+
+    /**
+     * Does the heavy checks of {@link #usesGivenSignature(IMethodBinding, String, String, String...)}, once the
+     * method name and the number of parameters match.
+     *
+     * @param cache                        the cache of the binding queries, may be null
+     * @param methodBinding                the method binding to compare
+     * @param typeQualifiedName            the qualified name of the type declaring
+     *                                     the method
+     * @param methodName                   the method name
+     * @param parameterTypesQualifiedNames the qualified names of the parameter
+     *                                     types
+     * @return true if the provided method binding matches the provided method
+     *         signature, false otherwise
+     */
+    static boolean matchesGivenSignature(BindingQueryCache cache, IMethodBinding methodBinding,
+            String typeQualifiedName, String methodName, String[] parameterTypesQualifiedNames) {
         final ITypeBinding declaringClass= methodBinding.getDeclaringClass();
-        final ITypeBinding implementedType= findImplementedType(declaringClass, typeQualifiedName);
-        final boolean isInstanceOf= instanceOf(declaringClass, typeQualifiedName);
+        final ITypeBinding implementedType= findImplementedType(cache, declaringClass, typeQualifiedName);
+        final boolean isInstanceOf= implementedType != null;
         if (parameterTypesMatch(implementedType, isInstanceOf, methodBinding, parameterTypesQualifiedNames)) {
             return true;
         }
@@ -1929,7 +1965,8 @@ public final class ASTNodes {
         }
         IMethodBinding methodDeclaration= methodBinding.getMethodDeclaration();
         return methodDeclaration != null && methodDeclaration != methodBinding
-                && usesGivenSignature(methodDeclaration, typeQualifiedName, methodName, parameterTypesQualifiedNames);
+                && usesGivenSignature(cache, methodDeclaration, typeQualifiedName, methodName,
+                        parameterTypesQualifiedNames);
     }
 
     private static boolean parameterTypesMatch(ITypeBinding implementedType, boolean isInstanceOf,
@@ -2199,7 +2236,9 @@ public final class ASTNodes {
     }
 
     /**
-     * Returns whether the two provided nodes structurally match.
+     * Returns whether the two provided nodes structurally match. The nodes whose
+     * {@link StructuralFingerprints} differ are rejected without running the
+     * matcher.
      *
      * @param matcher the AST matcher
      * @param node1   the first node to compare
@@ -2207,7 +2246,7 @@ public final class ASTNodes {
      * @return true if the two provided nodes structurally match, false otherwise
      */
     public static boolean match(ASTSemanticMatcher matcher, ASTNode node1, ASTNode node2) {
-        return matcher.safeSubtreeMatch(node1, node2);
+        return StructuralFingerprints.mayMatch(matcher, node1, node2) && matcher.safeSubtreeMatch(node1, node2);
     }
 
     private static boolean areVariableBindingsEqual(ASTNode node1, ASTNode node2) {
@@ -2495,6 +2534,10 @@ public final class ASTNodes {
         if (node == null) {
             return Collections.emptySet();
         }
+        final SymbolIndex index= SymbolIndex.get(node);
+        if (index != null) {
+            return index.getLocalVariableIdentifiers(node, includeInnerScopes);
+        }
         final VariableDeclarationIdentifierVisitor visitor= new VariableDeclarationIdentifierVisitor(node,
                 includeInnerScopes);
         node.accept(visitor);
@@ -25,17 +25,26 @@
  */
 package org.autorefactor.jdt.internal.corext.dom;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 
+import org.autorefactor.environment.CurrentThreadEventLoop;
 import org.autorefactor.environment.Environment;
 import org.autorefactor.jdt.internal.ui.fix.AggregateASTVisitor;
 import org.autorefactor.jdt.internal.ui.fix.RefactoringContext;
+import org.autorefactor.jdt.internal.ui.fix.RuleProfile;
 import org.autorefactor.util.IllegalStateException;
 import org.autorefactor.util.UnhandledException;
 import org.eclipse.core.filebuffers.FileBuffers;
@@ -50,11 +59,24 @@ import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.WorkingCopyOwner;
 import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTRequestor;
 import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.Block;
+import org.eclipse.jdt.core.dom.BodyDeclaration;
 import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.Initializer;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.NodeFinder;
+import org.eclipse.jface.text.Document;
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IRegion;
+import org.eclipse.text.edits.ReplaceEdit;
 import org.eclipse.text.edits.TextEdit;
 
 /**
@@ -64,9 +86,24 @@ import org.eclipse.text.edits.TextEdit;
  * provided by the partitioner ({@link PrepareApplyRefactoringsJob}).
  */
 public class ApplyRefactoringsJob extends Job {
-    private final Queue<RefactoringUnit> refactoringUnits;
+    private static final int NB_REPORTED_RULES= 10;
+    /**
+     * The maximum number of units parsed together. The units of a batch cannot
+     * be stolen by the other workers anymore, so the scheduler shrinks the
+     * batches when the remaining units run low.
+     */
+    private static final int BATCH_SIZE= 8;
+    /** The deadline of the iterations without any time budget. */
+    private static final long NO_DEADLINE= Long.MAX_VALUE;
+
+    private final RefactoringUnitScheduler.WorkerQueue refactoringUnits;
     private final List<RefactoringRule> refactoringRulesToApply;
     private final Environment environment;
+    /** Edits the documents not displayed by any editor directly in this worker thread. */
+    private final Environment workerThreadEnvironment;
+    private final RuleProfile runProfile;
+    private final RefactoringResultCache resultCache;
+    private final int nbWorkers;
 
     /**
      * Builds an instance of this class.
@@ -77,11 +114,55 @@ public class ApplyRefactoringsJob extends Job {
      */
     public ApplyRefactoringsJob(Queue<RefactoringUnit> refactoringUnits, List<RefactoringRule> refactoringRulesToApply,
             Environment environment) {
+        this(toWorkerQueue(refactoringUnits), refactoringRulesToApply, environment, null, null, 1);
+    }
+
+    /**
+     * Builds an instance of this class sharing state with the other workers of
+     * the run.
+     *
+     * @param refactoringUnits        the units to automatically refactor
+     * @param refactoringRulesToApply the cleanups to apply
+     * @param environment             the environment
+     * @param runProfile              the profile shared by all the workers of the
+     *                                run, null to not profile the cleanup rules
+     * @param resultCache             the cache of the units without any
+     *                                refactoring, null to refactor all the units
+     * @param nbWorkers               the number of workers sharing the profile,
+     *                                the last one to finish reports it
+     */
+    public ApplyRefactoringsJob(RefactoringUnitScheduler.WorkerQueue refactoringUnits,
+            List<RefactoringRule> refactoringRulesToApply, Environment environment, RuleProfile runProfile,
+            RefactoringResultCache resultCache, int nbWorkers) {
         super("AutoRefactor"); //$NON-NLS-1$
         setPriority(Job.LONG);
         this.refactoringUnits= refactoringUnits;
         this.refactoringRulesToApply= refactoringRulesToApply;
         this.environment= environment;
+        this.workerThreadEnvironment= new Environment(new CurrentThreadEventLoop(), environment.getJobManager(),
+                environment.getLogger(), environment.getPreferences());
+        this.runProfile= runProfile;
+        this.resultCache= resultCache;
+        this.nbWorkers= nbWorkers;
+    }
+
+    private static RefactoringUnitScheduler.WorkerQueue toWorkerQueue(Queue<RefactoringUnit> refactoringUnits) {
+        if (refactoringUnits == null) {
+            return null;
+        }
+        return new RefactoringUnitScheduler(refactoringUnits, 1, null).getQueue(0);
+    }
+
+    /**
+     * All the jobs of AutoRefactor belong to the {@link PluginConstant#PLUGIN_ID}
+     * family, so they can be waited for.
+     *
+     * @param family the job family
+     * @return true if the family is {@link PluginConstant#PLUGIN_ID}
+     */
+    @Override
+    public boolean belongsTo(Object family) {
+        return PluginConstant.PLUGIN_ID.equals(family);
     }
 
     @Override
@@ -103,6 +184,20 @@ public class ApplyRefactoringsJob extends Job {
     }
 
     private IStatus run0(IProgressMonitor monitor) throws Exception {
+        if (runProfile == null) {
+            return run1(monitor, null);
+        }
+        final RuleProfile workerProfile= new RuleProfile(refactoringRulesToApply);
+        try {
+            return run1(monitor, workerProfile);
+        } finally {
+            if (runProfile.merge(workerProfile) == nbWorkers) {
+                reportProfile();
+            }
+        }
+    }
+
+    private IStatus run1(IProgressMonitor monitor, RuleProfile workerProfile) throws Exception {
         if (refactoringUnits.isEmpty()) {
             // No java project exists.
             return Status.OK_STATUS;
@@ -110,20 +205,10 @@ public class ApplyRefactoringsJob extends Job {
 
         final SubMonitor loopMonitor= SubMonitor.convert(monitor, refactoringUnits.size());
         try {
-            RefactoringUnit toRefactor;
-            while ((toRefactor= refactoringUnits.poll()) != null && !loopMonitor.isCanceled()) {
-                final ICompilationUnit compilationUnit= toRefactor.getCompilationUnit();
-                final JavaProjectOptions options= toRefactor.getOptions();
-                try {
-                    loopMonitor.subTask("Applying refactorings to " + getClassName(compilationUnit)); //$NON-NLS-1$
-                    final AggregateASTVisitor refactoring= new AggregateASTVisitor(refactoringRulesToApply);
-                    applyRefactoring(compilationUnit, refactoring, options, loopMonitor.newChild(1), true);
-                } catch (OperationCanceledException e) {
-                    throw e;
-                } catch (Exception e) {
-                    final String msg= "Exception when applying refactorings to file \"" + compilationUnit.getPath()
-                            + "\": " + e.getMessage();
-                    throw new UnhandledException(null, msg, e);
+            List<RefactoringUnit> batch;
+            while (!(batch= refactoringUnits.pollBatch(BATCH_SIZE)).isEmpty() && !loopMonitor.isCanceled()) {
+                for (List<RefactoringUnit> projectBatch : groupByProject(batch)) {
+                    applyRefactorings(projectBatch, workerProfile, loopMonitor);
                 }
             }
         } finally {
@@ -132,6 +217,110 @@ public class ApplyRefactoringsJob extends Job {
         return Status.OK_STATUS;
     }
 
+    /** The units are parsed in the lookup environment of their project. */
+    private static Iterable<List<RefactoringUnit>> groupByProject(List<RefactoringUnit> batch) {
+        final Map<IJavaProject, List<RefactoringUnit>> batchesByProject= new LinkedHashMap<>();
+        for (RefactoringUnit toRefactor : batch) {
+            final IJavaProject javaProject= toRefactor.getCompilationUnit().getJavaProject();
+            List<RefactoringUnit> projectBatch= batchesByProject.get(javaProject);
+            if (projectBatch == null) {
+                projectBatch= new ArrayList<>();
+                batchesByProject.put(javaProject, projectBatch);
+            }
+            projectBatch.add(toRefactor);
+        }
+        return batchesByProject.values();
+    }
+
+    /**
+     * Parses the provided units together, so they share the binding lookups,
+     * then refactors each of them.
+     */
+    private void applyRefactorings(List<RefactoringUnit> projectBatch, final RuleProfile workerProfile,
+            final SubMonitor loopMonitor) {
+        final JavaProjectOptions options= projectBatch.get(0).getOptions();
+        final Map<ICompilationUnit, String> cacheKeys= new HashMap<>();
+        final List<ICompilationUnit> toParse= new ArrayList<>(projectBatch.size());
+        for (RefactoringUnit toRefactor : projectBatch) {
+            final ICompilationUnit compilationUnit= toRefactor.getCompilationUnit();
+            final String cacheKey= getCacheKey(compilationUnit, options);
+            if (cacheKey != null && resultCache.hasNoRefactoring(cacheKey)) {
+                // Unchanged since a run that did not find anything to refactor
+                loopMonitor.worked(1);
+                refactoringUnits.unitDone();
+            } else {
+                cacheKeys.put(compilationUnit, cacheKey);
+                toParse.add(compilationUnit);
+            }
+        }
+        if (toParse.isEmpty()) {
+            return;
+        }
+
+        final ASTParser parser= ASTParser.newParser(AST.JLS8);
+        parser.setProject(toParse.get(0).getJavaProject());
+        parser.setResolveBindings(true);
+        parser.setCompilerOptions(options.getCompilerOptions());
+        parser.createASTs(toParse.toArray(new ICompilationUnit[toParse.size()]), new String[0], new ASTRequestor() {
+            @Override
+            public void acceptAST(ICompilationUnit compilationUnit, CompilationUnit astRoot) {
+                // The bindings of the AST are only valid during this call
+                try {
+                    applyRefactoring(compilationUnit, astRoot, cacheKeys.get(compilationUnit), options,
+                            workerProfile, loopMonitor);
+                } finally {
+                    refactoringUnits.unitDone();
+                }
+            }
+        }, null);
+    }
+
+    private String getCacheKey(ICompilationUnit compilationUnit, JavaProjectOptions options) {
+        if (resultCache == null) {
+            return null;
+        }
+        try {
+            return resultCache.getKey(compilationUnit.getSource(), options);
+        } catch (JavaModelException e) {
+            throw new UnhandledException(null, e);
+        }
+    }
+
+    private void applyRefactoring(ICompilationUnit compilationUnit, CompilationUnit astRoot, String cacheKey,
+            JavaProjectOptions options, RuleProfile workerProfile, SubMonitor loopMonitor) {
+        try {
+            loopMonitor.subTask("Applying refactorings to " + getClassName(compilationUnit)); //$NON-NLS-1$
+            final AggregateASTVisitor refactoring= new AggregateASTVisitor(refactoringRulesToApply);
+            refactoring.setProfile(workerProfile);
+            final List<TextEdit> textEdits= applyRefactoring(compilationUnit, astRoot, refactoring, options,
+                    loopMonitor.newChild(1), true);
+            // A rule disabled after throwing may still find refactorings once fixed
+            if (cacheKey != null && textEdits != null && textEdits.isEmpty() && !refactoring.hasFaultyVisitors()) {
+                resultCache.recordNoRefactoring(cacheKey);
+            }
+        } catch (OperationCanceledException e) {
+            throw e;
+        } catch (Exception e) {
+            final String msg= "Exception when applying refactorings to file \"" + compilationUnit.getPath()
+                    + "\": " + e.getMessage();
+            throw new UnhandledException(null, msg, e);
+        }
+    }
+
+    private void reportProfile() {
+        final StringBuilder report= new StringBuilder(runProfile.getSlowestRulesReport(NB_REPORTED_RULES));
+        try {
+            final File csvFile= File.createTempFile("autorefactor-profile-", ".csv"); //$NON-NLS-1$ $NON-NLS-2$
+            Files.write(csvFile.toPath(), runProfile.toCsv().getBytes(StandardCharsets.UTF_8));
+            final File jsonFile= File.createTempFile("autorefactor-profile-", ".json"); //$NON-NLS-1$ $NON-NLS-2$
+            Files.write(jsonFile.toPath(), runProfile.toJson().getBytes(StandardCharsets.UTF_8));
+            report.append("\nFull profile written to ").append(csvFile).append(" and ").append(jsonFile); //$NON-NLS-1$ $NON-NLS-2$
+        } catch (IOException e) {
+            environment.getLogger().error("Cannot write the profile of the cleanup rules", e); //$NON-NLS-1$
+        }
+        environment.getLogger().info(report.toString());
+    }
+
     private String getClassName(final ICompilationUnit compilationUnit) {
         final String elName= compilationUnit.getElementName();
         final String simpleName= elName.substring(0, elName.lastIndexOf('.'));
@@ -155,6 +344,30 @@ public class ApplyRefactoringsJob extends Job {
      */
     public List<TextEdit> applyRefactoring(ICompilationUnit compilationUnit, AggregateASTVisitor refactoringToApply,
             JavaProjectOptions options, SubMonitor monitor, boolean hasToSave) throws Exception {
+        return applyRefactoring(compilationUnit, null, refactoringToApply, options, monitor, hasToSave);
+    }
+
+    /**
+     * Applies the cleanups provided inside the {@link AggregateASTVisitor} to
+     * the provided {@link ICompilationUnit}, starting from an AST already parsed
+     * with its bindings, like the one a save action receives. The compilation
+     * unit is only parsed again for the next iterations.
+     *
+     * @param compilationUnit    the compilation unit to refactor
+     * @param parsedAstRoot      the AST of the compilation unit, matching the
+     *                           content of its buffer, null to parse it
+     * @param refactoringToApply the {@link AggregateASTVisitor} to apply to the
+     *                           compilation unit
+     * @param options            the Java project options used to compile the
+     *                           project
+     * @param monitor            the progress monitor of the current job
+     * @param hasToSave          hasToSave
+     * @return the edits of each iteration
+     * @throws Exception if any problem occurs
+     */
+    public List<TextEdit> applyRefactoring(ICompilationUnit compilationUnit, CompilationUnit parsedAstRoot,
+            AggregateASTVisitor refactoringToApply, JavaProjectOptions options, SubMonitor monitor, boolean hasToSave)
+            throws Exception {
         final ITextFileBufferManager bufferManager= FileBuffers.getTextFileBufferManager();
         final IPath path= compilationUnit.getPath();
         final LocationKind locationKind= LocationKind.NORMALIZE;
@@ -174,7 +387,11 @@ public class ApplyRefactoringsJob extends Job {
                 return null;
             }
             final IDocument document= textFileBuffer.getDocument();
-            textEdits= applyRefactoring(document, compilationUnit, refactoringToApply, options, monitor, hasToSave);
+            // Only the documents displayed by an editor must be modified in the UI thread
+            final Environment documentEnvironment= textFileBuffer.isSynchronizationContextRequested() ? environment
+                    : workerThreadEnvironment;
+            textEdits= applyRefactoring(document, compilationUnit, parsedAstRoot, refactoringToApply, options, monitor,
+                    hasToSave, hasToSave, documentEnvironment, NO_DEADLINE);
         } finally {
             bufferManager.disconnect(path, locationKind, null);
         }
@@ -210,6 +427,94 @@ public class ApplyRefactoringsJob extends Job {
     public List<TextEdit> applyRefactoring(IDocument document, ICompilationUnit compilationUnit,
             AggregateASTVisitor refactoring, JavaProjectOptions options, SubMonitor monitor, boolean hasToSave)
             throws Exception {
+        return applyRefactoring(document, compilationUnit, null, refactoring, options, monitor, hasToSave,
+                hasToSave, environment, NO_DEADLINE);
+    }
+
+    /**
+     * Applies the cleanups provided inside the {@link AggregateASTVisitor} to an
+     * in-memory copy of the provided {@link ICompilationUnit}, iterating until no
+     * cleanup applies anymore or until the provided deadline. Neither the
+     * compilation unit nor its file are modified.
+     * <p>
+     * No iteration starts when the previous one suggests it would end after the
+     * deadline, and the visit of an iteration stops at the deadline.
+     *
+     * @param compilationUnit the compilation unit to refactor
+     * @param parsedAstRoot   the AST of the compilation unit, matching the content
+     *                        of its buffer, null to parse it
+     * @param refactoring     the {@link AggregateASTVisitor} to apply to the
+     *                        compilation unit
+     * @param options         the Java project options used to compile the project
+     * @param monitor         the progress monitor of the current job
+     * @param deadline        the value of {@link System#nanoTime()} when the
+     *                        iterations must be over
+     * @return the edit replacing the source of the compilation unit by the
+     *         refactored source, null if no cleanup applies
+     * @throws Exception if any problem occurs
+     */
+    public TextEdit applyRefactoringInMemory(ICompilationUnit compilationUnit, CompilationUnit parsedAstRoot,
+            AggregateASTVisitor refactoring, JavaProjectOptions options, SubMonitor monitor, long deadline)
+            throws Exception {
+        final String source= compilationUnit.getSource();
+        final IDocument document= new Document(source);
+        // The iterations re-parse this copy, the compilation unit itself keeps its content
+        final ICompilationUnit workingCopy= compilationUnit.getWorkingCopy(new WorkingCopyOwner() {
+        }, null);
+        refactoring.setDeadline(deadline);
+        try {
+            workingCopy.getBuffer().setContents(source);
+            applyRefactoring(document, workingCopy, parsedAstRoot, refactoring, options, monitor, true, false,
+                    workerThreadEnvironment, deadline);
+        } finally {
+            refactoring.setDeadline(NO_DEADLINE);
+            workingCopy.discardWorkingCopy();
+        }
+        return newReplaceEdit(source, document.get());
+    }
+
+    /**
+     * Returns one edit replacing the range where the provided sources differ, as
+     * the edits of the successive iterations apply to different sources.
+     */
+    private static TextEdit newReplaceEdit(String source, String refactoredSource) {
+        if (source.equals(refactoredSource)) {
+            return null;
+        }
+
+        final int minLength= Math.min(source.length(), refactoredSource.length());
+        int start= 0;
+        while (start < minLength && source.charAt(start) == refactoredSource.charAt(start)) {
+            start++;
+        }
+        int nbEndChars= 0;
+        while (nbEndChars < minLength - start && source.charAt(source.length() - 1 - nbEndChars) == refactoredSource
+                .charAt(refactoredSource.length() - 1 - nbEndChars)) {
+            nbEndChars++;
+        }
+        return new ReplaceEdit(start, source.length() - nbEndChars - start,
+                refactoredSource.substring(start, refactoredSource.length() - nbEndChars));
+    }
+
+    /**
+     * Applies the cleanups, starting from the provided AST if any.
+     *
+     * @param parsedAstRoot       the AST of the compilation unit for the first
+     *                            iteration, null to parse it
+     * @param hasToApply          true to apply the edits to the document and
+     *                            iterate, false to only compute the edits of the
+     *                            first iteration
+     * @param hasToSave           true to save the compilation unit after each
+     *                            iteration if it had no unsaved changes
+     * @param documentEnvironment the environment whose event loop modifies the
+     *                            document
+     * @param deadline            the value of {@link System#nanoTime()} after
+     *                            which no iteration starts
+     */
+    private List<TextEdit> applyRefactoring(IDocument document, ICompilationUnit compilationUnit,
+            CompilationUnit parsedAstRoot, AggregateASTVisitor refactoring, JavaProjectOptions options,
+            SubMonitor monitor, boolean hasToApply, boolean hasToSave, Environment documentEnvironment, long deadline)
+            throws Exception {
         // Creation of DOM/AST from a ICompilationUnit
         final ASTParser parser= ASTParser.newParser(AST.JLS8);
 
@@ -222,16 +527,41 @@ public class ApplyRefactoringsJob extends Job {
 
         monitor.setWorkRemaining(maxIterations);
 
-        CompilationUnit astRoot;
+        final boolean incrementalParsing= isIncrementalParsingOn();
+        refactoring.setDisjointRefactorings(isDisjointRefactoringsOn());
+        // Region modified by the last iteration, null when the whole file must be analyzed
+        IRegion changedRegion= null;
+        long lastIterationNanos= 0;
+
+        CompilationUnit astRoot= parsedAstRoot;
         do {
+            final long iterationStart= System.nanoTime();
+            if (deadline != NO_DEADLINE && iterationCount > 0 && iterationStart + lastIterationNanos - deadline > 0) {
+                // The next iteration would likely end after the deadline
+                break;
+            }
+
             // I did not find any other way to directly modify the AST
             // while still keeping the resolved type bindings working.
             // Using astRoot.recordModifications() did not work:
             // type bindings were lost. Is there a way to recover them?
             // FIXME we should find a way to apply all the changes at
             // the AST level and refresh the bindings
-            resetParser(compilationUnit, parser, options);
-            astRoot= (CompilationUnit) parser.createAST(null);
+            BodyDeclaration changedDeclaration= null;
+            if (iterationCount > 0 || astRoot == null) {
+                if (changedRegion != null) {
+                    // Only the method body containing the changes is parsed,
+                    // the other method bodies are skipped but all the declarations are still resolved
+                    resetParser(compilationUnit, parser, options);
+                    parser.setFocalPosition(changedRegion.getOffset());
+                    astRoot= (CompilationUnit) parser.createAST(null);
+                    changedDeclaration= getEnclosingBodyDeclaration(astRoot, changedRegion);
+                }
+                if (changedDeclaration == null) {
+                    astRoot= parseWholeFile(compilationUnit, parser, options);
+                }
+            }
+            changedRegion= null;
 
             if (iterationCount > maxIterations) {
                 // Oops! Something went wrong.
@@ -243,21 +573,35 @@ public class ApplyRefactoringsJob extends Job {
                 break;
             }
 
-            final RefactoringContext ctx= new RefactoringContext(compilationUnit, astRoot, options, monitor,
-                    environment);
+            RefactoringContext ctx= new RefactoringContext(compilationUnit, astRoot, options, monitor,
+                    documentEnvironment);
             refactoring.setRefactoringContext(ctx);
 
-            final Refactorings refactorings= refactoring.getRefactorings(astRoot);
-            if (!refactorings.hasRefactorings()) {
-                // No new cleanups have been applied,
-                // We are done with applying the cleanups.
-                break;
+            Refactorings refactorings= null;
+            if (changedDeclaration != null && !ctx.isUsingLombok()) {
+                // Only the rules local to a body can refactor it alone
+                refactorings= refactoring.getBodyLocalRefactorings(changedDeclaration);
+            }
+            if (refactorings == null || !refactorings.hasRefactorings()) {
+                if (changedDeclaration != null) {
+                    // The changes may have enabled cleanups for the other rules or in the rest of the file:
+                    // the skipped bodies are needed to fully analyze it before concluding
+                    astRoot= parseWholeFile(compilationUnit, parser, options);
+                    ctx= new RefactoringContext(compilationUnit, astRoot, options, monitor, documentEnvironment);
+                    refactoring.setRefactoringContext(ctx);
+                }
+                refactorings= refactoring.getRefactorings(astRoot);
+                if (!refactorings.hasRefactorings()) {
+                    // No new cleanups have been applied,
+                    // We are done with applying the cleanups.
+                    break;
+                }
             }
 
             // Apply the cleanups and save the compilation unit
-            refactorings.applyTo(document, hasToSave);
+            refactorings.applyTo(document, hasToApply);
             textEdits.add(refactorings.getEdits());
-            if (!hasToSave) {
+            if (!hasToApply) {
                 return textEdits;
             }
             final boolean hadUnsavedChanges= compilationUnit.hasUnsavedChanges();
@@ -273,6 +617,10 @@ public class ApplyRefactoringsJob extends Job {
                 compilationUnit.save(null, true);
             }
             iterationCount++;
+            lastIterationNanos= System.nanoTime() - iterationStart;
+            if (incrementalParsing) {
+                changedRegion= refactorings.getChangedRegion();
+            }
 
             final Set<ASTVisitor> thisLoopVisitors= refactoring.getVisitorsContributingRefactoring();
             if (thisLoopVisitors.equals(lastLoopVisitors)) {
@@ -286,6 +634,51 @@ public class ApplyRefactoringsJob extends Job {
         return textEdits;
     }
 
+    private boolean isIncrementalParsingOn() {
+        // Unit tests do not provide any preferences
+        return environment.getPreferences() != null && environment.getPreferences().incrementalParsingOn();
+    }
+
+    private boolean isDisjointRefactoringsOn() {
+        return environment.getPreferences() != null && environment.getPreferences().disjointRefactoringsOn();
+    }
+
+    /**
+     * Returns the outermost method or initializer whose body contains the whole
+     * provided region.
+     *
+     * @param astRoot the compilation unit, possibly parsed with a focal
+     *                position inside the region
+     * @param region  the region to look for
+     * @return the outermost method or initializer whose body contains the whole
+     *         provided region, null if no such declaration exists
+     */
+    private static BodyDeclaration getEnclosingBodyDeclaration(CompilationUnit astRoot, IRegion region) {
+        BodyDeclaration result= null;
+        ASTNode node= NodeFinder.perform(astRoot, region.getOffset(), region.getLength());
+        while (node != null) {
+            final Block body;
+            if (node instanceof MethodDeclaration) {
+                body= ((MethodDeclaration) node).getBody();
+            } else if (node instanceof Initializer) {
+                body= ((Initializer) node).getBody();
+            } else {
+                body= null;
+            }
+            if (body != null && body.getStartPosition() < region.getOffset()
+                    && region.getOffset() + region.getLength() < SourceLocation.getEndPosition(body)) {
+                result= (BodyDeclaration) node;
+            }
+            node= node.getParent();
+        }
+        return result;
+    }
+
+    private static CompilationUnit parseWholeFile(ICompilationUnit cu, ASTParser parser, JavaProjectOptions options) {
+        resetParser(cu, parser, options);
+        return (CompilationUnit) parser.createAST(null);
+    }
+
     private static void resetParser(ICompilationUnit cu, ASTParser parser, JavaProjectOptions options) {
         parser.setSource(cu);
         parser.setResolveBindings(true);
@@ -0,0 +1,244 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2019 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.jdt.internal.corext.dom;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+
+/**
+ * Memoizes the answers of {@link ASTNodes#usesGivenSignature(IMethodBinding, String, String, String...)}
+ * and {@link ASTNodes#findImplementedType(ITypeBinding, String)} for the
+ * bindings of one AST.
+ * <p>
+ * The rules keep asking the same questions about the same few methods and
+ * types, like whether a call to <code>add()</code> is a call to
+ * <code>java.util.Collection.add(java.lang.Object)</code>, and each miss walks
+ * the type hierarchy. The bindings are keyed by their binding key: the
+ * bindings of one AST never change, even when a rule rewrites the AST, but a
+ * new cache must be used for each new AST. The bindings without a key are not
+ * cached. This class is not thread-safe.
+ */
+public final class BindingQueryCache {
+    private static final String PROPERTY= BindingQueryCache.class.getName();
+    /** Marks a type that has been searched in a hierarchy without being found. */
+    private static final Object NOT_FOUND= new Object();
+
+    private static final class SignatureKey {
+        private final String methodKey;
+        private final String typeQualifiedName;
+        private final String methodName;
+        private final String[] parameterTypesQualifiedNames;
+
+        private SignatureKey(String methodKey, String typeQualifiedName, String methodName,
+                String[] parameterTypesQualifiedNames) {
+            this.methodKey= methodKey;
+            this.typeQualifiedName= typeQualifiedName;
+            this.methodName= methodName;
+            this.parameterTypesQualifiedNames= parameterTypesQualifiedNames;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * (31 * methodKey.hashCode() + typeQualifiedName.hashCode()) + methodName.hashCode())
+                    + Arrays.hashCode(parameterTypesQualifiedNames);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof SignatureKey)) {
+                return false;
+            }
+            final SignatureKey other= (SignatureKey) obj;
+            return methodKey.equals(other.methodKey) && typeQualifiedName.equals(other.typeQualifiedName)
+                    && methodName.equals(other.methodName)
+                    && Arrays.equals(parameterTypesQualifiedNames, other.parameterTypesQualifiedNames);
+        }
+    }
+
+    private static final class TypeKey {
+        private final String typeKey;
+        private final String qualifiedTypeName;
+
+        private TypeKey(String typeKey, String qualifiedTypeName) {
+            this.typeKey= typeKey;
+            this.qualifiedTypeName= qualifiedTypeName;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * typeKey.hashCode() + qualifiedTypeName.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof TypeKey)) {
+                return false;
+            }
+            final TypeKey other= (TypeKey) obj;
+            return typeKey.equals(other.typeKey) && qualifiedTypeName.equals(other.qualifiedTypeName);
+        }
+    }
+
+    private final Map<SignatureKey, Boolean> signatures= new HashMap<>();
+    private final Map<TypeKey, Object> implementedTypes= new HashMap<>();
+    private int nbHits;
+    private int nbMisses;
+
+    private BindingQueryCache() {
+    }
+
+    /**
+     * Attaches a new cache to the provided compilation unit, so the helpers
+     * receiving one of its nodes use it.
+     *
+     * @param astRoot the compilation unit, root of the AST
+     * @return the cache of the compilation unit
+     */
+    public static BindingQueryCache attach(CompilationUnit astRoot) {
+        final BindingQueryCache cache= new BindingQueryCache();
+        astRoot.setProperty(PROPERTY, cache);
+        return cache;
+    }
+
+    /**
+     * Returns the cache attached to the compilation unit of the provided node.
+     *
+     * @param node a node
+     * @return the cache attached to the compilation unit of the provided node,
+     *         null if there is none
+     */
+    public static BindingQueryCache get(ASTNode node) {
+        if (node == null) {
+            return null;
+        }
+        final Object cache= node.getRoot().getProperty(PROPERTY);
+        return cache instanceof BindingQueryCache ? (BindingQueryCache) cache : null;
+    }
+
+    /**
+     * Returns whether the provided method binding has the provided method
+     * signature, like
+     * {@link ASTNodes#usesGivenSignature(IMethodBinding, String, String, String...)}.
+     * The caller has already checked the method name and the number of
+     * parameters.
+     *
+     * @param methodBinding                the method binding to compare
+     * @param typeQualifiedName            the qualified name of the type declaring
+     *                                     the method
+     * @param methodName                   the method name
+     * @param parameterTypesQualifiedNames the qualified names of the parameter
+     *                                     types
+     * @return true if the provided method binding matches the provided method
+     *         signature, false otherwise
+     */
+    boolean usesGivenSignature(IMethodBinding methodBinding, String typeQualifiedName, String methodName,
+            String[] parameterTypesQualifiedNames) {
+        final String methodKey= methodBinding.getKey();
+        if (methodKey == null) {
+            return ASTNodes.matchesGivenSignature(this, methodBinding, typeQualifiedName, methodName,
+                    parameterTypesQualifiedNames);
+        }
+
+        final SignatureKey key= new SignatureKey(methodKey, typeQualifiedName, methodName,
+                parameterTypesQualifiedNames);
+        Boolean result= signatures.get(key);
+        if (result != null) {
+            nbHits++;
+            return result;
+        }
+
+        nbMisses++;
+        result= ASTNodes.matchesGivenSignature(this, methodBinding, typeQualifiedName, methodName,
+                parameterTypesQualifiedNames);
+        signatures.put(key, result);
+        return result;
+    }
+
+    /**
+     * Returns the type binding for the provided qualified type name if it can be
+     * found in the type hierarchy of the provided type binding, like
+     * {@link ASTNodes#findImplementedType(ITypeBinding, String)}.
+     *
+     * @param typeBinding       the type binding to analyze
+     * @param qualifiedTypeName the qualified type name to find
+     * @return the type binding for the provided qualified type name if it can be
+     *         found in the type hierarchy of the provided type binding, or
+     *         {@code null} otherwise
+     */
+    public ITypeBinding findImplementedType(ITypeBinding typeBinding, String qualifiedTypeName) {
+        final String typeKey= typeBinding != null ? typeBinding.getKey() : null;
+        if (typeKey == null) {
+            return ASTNodes.findImplementedType(typeBinding, qualifiedTypeName);
+        }
+
+        final TypeKey key= new TypeKey(typeKey, qualifiedTypeName);
+        Object result= implementedTypes.get(key);
+        if (result != null) {
+            nbHits++;
+            return result != NOT_FOUND ? (ITypeBinding) result : null;
+        }
+
+        nbMisses++;
+        final ITypeBinding implementedType= ASTNodes.findImplementedType(typeBinding, qualifiedTypeName);
+        implementedTypes.put(key, implementedType != null ? implementedType : NOT_FOUND);
+        return implementedType;
+    }
+
+    /**
+     * Returns the number of answers found in this cache.
+     *
+     * @return the number of answers found in this cache
+     */
+    public int getNbHits() {
+        return nbHits;
+    }
+
+    /**
+     * Returns the number of answers computed by this cache.
+     *
+     * @return the number of answers computed by this cache
+     */
+    public int getNbMisses() {
+        return nbMisses;
+    }
+
+    @Override
+    public String toString() {
+        return "Binding query cache: " + nbHits + " hits, " + nbMisses + " misses"; //$NON-NLS-1$ $NON-NLS-2$ $NON-NLS-3$
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2019 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.jdt.internal.corext.dom;
+
+import java.util.Arrays;
+
+/**
+ * Index of the line starts of a source text, computed in one pass.
+ * <p>
+ * Lines are separated by <code>\r\n</code>, <code>\r</code> or
+ * <code>\n</code>. Lines and columns are numbered from 1, like in
+ * {@link org.eclipse.jdt.core.dom.CompilationUnit#getLineNumber(int)}.
+ */
+public final class LineIndex {
+    /** The start position of each line, in increasing order. */
+    private final int[] lineStarts;
+    private final String source;
+
+    /**
+     * Builds the index of the provided source text.
+     *
+     * @param source the source text
+     */
+    public LineIndex(String source) {
+        this.source= source;
+        int[] starts= new int[Math.max(16, source.length() / 32)];
+        int nbLines= 1;
+        for (int i= 0; i < source.length(); i++) {
+            final char c= source.charAt(i);
+            if (c == '\n' || c == '\r') {
+                if (c == '\r' && i + 1 < source.length() && source.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                if (nbLines == starts.length) {
+                    starts= Arrays.copyOf(starts, nbLines * 2);
+                }
+                starts[nbLines++]= i + 1;
+            }
+        }
+        lineStarts= Arrays.copyOf(starts, nbLines);
+    }
+
+    /**
+     * Returns the number of lines.
+     *
+     * @return the number of lines, at least one
+     */
+    public int getNbLines() {
+        return lineStarts.length;
+    }
+
+    /**
+     * Returns the start position of the provided line.
+     *
+     * @param lineNumber the line number, from 1
+     * @return the start position of the provided line
+     */
+    public int getLineStart(int lineNumber) {
+        return lineStarts[lineNumber - 1];
+    }
+
+    /**
+     * Returns the end position of the provided line, including its line
+     * separator.
+     *
+     * @param lineNumber the line number, from 1
+     * @return the end position of the provided line, excluded
+     */
+    public int getLineEnd(int lineNumber) {
+        return lineNumber < lineStarts.length ? lineStarts[lineNumber] : source.length();
+    }
+
+    /**
+     * Returns the number of the line containing the provided position.
+     *
+     * @param position the position in the source text
+     * @return the number of the line containing the provided position, from 1
+     */
+    public int getLineNumber(int position) {
+        final int index= Arrays.binarySearch(lineStarts, position);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    /**
+     * Returns the start position of the line containing the provided position.
+     *
+     * @param position the position in the source text
+     * @return the start position of the line containing the provided position
+     */
+    public int getLineStartOf(int position) {
+        return getLineStart(getLineNumber(position));
+    }
+
+    /**
+     * Returns the column of the provided position, where a tab moves to the next
+     * multiple of the tab size, like in the editors.
+     *
+     * @param position the position in the source text
+     * @param tabSize  the number of columns of a tab
+     * @return the column of the provided position, from 1
+     */
+    public int getColumnNumber(int position, int tabSize) {
+        int column= 0;
+        for (int i= getLineStartOf(position); i < position; i++) {
+            if (source.charAt(i) == '\t') {
+                column+= tabSize - column % tabSize;
+            } else {
+                column++;
+            }
+        }
+        return column + 1;
+    }
+}
@@ -25,6 +25,8 @@
  */
 package org.autorefactor.jdt.internal.corext.dom;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -32,16 +34,21 @@ import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.autorefactor.environment.Environment;
+import org.autorefactor.jdt.internal.ui.fix.RuleProfile;
 import org.autorefactor.util.NotImplementedException;
 import org.autorefactor.util.UnhandledException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
 import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
 import org.eclipse.core.runtime.jobs.JobGroup;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
@@ -49,16 +56,20 @@ import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IPackageFragment;
 import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.eclipse.jdt.core.JavaModelException;
+import org.osgi.framework.Bundle;
 
 /**
  * Eclipse job that prepares and partitions work for
  * {@link ApplyRefactoringsJob}.
  */
 public class PrepareApplyRefactoringsJob extends Job {
+    private static final String RESULT_CACHE_FILE_NAME= "result-cache.txt"; //$NON-NLS-1$
+
     private final List<IJavaElement> javaElements;
     private final List<RefactoringRule> refactoringRulesToApply;
     private final Map<IJavaElement, JavaProjectOptions> javaProjects= new HashMap<>();
     private final Environment environment;
+    private final int maxNbWorkers;
 
     /**
      * Builds an instance of this class.
@@ -70,11 +81,39 @@ public class PrepareApplyRefactoringsJob extends Job {
      */
     public PrepareApplyRefactoringsJob(List<IJavaElement> javaElements, List<RefactoringRule> refactoringRulesToApply,
             Environment environment) {
+        this(javaElements, refactoringRulesToApply, environment, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Builds an instance of this class.
+     *
+     * @param javaElements            the java elements selected for automatic
+     *                                cleanup
+     * @param refactoringRulesToApply the cleanups to apply
+     * @param environment             the environment
+     * @param maxNbWorkers            the maximum number of jobs applying the
+     *                                cleanups in parallel
+     */
+    public PrepareApplyRefactoringsJob(List<IJavaElement> javaElements, List<RefactoringRule> refactoringRulesToApply,
+            Environment environment, int maxNbWorkers) {
         super("Prepare AutoRefactor"); //$NON-NLS-1$
         setPriority(Job.SHORT);
         this.javaElements= javaElements;
         this.refactoringRulesToApply= refactoringRulesToApply;
         this.environment= environment;
+        this.maxNbWorkers= maxNbWorkers;
+    }
+
+    /**
+     * All the jobs of AutoRefactor belong to the {@link PluginConstant#PLUGIN_ID}
+     * family, so they can be waited for.
+     *
+     * @param family the job family
+     * @return true if the family is {@link PluginConstant#PLUGIN_ID}
+     */
+    @Override
+    public boolean belongsTo(Object family) {
+        return PluginConstant.PLUGIN_ID.equals(family);
     }
 
     @Override
@@ -98,11 +137,19 @@ public class PrepareApplyRefactoringsJob extends Job {
     private IStatus run0(IProgressMonitor monitor) throws Exception {
         if (!javaElements.isEmpty()) {
             final Queue<RefactoringUnit> toRefactor= collectRefactoringUnits(javaElements, monitor);
-            final int nbCores= Runtime.getRuntime().availableProcessors();
-            final int nbWorkers= computeNbWorkers(toRefactor.size(), nbCores);
+            final int nbWorkers= computeNbWorkers(toRefactor.size(), maxNbWorkers);
+            final RefactoringUnitScheduler scheduler= new RefactoringUnitScheduler(toRefactor, nbWorkers,
+                    environment.getLogger());
+            final RuleProfile profile= isProfilingOn() ? new RuleProfile(refactoringRulesToApply) : null;
+            final RefactoringResultCache resultCache= isResultCacheOn() ? loadResultCache() : null;
+            final ResultCacheSaver resultCacheSaver= new ResultCacheSaver(resultCache, nbWorkers);
             final JobGroup jobGroup= new JobGroup("Job name", nbWorkers, nbWorkers); //$NON-NLS-1$
             for (int i= 0; i < nbWorkers; i++) {
-                final Job job= new ApplyRefactoringsJob(toRefactor, clone(refactoringRulesToApply), environment);
+                final Job job= new ApplyRefactoringsJob(scheduler.getQueue(i), clone(refactoringRulesToApply),
+                        environment, profile, resultCache, nbWorkers);
+                if (resultCache != null) {
+                    job.addJobChangeListener(resultCacheSaver);
+                }
                 job.setJobGroup(jobGroup);
                 job.setUser(true);
                 job.schedule();
@@ -111,6 +158,50 @@ public class PrepareApplyRefactoringsJob extends Job {
         return Status.OK_STATUS;
     }
 
+    private boolean isProfilingOn() {
+        return environment.getPreferences() != null && environment.getPreferences().profilingOn();
+    }
+
+    private boolean isResultCacheOn() {
+        return environment.getPreferences() != null && environment.getPreferences().resultCacheOn();
+    }
+
+    private RefactoringResultCache loadResultCache() {
+        final Bundle bundle= Platform.getBundle(PluginConstant.PLUGIN_ID);
+        final File file= Platform.getStateLocation(bundle).append(RESULT_CACHE_FILE_NAME).toFile();
+        final RefactoringResultCache resultCache= new RefactoringResultCache(file,
+                RefactoringResultCache.DEFAULT_MAX_SIZE, refactoringRulesToApply, bundle.getVersion().toString());
+        try {
+            resultCache.load();
+        } catch (IOException e) {
+            environment.getLogger().error("Cannot read the result cache " + file, e); //$NON-NLS-1$
+        }
+        return resultCache;
+    }
+
+    /** Saves the result cache and reports its statistics once all the workers are done. */
+    private final class ResultCacheSaver extends JobChangeAdapter {
+        private final RefactoringResultCache resultCache;
+        private final AtomicInteger nbRunningWorkers;
+
+        private ResultCacheSaver(RefactoringResultCache resultCache, int nbWorkers) {
+            this.resultCache= resultCache;
+            this.nbRunningWorkers= new AtomicInteger(nbWorkers);
+        }
+
+        @Override
+        public void done(IJobChangeEvent event) {
+            if (nbRunningWorkers.decrementAndGet() == 0) {
+                try {
+                    resultCache.save();
+                } catch (IOException e) {
+                    environment.getLogger().error("Cannot write the result cache", e); //$NON-NLS-1$
+                }
+                environment.getLogger().info(resultCache.toString());
+            }
+        }
+    }
+
     /**
      * Clones all the cleanups to apply. In fairness, this method is only useful
      * for stateful cleanups.
@@ -123,10 +214,10 @@ public class PrepareApplyRefactoringsJob extends Job {
         return res;
     }
 
-    private int computeNbWorkers(int nbWorkItems, int nbCores) {
+    private int computeNbWorkers(int nbWorkItems, int maxNbWorkers) {
         final int nbPartitions= nbWorkItems / 10;
-        if (nbPartitions >= nbCores) {
-            return nbCores;
+        if (nbPartitions >= maxNbWorkers) {
+            return maxNbWorkers;
         }
         if (nbPartitions > 0) {
             return nbPartitions;
@@ -0,0 +1,217 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2019 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.jdt.internal.corext.dom;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.autorefactor.util.UnhandledException;
+
+/**
+ * Disk-backed cache of the compilation units where no cleanup applies.
+ * <p>
+ * A compilation unit is identified by the hash of its content, of the enabled
+ * cleanup rules, of the plugin version and of the Java project options, so a
+ * cache hit means that the very same cleanups already ran on the very same
+ * source without finding anything to refactor. Such units can be skipped
+ * before being parsed.
+ * <p>
+ * The cache keeps the most recently used keys up to a maximum size. It can be
+ * shared by several {@link ApplyRefactoringsJob} workers.
+ */
+public class RefactoringResultCache {
+    /** The default maximum number of keys kept by the cache. */
+    public static final int DEFAULT_MAX_SIZE= 50000;
+
+    private static final String HASH_ALGORITHM= "SHA-256"; //$NON-NLS-1$
+    private static final char[] HEX_DIGITS= "0123456789abcdef".toCharArray(); //$NON-NLS-1$
+
+    private final File file;
+    private final String rulesFingerprint;
+    /** The keys in access order, the least recently used first. */
+    private final Map<String, Boolean> keys;
+    private long nbHits;
+    private long nbMisses;
+
+    /**
+     * Builds an instance of this class.
+     *
+     * @param file          the file where the cache is persisted
+     * @param maxSize       the maximum number of keys kept by the cache
+     * @param rules         the enabled cleanup rules
+     * @param pluginVersion the version of the cleanup rules implementation
+     */
+    public RefactoringResultCache(File file, final int maxSize, List<RefactoringRule> rules, String pluginVersion) {
+        this.file= file;
+        this.keys= new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+            private static final long serialVersionUID= 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > maxSize;
+            }
+        };
+
+        final StringBuilder sb= new StringBuilder(pluginVersion);
+        for (RefactoringRule rule : rules) {
+            sb.append('\n').append(rule.getClass().getName());
+        }
+        this.rulesFingerprint= sb.toString();
+    }
+
+    /**
+     * Loads the keys persisted by a previous run, if any.
+     *
+     * @throws IOException if the cache file cannot be read
+     */
+    public synchronized void load() throws IOException {
+        if (file.isFile()) {
+            for (String key : Files.readAllLines(file.toPath(), StandardCharsets.US_ASCII)) {
+                keys.put(key, Boolean.TRUE);
+            }
+        }
+    }
+
+    /**
+     * Persists the keys, the least recently used first.
+     *
+     * @throws IOException if the cache file cannot be written
+     */
+    public synchronized void save() throws IOException {
+        final File tmpFile= new File(file.getPath() + ".tmp"); //$NON-NLS-1$
+        Files.write(tmpFile.toPath(), new ArrayList<>(keys.keySet()), StandardCharsets.US_ASCII);
+        // Never leave a half written cache behind
+        Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Returns the key identifying the provided source refactored with the
+     * provided options.
+     *
+     * @param source  the compilation unit source
+     * @param options the Java project options
+     * @return the key identifying the provided source refactored with the
+     *         provided options
+     */
+    public String getKey(String source, JavaProjectOptions options) {
+        final MessageDigest digest;
+        try {
+            digest= MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new UnhandledException(null, e);
+        }
+        update(digest, rulesFingerprint);
+        update(digest, String.valueOf(options.getJavaSERelease()));
+        // Sort the options to get a stable hash
+        update(digest, String.valueOf(new TreeMap<>(options.getCompilerOptions())));
+        update(digest, source);
+        return toHex(digest.digest());
+    }
+
+    private static void update(MessageDigest digest, String data) {
+        digest.update(data.getBytes(StandardCharsets.UTF_8));
+        // Separates the data so that their boundaries are part of the hash
+        digest.update((byte) 0);
+    }
+
+    private static String toHex(byte[] bytes) {
+        final char[] chars= new char[bytes.length * 2];
+        for (int i= 0; i < bytes.length; i++) {
+            chars[2 * i]= HEX_DIGITS[(bytes[i] >> 4) & 0xF];
+            chars[2 * i + 1]= HEX_DIGITS[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Returns whether no cleanup applies to the compilation unit identified by
+     * the provided key, and counts a hit or a miss.
+     *
+     * @param key the key returned by {@link #getKey(String, JavaProjectOptions)}
+     * @return true if no cleanup applies to the compilation unit, false if it
+     *         is unknown
+     */
+    public synchronized boolean hasNoRefactoring(String key) {
+        if (keys.get(key) != null) {
+            nbHits++;
+            return true;
+        }
+        nbMisses++;
+        return false;
+    }
+
+    /**
+     * Records that no cleanup applies to the compilation unit identified by the
+     * provided key.
+     *
+     * @param key the key returned by {@link #getKey(String, JavaProjectOptions)}
+     */
+    public synchronized void recordNoRefactoring(String key) {
+        keys.put(key, Boolean.TRUE);
+    }
+
+    /**
+     * Returns the number of keys in the cache.
+     *
+     * @return the number of keys in the cache
+     */
+    public synchronized int size() {
+        return keys.size();
+    }
+
+    /**
+     * Returns the number of compilation units found in the cache.
+     *
+     * @return the number of compilation units found in the cache
+     */
+    public synchronized long getNbHits() {
+        return nbHits;
+    }
+
+    /**
+     * Returns the number of compilation units not found in the cache.
+     *
+     * @return the number of compilation units not found in the cache
+     */
+    public synchronized long getNbMisses() {
+        return nbMisses;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "Result cache: " + nbHits + " hits, " + nbMisses + " misses, " + keys.size() + " entries"; //$NON-NLS-1$ $NON-NLS-2$ $NON-NLS-3$ $NON-NLS-4$
+    }
+}
@@ -25,12 +25,15 @@
  */
 package org.autorefactor.jdt.internal.corext.dom;
 
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.IPath;
 import org.eclipse.jdt.core.ICompilationUnit;
 
 /** Work item for the {@link ApplyRefactoringsJob}. */
 public class RefactoringUnit {
     private final ICompilationUnit compilationUnit;
     private final JavaProjectOptions options;
+    private long sourceLength= -1;
 
     /**
      * CleanupUnit.
@@ -51,6 +54,21 @@ public class RefactoringUnit {
         return options;
     }
 
+    /**
+     * Returns the length of the source file, used as an estimate of the cost of
+     * refactoring this unit. The file is not read.
+     *
+     * @return the length of the source file in bytes, 0 if it is unknown
+     */
+    long getSourceLength() {
+        if (sourceLength == -1) {
+            final IResource resource= compilationUnit.getResource();
+            final IPath location= resource != null ? resource.getLocation() : null;
+            sourceLength= location != null ? location.toFile().length() : 0;
+        }
+        return sourceLength;
+    }
+
     @Override
     public String toString() {
         return getCompilationUnit().toString();
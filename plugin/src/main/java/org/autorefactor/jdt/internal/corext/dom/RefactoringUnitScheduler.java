@@ -0,0 +1,288 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2019 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.jdt.internal.corext.dom;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.autorefactor.environment.Logger;
+
+/**
+ * Distributes the {@link RefactoringUnit}s among the {@link ApplyRefactoringsJob}
+ * workers.
+ * <p>
+ * The units are sorted from the biggest source file to the smallest one, then
+ * dealt to the workers, so the longest units are started first. Each worker
+ * takes the units from the head of its own deque. Once its deque is empty, it
+ * steals the smallest units from the tail of the other workers' deques. This
+ * way, the whole run does not wait on one worker processing a big file last.
+ * <p>
+ * A worker can take several units at once to parse them together. Such a batch
+ * shrinks as the remaining units run low, so the last units stay available for
+ * stealing.
+ * <p>
+ * The workers report each unit they have processed. When all the units have
+ * been processed, the time each worker spent refactoring is logged.
+ */
+public class RefactoringUnitScheduler {
+    private final List<WorkerQueue> workers;
+    private final int nbUnits;
+    private final AtomicInteger nbProcessedUnits= new AtomicInteger();
+    private final long startTime= System.nanoTime();
+    private final Logger logger;
+
+    /**
+     * Builds an instance of this class.
+     *
+     * @param units     the units to distribute
+     * @param nbWorkers the number of workers
+     * @param logger    the logger where to report the workers activity, can be
+     *                  null
+     */
+    public RefactoringUnitScheduler(Collection<RefactoringUnit> units, int nbWorkers, Logger logger) {
+        this.nbUnits= units.size();
+        this.logger= logger;
+        this.workers= new ArrayList<>(nbWorkers);
+        for (int i= 0; i < nbWorkers; i++) {
+            workers.add(new WorkerQueue(i));
+        }
+
+        final List<RefactoringUnit> sortedUnits= new ArrayList<>(units);
+        Collections.sort(sortedUnits, new Comparator<RefactoringUnit>() {
+            /**
+             * Compare objects.
+             *
+             * @param o1 First item
+             * @param o2 Second item
+             *
+             * @return -1, 0 or 1
+             */
+            public int compare(RefactoringUnit o1, RefactoringUnit o2) {
+                return Long.compare(o2.getSourceLength(), o1.getSourceLength());
+            }
+        });
+        for (int i= 0; i < sortedUnits.size(); i++) {
+            workers.get(i % nbWorkers).deque.addLast(sortedUnits.get(i));
+        }
+    }
+
+    /**
+     * Returns the queue of units to be consumed by the provided worker.
+     *
+     * @param workerIndex the index of the worker, starting at 0
+     * @return the queue of units to be consumed by the provided worker
+     */
+    public WorkerQueue getQueue(int workerIndex) {
+        return workers.get(workerIndex);
+    }
+
+    private RefactoringUnit steal(WorkerQueue thief) {
+        final int nbWorkers= workers.size();
+        for (int i= 1; i < nbWorkers; i++) {
+            final RefactoringUnit unit= workers.get((thief.index + i) % nbWorkers).deque.pollLast();
+            if (unit != null) {
+                return unit;
+            }
+        }
+        return null;
+    }
+
+    private void unitProcessed() {
+        if (nbProcessedUnits.incrementAndGet() == nbUnits && logger != null) {
+            logger.info(getReport(System.nanoTime() - startTime));
+        }
+    }
+
+    private String getReport(long elapsedTime) {
+        final StringBuilder sb= new StringBuilder();
+        sb.append("AutoRefactor refactored ").append(nbUnits).append(" files with ").append(workers.size()) //$NON-NLS-1$ $NON-NLS-2$
+                .append(" workers in ").append(toMillis(elapsedTime)).append(" ms"); //$NON-NLS-1$ $NON-NLS-2$
+        for (WorkerQueue worker : workers) {
+            final double busyRatio= elapsedTime > 0 ? 100.0 * worker.busyTime / elapsedTime : 0;
+            sb.append("\n  worker ").append(worker.index).append(": ").append(worker.nbUnits).append(" files (") //$NON-NLS-1$ $NON-NLS-2$ $NON-NLS-3$
+                    .append(worker.nbStolenUnits).append(" stolen), busy ").append(toMillis(worker.busyTime)) //$NON-NLS-1$
+                    .append(" ms (").append(String.format(Locale.ENGLISH, "%.1f", busyRatio)).append("%)"); //$NON-NLS-1$ $NON-NLS-2$ $NON-NLS-3$
+        }
+        return sb.toString();
+    }
+
+    private static long toMillis(long nanos) {
+        return nanos / 1000000;
+    }
+
+    /**
+     * The queue of one worker. Its statistics are only updated by the worker
+     * thread, then read once all the units have been processed.
+     */
+    public final class WorkerQueue extends AbstractQueue<RefactoringUnit> {
+        private final int index;
+        private final Deque<RefactoringUnit> deque= new ConcurrentLinkedDeque<>();
+        private int nbUnits;
+        private int nbStolenUnits;
+        private long busyTime;
+        private int nbUnitsInProgress;
+        private long busySince;
+
+        private WorkerQueue(int index) {
+            this.index= index;
+        }
+
+        /**
+         * Returns the next unit to refactor. The worker must call
+         * {@link #unitDone()} once it has processed this unit.
+         *
+         * @return the next unit to refactor, null if there is no more units
+         */
+        public RefactoringUnit poll() {
+            RefactoringUnit unit= deque.pollFirst();
+            if (unit == null) {
+                unit= steal(this);
+                if (unit != null) {
+                    nbStolenUnits++;
+                }
+            }
+            if (unit != null) {
+                nbUnits++;
+                if (nbUnitsInProgress++ == 0) {
+                    busySince= System.nanoTime();
+                }
+            }
+            return unit;
+        }
+
+        /**
+         * Returns the next units to refactor together. The batch holds at most
+         * a fair share of the remaining units, so the other workers can still
+         * steal the last ones. The worker must call {@link #unitDone()} once it
+         * has processed each of these units.
+         *
+         * @param maxSize the maximum number of units to return
+         * @return the next units to refactor, empty if there is no more units
+         */
+        public List<RefactoringUnit> pollBatch(int maxSize) {
+            final int batchSize= Math.max(1, Math.min(maxSize, size() / workers.size()));
+            final List<RefactoringUnit> batch= new ArrayList<>(batchSize);
+            RefactoringUnit unit;
+            while (batch.size() < batchSize && (unit= poll()) != null) {
+                batch.add(unit);
+            }
+            return batch;
+        }
+
+        /**
+         * Records that the worker has processed one of the units it has polled.
+         * The last processed unit of the run triggers the report.
+         */
+        public void unitDone() {
+            if (--nbUnitsInProgress == 0) {
+                busyTime+= System.nanoTime() - busySince;
+            }
+            unitProcessed();
+        }
+
+        /**
+         * Returns the next unit to refactor without removing it.
+         *
+         * @return the next unit to refactor, null if there is no more units
+         */
+        public RefactoringUnit peek() {
+            final Iterator<RefactoringUnit> iterator= iterator();
+            return iterator.hasNext() ? iterator.next() : null;
+        }
+
+        /**
+         * Adds a unit to the units of this worker.
+         *
+         * @param unit the unit to add
+         * @return true
+         */
+        public boolean offer(RefactoringUnit unit) {
+            return deque.offerLast(unit);
+        }
+
+        /**
+         * Returns the number of units remaining for all the workers.
+         *
+         * @return the number of units remaining for all the workers
+         */
+        @Override
+        public int size() {
+            int size= 0;
+            for (WorkerQueue worker : workers) {
+                size+= worker.deque.size();
+            }
+            return size;
+        }
+
+        /**
+         * Returns an iterator over the units remaining for all the workers, in
+         * the order {@link #poll()} would return them: the units of this worker
+         * first, then the units it would steal from the other workers.
+         *
+         * @return an iterator over the units remaining for all the workers
+         */
+        @Override
+        public Iterator<RefactoringUnit> iterator() {
+            final List<Iterator<RefactoringUnit>> iterators= new ArrayList<>(workers.size());
+            iterators.add(deque.iterator());
+            for (int i= 1; i < workers.size(); i++) {
+                iterators.add(workers.get((index + i) % workers.size()).deque.descendingIterator());
+            }
+            return new Iterator<RefactoringUnit>() {
+                private final Iterator<Iterator<RefactoringUnit>> nextIterators= iterators.iterator();
+                private Iterator<RefactoringUnit> current= nextIterators.next();
+
+                public boolean hasNext() {
+                    while (!current.hasNext() && nextIterators.hasNext()) {
+                        current= nextIterators.next();
+                    }
+                    return current.hasNext();
+                }
+
+                public RefactoringUnit next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return current.next();
+                }
+
+                public void remove() {
+                    current.remove();
+                }
+            };
+        }
+    }
+}
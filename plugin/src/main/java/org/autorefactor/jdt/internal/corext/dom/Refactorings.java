@@ -52,7 +52,13 @@ import org.eclipse.jdt.core.dom.rewrite.ImportRewrite;
 import org.eclipse.jdt.core.dom.rewrite.ListRewrite;
 import org.eclipse.jdt.core.dom.rewrite.TargetSourceRangeComputer;
 import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.DocumentRewriteSession;
+import org.eclipse.jface.text.DocumentRewriteSessionType;
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
+import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.Region;
+import org.eclipse.text.edits.MultiTextEdit;
 import org.eclipse.text.edits.TextEdit;
 
 /**
@@ -66,13 +72,18 @@ public class Refactorings {
     private final SubMonitor monitor;
     private boolean hasRefactorings;
     private final ASTRewrite rewrite;
-    private final ImportRewrite importRewrite;
+    private final CompilationUnit astRoot;
+    /** Lazily created, most of the refactorings do not touch the imports. */
+    private ImportRewrite importRewrite;
     private TextEdit edits;
+    private IRegion changedRegion;
     private final Map<Pair<ASTNode, ChildListPropertyDescriptor>, ListRewrite> listRewriteCache= new HashMap<>();
     private final ASTCommentRewriter commentRewriter;
     private final SourceRewriter sourceRewriter= new SourceRewriter();
     /** Nodes that cannot be visited. */
     private final Set<ASTNode> refactoredNodes= new HashSet<>();
+    /** Source ranges of the replaced, removed, moved or copied nodes and source locations. */
+    private final SourceRangeIndex rewrittenRanges= new SourceRangeIndex();
 
     /**
      * Builds an instance of this class.
@@ -95,8 +106,7 @@ public class Refactorings {
             }
         });
 
-        this.importRewrite= ImportRewrite.create(astRoot, true);
-
+        this.astRoot= astRoot;
         this.commentRewriter= new ASTCommentRewriter(astRoot);
     }
 
@@ -127,6 +137,46 @@ public class Refactorings {
         }
     }
 
+    /**
+     * Returns whether the provided node lies inside a node or a source location
+     * rewritten as a whole, like a replaced, removed, moved or copied node, or a
+     * node next to an inserted node. Unlike
+     * {@link #hasBeenRefactored(ASTNode)}, it is false for the ancestors of the
+     * rewritten nodes.
+     *
+     * @param node the node for which to make the determination
+     * @return true if the provided node lies inside a rewritten node or source
+     *         location, false otherwise
+     */
+    public boolean hasBeenRewritten(ASTNode node) {
+        return rewrittenRanges.contains(node.getStartPosition(), node.getLength());
+    }
+
+    private void addRewrittenRange(ASTNode node) {
+        rewrittenRanges.add(node.getStartPosition(), node.getLength());
+    }
+
+    private void addRewrittenRange(ASTNode first, ASTNode last) {
+        rewrittenRanges.add(first.getStartPosition(), SourceLocation.getEndPosition(last) - first.getStartPosition());
+    }
+
+    /**
+     * The original elements around an insert are rewritten with it, as the
+     * insert changes the separators next to them.
+     *
+     * @param listRewrite the list where a node is inserted
+     * @param index       the index of the insert in the original list
+     */
+    private void addRewrittenRangesAround(ListRewrite listRewrite, int index) {
+        final List<?> originalList= listRewrite.getOriginalList();
+        if (0 < index && index <= originalList.size()) {
+            addRewrittenRange((ASTNode) originalList.get(index - 1));
+        }
+        if (0 <= index && index < originalList.size()) {
+            addRewrittenRange((ASTNode) originalList.get(index));
+        }
+    }
+
     /**
      * Creates and returns a placeholder node for a copy of the source code of the
      * provided node.<br>
@@ -143,6 +193,7 @@ public class Refactorings {
      */
     @SuppressWarnings("unchecked")
     public <T extends ASTNode> T createCopyTarget(T node) {
+        addRewrittenRange(node);
         return (T) rewrite.createCopyTarget(node);
     }
 
@@ -163,6 +214,7 @@ public class Refactorings {
      */
     @SuppressWarnings("unchecked")
     public <T extends ASTNode> T createCopyTarget(T first, T last) {
+        addRewrittenRange(first, last);
         return (T) getListRewrite(first).createCopyTarget(first, last);
     }
 
@@ -201,6 +253,7 @@ public class Refactorings {
      */
     @SuppressWarnings("unchecked")
     public <T extends ASTNode> T createMoveTarget(T node) {
+        addRewrittenRange(node);
         return (T) rewrite.createMoveTarget(node);
     }
 
@@ -228,6 +281,7 @@ public class Refactorings {
      */
     @SuppressWarnings("unchecked")
     public <T extends ASTNode> T createMoveTarget(T first, T last) {
+        addRewrittenRange(first, last);
         return (T) getListRewrite(first).createMoveTarget(first, last);
     }
 
@@ -278,6 +332,7 @@ public class Refactorings {
         node.setProperty(UNTOUCH_COMMENT, Boolean.TRUE);
         rewrite.replace(node, replacement, null);
         addRefactoredNodes(node);
+        addRewrittenRange(node);
     }
 
     /**
@@ -301,6 +356,7 @@ public class Refactorings {
     public void replace(SourceLocation toReplace, String replacement) {
         hasRefactorings= true;
         this.sourceRewriter.replace(toReplace, replacement);
+        rewrittenRanges.add(toReplace.getStartPosition(), toReplace.getLength());
     }
 
     /**
@@ -316,6 +372,7 @@ public class Refactorings {
             rewrite.remove(node, null);
         }
         addRefactoredNodes(node);
+        addRewrittenRange(node);
     }
 
     /**
@@ -340,6 +397,7 @@ public class Refactorings {
         }
         hasRefactorings= true;
         sourceRewriter.remove(toRemove);
+        rewrittenRanges.add(toRemove.getStartPosition(), toRemove.getLength());
     }
 
     /**
@@ -384,8 +442,10 @@ public class Refactorings {
      */
     public void insertAt(ASTNode listHolder, StructuralPropertyDescriptor locationInParent, ASTNode nodeToInsert,
             int index) {
-        getListRewrite(listHolder, locationInParent).insertAt(nodeToInsert, index, null);
+        final ListRewrite listRewrite= getListRewrite(listHolder, locationInParent);
+        listRewrite.insertAt(nodeToInsert, index, null);
         addRefactoredNodes(listHolder);
+        addRewrittenRangesAround(listRewrite, Math.min(index, listRewrite.getOriginalList().size()));
     }
 
     /**
@@ -397,8 +457,10 @@ public class Refactorings {
      *      org.eclipse.text.edits.TextEditGroup)
      */
     public void insertBefore(ASTNode nodeToInsert, ASTNode element) {
-        getListRewrite(element).insertBefore(nodeToInsert, element, null);
+        final ListRewrite listRewrite= getListRewrite(element);
+        listRewrite.insertBefore(nodeToInsert, element, null);
         addRefactoredNodes(element.getParent());
+        addRewrittenRangesAround(listRewrite, listRewrite.getOriginalList().indexOf(element));
     }
 
     /**
@@ -410,8 +472,13 @@ public class Refactorings {
      *      org.eclipse.text.edits.TextEditGroup)
      */
     public void insertAfter(ASTNode nodeToInsert, ASTNode element) {
-        getListRewrite(element).insertAfter(nodeToInsert, element, null);
+        final ListRewrite listRewrite= getListRewrite(element);
+        listRewrite.insertAfter(nodeToInsert, element, null);
         addRefactoredNodes(element.getParent());
+        final int index= listRewrite.getOriginalList().indexOf(element);
+        if (index >= 0) {
+            addRewrittenRangesAround(listRewrite, index + 1);
+        }
     }
 
     /**
@@ -423,8 +490,10 @@ public class Refactorings {
      * @see ListRewrite#insertFirst(ASTNode, org.eclipse.text.edits.TextEditGroup)
      */
     public void insertFirst(ASTNode listHolder, StructuralPropertyDescriptor locationInParent, ASTNode nodeToInsert) {
-        getListRewrite(listHolder, locationInParent).insertFirst(nodeToInsert, null);
+        final ListRewrite listRewrite= getListRewrite(listHolder, locationInParent);
+        listRewrite.insertFirst(nodeToInsert, null);
         addRefactoredNodes(listHolder);
+        addRewrittenRangesAround(listRewrite, 0);
     }
 
     /**
@@ -436,8 +505,10 @@ public class Refactorings {
      * @see ListRewrite#insertLast(ASTNode, org.eclipse.text.edits.TextEditGroup)
      */
     public void insertLast(ASTNode listHolder, StructuralPropertyDescriptor locationInParent, ASTNode nodeToInsert) {
-        getListRewrite(listHolder, locationInParent).insertLast(nodeToInsert, null);
+        final ListRewrite listRewrite= getListRewrite(listHolder, locationInParent);
+        listRewrite.insertLast(nodeToInsert, null);
         addRefactoredNodes(listHolder);
+        addRewrittenRangesAround(listRewrite, listRewrite.getOriginalList().size());
     }
 
     /**
@@ -485,6 +556,7 @@ public class Refactorings {
     public void set(ASTNode node, StructuralPropertyDescriptor property, Object value) {
         rewrite.set(node, property, value, null);
         addRefactoredNodes(node);
+        addRewrittenRange(node);
     }
 
     /**
@@ -497,9 +569,11 @@ public class Refactorings {
      */
     public void applyTo(final IDocument document, boolean hasToSave) throws BadLocationException, CoreException {
         edits= rewrite.rewriteAST(document, null);
-        final TextEdit importEdits= importRewrite.rewriteImports(monitor);
-        commentRewriter.addEdits(document, edits);
-        sourceRewriter.addEdits(document, edits);
+        final TextEdit importEdits= importRewrite != null ? importRewrite.rewriteImports(monitor) : new MultiTextEdit();
+        // The comment and source edits conflicting with the code edits are left for the next cleanup loop
+        final SourceRangeIndex index= new SourceRangeIndex(edits);
+        commentRewriter.addEdits(document, edits, index);
+        sourceRewriter.addEdits(document, edits, index);
 
         if (hasToSave) {
             applyEditsToDocument(edits, importEdits, document);
@@ -511,6 +585,7 @@ public class Refactorings {
         // Call this operation on the SWT Display Thread with syncExec(),
         // because it changes or adds something to the GUI.
         // Otherwise it would throw an Invalid thread access Exception.
+        // The job provides an event loop running in the current thread for the documents without GUI.
         eventLoop.syncExec(new Callable<BadLocationException>() {
             /**
              * Call.
@@ -518,23 +593,46 @@ public class Refactorings {
              * @return the bad location exception.
              */
             public BadLocationException call() throws Exception {
+                // Editors are notified once for all the edits instead of once per edit
+                final DocumentRewriteSession session= startRewriteSession(document);
                 try {
                     edits.apply(document, TextEdit.UPDATE_REGIONS);
+                    if (!importEdits.hasChildren() && edits.hasChildren()) {
+                        // The edit regions now match the positions in the modified document
+                        changedRegion= new Region(edits.getOffset(), edits.getLength());
+                    }
                     importEdits.apply(document);
                     return null;
                 } catch (BadLocationException e) {
                     return e;
+                } finally {
+                    if (session != null) {
+                        ((IDocumentExtension4) document).stopRewriteSession(session);
+                    }
                 }
             }
         });
     }
 
+    private static DocumentRewriteSession startRewriteSession(IDocument document) {
+        if (document instanceof IDocumentExtension4) {
+            final IDocumentExtension4 extension= (IDocumentExtension4) document;
+            if (extension.getActiveRewriteSession() == null) {
+                return extension.startRewriteSession(DocumentRewriteSessionType.UNRESTRICTED);
+            }
+        }
+        return null;
+    }
+
     /**
      * Gets the ImportRewrite rewrite object.
      *
      * @return the ImportRewrite rewrite
      */
     public ImportRewrite getImportRewrite() {
+        if (importRewrite == null) {
+            importRewrite= ImportRewrite.create(astRoot, true);
+        }
         return importRewrite;
     }
 
@@ -547,6 +645,18 @@ public class Refactorings {
         return edits;
     }
 
+    /**
+     * Returns the region of the document that has been modified by
+     * {@link #applyTo(IDocument, boolean)}, expressed with the positions of the
+     * modified document.
+     *
+     * @return the modified region, or null if it is unknown, for example when
+     *         the imports have been modified too
+     */
+    public IRegion getChangedRegion() {
+        return changedRegion;
+    }
+
     /**
      * Gets the ASTRewrite rewrite object.
      *
@@ -27,12 +27,7 @@ package org.autorefactor.jdt.internal.corext.dom;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
-import org.autorefactor.util.UnhandledException;
-import org.eclipse.jdt.core.ICompilationUnit;
-import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 
 /** Represents a source file. */
@@ -76,37 +71,28 @@ public class SourceCode {
 
     private final CompilationUnit astRoot;
     private final String text;
-    private final ICompilationUnit compilationUnit;
     private final List<Line> lines= new ArrayList<>();
 
     /**
      * Builds an instance of this class.
      *
-     * @param text            the text of the source file.
-     * @param astRoot         the AST root of the source file
-     * @param compilationUnit the compilation unit of the source file
+     * @param text    the text of the source file.
+     * @param astRoot the AST root of the source file
      */
-    public SourceCode(String text, CompilationUnit astRoot, ICompilationUnit compilationUnit) {
+    public SourceCode(String text, CompilationUnit astRoot) {
         this.astRoot= astRoot;
         this.text= text;
-        this.compilationUnit= compilationUnit;
         computeLines();
     }
 
     private void computeLines() {
-        try {
-            final String lineSeparator= this.compilationUnit.findRecommendedLineSeparator();
-            int fromIndex= 0;
-            Matcher matcher= Pattern.compile(".*?" + lineSeparator).matcher(this.text); //$NON-NLS-1$
-            while (fromIndex < this.text.length() && matcher.find(fromIndex)) {
-                String lineText= matcher.group();
-                int offset= this.text.indexOf(lineText, fromIndex);
-                int length= lineText.length();
-                this.lines.add(new Line(lineText, offset, length, this));
-                fromIndex+= offset + length;
+        final LineIndex lineIndex= new LineIndex(this.text);
+        for (int lineNumber= 1; lineNumber <= lineIndex.getNbLines(); lineNumber++) {
+            final int offset= lineIndex.getLineStart(lineNumber);
+            final int end= lineIndex.getLineEnd(lineNumber);
+            if (offset < end) {
+                this.lines.add(new Line(this.text.substring(offset, end), offset, end - offset, this));
             }
-        } catch (JavaModelException e) {
-            throw new UnhandledException(astRoot, e);
         }
     }
 }
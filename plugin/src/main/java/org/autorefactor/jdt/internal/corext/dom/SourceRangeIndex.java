@@ -0,0 +1,153 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2019 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.jdt.internal.corext.dom;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.eclipse.text.edits.MultiTextEdit;
+import org.eclipse.text.edits.TextEdit;
+import org.eclipse.text.edits.TextEditVisitor;
+
+/**
+ * Index of the source ranges already edited, telling in logarithmic time
+ * whether a new edit overlaps any of them.
+ * <p>
+ * Like {@link SourceLocation#overlapsWith(org.eclipse.jdt.core.ISourceRange)},
+ * the ranges include both their bounds, so two adjacent ranges overlap. The
+ * overlapping ranges are merged, the index only keeps disjoint ranges.
+ */
+public final class SourceRangeIndex {
+    /** The end position of the disjoint ranges, by start position. */
+    private final TreeMap<Integer, Integer> endsByStart= new TreeMap<>();
+
+    /** Builds an empty index. */
+    public SourceRangeIndex() {
+    }
+
+    /**
+     * Builds an index containing the ranges of the provided edits and of their
+     * descendants, except the {@link MultiTextEdit}s that only group them.
+     *
+     * @param edits the edits
+     */
+    public SourceRangeIndex(TextEdit edits) {
+        edits.accept(new TextEditVisitor() {
+            @Override
+            public boolean visit(MultiTextEdit edit) {
+                // Move on there is nothing to check here
+                return true;
+            }
+
+            @Override
+            public boolean visitNode(TextEdit edit) {
+                add(edit);
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Returns whether the provided edit overlaps a range of this index.
+     *
+     * @param edit the edit
+     * @return true if the provided edit overlaps a range of this index
+     */
+    public boolean overlaps(TextEdit edit) {
+        final Map.Entry<Integer, Integer> candidate= endsByStart.floorEntry(edit.getExclusiveEnd());
+        return candidate != null && candidate.getValue() >= edit.getOffset();
+    }
+
+    /**
+     * Returns whether the provided source range lies inside the ranges of this
+     * index.
+     *
+     * @param offset the start position of the source range
+     * @param length the length of the source range
+     * @return true if the provided source range lies inside the ranges of this
+     *         index
+     */
+    public boolean contains(int offset, int length) {
+        final Map.Entry<Integer, Integer> candidate= endsByStart.floorEntry(offset);
+        return candidate != null && candidate.getValue() >= offset + length;
+    }
+
+    /**
+     * Returns whether any of the provided edits overlaps a range of this index.
+     *
+     * @param edits the edits
+     * @return true if any of the provided edits overlaps a range of this index
+     */
+    public boolean overlapsAny(List<TextEdit> edits) {
+        for (TextEdit edit : edits) {
+            if (overlaps(edit)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds the range of the provided edit.
+     *
+     * @param edit the edit
+     */
+    public void add(TextEdit edit) {
+        add(edit.getOffset(), edit.getLength());
+    }
+
+    /**
+     * Adds the provided source range.
+     *
+     * @param offset the start position of the source range
+     * @param length the length of the source range
+     */
+    public void add(int offset, int length) {
+        int start= offset;
+        int end= offset + length;
+
+        Map.Entry<Integer, Integer> overlapping= endsByStart.floorEntry(end);
+        while (overlapping != null && overlapping.getValue() >= start) {
+            start= Math.min(start, overlapping.getKey());
+            end= Math.max(end, overlapping.getValue());
+            endsByStart.remove(overlapping.getKey());
+            overlapping= endsByStart.floorEntry(end);
+        }
+        endsByStart.put(start, end);
+    }
+
+    /**
+     * Adds the ranges of the provided edits.
+     *
+     * @param edits the edits
+     */
+    public void addAll(List<TextEdit> edits) {
+        for (TextEdit edit : edits) {
+            add(edit);
+        }
+    }
+}
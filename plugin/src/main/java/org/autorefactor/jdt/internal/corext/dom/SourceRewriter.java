@@ -64,18 +64,30 @@ public class SourceRewriter {
     /**
      * Adds the edits contained in the current instance to the provided edits for
      * the provided document.
+     * <p>
+     * An edit overlapping the provided edits, or a previous edit, is not added.
+     * It will be retried in the next cleanup loop.
      *
      * @param document the document to edit
      * @param edits    where to add edits
+     * @param index    the source ranges of the provided edits, the added edits
+     *                 are added to it
      */
-    public void addEdits(IDocument document, TextEdit edits) {
+    public void addEdits(IDocument document, TextEdit edits, SourceRangeIndex index) {
         for (SourceLocation loc : this.removals) {
-            edits.addChild(new DeleteEdit(loc.getStartPosition(), loc.getLength()));
+            addEdit(edits, index, new DeleteEdit(loc.getStartPosition(), loc.getLength()));
         }
         for (Entry<SourceLocation, String> entry : this.replacements.entrySet()) {
             SourceLocation loc= entry.getKey();
             String replacement= entry.getValue();
-            edits.addChild(new ReplaceEdit(loc.getStartPosition(), loc.getLength(), replacement));
+            addEdit(edits, index, new ReplaceEdit(loc.getStartPosition(), loc.getLength(), replacement));
+        }
+    }
+
+    private void addEdit(TextEdit edits, SourceRangeIndex index, TextEdit edit) {
+        if (!index.overlaps(edit)) {
+            index.add(edit);
+            edits.addChild(edit);
         }
     }
 }
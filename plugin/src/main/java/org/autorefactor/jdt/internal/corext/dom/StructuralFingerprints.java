@@ -0,0 +1,296 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2019 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.jdt.internal.corext.dom;
+
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jdt.core.dom.ASTMatcher;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.Assignment;
+import org.eclipse.jdt.core.dom.Block;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.Expression;
+import org.eclipse.jdt.core.dom.IfStatement;
+import org.eclipse.jdt.core.dom.InfixExpression;
+import org.eclipse.jdt.core.dom.NullLiteral;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jdt.core.dom.Statement;
+import org.eclipse.jdt.core.dom.StringLiteral;
+import org.eclipse.jdt.core.dom.StructuralPropertyDescriptor;
+import org.eclipse.jdt.core.dom.SuperFieldAccess;
+import org.eclipse.jdt.core.dom.SuperMethodInvocation;
+import org.eclipse.jdt.core.dom.ThisExpression;
+
+/**
+ * Structural fingerprints of the nodes of a compilation unit, computed bottom-up
+ * once per node on the first query.
+ * <p>
+ * Two nodes matched by {@link ASTSemanticMatcher} always have the same
+ * fingerprint, so {@link ASTNodes#match(ASTSemanticMatcher, ASTNode, ASTNode)}
+ * rejects most of the mismatching candidates without running the matcher.
+ * <p>
+ * The statements keep their structure, but a block with a single statement has
+ * the fingerprint of its statement and the branches of an if statement are
+ * combined in any order. The expressions are reduced to the set of their names
+ * and string literals: the matcher reorders the operands, reverses the
+ * operators, removes the parentheses and the negations, and replaces an
+ * increment by an assignment. The right-hand side of an assignment that may be
+ * an increment is ignored. The AST must not be modified after the first query.
+ */
+public final class StructuralFingerprints {
+    private static final String PROPERTY= StructuralFingerprints.class.getName();
+    private static final int NULL_FINGERPRINT= 0;
+    private static final int LIST_END= 0x2F0B3A49;
+    private static final int EXPRESSION_SEED= 0x5BD1E995;
+
+    /** Collects the tokens of an expression that no matcher normalization removes. */
+    private static final class TokenCollector extends ASTVisitor {
+        private final Set<String> tokens= new HashSet<>();
+
+        @Override
+        public boolean visit(SimpleName node) {
+            tokens.add(node.getIdentifier());
+            return false;
+        }
+
+        @Override
+        public boolean visit(StringLiteral node) {
+            tokens.add(node.getEscapedValue());
+            return false;
+        }
+
+        @Override
+        public boolean visit(NullLiteral node) {
+            tokens.add("null"); //$NON-NLS-1$
+            return false;
+        }
+
+        @Override
+        public boolean visit(ThisExpression node) {
+            tokens.add("this"); //$NON-NLS-1$
+            return true;
+        }
+
+        @Override
+        public boolean visit(SuperFieldAccess node) {
+            tokens.add("super"); //$NON-NLS-1$
+            return true;
+        }
+
+        @Override
+        public boolean visit(SuperMethodInvocation node) {
+            tokens.add("super"); //$NON-NLS-1$
+            return true;
+        }
+
+        @Override
+        public boolean visit(Assignment node) {
+            node.getLeftHandSide().accept(this);
+
+            if (!mayBeIncrement(node)) {
+                node.getRightHandSide().accept(this);
+            }
+            return false;
+        }
+
+        /**
+         * The matcher may match <code>i += 1</code>, <code>i = i + ONE</code> or
+         * <code>i = i - x</code> with <code>i++</code> or with <code>i -= x</code>,
+         * so the constants of the right-hand side cannot be told apart from the other
+         * operands.
+         */
+        private static boolean mayBeIncrement(Assignment node) {
+            if (ASTNodes.hasOperator(node, Assignment.Operator.PLUS_ASSIGN, Assignment.Operator.MINUS_ASSIGN)) {
+                return true;
+            }
+            final Expression rightHandSide= ASTNodes.getUnparenthesedExpression(node.getRightHandSide());
+            return ASTNodes.hasOperator(node, Assignment.Operator.ASSIGN) && rightHandSide instanceof InfixExpression
+                    && ASTNodes.hasOperator((InfixExpression) rightHandSide, InfixExpression.Operator.PLUS,
+                            InfixExpression.Operator.MINUS);
+        }
+
+        private int getFingerprint() {
+            int fingerprint= EXPRESSION_SEED + tokens.size();
+            for (String token : tokens) {
+                final int hash= token.hashCode();
+                fingerprint+= (hash ^ (hash >>> 16)) * 0x9E3779B9;
+            }
+            return fingerprint;
+        }
+    }
+
+    private final Map<ASTNode, Integer> fingerprints= new IdentityHashMap<>();
+    private int nbRejections;
+
+    private StructuralFingerprints() {
+    }
+
+    /**
+     * Attaches new fingerprints to the provided compilation unit, so
+     * {@link ASTNodes#match(ASTSemanticMatcher, ASTNode, ASTNode)} uses them for
+     * its nodes.
+     *
+     * @param astRoot the compilation unit, root of the AST
+     * @return the fingerprints of the compilation unit
+     */
+    public static StructuralFingerprints attach(CompilationUnit astRoot) {
+        final StructuralFingerprints structuralFingerprints= new StructuralFingerprints();
+        astRoot.setProperty(PROPERTY, structuralFingerprints);
+        return structuralFingerprints;
+    }
+
+    /**
+     * Returns the fingerprints attached to the compilation unit of the provided
+     * node.
+     *
+     * @param node a node
+     * @return the fingerprints attached to the compilation unit of the provided
+     *         node, null if there are none
+     */
+    public static StructuralFingerprints get(ASTNode node) {
+        if (node == null) {
+            return null;
+        }
+        final Object structuralFingerprints= node.getRoot().getProperty(PROPERTY);
+        return structuralFingerprints instanceof StructuralFingerprints ? (StructuralFingerprints) structuralFingerprints : null;
+    }
+
+    /**
+     * Returns false if the provided matcher cannot match the provided nodes.
+     * <p>
+     * Only the matchers known to match the same nodes as
+     * {@link ASTSemanticMatcher} or less are checked, the subclasses matching more
+     * nodes always get true. The nodes outside the fingerprinted compilation unit,
+     * like the copies, always get true too.
+     *
+     * @param matcher the AST matcher
+     * @param node1   the first node to compare
+     * @param node2   the second node to compare
+     * @return false if the provided matcher cannot match the provided nodes, true
+     *         if it may match them
+     */
+    static boolean mayMatch(ASTMatcher matcher, ASTNode node1, ASTNode node2) {
+        if (node1 == null || node2 == null || node1 == node2
+                || (matcher.getClass() != ASTSemanticMatcher.class
+                        && matcher.getClass() != ASTMatcherSameVariablesAndMethods.class)
+                || node1.getRoot() != node2.getRoot()) {
+            return true;
+        }
+
+        final StructuralFingerprints structuralFingerprints= get(node1);
+        if (structuralFingerprints == null
+                || structuralFingerprints.getFingerprint(node1) == structuralFingerprints.getFingerprint(node2)) {
+            return true;
+        }
+
+        structuralFingerprints.nbRejections++;
+        return false;
+    }
+
+    /**
+     * Returns the fingerprint of the provided node, equal for all the nodes it
+     * matches with {@link ASTSemanticMatcher}.
+     *
+     * @param node a node of the compilation unit, may be null
+     * @return the fingerprint of the provided node
+     */
+    public int getFingerprint(ASTNode node) {
+        if (node == null) {
+            return NULL_FINGERPRINT;
+        }
+
+        Integer fingerprint= fingerprints.get(node);
+        if (fingerprint == null) {
+            fingerprint= computeFingerprint(node);
+            fingerprints.put(node, fingerprint);
+        }
+        return fingerprint;
+    }
+
+    private int computeFingerprint(ASTNode node) {
+        if (!(node instanceof Statement)) {
+            final TokenCollector tokenCollector= new TokenCollector();
+            node.accept(tokenCollector);
+            return tokenCollector.getFingerprint();
+        }
+
+        if (node instanceof Block) {
+            final List<Statement> statements= ASTNodes.statements((Block) node);
+
+            if (statements.size() == 1) {
+                return getFingerprint(statements.get(0));
+            }
+        } else if (node instanceof IfStatement) {
+            final IfStatement ifStatement= (IfStatement) node;
+            // The matcher swaps the branches when the conditions are opposite
+            return 31 * (31 * ASTNode.IF_STATEMENT + getFingerprint(ifStatement.getExpression()))
+                    + getFingerprint(ifStatement.getThenStatement()) + getFingerprint(ifStatement.getElseStatement());
+        }
+
+        int fingerprint= node.getNodeType();
+        for (Object object : node.structuralPropertiesForType()) {
+            final StructuralPropertyDescriptor property= (StructuralPropertyDescriptor) object;
+
+            if (property.isChildProperty()) {
+                fingerprint= 31 * fingerprint + getFingerprint((ASTNode) node.getStructuralProperty(property));
+            } else if (property.isChildListProperty()) {
+                for (Object child : (List<?>) node.getStructuralProperty(property)) {
+                    fingerprint= 31 * fingerprint + getFingerprint((ASTNode) child);
+                }
+                fingerprint= 31 * fingerprint + LIST_END;
+            }
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Returns the number of comparisons rejected without running the matcher.
+     *
+     * @return the number of comparisons rejected without running the matcher
+     */
+    public int getNbRejections() {
+        return nbRejections;
+    }
+
+    /**
+     * Returns the number of fingerprinted nodes.
+     *
+     * @return the number of fingerprinted nodes
+     */
+    public int getNbFingerprints() {
+        return fingerprints.size();
+    }
+
+    @Override
+    public String toString() {
+        return "Structural fingerprints: " + fingerprints.size() + " nodes, " + nbRejections + " rejections"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    }
+}
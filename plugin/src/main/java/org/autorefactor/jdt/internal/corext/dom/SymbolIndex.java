@@ -0,0 +1,358 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2019 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.jdt.internal.corext.dom;
+
+import static org.eclipse.jdt.core.dom.ASTNode.ANNOTATION_TYPE_DECLARATION;
+import static org.eclipse.jdt.core.dom.ASTNode.ANONYMOUS_CLASS_DECLARATION;
+import static org.eclipse.jdt.core.dom.ASTNode.BLOCK;
+import static org.eclipse.jdt.core.dom.ASTNode.ENUM_DECLARATION;
+import static org.eclipse.jdt.core.dom.ASTNode.TYPE_DECLARATION;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.ImportDeclaration;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jdt.core.dom.SimpleType;
+import org.eclipse.jdt.core.dom.SingleVariableDeclaration;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+import org.eclipse.jdt.core.dom.VariableDeclaration;
+import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
+
+/**
+ * Index of the names, variable declarations and imports of a compilation unit,
+ * built in one pass over the AST on the first query.
+ * <p>
+ * It answers the questions the rules used to answer by walking a sub-tree with
+ * a dedicated visitor: the queries look up the occurrences in source order and
+ * only walk up the parents of the occurrences found in the scope. The AST must
+ * not be modified after the index is built.
+ */
+public final class SymbolIndex {
+    private static final String PROPERTY= SymbolIndex.class.getName();
+
+    private final CompilationUnit astRoot;
+    /** The variable declarations, in source order. */
+    private List<VariableDeclaration> declarations;
+    /** The names bound to a variable, in source order. */
+    private List<SimpleName> variableNames;
+    private Map<String, List<SimpleName>> namesByIdentifier;
+    private Map<IBinding, List<SimpleName>> namesByLocalVariable;
+    private Set<String> singleTypeImports;
+    private Set<String> singleTypeImportSimpleNames;
+    private Set<String> onDemandImports;
+
+    private SymbolIndex(CompilationUnit astRoot) {
+        this.astRoot= astRoot;
+    }
+
+    /**
+     * Attaches a new index to the provided compilation unit, so the helpers
+     * receiving one of its nodes use it.
+     *
+     * @param astRoot the compilation unit, root of the AST
+     * @return the index of the compilation unit
+     */
+    public static SymbolIndex attach(CompilationUnit astRoot) {
+        final SymbolIndex index= new SymbolIndex(astRoot);
+        astRoot.setProperty(PROPERTY, index);
+        return index;
+    }
+
+    /**
+     * Returns the index attached to the compilation unit of the provided node.
+     *
+     * @param node a node
+     * @return the index attached to the compilation unit of the provided node,
+     *         null if there is none
+     */
+    public static SymbolIndex get(ASTNode node) {
+        if (node == null) {
+            return null;
+        }
+        final Object index= node.getRoot().getProperty(PROPERTY);
+        return index instanceof SymbolIndex ? (SymbolIndex) index : null;
+    }
+
+    /**
+     * Returns the identifiers of the variables declared in the provided node, like
+     * {@link ASTNodes#getLocalVariableIdentifiers(ASTNode, boolean)}.
+     *
+     * @param node               a node of the indexed compilation unit
+     * @param includeInnerScopes true if the sub blocks should be analyzed
+     * @return the identifiers of the variables declared in the provided node
+     */
+    public Set<String> getLocalVariableIdentifiers(ASTNode node, boolean includeInnerScopes) {
+        build();
+        final Set<String> identifiers= new HashSet<>();
+        for (int i= firstIndexInside(declarations, node); i < declarations.size()
+                && startsInside(declarations.get(i), node); i++) {
+            if (isInScope(declarations.get(i), node, includeInnerScopes)) {
+                identifiers.add(declarations.get(i).getName().getIdentifier());
+            }
+        }
+        return identifiers;
+    }
+
+    /**
+     * Returns whether one of the provided identifiers occurs in the provided node.
+     *
+     * @param identifiers        the identifiers to look for
+     * @param node               a node of the indexed compilation unit
+     * @param includeInnerScopes true if the sub blocks should be analyzed
+     * @return true if one of the provided identifiers occurs in the provided node
+     */
+    public boolean hasOccurrence(Set<String> identifiers, ASTNode node, boolean includeInnerScopes) {
+        build();
+        for (String identifier : identifiers) {
+            final List<SimpleName> names= namesByIdentifier.get(identifier);
+            if (names != null) {
+                for (int i= firstIndexInside(names, node); i < names.size() && startsInside(names.get(i), node); i++) {
+                    if (isInScope(names.get(i), node, includeInnerScopes)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the occurrences of the provided local variable in the provided scope,
+     * in source order.
+     *
+     * @param variable           the binding of a local variable
+     * @param scopeNode          a node of the indexed compilation unit
+     * @param includeInnerScopes true if the sub blocks should be analyzed
+     * @return the occurrences of the provided local variable, empty if the
+     *         binding is not a local variable
+     */
+    public List<SimpleName> getLocalVariableOccurrences(IBinding variable, ASTNode scopeNode,
+            boolean includeInnerScopes) {
+        build();
+        final List<SimpleName> names= namesByLocalVariable.get(variable);
+        if (names == null) {
+            return Collections.emptyList();
+        }
+        final List<SimpleName> occurrences= new ArrayList<>();
+        for (int i= firstIndexInside(names, scopeNode); i < names.size() && startsInside(names.get(i), scopeNode); i++) {
+            if (isInScope(names.get(i), scopeNode, includeInnerScopes)) {
+                occurrences.add(names.get(i));
+            }
+        }
+        return occurrences;
+    }
+
+    /**
+     * Returns the identifiers of the names bound to a variable in the provided
+     * node, without looking into the type declarations.
+     *
+     * @param node a node of the indexed compilation unit
+     * @return the identifiers of the names bound to a variable, in source order
+     */
+    public List<String> getVariableNames(ASTNode node) {
+        build();
+        final List<String> identifiers= new ArrayList<>();
+        for (int i= firstIndexInside(variableNames, node); i < variableNames.size()
+                && startsInside(variableNames.get(i), node); i++) {
+            if (isOutsideTypeDeclarations(variableNames.get(i), node)) {
+                identifiers.add(variableNames.get(i).getIdentifier());
+            }
+        }
+        return identifiers;
+    }
+
+    /**
+     * Returns whether the provided class is imported by a non static import, by
+     * its name or on demand.
+     *
+     * @param fullyQualifiedName the fully qualified name of a class
+     * @return true if the provided class is imported
+     */
+    public boolean isImported(String fullyQualifiedName) {
+        build();
+        final int lastDot= fullyQualifiedName.lastIndexOf('.');
+        return singleTypeImports.contains(fullyQualifiedName)
+                || lastDot != -1 && onDemandImports.contains(fullyQualifiedName.substring(0, lastDot));
+    }
+
+    /**
+     * Returns whether a class with the provided simple name is imported by a non
+     * static single type import.
+     *
+     * @param simpleName the simple name of a class
+     * @return true if a class with the provided simple name is imported
+     */
+    public boolean isSimpleNameImported(String simpleName) {
+        build();
+        return singleTypeImportSimpleNames.contains(simpleName);
+    }
+
+    /**
+     * Returns whether the provided identifier is the name of a type declared in the
+     * compilation unit or is used as a simple type.
+     *
+     * @param identifier the identifier
+     * @return true if the provided identifier is used as a type name
+     */
+    public boolean isTypeName(String identifier) {
+        build();
+        final List<SimpleName> names= namesByIdentifier.get(identifier);
+        if (names != null) {
+            for (SimpleName name : names) {
+                if (name.getLocationInParent() == SimpleType.NAME_PROPERTY
+                        || name.getLocationInParent() == TypeDeclaration.NAME_PROPERTY) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void build() {
+        if (namesByIdentifier != null) {
+            return;
+        }
+        declarations= new ArrayList<>();
+        variableNames= new ArrayList<>();
+        namesByIdentifier= new HashMap<>();
+        namesByLocalVariable= new HashMap<>();
+        singleTypeImports= new HashSet<>();
+        singleTypeImportSimpleNames= new HashSet<>();
+        onDemandImports= new HashSet<>();
+        for (ImportDeclaration importDeclaration : ASTNodes.imports(astRoot)) {
+            if (!importDeclaration.isStatic()) {
+                final String name= importDeclaration.getName().getFullyQualifiedName();
+                if (importDeclaration.isOnDemand()) {
+                    onDemandImports.add(name);
+                } else {
+                    singleTypeImports.add(name);
+                    singleTypeImportSimpleNames.add(name.substring(name.lastIndexOf('.') + 1));
+                }
+            }
+        }
+        astRoot.accept(new ASTVisitor() {
+            @Override
+            public boolean visit(SingleVariableDeclaration node) {
+                declarations.add(node);
+                return true;
+            }
+
+            @Override
+            public boolean visit(VariableDeclarationFragment node) {
+                declarations.add(node);
+                return true;
+            }
+
+            @Override
+            public boolean visit(SimpleName node) {
+                addTo(namesByIdentifier, node.getIdentifier(), node);
+                final IBinding binding= node.resolveBinding();
+                if (binding != null && binding.getKind() == IBinding.VARIABLE) {
+                    variableNames.add(node);
+                    if (ASTNodes.isLocalVariable(binding)) {
+                        addTo(namesByLocalVariable, binding, node);
+                    }
+                }
+                return true;
+            }
+        });
+    }
+
+    private static <K> void addTo(Map<K, List<SimpleName>> map, K key, SimpleName node) {
+        List<SimpleName> names= map.get(key);
+        if (names == null) {
+            names= new ArrayList<>();
+            map.put(key, names);
+        }
+        names.add(node);
+    }
+
+    /** Returns the index of the first node starting at or after the start of the provided node. */
+    private static int firstIndexInside(List<? extends ASTNode> nodes, ASTNode node) {
+        final int start= node.getStartPosition();
+        int low= 0;
+        int high= nodes.size();
+        while (low < high) {
+            final int middle= (low + high) >>> 1;
+            if (nodes.get(middle).getStartPosition() < start) {
+                low= middle + 1;
+            } else {
+                high= middle;
+            }
+        }
+        return low;
+    }
+
+    private static boolean startsInside(ASTNode candidate, ASTNode node) {
+        return candidate.getStartPosition() == node.getStartPosition()
+                || candidate.getStartPosition() < node.getStartPosition() + node.getLength();
+    }
+
+    /**
+     * Returns whether the provided node is a descendant of the scope, without
+     * crossing a block other than the scope unless the inner scopes are included.
+     */
+    private static boolean isInScope(ASTNode candidate, ASTNode scopeNode, boolean includeInnerScopes) {
+        for (ASTNode node= candidate; node != null; node= node.getParent()) {
+            if (node == scopeNode) {
+                return true;
+            }
+            if (!includeInnerScopes && node.getNodeType() == BLOCK) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isOutsideTypeDeclarations(ASTNode candidate, ASTNode scopeNode) {
+        for (ASTNode node= candidate; node != null; node= node.getParent()) {
+            switch (node.getNodeType()) {
+            case ANNOTATION_TYPE_DECLARATION:
+            case ANONYMOUS_CLASS_DECLARATION:
+            case ENUM_DECLARATION:
+            case TYPE_DECLARATION:
+                return false;
+
+            default:
+                if (node == scopeNode) {
+                    return true;
+                }
+                break;
+            }
+        }
+        return false;
+    }
+}
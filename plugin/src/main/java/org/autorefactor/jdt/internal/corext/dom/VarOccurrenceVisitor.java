@@ -2,6 +2,7 @@ package org.autorefactor.jdt.internal.corext.dom;
 
 import java.util.Set;
 
+import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.Block;
 import org.eclipse.jdt.core.dom.SimpleName;
 
@@ -30,6 +31,16 @@ public class VarOccurrenceVisitor extends InterruptibleVisitor {
         this.localVarIds= localVarIds;
     }
 
+    @Override
+    public void visitNode(final ASTNode node) {
+        final SymbolIndex index= SymbolIndex.get(node);
+        if (index == null) {
+            super.visitNode(node);
+        } else if (!varUsed && node.getNodeType() != ASTNode.BLOCK) {
+            varUsed= index.hasOccurrence(localVarIds, node, false);
+        }
+    }
+
     @Override
     public boolean visit(final SimpleName aVariable) {
         if (localVarIds.contains(aVariable.getIdentifier())) {
@@ -67,19 +67,6 @@ import org.eclipse.jdt.core.dom.VariableDeclarationStatement;
 
 /** See {@link #getDescription()} method. */
 public abstract class AbstractClassSubstituteCleanUp extends NewClassImportCleanUp {
-    private final class RefactoringWithObjectsClass extends CleanUpWithNewClassImport {
-        @Override
-        public boolean visit(Block node) {
-            return AbstractClassSubstituteCleanUp.this.maybeRefactorBlock(node,
-                    getClassesToUseWithImport(), getImportsToAdd());
-        }
-    }
-
-    @Override
-    public CleanUpWithNewClassImport getRefactoringClassInstance() {
-        return new RefactoringWithObjectsClass();
-    }
-
     @Override
     public Set<String> getClassesToImport() {
         return new HashSet<String>(0);
@@ -234,7 +221,7 @@ public abstract class AbstractClassSubstituteCleanUp extends NewClassImportClean
 
     @Override
     public boolean visit(Block node) {
-        return maybeRefactorBlock(node, getAlreadyImportedClasses(node), new HashSet<String>());
+        return maybeRefactorBlock(node, getClassesToUseWithImport(), getImportsToAdd());
     }
 
     /**
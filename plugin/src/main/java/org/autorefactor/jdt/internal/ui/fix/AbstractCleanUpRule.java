@@ -25,7 +25,6 @@
  */
 package org.autorefactor.jdt.internal.ui.fix;
 
-import org.autorefactor.jdt.internal.corext.dom.InterruptibleVisitor;
 import org.autorefactor.jdt.internal.corext.dom.JavaRefactoringRule;
 import org.autorefactor.jdt.internal.corext.dom.Refactorings;
 import org.autorefactor.jdt.internal.corext.dom.Release;
@@ -33,33 +32,12 @@ import org.autorefactor.preferences.Preferences;
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.ASTVisitor;
 import org.eclipse.jdt.core.dom.CompilationUnit;
-import org.eclipse.jdt.core.dom.QualifiedName;
 
 /**
  * Abstract class to extend when writing cleanup rules as
  * {@link ASTVisitor}s. It centralizes useful features for cleanup rules.
  */
 public abstract class AbstractCleanUpRule extends ASTVisitor implements JavaRefactoringRule {
-    private static final class LombokVisitor extends InterruptibleVisitor {
-        private boolean useLombok;
-
-        @Override
-        public boolean visit(QualifiedName node) {
-            if (node.getFullyQualifiedName().contains("lombok")) { //$NON-NLS-1$
-                useLombok= true;
-                return interruptVisit();
-            }
-            return true;
-        }
-
-        /**
-         * @return the useLombok
-         */
-        public boolean isUseLombok() {
-            return useLombok;
-        }
-    }
-
     /** The refactoring context of the current visitor. */
     protected RefactoringContext ctx;
 
@@ -105,13 +83,8 @@ public abstract class AbstractCleanUpRule extends ASTVisitor implements JavaRefa
 
     @Override
     public boolean preVisit2(ASTNode node) {
-        if (node instanceof CompilationUnit) {
-            LombokVisitor lombokVisitor= new LombokVisitor();
-            lombokVisitor.visitNode(node);
-
-            if (lombokVisitor.isUseLombok()) {
-                return false;
-            }
+        if (node instanceof CompilationUnit && ctx.isUsingLombok()) {
+            return false;
         }
         // Only visit nodes that have not been refactored
         // to avoid trying to refactor twice the same node (or sub nodes)
@@ -29,7 +29,6 @@ import static org.eclipse.jdt.core.dom.ASTNode.ASSIGNMENT;
 import static org.eclipse.jdt.core.dom.ASTNode.RETURN_STATEMENT;
 import static org.eclipse.jdt.core.dom.ASTNode.VARIABLE_DECLARATION_STATEMENT;
 
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -53,22 +52,9 @@ import org.eclipse.jdt.core.dom.VariableDeclarationStatement;
  * with specific enum implementations, e.g. HashMap -> EnumMap
  */
 public abstract class AbstractEnumCollectionReplacementCleanUp extends NewClassImportCleanUp {
-    private final class RefactoringWithObjectsClass extends CleanUpWithNewClassImport {
-        @Override
-        public boolean visit(ClassInstanceCreation node) {
-            return AbstractEnumCollectionReplacementCleanUp.this
-                    .maybeRefactorClassInstanceCreation(node, getClassesToUseWithImport(), getImportsToAdd());
-        }
-    }
-
-    @Override
-    public RefactoringWithObjectsClass getRefactoringClassInstance() {
-        return new RefactoringWithObjectsClass();
-    }
-
     @Override
     public boolean visit(final ClassInstanceCreation node) {
-        return maybeRefactorClassInstanceCreation(node, getAlreadyImportedClasses(node), new HashSet<String>());
+        return maybeRefactorClassInstanceCreation(node, getClassesToUseWithImport(), getImportsToAdd());
     }
 
     private boolean maybeRefactorClassInstanceCreation(final ClassInstanceCreation node,
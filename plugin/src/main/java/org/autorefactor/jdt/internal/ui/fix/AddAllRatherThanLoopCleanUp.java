@@ -50,20 +50,6 @@ import org.eclipse.jdt.core.dom.Statement;
 
 /** See {@link #getDescription()} method. */
 public class AddAllRatherThanLoopCleanUp extends NewClassImportCleanUp {
-    private final class RefactoringWithObjectsClass extends CleanUpWithNewClassImport {
-        @Override
-        public boolean visit(EnhancedForStatement node) {
-            return AddAllRatherThanLoopCleanUp.this
-                    .maybeRefactorEnhancedForStatement(node, getClassesToUseWithImport(), getImportsToAdd());
-        }
-
-        @Override
-        public boolean visit(ForStatement node) {
-            return AddAllRatherThanLoopCleanUp.this.maybeRefactorForStatement(node,
-                    getClassesToUseWithImport(), getImportsToAdd());
-        }
-    }
-
     /**
      * Get the name.
      *
@@ -91,11 +77,6 @@ public class AddAllRatherThanLoopCleanUp extends NewClassImportCleanUp {
         return MultiFixMessages.CleanUpRefactoringWizard_AddAllRatherThanLoopCleanUp_reason;
     }
 
-    @Override
-    public RefactoringWithObjectsClass getRefactoringClassInstance() {
-        return new RefactoringWithObjectsClass();
-    }
-
     @Override
     public Set<String> getClassesToImport() {
         return new HashSet<>(Arrays.asList(Collections.class.getCanonicalName()));
@@ -103,7 +84,7 @@ public class AddAllRatherThanLoopCleanUp extends NewClassImportCleanUp {
 
     @Override
     public boolean visit(final EnhancedForStatement node) {
-        return maybeRefactorEnhancedForStatement(node, getAlreadyImportedClasses(node), new HashSet<String>());
+        return maybeRefactorEnhancedForStatement(node, getClassesToUseWithImport(), getImportsToAdd());
     }
 
     private boolean maybeRefactorEnhancedForStatement(final EnhancedForStatement node,
@@ -135,7 +116,7 @@ public class AddAllRatherThanLoopCleanUp extends NewClassImportCleanUp {
 
     @Override
     public boolean visit(ForStatement node) {
-        return maybeRefactorForStatement(node, getAlreadyImportedClasses(node), new HashSet<String>());
+        return maybeRefactorForStatement(node, getClassesToUseWithImport(), getImportsToAdd());
     }
 
     private boolean maybeRefactorForStatement(final ForStatement node, final Set<String> classesToUseWithImport,
@@ -28,15 +28,18 @@ package org.autorefactor.jdt.internal.ui.fix;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
-import java.util.LinkedHashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.autorefactor.jdt.internal.corext.dom.JavaRefactoringRule;
 import org.autorefactor.jdt.internal.corext.dom.RefactoringRule;
@@ -45,6 +48,7 @@ import org.autorefactor.jdt.internal.corext.dom.Release;
 import org.autorefactor.preferences.Preferences;
 import org.autorefactor.util.AutoRefactorException;
 import org.autorefactor.util.NotImplementedException;
+import org.autorefactor.util.Pair;
 import org.autorefactor.util.UnhandledException;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.jdt.core.dom.ASTNode;
@@ -59,6 +63,7 @@ import org.eclipse.jdt.core.dom.ArrayType;
 import org.eclipse.jdt.core.dom.AssertStatement;
 import org.eclipse.jdt.core.dom.Assignment;
 import org.eclipse.jdt.core.dom.Block;
+import org.eclipse.jdt.core.dom.BodyDeclaration;
 import org.eclipse.jdt.core.dom.BlockComment;
 import org.eclipse.jdt.core.dom.BooleanLiteral;
 import org.eclipse.jdt.core.dom.BreakStatement;
@@ -146,13 +151,55 @@ import org.eclipse.jdt.core.dom.WildcardType;
  * isolated and ignored for the rest of a run for stability.
  */
 public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRule {
-    private final Map<Class<?>, List<ASTVisitor>> visitorsMap= new HashMap<>();
-    private final Map<Class<?>, List<ASTVisitor>> endVisitorsMap= new HashMap<>();
-    private final Set<ASTVisitor> preVisitors= new LinkedHashSet<>();
-    private final Set<ASTVisitor> preVisitors2= new LinkedHashSet<>();
-    private final Set<ASTVisitor> postVisitors= new LinkedHashSet<>();
+    private static final int[] NO_VISITORS= {};
+    /** Maps each concrete node class to its node type, as returned by {@link ASTNode#getNodeType()}. */
+    private static final Map<Class<?>, Integer> NODE_TYPES= getNodeTypes();
+    /** The nodes only visited by the visits of the whole file, never by the visits of a body declaration. */
+    private static final Set<Class<?>> FILE_LEVEL_NODE_CLASSES= new HashSet<Class<?>>(Arrays.<Class<?>>asList(
+            CompilationUnit.class, TypeDeclaration.class, EnumDeclaration.class, AnnotationTypeDeclaration.class));
+
+    /** The dispatch tables of all the visitors. */
+    private final DispatchTables dispatchTables;
+    /**
+     * Ids of the visitors declaring a visit() method, indexed by node type. A
+     * visitor id is its index in {@link #visitorsById}.
+     */
+    private int[][] visitorsByNodeType;
+    /** Ids of the visitors declaring an endVisit() method, indexed by node type. */
+    private int[][] endVisitorsByNodeType;
+    /**
+     * Ids of the visitors declaring a visit(MethodInvocation) method that are
+     * not a {@link MethodInvocationFilter}.
+     */
+    private int[] unfilteredMethodInvocationVisitors;
+    /**
+     * Ids of the visitors declaring a visit(MethodInvocation) method, indexed by
+     * the name of the methods the {@link MethodInvocationFilter} visitors visit.
+     */
+    private Map<String, int[]> methodInvocationVisitorsByName;
+    private int[] preVisitors;
+    private int[] preVisitors2;
+    private int[] postVisitors;
+    /** Visitors that threw an exception, they are ignored for the rest of the run. */
+    private final BitSet faultyVisitors= new BitSet();
+    /** Visitors that do not support the Java version of the current compilation unit. */
+    private final BitSet unsupportedVisitors= new BitSet();
+    /** Visitors left out of the runs, see {@link #setSelectedVisitors(List)}. */
+    private final BitSet deselectedVisitors= new BitSet();
+    /** Null unless the profiling is on. */
+    private RuleProfile profile;
+    /** The value of {@link System#nanoTime()} when the visit stops. */
+    private long deadline= Long.MAX_VALUE;
+    /**
+     * True if the rules can refactor the subtrees of a refactored node in the
+     * same pass, outside the rewritten source ranges.
+     */
+    private boolean disjointRefactoringsOn;
+    /** True if the node being visited is an ancestor of a rewritten node. */
+    private boolean isRefactoredAncestor;
 
     private final List<ASTVisitor> visitors;
+    private final ASTVisitor[] visitorsById;
 
     private RefactoringContext ctx;
     private final Set<ASTVisitor> visitorsContributingRefactoring= new HashSet<>();
@@ -163,10 +210,38 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
      * @param visitors the visitors that will be executed by this
      *                 {@link AggregateASTVisitor}
      */
-    @SuppressWarnings({ "rawtypes", "unchecked" }) // $NON-NLS-2$
     public AggregateASTVisitor(List<RefactoringRule> visitors) {
+        this(visitors, new DispatchTables(visitors));
+    }
+
+    /**
+     * Builds an instance of this class from dispatch tables already analyzed,
+     * so that no reflection is needed.
+     *
+     * @param visitors       the visitors that will be executed by this
+     *                       {@link AggregateASTVisitor}
+     * @param dispatchTables the dispatch tables of the same visitors in the same
+     *                       order
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" }) // $NON-NLS-2$
+    public AggregateASTVisitor(List<RefactoringRule> visitors, DispatchTables dispatchTables) {
+        if (!dispatchTables.isFor(visitors)) {
+            throw new IllegalArgumentException("The dispatch tables belong to other visitors"); //$NON-NLS-1$
+        }
         this.visitors= (List) visitors;
-        analyzeVisitors();
+        this.visitorsById= this.visitors.toArray(new ASTVisitor[this.visitors.size()]);
+        this.dispatchTables= dispatchTables;
+        dispatchTo(dispatchTables);
+    }
+
+    private void dispatchTo(DispatchTables tables) {
+        this.visitorsByNodeType= tables.visitorsByNodeType;
+        this.endVisitorsByNodeType= tables.endVisitorsByNodeType;
+        this.unfilteredMethodInvocationVisitors= tables.unfilteredMethodInvocationVisitors;
+        this.methodInvocationVisitorsByName= tables.methodInvocationVisitorsByName;
+        this.preVisitors= tables.preVisitors;
+        this.preVisitors2= tables.preVisitors2;
+        this.postVisitors= tables.postVisitors;
     }
 
     /**
@@ -207,30 +282,253 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
         return true;
     }
 
-    private void analyzeVisitors() {
-        for (ASTVisitor v : this.visitors) {
-            analyzeVisitor(v, v.getClass());
+    private static Map<Class<?>, Integer> getNodeTypes() {
+        final Map<Class<?>, Integer> nodeTypes= new HashMap<>();
+        for (int nodeType= 1;; nodeType++) {
+            try {
+                nodeTypes.put(ASTNode.nodeClassForType(nodeType), nodeType);
+            } catch (IllegalArgumentException e) {
+                // All the node types known by this version of JDT have been found
+                return nodeTypes;
+            }
         }
     }
 
-    private void analyzeVisitor(ASTVisitor v, Class<?> clazz) {
-        if (ASTVisitor.class.equals(clazz)) {
-            return;
+    /**
+     * Returns the length of the arrays indexed by node type.
+     *
+     * @return the length of the arrays indexed by node type
+     */
+    static int getNodeTypesArrayLength() {
+        // Node types start at 1
+        return NODE_TYPES.size() + 1;
+    }
+
+    private static int[][] newDispatchTable() {
+        final int[][] table= new int[getNodeTypesArrayLength()][];
+        Arrays.fill(table, NO_VISITORS);
+        return table;
+    }
+
+    /**
+     * The dispatch tables of a list of visitors. They are immutable, so the
+     * {@link AggregateASTVisitor}s of the same visitors can share them.
+     */
+    public static final class DispatchTables {
+        /**
+         * The methods {@link AggregateASTVisitor} dispatches to, declared by each
+         * visitor class or its superclasses. Only the first analysis of a class uses
+         * reflection.
+         */
+        private static final ConcurrentMap<Class<?>, List<Pair<String, Class<?>>>> DISPATCHED_METHODS=
+                new ConcurrentHashMap<>();
+
+        private final List<Class<?>> visitorClasses= new ArrayList<>();
+        private final int[][] visitorsByNodeType= newDispatchTable();
+        private final int[][] endVisitorsByNodeType= newDispatchTable();
+        private int[] unfilteredMethodInvocationVisitors;
+        private final Map<String, int[]> methodInvocationVisitorsByName= new HashMap<>();
+        private int[] preVisitors;
+        private int[] preVisitors2;
+        private int[] postVisitors;
+        /** The tables of the {@link BodyLocalRule}s only, this instance if all the visitors are. */
+        private final DispatchTables bodyLocalTables;
+
+        /**
+         * Analyzes the methods declared by each provided visitor.
+         *
+         * @param visitors the visitors, in the order of the
+         *                 {@link AggregateASTVisitor}
+         */
+        public DispatchTables(List<RefactoringRule> visitors) {
+            for (RefactoringRule visitor : visitors) {
+                visitorClasses.add(visitor.getClass());
+            }
+            analyzeVisitors(visitors);
+
+            final BitSet bodyLocalIds= new BitSet();
+            for (int id= 0; id < visitorClasses.size(); id++) {
+                if (isBodyLocal(visitorClasses.get(id))) {
+                    bodyLocalIds.set(id);
+                }
+            }
+            bodyLocalTables= bodyLocalIds.cardinality() == visitorClasses.size() ? this
+                    : new DispatchTables(this, bodyLocalIds);
         }
-        for (Method m : clazz.getDeclaredMethods()) {
-            if (is("preVisit", m)) { //$NON-NLS-1$
-                preVisitors.add(v);
-            } else if (is("preVisit2", m)) { //$NON-NLS-1$
-                preVisitors2.add(v);
-            } else if (is("postVisit", m)) { //$NON-NLS-1$
-                postVisitors.add(v);
-            } else if (isVisit(m)) {
-                put(visitorsMap, m.getParameterTypes()[0], v);
-            } else if (isEndVisit(m)) {
-                put(endVisitorsMap, m.getParameterTypes()[0], v);
+
+        /** Copies the provided tables, keeping only the provided visitors. */
+        private DispatchTables(DispatchTables tables, BitSet retainedIds) {
+            visitorClasses.addAll(tables.visitorClasses);
+            for (int nodeType= 0; nodeType < visitorsByNodeType.length; nodeType++) {
+                visitorsByNodeType[nodeType]= retain(tables.visitorsByNodeType[nodeType], retainedIds);
+                endVisitorsByNodeType[nodeType]= retain(tables.endVisitorsByNodeType[nodeType], retainedIds);
             }
+            unfilteredMethodInvocationVisitors= retain(tables.unfilteredMethodInvocationVisitors, retainedIds);
+            for (Map.Entry<String, int[]> entry : tables.methodInvocationVisitorsByName.entrySet()) {
+                methodInvocationVisitorsByName.put(entry.getKey(), retain(entry.getValue(), retainedIds));
+            }
+            preVisitors= retain(tables.preVisitors, retainedIds);
+            preVisitors2= retain(tables.preVisitors2, retainedIds);
+            postVisitors= retain(tables.postVisitors, retainedIds);
+            bodyLocalTables= this;
+        }
+
+        /**
+         * A {@link BodyLocalRule} hooked to the compilation unit or to the type
+         * declarations is not body local: these hooks only run on the visits of
+         * the whole file. For example, the {@link NewClassImportCleanUp}s find the
+         * usable simple names and add their imports there.
+         */
+        private static boolean isBodyLocal(Class<?> visitorClass) {
+            if (!BodyLocalRule.class.isAssignableFrom(visitorClass)) {
+                return false;
+            }
+            for (Pair<String, Class<?>> method : getDispatchedMethods(visitorClass)) {
+                if (FILE_LEVEL_NODE_CLASSES.contains(method.getSecond())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static int[] retain(int[] ids, BitSet retainedIds) {
+            int nbRetainedIds= 0;
+            for (int id : ids) {
+                if (retainedIds.get(id)) {
+                    nbRetainedIds++;
+                }
+            }
+            if (nbRetainedIds == ids.length) {
+                return ids;
+            }
+
+            final int[] results= new int[nbRetainedIds];
+            int i= 0;
+            for (int id : ids) {
+                if (retainedIds.get(id)) {
+                    results[i++]= id;
+                }
+            }
+            return results;
+        }
+
+        /**
+         * Returns true if these dispatch tables have been analyzed for the provided
+         * visitors.
+         *
+         * @param visitors the visitors
+         * @return true if these dispatch tables have been analyzed for the provided
+         *         visitors
+         */
+        public boolean isFor(List<RefactoringRule> visitors) {
+            if (visitors.size() != visitorClasses.size()) {
+                return false;
+            }
+            for (int id= 0; id < visitorClasses.size(); id++) {
+                if (!visitorClasses.get(id).equals(visitors.get(id).getClass())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Builds the dispatch tables from the methods declared by each visitor, so
+         * that each visit does not need any lookup or allocation.
+         */
+        private void analyzeVisitors(List<RefactoringRule> visitors) {
+            final Map<Pair<String, Class<?>>, Set<Integer>> visitorIdsByMethod= new HashMap<>();
+            for (int id= 0; id < visitorClasses.size(); id++) {
+                for (Pair<String, Class<?>> method : getDispatchedMethods(visitorClasses.get(id))) {
+                    Set<Integer> ids= visitorIdsByMethod.get(method);
+                    if (ids == null) {
+                        // Sorted ids keep the visitors order
+                        ids= new TreeSet<>();
+                        visitorIdsByMethod.put(method, ids);
+                    }
+                    ids.add(id);
+                }
+            }
+
+            preVisitors= getVisitorIds(visitorIdsByMethod, "preVisit", ASTNode.class); //$NON-NLS-1$
+            preVisitors2= getVisitorIds(visitorIdsByMethod, "preVisit2", ASTNode.class); //$NON-NLS-1$
+            postVisitors= getVisitorIds(visitorIdsByMethod, "postVisit", ASTNode.class); //$NON-NLS-1$
+            for (Map.Entry<Class<?>, Integer> nodeType : NODE_TYPES.entrySet()) {
+                visitorsByNodeType[nodeType.getValue()]= getVisitorIds(visitorIdsByMethod, "visit", nodeType.getKey()); //$NON-NLS-1$
+                endVisitorsByNodeType[nodeType.getValue()]= getVisitorIds(visitorIdsByMethod, "endVisit", //$NON-NLS-1$
+                        nodeType.getKey());
+            }
+            analyzeMethodInvocationFilters(visitors);
+        }
+
+        private void analyzeMethodInvocationFilters(List<RefactoringRule> visitors) {
+            final Set<Integer> unfilteredIds= new TreeSet<>();
+            final Map<String, Set<Integer>> idsByName= new HashMap<>();
+            for (int id : visitorsByNodeType[ASTNode.METHOD_INVOCATION]) {
+                if (!(visitors.get(id) instanceof MethodInvocationFilter)) {
+                    unfilteredIds.add(id);
+                    continue;
+                }
+                for (String methodName : ((MethodInvocationFilter) visitors.get(id)).getMethodNames()) {
+                    Set<Integer> ids= idsByName.get(methodName);
+                    if (ids == null) {
+                        // Sorted ids keep the visitors order
+                        ids= new TreeSet<>();
+                        idsByName.put(methodName, ids);
+                    }
+                    ids.add(id);
+                }
+            }
+
+            unfilteredMethodInvocationVisitors= toArray(unfilteredIds);
+            for (Map.Entry<String, Set<Integer>> entry : idsByName.entrySet()) {
+                entry.getValue().addAll(unfilteredIds);
+                methodInvocationVisitorsByName.put(entry.getKey(), toArray(entry.getValue()));
+            }
+        }
+
+        private static List<Pair<String, Class<?>>> getDispatchedMethods(Class<?> visitorClass) {
+            List<Pair<String, Class<?>>> methods= DISPATCHED_METHODS.get(visitorClass);
+            if (methods == null) {
+                methods= new ArrayList<>();
+                for (Class<?> clazz= visitorClass; !ASTVisitor.class.equals(clazz); clazz= clazz.getSuperclass()) {
+                    for (Method m : clazz.getDeclaredMethods()) {
+                        if (is("preVisit", m) || is("preVisit2", m) || is("postVisit", m) || isVisit(m) //$NON-NLS-1$ $NON-NLS-2$ $NON-NLS-3$
+                                || isEndVisit(m)) {
+                            methods.add(Pair.<String, Class<?>>of(m.getName(), m.getParameterTypes()[0]));
+                        }
+                    }
+                }
+                DISPATCHED_METHODS.putIfAbsent(visitorClass, methods);
+            }
+            return methods;
+        }
+
+        private static int[] getVisitorIds(Map<Pair<String, Class<?>>, Set<Integer>> visitorIdsByMethod,
+                String methodName, Class<?> paramType) {
+            final Set<Integer> ids= visitorIdsByMethod.get(Pair.<String, Class<?>>of(methodName, paramType));
+            if (ids == null) {
+                return NO_VISITORS;
+            }
+            return toArray(ids);
+        }
+
+        private static int[] toArray(Set<Integer> ids) {
+            final int[] results= new int[ids.size()];
+            int i= 0;
+            for (Integer id : ids) {
+                results[i++]= id;
+            }
+            return results;
         }
-        analyzeVisitor(v, clazz.getSuperclass());
+    }
+
+    private int[] getVisitors(ASTNode node) {
+        if (node.getNodeType() == ASTNode.METHOD_INVOCATION) {
+            final int[] ids= methodInvocationVisitorsByName.get(((MethodInvocation) node).getName().getIdentifier());
+            return ids != null ? ids : unfilteredMethodInvocationVisitors;
+        }
+        return visitorsByNodeType[node.getNodeType()];
     }
 
     private static boolean is(String methodName, Method m) {
@@ -250,23 +548,6 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
                 && !Modifier.isAbstract(m.getParameterTypes()[0].getModifiers());
     }
 
-    private void put(Map<Class<?>, List<ASTVisitor>> map, Class<?> key, ASTVisitor value) {
-        List<ASTVisitor> visitors= map.get(key);
-        if (visitors == null) {
-            visitors= new ArrayList<ASTVisitor>(1);
-            map.put(key, visitors);
-        }
-        visitors.add(value);
-    }
-
-    private List<ASTVisitor> getVisitors(Map<Class<?>, List<ASTVisitor>> map, Class<? extends ASTNode> clazzKey) {
-        final List<ASTVisitor> result= map.get(clazzKey);
-        if (result != null) {
-            return result;
-        }
-        return Collections.emptyList();
-    }
-
     /**
      * True if this Java version is supported.
      *
@@ -296,6 +577,120 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
             v.setRefactoringContext(ctx);
         }
         this.visitorsContributingRefactoring.clear();
+        unsupportedVisitors.clear();
+        for (int id= 0; id < visitorsById.length; id++) {
+            if (!isJavaVersionSupported(visitorsById[id])) {
+                unsupportedVisitors.set(id);
+            }
+        }
+    }
+
+    private boolean isEnabled(int visitorId) {
+        return !faultyVisitors.get(visitorId) && !deselectedVisitors.get(visitorId);
+    }
+
+    private boolean isVisitable(int visitorId) {
+        if (isEnabled(visitorId) && !unsupportedVisitors.get(visitorId) && !isRefactoredAncestor) {
+            return true;
+        }
+        if (profile != null && !deselectedVisitors.get(visitorId)) {
+            profile.recordSkippedNode(visitorId);
+        }
+        return false;
+    }
+
+    /**
+     * Only lets the provided visitors take part in the next runs. The dispatch
+     * tables are kept as they are, the other visitors are skipped.
+     *
+     * @param selectedVisitors the visitors to run, taken among the visitors of
+     *                         this {@link AggregateASTVisitor}
+     */
+    public void setSelectedVisitors(List<RefactoringRule> selectedVisitors) {
+        final Set<Object> selected= Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+        selected.addAll(selectedVisitors);
+        deselectedVisitors.clear();
+        for (int id= 0; id < visitorsById.length; id++) {
+            if (!selected.contains(visitorsById[id])) {
+                deselectedVisitors.set(id);
+            }
+        }
+    }
+
+    /**
+     * Records the statistics of the rules in the provided profile. The profile
+     * must have been built with the same list of rules as this visitor.
+     *
+     * @param profile the profile where to record the statistics, null to stop
+     *                profiling
+     */
+    public void setProfile(RuleProfile profile) {
+        this.profile= profile;
+    }
+
+    /**
+     * Stops visiting the nodes once the provided deadline is reached. The
+     * refactorings already found are kept.
+     *
+     * @param deadline the value of {@link System#nanoTime()} when the visit
+     *                 stops, {@link Long#MAX_VALUE} to visit all the nodes
+     */
+    public void setDeadline(long deadline) {
+        this.deadline= deadline;
+    }
+
+    /**
+     * Lets the rules refactor the disjoint subtrees of a refactored node in the
+     * same pass.
+     * <p>
+     * By default, once a rule has refactored a node, no other rule visits this
+     * node nor its subtree until the next pass. When this mode is on, only the
+     * nodes inside the rewritten source ranges are skipped. The ancestors of the
+     * rewritten nodes are still not visited, but their other descendants are.
+     *
+     * @param disjointRefactoringsOn true to refactor the disjoint subtrees in the
+     *                               same pass
+     */
+    public void setDisjointRefactorings(boolean disjointRefactoringsOn) {
+        this.disjointRefactoringsOn= disjointRefactoringsOn;
+    }
+
+    /**
+     * Returns whether the visit of the provided node and of its subtree stops,
+     * because the deadline has passed or because the node has already been
+     * rewritten in this pass.
+     */
+    private boolean isVisitStopped(ASTNode node) {
+        if (deadline != Long.MAX_VALUE && System.nanoTime() - deadline > 0) {
+            return true;
+        }
+        return disjointRefactoringsOn && ctx.getRefactorings().hasBeenRewritten(node);
+    }
+
+    /**
+     * Returns whether the visit of the provided node is skipped, but not the
+     * visit of its subtree, because the node is an ancestor of a node
+     * refactored in this pass.
+     */
+    private boolean isOnlySubtreeVisited(ASTNode node) {
+        isRefactoredAncestor= disjointRefactoringsOn && ctx.getRefactorings().hasBeenRefactored(node);
+        return isRefactoredAncestor;
+    }
+
+    private long startProfiling() {
+        return profile != null ? System.nanoTime() : 0;
+    }
+
+    private void stopProfiling(int visitorId, long start) {
+        if (profile != null) {
+            profile.recordTime(visitorId, System.nanoTime() - start);
+        }
+    }
+
+    private void stopProfiling(int visitorId, ASTNode node, long start) {
+        if (profile != null) {
+            profile.recordVisit(visitorId, node.getNodeType(), System.nanoTime() - start);
+        }
     }
 
     /**
@@ -307,9 +702,39 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
      */
     public Refactorings getRefactorings(CompilationUnit astRoot) {
         astRoot.accept(this);
+        recordSharedCaches();
         return this.ctx.getRefactorings();
     }
 
+    /**
+     * Get the cleanups of the {@link BodyLocalRule}s for the provided method or
+     * initializer only. The other rules do not visit it.
+     *
+     * @param bodyDeclaration The method or initializer to visit
+     *
+     * @return the cleanups.
+     */
+    public Refactorings getBodyLocalRefactorings(BodyDeclaration bodyDeclaration) {
+        dispatchTo(dispatchTables.bodyLocalTables);
+        try {
+            bodyDeclaration.accept(this);
+        } finally {
+            dispatchTo(dispatchTables);
+        }
+        recordSharedCaches();
+        return this.ctx.getRefactorings();
+    }
+
+    private void recordSharedCaches() {
+        if (profile != null) {
+            if (ctx.getControlFlowGraphCache() != null) {
+                profile.recordControlFlowGraphs(ctx.getControlFlowGraphCache());
+            }
+            profile.recordBindingQueries(ctx.getBindingQueryCache());
+            profile.recordStructuralFingerprints(ctx.getStructuralFingerprints());
+        }
+    }
+
     /**
      * Get the cleanups.
      *
@@ -333,17 +758,24 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
      *
      * @param continueVisiting whether the current visitor reported it wants to
      *                         visit the subtree of the current node
-     * @param v                the current visitor
+     * @param visitorId        the id of the current visitor
      * @param node             the node being currently visited
      * @return true if the following visitors can visit the current node, false
      *         otherwise
      */
-    private boolean continueVisiting(boolean continueVisiting, ASTVisitor v, ASTNode node) {
+    private boolean continueVisiting(boolean continueVisiting, int visitorId, ASTNode node) {
         if (!continueVisiting) {
+            final ASTVisitor v= visitorsById[visitorId];
             if (!this.ctx.getRefactorings().hasRefactorings()) {
                 logBadlyBehavedVisitor(v, node);
             } else {
                 visitorsContributingRefactoring.add(v);
+                if (profile != null) {
+                    profile.recordRefactoring(visitorId);
+                }
+            }
+            if (profile != null) {
+                recordSkippedVisitors(visitorId, node);
             }
             // Changes will be made to this node.
             // no other visitors can make any more changes to it
@@ -353,6 +785,16 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
         return true;
     }
 
+    private void recordSkippedVisitors(int visitorId, ASTNode node) {
+        boolean isSkipped= false;
+        for (int id : getVisitors(node)) {
+            if (isSkipped && !deselectedVisitors.get(id)) {
+                profile.recordSkippedNode(id);
+            }
+            isSkipped|= id == visitorId;
+        }
+    }
+
     private void logBadlyBehavedVisitor(ASTVisitor v, ASTNode node) {
         String message= "Visitor " + v.getClass().getName() + " is badly behaved:" //$NON-NLS-1$ $NON-NLS-2$
                 + " it reported doing a refactoring, but it did not actually contribute any refactoring."; //$NON-NLS-1$
@@ -369,6 +811,21 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
         ctx.getLogger().error(message, new UnhandledException(node, message, e));
     }
 
+    /**
+     * Returns whether a visitor has thrown an exception, so it has been disabled
+     * for the rest of the run.
+     *
+     * @return true if a visitor has thrown an exception, false otherwise
+     */
+    public boolean hasFaultyVisitors() {
+        return !faultyVisitors.isEmpty();
+    }
+
+    private void disableFaultyVisitor(int visitorId, ASTNode node, Exception e) {
+        logFaultyVisitor(visitorsById[visitorId], node, e);
+        faultyVisitors.set(visitorId);
+    }
+
     /**
      * Generates the code for all the ASTVisitor methods that delegate to the
      * underlying visitors.
@@ -406,45 +863,64 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
             final boolean isVisit= isVisit(m);
             final boolean isEndVisit= isEndVisit(m);
             final boolean isPrevisit2= is("preVisit2", m); //$NON-NLS-1$
-            if (isVisit || isEndVisit) {
-                System.out.print("\tfinal List<ASTVisitor> visitorList = getVisitors("); //$NON-NLS-1$
-                System.out.print((isVisit ? "visitorsMap" : "endVisitorsMap") + ", "); //$NON-NLS-1$ $NON-NLS-2$ $NON-NLS-3$
-                System.out.println(m.getParameterTypes()[0].getSimpleName() + ".class);"); //$NON-NLS-1$
-            }
-            System.out.print("\tfor (Iterator<ASTVisitor> iter = "); //$NON-NLS-1$
+            if (isPrevisit2) {
+                System.out.println("\tif (isVisitStopped(node)) {"); //$NON-NLS-1$
+                System.out.println("\t\treturn false;"); //$NON-NLS-1$
+                System.out.println("\t}"); //$NON-NLS-1$
+                System.out.println("\tif (isOnlySubtreeVisited(node)) {"); //$NON-NLS-1$
+                System.out.println("\t\treturn true;"); //$NON-NLS-1$
+                System.out.println("\t}"); //$NON-NLS-1$
+            }
+            System.out.print("\tfor (int id : "); //$NON-NLS-1$
             if (is("preVisit", m)) { //$NON-NLS-1$
                 System.out.print("preVisitors"); //$NON-NLS-1$
             } else if (isPrevisit2) {
                 System.out.print("preVisitors2"); //$NON-NLS-1$
             } else if (is("postVisit", m)) { //$NON-NLS-1$
                 System.out.print("postVisitors"); //$NON-NLS-1$
-            } else if (isVisit || isEndVisit) {
-                System.out.print("visitorList"); //$NON-NLS-1$
+            } else if (isVisit && MethodInvocation.class.equals(paramTypes[0])) {
+                // The method invocations are only passed to the rules filtering their method name
+                System.out.print("getVisitors(node)"); //$NON-NLS-1$
+            } else if (isVisit) {
+                System.out.print("visitorsByNodeType[node.getNodeType()]"); //$NON-NLS-1$
+            } else if (isEndVisit) {
+                System.out.print("endVisitorsByNodeType[node.getNodeType()]"); //$NON-NLS-1$
             } else {
                 throw new NotImplementedException(null, "for method " + m); //$NON-NLS-1$
             }
-            System.out.println(".iterator(); iter.hasNext();) {"); //$NON-NLS-1$
-            System.out.println("\t\tfinal ASTVisitor v = iter.next();"); //$NON-NLS-1$
-            System.out.println("\t\ttry {"); //$NON-NLS-1$
+            System.out.println(") {"); //$NON-NLS-1$
+            if (isVisit) {
+                System.out.println("\t\tif (isVisitable(id)) {"); //$NON-NLS-1$
+            } else {
+                System.out.println("\t\tif (isEnabled(id)) {"); //$NON-NLS-1$
+            }
+            System.out.println("\t\t\tfinal ASTVisitor v= visitorsById[id];"); //$NON-NLS-1$
+            System.out.println("\t\t\tfinal long start= startProfiling();"); //$NON-NLS-1$
+            System.out.println("\t\t\ttry {"); //$NON-NLS-1$
             if (isPrevisit2) {
-                System.out.println("\t\t\tif (!v." + m.getName() + "(node)) {"); //$NON-NLS-1$ $NON-NLS-2$
-                System.out.println("\t\t\t\treturn DO_NOT_VISIT_SUBTREE;"); //$NON-NLS-1$
-                System.out.println("\t\t\t}"); //$NON-NLS-1$
+                System.out.println("\t\t\t\tif (!v." + m.getName() + "(node)) {"); //$NON-NLS-1$ $NON-NLS-2$
+                System.out.println("\t\t\t\t\treturn false;"); //$NON-NLS-1$
+                System.out.println("\t\t\t\t}"); //$NON-NLS-1$
             } else if (Boolean.TYPE.equals(m.getReturnType())) {
-                System.out.println("\t\t\tif (isJavaVersionSupported(v)"); //$NON-NLS-1$
-                System.out.println("\t\t\t\t\t&& !continueVisiting(v." + m.getName() + "(node), v, node)) {"); //$NON-NLS-1$ $NON-NLS-2$
-                System.out.println("\t\t\t\treturn DO_NOT_VISIT_SUBTREE;"); //$NON-NLS-1$
-                System.out.println("\t\t\t}"); //$NON-NLS-1$
+                System.out.println("\t\t\t\tif (!continueVisiting(v." + m.getName() + "(node), id, node)) {"); //$NON-NLS-1$ $NON-NLS-2$
+                System.out.println("\t\t\t\t\treturn disjointRefactoringsOn;"); //$NON-NLS-1$
+                System.out.println("\t\t\t\t}"); //$NON-NLS-1$
+            } else {
+                System.out.println("\t\t\t\tv." + m.getName() + "(node);"); //$NON-NLS-1$ $NON-NLS-2$
+            }
+            System.out.println("\t\t\t} catch (Exception e) {"); //$NON-NLS-1$
+            System.out.println("\t\t\t\tdisableFaultyVisitor(id, node, e);"); //$NON-NLS-1$
+            System.out.println("\t\t\t} finally {"); //$NON-NLS-1$
+            if (isVisit || isEndVisit) {
+                System.out.println("\t\t\t\tstopProfiling(id, node, start);"); //$NON-NLS-1$
             } else {
-                System.out.println("\t\t\tv." + m.getName() + "(node);"); //$NON-NLS-1$ $NON-NLS-2$
+                System.out.println("\t\t\t\tstopProfiling(id, start);"); //$NON-NLS-1$
             }
-            System.out.println("\t\t} catch (Exception e) {"); //$NON-NLS-1$
-            System.out.println("\t\t\tlogFaultyVisitor(v, node, e);"); //$NON-NLS-1$
-            System.out.println("\t\t\titer.remove();"); //$NON-NLS-1$
+            System.out.println("\t\t\t}"); //$NON-NLS-1$
             System.out.println("\t\t}"); //$NON-NLS-1$
             System.out.println("\t}"); //$NON-NLS-1$
             if (Boolean.TYPE.equals(m.getReturnType())) {
-                System.out.println("\treturn VISIT_SUBTREE;"); //$NON-NLS-1$
+                System.out.println("\treturn true;"); //$NON-NLS-1$
             }
             System.out.println("}"); //$NON-NLS-1$
             System.out.println();
@@ -453,1217 +929,1487 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public void endVisit(AnnotationTypeDeclaration node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, AnnotationTypeDeclaration.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(AnnotationTypeMemberDeclaration node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, AnnotationTypeMemberDeclaration.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(AnonymousClassDeclaration node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, AnonymousClassDeclaration.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(ArrayAccess node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, ArrayAccess.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(ArrayCreation node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, ArrayCreation.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(ArrayInitializer node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, ArrayInitializer.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(ArrayType node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, ArrayType.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(AssertStatement node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, AssertStatement.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(Assignment node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, Assignment.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(Block node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, Block.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(BlockComment node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, BlockComment.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(BooleanLiteral node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, BooleanLiteral.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(BreakStatement node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, BreakStatement.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(CastExpression node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, CastExpression.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(CatchClause node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, CatchClause.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(CharacterLiteral node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, CharacterLiteral.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(ClassInstanceCreation node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, ClassInstanceCreation.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(CompilationUnit node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, CompilationUnit.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(ConditionalExpression node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, ConditionalExpression.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(ConstructorInvocation node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, ConstructorInvocation.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(ContinueStatement node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, ContinueStatement.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(DoStatement node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, DoStatement.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(EmptyStatement node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, EmptyStatement.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(EnhancedForStatement node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, EnhancedForStatement.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(EnumConstantDeclaration node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, EnumConstantDeclaration.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(EnumDeclaration node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, EnumDeclaration.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(ExpressionStatement node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, ExpressionStatement.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(FieldAccess node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, FieldAccess.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(FieldDeclaration node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, FieldDeclaration.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(ForStatement node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, ForStatement.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(IfStatement node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, IfStatement.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(ImportDeclaration node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, ImportDeclaration.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(InfixExpression node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, InfixExpression.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(Initializer node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, Initializer.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(InstanceofExpression node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, InstanceofExpression.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(Javadoc node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, Javadoc.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(LabeledStatement node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, LabeledStatement.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(LineComment node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, LineComment.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(MarkerAnnotation node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, MarkerAnnotation.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(MemberRef node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, MemberRef.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(MemberValuePair node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, MemberValuePair.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(MethodDeclaration node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, MethodDeclaration.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(MethodInvocation node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, MethodInvocation.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(MethodRef node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, MethodRef.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(MethodRefParameter node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, MethodRefParameter.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(Modifier node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, Modifier.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(NormalAnnotation node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, NormalAnnotation.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(NullLiteral node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, NullLiteral.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(NumberLiteral node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, NumberLiteral.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(PackageDeclaration node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, PackageDeclaration.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(ParameterizedType node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, ParameterizedType.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(ParenthesizedExpression node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, ParenthesizedExpression.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(PostfixExpression node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, PostfixExpression.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(PrefixExpression node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, PrefixExpression.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(PrimitiveType node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, PrimitiveType.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(QualifiedName node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, QualifiedName.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(QualifiedType node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, QualifiedType.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(ReturnStatement node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, ReturnStatement.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(SimpleName node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, SimpleName.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(SimpleType node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, SimpleType.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(SingleMemberAnnotation node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, SingleMemberAnnotation.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(SingleVariableDeclaration node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, SingleVariableDeclaration.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(StringLiteral node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, StringLiteral.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(SuperConstructorInvocation node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, SuperConstructorInvocation.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(SuperFieldAccess node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, SuperFieldAccess.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(SuperMethodInvocation node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, SuperMethodInvocation.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(SwitchCase node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, SwitchCase.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(SwitchStatement node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, SwitchStatement.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(SynchronizedStatement node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, SynchronizedStatement.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(TagElement node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, TagElement.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(TextElement node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, TextElement.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(ThisExpression node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, ThisExpression.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(ThrowStatement node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, ThrowStatement.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(TryStatement node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, TryStatement.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(TypeDeclaration node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, TypeDeclaration.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(TypeDeclarationStatement node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, TypeDeclarationStatement.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(TypeLiteral node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, TypeLiteral.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(TypeParameter node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, TypeParameter.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(UnionType node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, UnionType.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(VariableDeclarationExpression node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, VariableDeclarationExpression.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(VariableDeclarationFragment node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, VariableDeclarationFragment.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(VariableDeclarationStatement node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, VariableDeclarationStatement.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(WhileStatement node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, WhileStatement.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void endVisit(WildcardType node) {
-        final List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, WildcardType.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.endVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : endVisitorsByNodeType[node.getNodeType()]) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.endVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
+                }
             }
         }
     }
 
     @Override
     public void postVisit(ASTNode node) {
-        for (Iterator<ASTVisitor> iter= postVisitors.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.postVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : postVisitors) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.postVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, start);
+                }
             }
         }
     }
 
     @Override
     public void preVisit(ASTNode node) {
-        for (Iterator<ASTVisitor> iter= preVisitors.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                v.preVisit(node);
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
+        for (int id : preVisitors) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    v.preVisit(node);
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, start);
+                }
             }
         }
     }
 
     @Override
     public boolean preVisit2(ASTNode node) {
-        for (Iterator<ASTVisitor> iter= preVisitors2.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (!v.preVisit2(node)) {
-                    return false;
+        if (isVisitStopped(node)) {
+            return false;
+        }
+        if (isOnlySubtreeVisited(node)) {
+            return true;
+        }
+        for (int id : preVisitors2) {
+            if (isEnabled(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!v.preVisit2(node)) {
+                        return false;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -1671,16 +2417,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(AnnotationTypeDeclaration node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, AnnotationTypeDeclaration.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -1688,16 +2437,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(AnnotationTypeMemberDeclaration node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, AnnotationTypeMemberDeclaration.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -1705,16 +2457,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(AnonymousClassDeclaration node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, AnonymousClassDeclaration.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -1722,16 +2477,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(ArrayAccess node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, ArrayAccess.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -1739,16 +2497,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(ArrayCreation node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, ArrayCreation.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -1756,16 +2517,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(ArrayInitializer node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, ArrayInitializer.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -1773,16 +2537,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(ArrayType node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, ArrayType.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -1790,16 +2557,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(AssertStatement node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, AssertStatement.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -1807,16 +2577,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(Assignment node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, Assignment.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -1824,16 +2597,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(Block node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, Block.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -1841,16 +2617,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(BlockComment node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, BlockComment.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -1858,16 +2637,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(BooleanLiteral node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, BooleanLiteral.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -1875,16 +2657,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(BreakStatement node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, BreakStatement.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -1892,16 +2677,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(CastExpression node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, CastExpression.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -1909,16 +2697,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(CatchClause node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, CatchClause.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -1926,16 +2717,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(CharacterLiteral node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, CharacterLiteral.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -1943,16 +2737,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(ClassInstanceCreation node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, ClassInstanceCreation.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -1960,16 +2757,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(CompilationUnit node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, CompilationUnit.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -1977,16 +2777,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(ConditionalExpression node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, ConditionalExpression.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -1994,16 +2797,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(ConstructorInvocation node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, ConstructorInvocation.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2011,16 +2817,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(ContinueStatement node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, ContinueStatement.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2028,16 +2837,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(CreationReference node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, CreationReference.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2045,16 +2857,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(DoStatement node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, DoStatement.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2062,16 +2877,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(EmptyStatement node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, EmptyStatement.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2079,16 +2897,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(EnhancedForStatement node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, EnhancedForStatement.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2096,16 +2917,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(EnumConstantDeclaration node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, EnumConstantDeclaration.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2113,16 +2937,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(EnumDeclaration node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, EnumDeclaration.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2130,16 +2957,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(ExpressionMethodReference node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, ExpressionMethodReference.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2147,16 +2977,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(ExpressionStatement node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, ExpressionStatement.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2164,16 +2997,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(FieldAccess node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, FieldAccess.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2181,16 +3017,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(FieldDeclaration node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, FieldDeclaration.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2198,16 +3037,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(ForStatement node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, ForStatement.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2215,16 +3057,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(IfStatement node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, IfStatement.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2232,16 +3077,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(ImportDeclaration node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, ImportDeclaration.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2249,16 +3097,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(InfixExpression node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, InfixExpression.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2266,16 +3117,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(Initializer node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, Initializer.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2283,16 +3137,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(InstanceofExpression node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, InstanceofExpression.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2300,16 +3157,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(Javadoc node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, Javadoc.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2317,16 +3177,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(LabeledStatement node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, LabeledStatement.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2334,16 +3197,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(LambdaExpression node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, LambdaExpression.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2351,16 +3217,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(LineComment node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, LineComment.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2368,16 +3237,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(MarkerAnnotation node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, MarkerAnnotation.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2385,16 +3257,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(MemberRef node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, MemberRef.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2402,16 +3277,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(MemberValuePair node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, MemberValuePair.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2419,16 +3297,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(MethodDeclaration node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, MethodDeclaration.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2436,16 +3317,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(MethodInvocation node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, MethodInvocation.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : getVisitors(node)) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2453,16 +3337,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(MethodRef node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, MethodRef.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2470,16 +3357,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(MethodRefParameter node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, MethodRefParameter.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2487,16 +3377,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(Modifier node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, Modifier.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2504,16 +3397,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(NormalAnnotation node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, NormalAnnotation.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2521,16 +3417,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(NullLiteral node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, NullLiteral.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2538,16 +3437,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(NumberLiteral node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, NumberLiteral.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2555,16 +3457,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(PackageDeclaration node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, PackageDeclaration.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2572,16 +3477,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(ParameterizedType node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, ParameterizedType.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2589,16 +3497,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(ParenthesizedExpression node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, ParenthesizedExpression.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2606,16 +3517,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(PostfixExpression node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, PostfixExpression.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2623,16 +3537,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(PrefixExpression node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, PrefixExpression.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2640,16 +3557,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(PrimitiveType node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, PrimitiveType.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2657,16 +3577,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(QualifiedName node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, QualifiedName.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2674,16 +3597,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(QualifiedType node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, QualifiedType.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2691,16 +3617,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(ReturnStatement node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, ReturnStatement.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2708,16 +3637,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(SimpleName node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, SimpleName.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2725,16 +3657,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(SimpleType node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, SimpleType.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2742,16 +3677,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(SingleMemberAnnotation node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, SingleMemberAnnotation.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2759,16 +3697,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(SingleVariableDeclaration node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, SingleVariableDeclaration.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2776,16 +3717,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(StringLiteral node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, StringLiteral.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2793,16 +3737,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(SuperConstructorInvocation node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, SuperConstructorInvocation.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2810,16 +3757,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(SuperFieldAccess node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, SuperFieldAccess.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2827,16 +3777,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(SuperMethodInvocation node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, SuperMethodInvocation.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2844,16 +3797,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(SuperMethodReference node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, SuperMethodReference.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2861,16 +3817,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(SwitchCase node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, SwitchCase.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2878,16 +3837,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(SwitchStatement node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, SwitchStatement.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2895,16 +3857,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(SynchronizedStatement node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, SynchronizedStatement.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2912,16 +3877,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(TagElement node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, TagElement.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2929,16 +3897,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(TextElement node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, TextElement.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2946,16 +3917,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(ThisExpression node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, ThisExpression.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2963,16 +3937,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(ThrowStatement node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, ThrowStatement.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2980,16 +3957,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(TryStatement node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, TryStatement.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -2997,16 +3977,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(TypeDeclaration node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, TypeDeclaration.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -3014,16 +3997,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(TypeDeclarationStatement node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, TypeDeclarationStatement.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -3031,16 +4017,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(TypeLiteral node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, TypeLiteral.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -3048,16 +4037,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(TypeMethodReference node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, TypeMethodReference.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -3065,16 +4057,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(TypeParameter node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, TypeParameter.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -3082,16 +4077,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(UnionType node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, UnionType.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -3099,16 +4097,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(VariableDeclarationExpression node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, VariableDeclarationExpression.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -3116,16 +4117,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(VariableDeclarationFragment node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, VariableDeclarationFragment.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -3133,16 +4137,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(VariableDeclarationStatement node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, VariableDeclarationStatement.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -3150,16 +4157,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(WhileStatement node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, WhileStatement.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
@@ -3167,16 +4177,19 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
     @Override
     public boolean visit(WildcardType node) {
-        final List<ASTVisitor> visitorList= getVisitors(visitorsMap, WildcardType.class);
-        for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-            final ASTVisitor v= iter.next();
-            try {
-                if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-                    return false;
+        for (int id : visitorsByNodeType[node.getNodeType()]) {
+            if (isVisitable(id)) {
+                final ASTVisitor v= visitorsById[id];
+                final long start= startProfiling();
+                try {
+                    if (!continueVisiting(v.visit(node), id, node)) {
+                        return disjointRefactoringsOn;
+                    }
+                } catch (Exception e) {
+                    disableFaultyVisitor(id, node, e);
+                } finally {
+                    stopProfiling(id, node, start);
                 }
-            } catch (Exception e) {
-                logFaultyVisitor(v, node, e);
-                iter.remove();
             }
         }
         return true;
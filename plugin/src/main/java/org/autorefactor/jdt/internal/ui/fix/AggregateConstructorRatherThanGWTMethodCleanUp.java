@@ -47,14 +47,6 @@ import org.eclipse.jdt.core.dom.Type;
 
 /** See {@link #getDescription()} method. */
 public class AggregateConstructorRatherThanGWTMethodCleanUp extends NewClassImportCleanUp {
-    private final class RefactoringWithArrayListOrHashMapClass extends CleanUpWithNewClassImport {
-        @Override
-        public boolean visit(final MethodInvocation node) {
-            return AggregateConstructorRatherThanGWTMethodCleanUp.this
-                    .maybeRefactorMethodInvocation(node, getClassesToUseWithImport(), getImportsToAdd());
-        }
-    }
-
     /**
      * Get the name.
      *
@@ -93,14 +85,9 @@ public class AggregateConstructorRatherThanGWTMethodCleanUp extends NewClassImpo
                 TreeMap.class.getCanonicalName(), LinkedHashMap.class.getCanonicalName(), IdentityHashMap.class.getCanonicalName(), EnumMap.class.getCanonicalName()));
     }
 
-    @Override
-    public CleanUpWithNewClassImport getRefactoringClassInstance() {
-        return new RefactoringWithArrayListOrHashMapClass();
-    }
-
     @Override
     public boolean visit(final MethodInvocation node) {
-        return maybeRefactorMethodInvocation(node, getAlreadyImportedClasses(node), new HashSet<String>());
+        return maybeRefactorMethodInvocation(node, getClassesToUseWithImport(), getImportsToAdd());
     }
 
     private boolean maybeRefactorMethodInvocation(final MethodInvocation node, final Set<String> classesToUseWithImport,
@@ -25,6 +25,10 @@
  */
 package org.autorefactor.jdt.internal.ui.fix;
 
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
 import org.autorefactor.jdt.internal.corext.dom.ASTNodeFactory;
 import org.autorefactor.jdt.internal.corext.dom.ASTNodes;
 import org.autorefactor.jdt.internal.corext.dom.Release;
@@ -32,7 +36,10 @@ import org.eclipse.jdt.core.dom.ITypeBinding;
 import org.eclipse.jdt.core.dom.MethodInvocation;
 
 /** See {@link #getDescription()} method. */
-public class AutoBoxingRatherThanExplicitMethodCleanUp extends AbstractCleanUpRule {
+public class AutoBoxingRatherThanExplicitMethodCleanUp extends AbstractCleanUpRule
+        implements MethodInvocationFilter, BodyLocalRule {
+    private static final Set<String> METHOD_NAMES= new HashSet<>(Arrays.asList("valueOf")); //$NON-NLS-1$
+
     /**
      * Get the name.
      *
@@ -65,6 +72,11 @@ public class AutoBoxingRatherThanExplicitMethodCleanUp extends AbstractCleanUpRu
         return javaSeRelease.getMinorVersion() >= 5;
     }
 
+    @Override
+    public Set<String> getMethodNames() {
+        return METHOD_NAMES;
+    }
+
     @Override
     public boolean visit(MethodInvocation node) {
         if ("valueOf".equals(node.getName().getIdentifier()) && node.getExpression() != null //$NON-NLS-1$
@@ -28,6 +28,9 @@ package org.autorefactor.jdt.internal.ui.fix;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
 
 import org.autorefactor.jdt.internal.corext.dom.ASTNodeFactory;
 import org.autorefactor.jdt.internal.corext.dom.ASTNodes;
@@ -45,7 +48,10 @@ import org.eclipse.jdt.core.dom.PrefixExpression;
 import org.eclipse.jdt.core.dom.StringLiteral;
 
 /** See {@link #getDescription()} method. */
-public class BigNumberCleanUp extends AbstractCleanUpRule {
+public class BigNumberCleanUp extends AbstractCleanUpRule implements MethodInvocationFilter, BodyLocalRule {
+    private static final Set<String> METHOD_NAMES= new HashSet<>(Arrays.asList(
+            "valueOf", "equals")); //$NON-NLS-1$ //$NON-NLS-2$
+
     /**
      * Get the name.
      *
@@ -158,6 +164,11 @@ public class BigNumberCleanUp extends AbstractCleanUpRule {
         return !ASTNodes.hasOperator(node, PrefixExpression.Operator.NOT) || mi == null || maybeReplaceEquals(false, node, mi);
     }
 
+    @Override
+    public Set<String> getMethodNames() {
+        return METHOD_NAMES;
+    }
+
     @Override
     public boolean visit(MethodInvocation node) {
         if (node.getExpression() == null) {
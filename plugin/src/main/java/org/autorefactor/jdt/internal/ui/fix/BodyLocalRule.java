@@ -0,0 +1,40 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2019 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.jdt.internal.ui.fix;
+
+/**
+ * Implemented by the rules that only read and refactor the inside of the
+ * method or initializer body they visit. They keep no state from one body
+ * declaration to the next one, and do not need the visit of the compilation
+ * unit nor of the type declarations.
+ * <p>
+ * Between two iterations, {@link AggregateASTVisitor#getBodyLocalRefactorings}
+ * only runs these rules on the body declaration the previous iteration has
+ * changed. This declaration comes from an AST where the other method bodies
+ * are skipped. The other rules wait for the visit of the whole file.
+ */
+public interface BodyLocalRule {
+}
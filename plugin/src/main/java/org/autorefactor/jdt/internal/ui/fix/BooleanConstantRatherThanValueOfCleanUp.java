@@ -25,6 +25,10 @@
  */
 package org.autorefactor.jdt.internal.ui.fix;
 
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
 import org.autorefactor.jdt.internal.corext.dom.ASTNodeFactory;
 import org.autorefactor.jdt.internal.corext.dom.ASTNodes;
 import org.eclipse.jdt.core.dom.BooleanLiteral;
@@ -33,7 +37,10 @@ import org.eclipse.jdt.core.dom.MethodInvocation;
 import org.eclipse.jdt.core.dom.Name;
 
 /** See {@link #getDescription()} method. */
-public class BooleanConstantRatherThanValueOfCleanUp extends AbstractCleanUpRule {
+public class BooleanConstantRatherThanValueOfCleanUp extends AbstractCleanUpRule
+        implements MethodInvocationFilter, BodyLocalRule {
+    private static final Set<String> METHOD_NAMES= new HashSet<>(Arrays.asList("valueOf")); //$NON-NLS-1$
+
     /**
      * Get the name.
      *
@@ -61,6 +68,11 @@ public class BooleanConstantRatherThanValueOfCleanUp extends AbstractCleanUpRule
         return MultiFixMessages.CleanUpRefactoringWizard_BooleanConstantRatherThanValueOfCleanUp_reason;
     }
 
+    @Override
+    public Set<String> getMethodNames() {
+        return METHOD_NAMES;
+    }
+
     @Override
     public boolean visit(MethodInvocation node) {
         if (ASTNodes.usesGivenSignature(node, Boolean.class.getCanonicalName(), "valueOf", String.class.getCanonicalName()) //$NON-NLS-1$
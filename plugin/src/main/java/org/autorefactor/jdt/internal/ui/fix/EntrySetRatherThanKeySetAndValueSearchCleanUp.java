@@ -44,6 +44,7 @@ import org.autorefactor.jdt.internal.corext.dom.ASTNodeFactory;
 import org.autorefactor.jdt.internal.corext.dom.ASTNodes;
 import org.autorefactor.jdt.internal.corext.dom.CollectorVisitor;
 import org.autorefactor.jdt.internal.corext.dom.Refactorings;
+import org.autorefactor.jdt.internal.corext.dom.SymbolIndex;
 import org.autorefactor.jdt.internal.corext.dom.TypeNameDecider;
 import org.autorefactor.jdt.internal.corext.dom.Variable;
 import org.autorefactor.util.IllegalStateException;
@@ -105,9 +106,11 @@ public class EntrySetRatherThanKeySetAndValueSearchCleanUp extends AbstractClean
         private final ASTNode scope;
         private final int insertionPoint;
         private final ASTNode namingScope;
+        private final SymbolIndex symbolIndex;
 
-        private VariableNameDecider(ASTNode scope, int insertionPoint) {
+        private VariableNameDecider(ASTNode scope, int insertionPoint, SymbolIndex symbolIndex) {
             this.scope= scope;
+            this.symbolIndex= symbolIndex;
             this.insertionPoint= insertionPoint;
             this.namingScope= getNamingScope(scope);
         }
@@ -165,21 +168,7 @@ public class EntrySetRatherThanKeySetAndValueSearchCleanUp extends AbstractClean
         }
 
         private Collection<String> collectDeclaredLocalVariableNames() {
-            return new CollectorVisitor<String>() {
-                @Override
-                public boolean preVisit2(ASTNode node) {
-                    return !isTypeDeclaration(node);
-                }
-
-                @Override
-                public boolean visit(SimpleName node) {
-                    final IBinding binding= node.resolveBinding();
-                    if (binding.getKind() == IBinding.VARIABLE) {
-                        addResult(((IVariableBinding) binding).getName());
-                    }
-                    return true;
-                }
-            }.collect(namingScope);
+            return symbolIndex.getVariableNames(namingScope);
         }
 
         private List<String> collectVariableNamesUsedAfter() {
@@ -243,13 +232,13 @@ public class EntrySetRatherThanKeySetAndValueSearchCleanUp extends AbstractClean
         final ASTNodeFactory b= ctx.getASTBuilder();
         final Refactorings r= ctx.getRefactorings();
 
-        final VariableDefinitionsUsesVisitor keyUseVisitor= new VariableDefinitionsUsesVisitor(parameter);
-        enhancedFor.getBody().accept(keyUseVisitor);
+        final VariableDefinitionsUsesVisitor keyUseVisitor= new VariableDefinitionsUsesVisitor(parameter).find();
         int keyUses= keyUseVisitor.getUses().size();
 
         final int insertionPoint= ASTNodes.asList(enhancedFor.getBody()).get(0).getStartPosition() - 1;
-        final Variable entryVar= new Variable(
-                new VariableNameDecider(enhancedFor.getBody(), insertionPoint).suggest("entry", "mapEntry"), b); //$NON-NLS-1$ $NON-NLS-2$
+        final VariableNameDecider variableNameDecider= new VariableNameDecider(enhancedFor.getBody(), insertionPoint,
+                ctx.getSymbolIndex());
+        final Variable entryVar= new Variable(variableNameDecider.suggest("entry", "mapEntry"), b); //$NON-NLS-1$ $NON-NLS-2$
         final TypeNameDecider typeNameDecider= new TypeNameDecider(parameter);
 
         final MethodInvocation getValueMi0= getValueMis.get(0);
@@ -258,8 +247,7 @@ public class EntrySetRatherThanKeySetAndValueSearchCleanUp extends AbstractClean
             // for (Object key : map.keySet()) => for (Object key : map.entrySet())
             r.set(enhancedFor, EnhancedForStatement.EXPRESSION_PROPERTY, b.invoke(b.move(mapExpression), "entrySet")); //$NON-NLS-1$
             final Type objectType= b.type(typeNameDecider.useSimplestPossibleName(Object.class.getCanonicalName()));
-            final Variable objectVar= new Variable(
-                    new VariableNameDecider(enhancedFor.getBody(), insertionPoint).suggest("obj"), b); //$NON-NLS-1$
+            final Variable objectVar= new Variable(variableNameDecider.suggest("obj"), b); //$NON-NLS-1$
             r.set(enhancedFor, EnhancedForStatement.PARAMETER_PROPERTY, b.declareSingleVariable(objectVar.varNameRaw(), objectType));
 
             // for (Map.Entry<K, V> mapEntry : map.entrySet()) {
@@ -43,14 +43,6 @@ import org.eclipse.jdt.core.dom.Statement;
 
 /** See {@link #getDescription()} method. */
 public class FillRatherThanLoopCleanUp extends NewClassImportCleanUp {
-    private final class RefactoringWithObjectsClass extends CleanUpWithNewClassImport {
-        @Override
-        public boolean visit(ForStatement node) {
-            return FillRatherThanLoopCleanUp.this.maybeRefactorForStatement(node,
-                    getClassesToUseWithImport(), getImportsToAdd());
-        }
-    }
-
     /**
      * Get the name.
      *
@@ -78,11 +70,6 @@ public class FillRatherThanLoopCleanUp extends NewClassImportCleanUp {
         return MultiFixMessages.CleanUpRefactoringWizard_FillRatherThanLoopCleanUp_reason;
     }
 
-    @Override
-    public RefactoringWithObjectsClass getRefactoringClassInstance() {
-        return new RefactoringWithObjectsClass();
-    }
-
     @Override
     public Set<String> getClassesToImport() {
         return new HashSet<>(Arrays.asList(Arrays.class.getCanonicalName()));
@@ -95,7 +82,7 @@ public class FillRatherThanLoopCleanUp extends NewClassImportCleanUp {
 
     @Override
     public boolean visit(ForStatement node) {
-        return maybeRefactorForStatement(node, getAlreadyImportedClasses(node), new HashSet<String>());
+        return maybeRefactorForStatement(node, getClassesToUseWithImport(), getImportsToAdd());
     }
 
     private boolean maybeRefactorForStatement(final ForStatement node, final Set<String> classesToUseWithImport,
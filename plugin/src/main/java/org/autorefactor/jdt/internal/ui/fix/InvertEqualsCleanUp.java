@@ -25,6 +25,10 @@
  */
 package org.autorefactor.jdt.internal.ui.fix;
 
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
 import org.autorefactor.jdt.internal.corext.dom.ASTNodeFactory;
 import org.autorefactor.jdt.internal.corext.dom.ASTNodes;
 import org.eclipse.jdt.core.dom.Expression;
@@ -37,7 +41,10 @@ import org.eclipse.jdt.core.dom.MethodInvocation;
  * expression nullness.
  * </p>
  */
-public class InvertEqualsCleanUp extends AbstractCleanUpRule {
+public class InvertEqualsCleanUp extends AbstractCleanUpRule implements MethodInvocationFilter, BodyLocalRule {
+    private static final Set<String> METHOD_NAMES= new HashSet<>(Arrays.asList(
+            "equals", "equalsIgnoreCase")); //$NON-NLS-1$ //$NON-NLS-2$
+
     /**
      * Get the name.
      *
@@ -65,6 +72,11 @@ public class InvertEqualsCleanUp extends AbstractCleanUpRule {
         return MultiFixMessages.CleanUpRefactoringWizard_InvertEqualsCleanUp_reason;
     }
 
+    @Override
+    public Set<String> getMethodNames() {
+        return METHOD_NAMES;
+    }
+
     @Override
     public boolean visit(MethodInvocation node) {
         if (node.getExpression() == null) {
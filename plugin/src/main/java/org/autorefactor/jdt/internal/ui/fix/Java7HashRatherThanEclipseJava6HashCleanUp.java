@@ -166,14 +166,6 @@ public class Java7HashRatherThanEclipseJava6HashCleanUp extends NewClassImportCl
         }
     }
 
-    private final class RefactoringWithObjectsClass extends CleanUpWithNewClassImport {
-        @Override
-        public boolean visit(final MethodDeclaration node) {
-            return Java7HashRatherThanEclipseJava6HashCleanUp.this
-                    .maybeRefactorMethodDeclaration(node, getClassesToUseWithImport(), getImportsToAdd());
-        }
-    }
-
     /**
      * Get the name.
      *
@@ -206,11 +198,6 @@ public class Java7HashRatherThanEclipseJava6HashCleanUp extends NewClassImportCl
         return new HashSet<>(Arrays.asList(Objects.class.getCanonicalName()));
     }
 
-    @Override
-    public CleanUpWithNewClassImport getRefactoringClassInstance() {
-        return new RefactoringWithObjectsClass();
-    }
-
     @Override
     public boolean isJavaVersionSupported(final Release javaSeRelease) {
         return javaSeRelease.getMinorVersion() >= 7;
@@ -218,7 +205,7 @@ public class Java7HashRatherThanEclipseJava6HashCleanUp extends NewClassImportCl
 
     @Override
     public boolean visit(final MethodDeclaration node) {
-        return maybeRefactorMethodDeclaration(node, getAlreadyImportedClasses(node), new HashSet<String>());
+        return maybeRefactorMethodDeclaration(node, getClassesToUseWithImport(), getImportsToAdd());
     }
 
     private boolean maybeRefactorMethodDeclaration(final MethodDeclaration node,
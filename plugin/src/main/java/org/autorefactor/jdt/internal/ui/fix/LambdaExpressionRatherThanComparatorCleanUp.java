@@ -56,14 +56,6 @@ import org.eclipse.jdt.core.dom.TypeMethodReference;
 
 /** See {@link #getDescription()} method. */
 public class LambdaExpressionRatherThanComparatorCleanUp extends NewClassImportCleanUp {
-    private final class RefactoringWithObjectsClass extends CleanUpWithNewClassImport {
-        @Override
-        public boolean visit(final ClassInstanceCreation node) {
-            return LambdaExpressionRatherThanComparatorCleanUp.this
-                    .maybeRefactorClassInstanceCreation(node, getClassesToUseWithImport(), getImportsToAdd());
-        }
-    }
-
     /**
      * Get the name.
      *
@@ -101,14 +93,9 @@ public class LambdaExpressionRatherThanComparatorCleanUp extends NewClassImportC
         return new HashSet<>(Arrays.asList(Comparator.class.getCanonicalName()));
     }
 
-    @Override
-    public CleanUpWithNewClassImport getRefactoringClassInstance() {
-        return new RefactoringWithObjectsClass();
-    }
-
     @Override
     public boolean visit(final ClassInstanceCreation node) {
-        return maybeRefactorClassInstanceCreation(node, getAlreadyImportedClasses(node), new HashSet<String>());
+        return maybeRefactorClassInstanceCreation(node, getClassesToUseWithImport(), getImportsToAdd());
     }
 
     private boolean maybeRefactorClassInstanceCreation(final ClassInstanceCreation node,
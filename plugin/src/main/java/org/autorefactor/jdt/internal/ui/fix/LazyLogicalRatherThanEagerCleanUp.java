@@ -35,7 +35,7 @@ import org.eclipse.jdt.core.dom.InfixExpression;
 import org.eclipse.jdt.core.dom.InfixExpression.Operator;
 
 /** See {@link #getDescription()} method. */
-public class LazyLogicalRatherThanEagerCleanUp extends AbstractCleanUpRule {
+public class LazyLogicalRatherThanEagerCleanUp extends AbstractCleanUpRule implements BodyLocalRule {
     /**
      * Get the name.
      *
@@ -0,0 +1,45 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2019 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.jdt.internal.ui.fix;
+
+import java.util.Set;
+
+/**
+ * Implemented by the rules whose <code>visit(MethodInvocation)</code> method
+ * only refactors the invocations of a few methods. {@link AggregateASTVisitor}
+ * only passes them the invocations of these methods, so the other invocations
+ * never reach the binding resolution.
+ */
+public interface MethodInvocationFilter {
+    /**
+     * Returns the names of the methods whose invocations the rule visits. The
+     * visit of any other invocation must do nothing and return true. It is read
+     * once, when the {@link AggregateASTVisitor} is built.
+     *
+     * @return the names of the methods whose invocations the rule visits
+     */
+    Set<String> getMethodNames();
+}
@@ -26,6 +26,8 @@
  */
 package org.autorefactor.jdt.internal.ui.fix;
 
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
@@ -35,7 +37,11 @@ import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.MethodInvocation;
 
 /** See {@link #getDescription()} method. */
-public class MethodOnMapRatherThanMethodOnKeySetCleanUp extends AbstractCleanUpRule {
+public class MethodOnMapRatherThanMethodOnKeySetCleanUp extends AbstractCleanUpRule
+        implements MethodInvocationFilter, BodyLocalRule {
+    private static final Set<String> METHOD_NAMES= new HashSet<>(Arrays.asList(
+            "clear", "size", "isEmpty", "remove", "contains")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+
     /**
      * Get the name.
      *
@@ -63,6 +69,11 @@ public class MethodOnMapRatherThanMethodOnKeySetCleanUp extends AbstractCleanUpR
         return MultiFixMessages.CleanUpRefactoringWizard_MethodOnMapRatherThanMethodOnKeySetCleanUp_reason;
     }
 
+    @Override
+    public Set<String> getMethodNames() {
+        return METHOD_NAMES;
+    }
+
     @Override
     public boolean visit(MethodInvocation mi) {
         MethodInvocation miExpression= ASTNodes.as(mi.getExpression(), MethodInvocation.class);
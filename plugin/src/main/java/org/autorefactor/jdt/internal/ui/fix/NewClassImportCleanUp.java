@@ -25,188 +25,82 @@
  */
 package org.autorefactor.jdt.internal.ui.fix;
 
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
-import java.util.Map;
 import java.util.Set;
 
-import org.autorefactor.jdt.internal.corext.dom.InterruptibleVisitor;
 import org.autorefactor.jdt.internal.corext.dom.Refactorings;
-import org.eclipse.jdt.core.dom.ASTNode;
-import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.autorefactor.jdt.internal.corext.dom.SymbolIndex;
 import org.eclipse.jdt.core.dom.CompilationUnit;
-import org.eclipse.jdt.core.dom.ImportDeclaration;
-import org.eclipse.jdt.core.dom.SimpleName;
-import org.eclipse.jdt.core.dom.SimpleType;
-import org.eclipse.jdt.core.dom.TypeDeclaration;
 
 /**
  * Handle the need to add an import for a class.
+ * <p>
+ * The classes that can be used with their simple name are computed once per
+ * compilation unit from the {@link SymbolIndex} shared by the rules. The rule
+ * then refactors during the main visit and adds the imports it needed at the
+ * end of the compilation unit.
+ * <p>
+ * This state belongs to the visit of the whole file, so the rule never takes
+ * part in the incremental visits of a single body declaration, even if a
+ * subclass declares itself a {@link BodyLocalRule}.
  */
 public abstract class NewClassImportCleanUp extends AbstractCleanUpRule {
+    private Set<String> classesToUseWithImport= new HashSet<>();
+    private Set<String> importsToAdd= new HashSet<>();
+
     /**
-     * The class that does the cleanup when an import needs to be added.
+     * The classes that can be used with their simple name, because they are
+     * already imported or because they can be imported without conflict.
+     *
+     * @return the classes that can be used with their simple name
      */
-    public abstract class CleanUpWithNewClassImport extends ASTVisitor {
-        private Set<String> classesToUseWithImport= new HashSet<>();
-        private Set<String> importsToAdd= new HashSet<>();
-
-        /**
-         * The imports that need to be added.
-         *
-         * @return the importsToBeAdd
-         */
-        public Set<String> getImportsToAdd() {
-            return importsToAdd;
-        }
-
-        /**
-         * The imports already existing.
-         *
-         * @return the already imported classes
-         */
-        public Set<String> getClassesToUseWithImport() {
-            return classesToUseWithImport;
-        }
-    }
-
-    private class LocalClassVisitor extends InterruptibleVisitor {
-        private Set<String> classnamesNeverUsedLocally= new HashSet<>();
-
-        /**
-         * LocalClassVisitor.
-         *
-         * @param classnamesNeverUsedLocally Classnames never used locally
-         */
-        public LocalClassVisitor(Set<String> classnamesNeverUsedLocally) {
-            this.classnamesNeverUsedLocally= classnamesNeverUsedLocally;
-        }
-
-        @Override
-        public boolean visit(TypeDeclaration nestedClass) {
-            classnamesNeverUsedLocally.remove(nestedClass.getName().getIdentifier());
-
-            return !classnamesNeverUsedLocally.isEmpty() || interruptVisit();
-        }
-
-        @Override
-        public boolean visit(SimpleType simpleName) {
-            if (simpleName.getName().isSimpleName()) {
-                classnamesNeverUsedLocally.remove(((SimpleName) simpleName.getName()).getIdentifier());
-
-                if (classnamesNeverUsedLocally.isEmpty()) {
-                    return interruptVisit();
-                }
-            }
-
-            return true;
-        }
-
-        /**
-         * @return the classnamesNeverUsedLocally
-         */
-        public Set<String> getClassnamesNeverUsedLocally() {
-            return classnamesNeverUsedLocally;
-        }
+    public Set<String> getClassesToUseWithImport() {
+        return classesToUseWithImport;
     }
 
     /**
-     * True if an import already exists for a class.
+     * The imports that need to be added.
      *
-     * @param node One node in the class file
-     * @return True if an import already exists for a class.
+     * @return the imports to add
      */
-    public Set<String> getAlreadyImportedClasses(final ASTNode node) {
-        final Set<String> alreadyImportedClasses= new HashSet<>();
-        final CompilationUnit cu= (CompilationUnit) node.getRoot();
-        final Set<String> classesToUse= getClassesToImport();
-        final Map<String, String> importsByPackage= new HashMap<>();
-
-        for (String clazz : classesToUse) {
-            importsByPackage.put(getPackageName(clazz), clazz);
-        }
-
-        for (Object anObject : cu.imports()) {
-            final ImportDeclaration anImport= (ImportDeclaration) anObject;
-
-            if (anImport.isOnDemand()) {
-                String fullName= importsByPackage.get(anImport.getName().getFullyQualifiedName());
-
-                if (fullName != null) {
-                    alreadyImportedClasses.add(fullName);
-                }
-            } else if (classesToUse.contains(anImport.getName().getFullyQualifiedName())) {
-                alreadyImportedClasses.add(anImport.getName().getFullyQualifiedName());
-            }
-        }
-
-        return alreadyImportedClasses;
+    public Set<String> getImportsToAdd() {
+        return importsToAdd;
     }
 
     @Override
     public boolean visit(final CompilationUnit node) {
+        classesToUseWithImport= new HashSet<>();
+        importsToAdd= new HashSet<>();
+
         if (!super.visit(node)) {
             return false;
         }
 
-        final Set<String> classesToUse= getClassesToImport();
-
-        if (classesToUse.isEmpty()) {
-            return true;
-        }
-
-        final Map<String, String> importsByClassname= new HashMap<>();
-        final Map<String, String> importsByPackage= new HashMap<>();
-
-        for (String clazz : classesToUse) {
-            importsByClassname.put(getSimpleName(clazz), clazz);
-            importsByPackage.put(getPackageName(clazz), clazz);
-        }
-
-        Set<String> alreadyImportedClasses= new HashSet<>();
-        Set<String> classesToImport= new HashSet<>(classesToUse);
-
-        for (Object anObject : node.imports()) {
-            ImportDeclaration anImport= (ImportDeclaration) anObject;
+        final SymbolIndex index= ctx.getSymbolIndex();
 
-            if (!anImport.isStatic()) {
-                if (anImport.isOnDemand()) {
-                    String fullName= importsByPackage.get(anImport.getName().getFullyQualifiedName());
+        for (String classToUse : getClassesToImport()) {
+            final String simpleName= getSimpleName(classToUse);
 
-                    if (fullName != null) {
-                        alreadyImportedClasses.add(fullName);
-                    }
-                } else if (classesToUse.contains(anImport.getName().getFullyQualifiedName())) {
-                    alreadyImportedClasses.add(anImport.getName().getFullyQualifiedName());
-                    classesToImport.remove(anImport.getName().getFullyQualifiedName());
-                } else if (importsByClassname.containsKey(getSimpleName(anImport.getName().getFullyQualifiedName()))) {
-                    classesToImport
-                            .remove(importsByClassname.get(getSimpleName(anImport.getName().getFullyQualifiedName())));
-                }
+            if (index.isImported(classToUse)
+                    || !index.isSimpleNameImported(simpleName) && !index.isTypeName(simpleName)) {
+                classesToUseWithImport.add(classToUse);
             }
         }
 
-        filterLocallyUsedNames(node, importsByClassname, classesToImport);
-
-        if (alreadyImportedClasses.size() < classesToUse.size() && !classesToImport.isEmpty()) {
-            final CleanUpWithNewClassImport refactoringClass= getRefactoringClassInstance();
-            refactoringClass.getClassesToUseWithImport().addAll(alreadyImportedClasses);
-            refactoringClass.getClassesToUseWithImport().addAll(classesToImport);
-            node.accept(refactoringClass);
-
-            if (!refactoringClass.getImportsToAdd().isEmpty()) {
-                final Refactorings r= ctx.getRefactorings();
+        return true;
+    }
 
-                for (String importToAdd : refactoringClass.getImportsToAdd()) {
-                    r.getImportRewrite().addImport(importToAdd);
-                }
+    @Override
+    public void endVisit(final CompilationUnit node) {
+        if (!importsToAdd.isEmpty()) {
+            final Refactorings r= ctx.getRefactorings();
 
-                return false;
+            for (String importToAdd : importsToAdd) {
+                r.getImportRewrite().addImport(importToAdd);
             }
-        }
 
-        return true;
+            importsToAdd.clear();
+        }
     }
 
     /**
@@ -216,42 +110,9 @@ public abstract class NewClassImportCleanUp extends AbstractCleanUpRule {
      * @return The simple name of the class.
      */
     public String getSimpleName(final String fullyQualifiedName) {
-        return fullyQualifiedName.replaceFirst("^(?:.*\\.)?([^.]*)$", "$1"); //$NON-NLS-1$ $NON-NLS-2$
-    }
-
-    /**
-     * The package of the class.
-     *
-     * @param fullyQualifiedName The name of the class with packages.
-     * @return The package of the class.
-     */
-    public String getPackageName(final String fullyQualifiedName) {
-        return fullyQualifiedName.replaceFirst("^(.*)\\.[^.]+$", "$1"); //$NON-NLS-1$ $NON-NLS-2$
+        return fullyQualifiedName.substring(fullyQualifiedName.lastIndexOf('.') + 1);
     }
 
-    private void filterLocallyUsedNames(final CompilationUnit node, final Map<String, String> importsByClassname,
-            final Set<String> classesToImport) {
-        final LocalClassVisitor nestedClassVisitor= new LocalClassVisitor(importsByClassname.keySet());
-        nestedClassVisitor.visitNode(node);
-        final Set<String> classnamesNeverUsedLocally= nestedClassVisitor.getClassnamesNeverUsedLocally();
-        final Iterator<String> iterator= classesToImport.iterator();
-
-        while (iterator.hasNext()) {
-            final String classToImport= iterator.next();
-
-            if (!classnamesNeverUsedLocally.contains(getSimpleName(classToImport))) {
-                classesToImport.remove(classToImport);
-            }
-        }
-    }
-
-    /**
-     * The class that does the cleanup when an import needs to be added.
-     *
-     * @return The class that does the cleanup when an import needs to be added.
-     */
-    public abstract CleanUpWithNewClassImport getRefactoringClassInstance();
-
     /**
      * The class names to import.
      *
@@ -50,14 +50,6 @@ import org.eclipse.jdt.core.dom.Statement;
 
 /** See {@link #getDescription()} method. */
 public class ObjectsEqualsRatherThanEqualsAndNullCheckCleanUp extends NewClassImportCleanUp {
-    private final class RefactoringWithObjectsClass extends CleanUpWithNewClassImport {
-        @Override
-        public boolean visit(final IfStatement node) {
-            return ObjectsEqualsRatherThanEqualsAndNullCheckCleanUp.this
-                    .maybeRefactorIfStatement(node, getClassesToUseWithImport(), getImportsToAdd());
-        }
-    }
-
     /**
      * Get the name.
      *
@@ -95,14 +87,9 @@ public class ObjectsEqualsRatherThanEqualsAndNullCheckCleanUp extends NewClassIm
         return new HashSet<>(Arrays.asList(Objects.class.getCanonicalName()));
     }
 
-    @Override
-    public CleanUpWithNewClassImport getRefactoringClassInstance() {
-        return new RefactoringWithObjectsClass();
-    }
-
     @Override
     public boolean visit(final IfStatement node) {
-        return maybeRefactorIfStatement(node, getAlreadyImportedClasses(node), new HashSet<String>());
+        return maybeRefactorIfStatement(node, getClassesToUseWithImport(), getImportsToAdd());
     }
 
     private boolean maybeRefactorIfStatement(final IfStatement node, final Set<String> classesToUseWithImport,
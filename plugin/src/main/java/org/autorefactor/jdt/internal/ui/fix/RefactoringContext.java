@@ -25,24 +25,66 @@
  */
 package org.autorefactor.jdt.internal.ui.fix;
 
+import org.autorefactor.cfg.ControlFlowGraph;
+import org.autorefactor.cfg.ControlFlowGraphCache;
 import org.autorefactor.environment.Environment;
 import org.autorefactor.environment.Logger;
 import org.autorefactor.jdt.internal.corext.dom.ASTNodeFactory;
 import org.autorefactor.jdt.internal.corext.dom.ASTNodes;
+import org.autorefactor.jdt.internal.corext.dom.BindingQueryCache;
+import org.autorefactor.jdt.internal.corext.dom.InterruptibleVisitor;
 import org.autorefactor.jdt.internal.corext.dom.JavaProjectOptions;
 import org.autorefactor.jdt.internal.corext.dom.Refactorings;
 import org.autorefactor.jdt.internal.corext.dom.SourceLocation;
+import org.autorefactor.jdt.internal.corext.dom.StructuralFingerprints;
+import org.autorefactor.jdt.internal.corext.dom.SymbolIndex;
 import org.autorefactor.util.UnhandledException;
 import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.dom.AST;
 import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.Annotation;
 import org.eclipse.jdt.core.dom.Comment;
 import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.ImportDeclaration;
+import org.eclipse.jdt.core.dom.MarkerAnnotation;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.NormalAnnotation;
+import org.eclipse.jdt.core.dom.SingleMemberAnnotation;
 
 /** Class holding necessary data for a refactoring. */
 public class RefactoringContext {
+    private static final String LOMBOK= "lombok"; //$NON-NLS-1$
+
+    /** Looks for the annotations written with their fully qualified Lombok name. */
+    private static final class LombokAnnotationVisitor extends InterruptibleVisitor {
+        private boolean useLombok;
+
+        @Override
+        public boolean visit(MarkerAnnotation node) {
+            return visitAnnotation(node);
+        }
+
+        @Override
+        public boolean visit(NormalAnnotation node) {
+            return visitAnnotation(node);
+        }
+
+        @Override
+        public boolean visit(SingleMemberAnnotation node) {
+            return visitAnnotation(node);
+        }
+
+        private boolean visitAnnotation(Annotation node) {
+            if (node.getTypeName().getFullyQualifiedName().contains(LOMBOK)) {
+                useLombok= true;
+                return interruptVisit();
+            }
+            return true;
+        }
+    }
+
     private final ICompilationUnit compilationUnit;
     private final CompilationUnit astRoot;
     private final Refactorings refactorings;
@@ -50,6 +92,13 @@ public class RefactoringContext {
     private final JavaProjectOptions options;
     private final SubMonitor monitor;
     private final Environment environment;
+    /** Lazily computed, the AST is not modified during the life of this context. */
+    private Boolean useLombok;
+    /** Lazily created, the AST is not modified during the life of this context. */
+    private ControlFlowGraphCache controlFlowGraphCache;
+    private final SymbolIndex symbolIndex;
+    private final BindingQueryCache bindingQueryCache;
+    private final StructuralFingerprints structuralFingerprints;
 
     /**
      * Builds an instance of this class.
@@ -69,6 +118,9 @@ public class RefactoringContext {
         this.refactorings= new Refactorings(astRoot, environment.getEventLoop(), monitor);
         this.astBuilder= new ASTNodeFactory(refactorings);
         this.options= options;
+        this.symbolIndex= SymbolIndex.attach(astRoot);
+        this.bindingQueryCache= BindingQueryCache.attach(astRoot);
+        this.structuralFingerprints= StructuralFingerprints.attach(astRoot);
     }
 
     /**
@@ -127,6 +179,88 @@ public class RefactoringContext {
         return refactorings;
     }
 
+    /**
+     * Returns whether the compilation unit uses Lombok, in which case the
+     * cleanups must not touch it. It is computed once for all the rules.
+     *
+     * @return true if the compilation unit uses Lombok, false otherwise
+     */
+    public boolean isUsingLombok() {
+        if (useLombok == null) {
+            useLombok= hasLombokImport() || hasLombokAnnotation();
+        }
+        return useLombok;
+    }
+
+    /**
+     * Returns the CFG of the provided method. It is built once for all the rules.
+     *
+     * @param method a method of the compilation unit
+     * @return the CFG of the provided method, null if the method has no body
+     */
+    public ControlFlowGraph getControlFlowGraph(MethodDeclaration method) {
+        if (controlFlowGraphCache == null) {
+            controlFlowGraphCache= new ControlFlowGraphCache(getSource(method), options);
+        }
+        return controlFlowGraphCache.getControlFlowGraph(method);
+    }
+
+    /**
+     * Returns the cache of the CFGs built for the rules, to read its statistics.
+     *
+     * @return the cache of the CFGs built for the rules, null if no rule asked for
+     *         a CFG
+     */
+    public ControlFlowGraphCache getControlFlowGraphCache() {
+        return controlFlowGraphCache;
+    }
+
+    /**
+     * Returns the index of the names and variable declarations of the compilation
+     * unit. It is built once for all the rules, on the first query.
+     *
+     * @return the index of the names and variable declarations of the compilation
+     *         unit
+     */
+    public SymbolIndex getSymbolIndex() {
+        return symbolIndex;
+    }
+
+    /**
+     * Returns the cache of the method signature and type hierarchy queries on the
+     * bindings of the compilation unit, shared by all the rules.
+     *
+     * @return the cache of the method signature and type hierarchy queries
+     */
+    public BindingQueryCache getBindingQueryCache() {
+        return bindingQueryCache;
+    }
+
+    /**
+     * Returns the structural fingerprints of the nodes of the compilation unit,
+     * used to reject the mismatching nodes before running the AST matcher.
+     *
+     * @return the structural fingerprints of the nodes of the compilation unit
+     */
+    public StructuralFingerprints getStructuralFingerprints() {
+        return structuralFingerprints;
+    }
+
+    private boolean hasLombokImport() {
+        for (ImportDeclaration importDeclaration : ASTNodes.imports(astRoot)) {
+            if (importDeclaration.getName().getFullyQualifiedName().contains(LOMBOK)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasLombokAnnotation() {
+        final LombokAnnotationVisitor visitor= new LombokAnnotationVisitor();
+        visitor.visitNode(astRoot);
+        return visitor.useLombok;
+    }
+
     String getSource(ASTNode node) {
         try {
             return compilationUnit.getSource();
@@ -42,7 +42,7 @@ import org.eclipse.jdt.core.dom.ReturnStatement;
 import org.eclipse.jdt.core.dom.Statement;
 
 /** See {@link #getDescription()} method. */
-public class RemoveUselessNullCheckCleanUp extends AbstractCleanUpRule {
+public class RemoveUselessNullCheckCleanUp extends AbstractCleanUpRule implements BodyLocalRule {
     /**
      * Get the name.
      *
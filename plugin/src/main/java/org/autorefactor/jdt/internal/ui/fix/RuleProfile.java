@@ -0,0 +1,323 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2019 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.jdt.internal.ui.fix;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+import org.autorefactor.cfg.ControlFlowGraphCache;
+import org.autorefactor.jdt.internal.corext.dom.BindingQueryCache;
+import org.autorefactor.jdt.internal.corext.dom.StructuralFingerprints;
+import org.eclipse.jdt.core.dom.ASTNode;
+
+/**
+ * Per rule statistics recorded by the {@link AggregateASTVisitor} when the
+ * profiling is on:
+ * <ul>
+ * <li>the wall time spent in the rule visit methods, excluding the visit of the
+ * children nodes,</li>
+ * <li>the number of visit() and endVisit() invocations per node type,</li>
+ * <li>the number of nodes the rule did not visit, either because it was disabled
+ * or because a previous rule has already refactored the node,</li>
+ * <li>the number of refactorings the rule contributed.</li>
+ * </ul>
+ * It also records how many CFGs the rules shared.
+ * The rules are identified by their index in the list of rules of the
+ * {@link AggregateASTVisitor}, so all the profiles of a run must be built from
+ * lists of rules in the same order.
+ * <p>
+ * Recording is not thread-safe: each worker records in its own profile, then
+ * merges it in a shared profile with {@link #merge(RuleProfile)}.
+ */
+public class RuleProfile {
+    private static final int NB_NODE_TYPES= AggregateASTVisitor.getNodeTypesArrayLength();
+
+    private final String[] ruleNames;
+    private final long[] wallTimes;
+    private final long[][] invocations;
+    private final long[] skippedNodes;
+    private final long[] refactorings;
+    private long nbControlFlowGraphHits;
+    private long nbControlFlowGraphMisses;
+    private long controlFlowGraphBuildTime;
+    private long nbBindingQueryHits;
+    private long nbBindingQueryMisses;
+    private long nbFingerprints;
+    private long nbFingerprintRejections;
+    private int nbMergedProfiles;
+
+    /**
+     * Builds an instance of this class.
+     *
+     * @param rules the rules to profile
+     */
+    public RuleProfile(List<?> rules) {
+        final int nbRules= rules.size();
+        this.ruleNames= new String[nbRules];
+        for (int i= 0; i < nbRules; i++) {
+            ruleNames[i]= rules.get(i).getClass().getSimpleName();
+        }
+        this.wallTimes= new long[nbRules];
+        this.invocations= new long[nbRules][NB_NODE_TYPES];
+        this.skippedNodes= new long[nbRules];
+        this.refactorings= new long[nbRules];
+    }
+
+    void recordTime(int ruleId, long nanos) {
+        wallTimes[ruleId]+= nanos;
+    }
+
+    void recordVisit(int ruleId, int nodeType, long nanos) {
+        wallTimes[ruleId]+= nanos;
+        invocations[ruleId][nodeType]++;
+    }
+
+    void recordSkippedNode(int ruleId) {
+        skippedNodes[ruleId]++;
+    }
+
+    void recordRefactoring(int ruleId) {
+        refactorings[ruleId]++;
+    }
+
+    /**
+     * Records the statistics of the CFGs shared by the rules on one AST.
+     *
+     * @param cache the cache of the CFGs of one AST
+     */
+    void recordControlFlowGraphs(ControlFlowGraphCache cache) {
+        nbControlFlowGraphHits+= cache.getNbHits();
+        nbControlFlowGraphMisses+= cache.getNbMisses();
+        controlFlowGraphBuildTime+= cache.getBuildTimeNanos();
+    }
+
+    /**
+     * Records the statistics of the binding queries shared by the rules on one
+     * AST.
+     *
+     * @param cache the cache of the binding queries of one AST
+     */
+    void recordBindingQueries(BindingQueryCache cache) {
+        nbBindingQueryHits+= cache.getNbHits();
+        nbBindingQueryMisses+= cache.getNbMisses();
+    }
+
+    /**
+     * Records the statistics of the structural fingerprints shared by the rules
+     * on one AST.
+     *
+     * @param structuralFingerprints the structural fingerprints of one AST
+     */
+    void recordStructuralFingerprints(StructuralFingerprints structuralFingerprints) {
+        nbFingerprints+= structuralFingerprints.getNbFingerprints();
+        nbFingerprintRejections+= structuralFingerprints.getNbRejections();
+    }
+
+    /**
+     * Adds the statistics of the provided profile to this profile.
+     *
+     * @param other the profile of one worker
+     * @return the number of profiles merged so far in this profile
+     */
+    public synchronized int merge(RuleProfile other) {
+        if (other.ruleNames.length != ruleNames.length) {
+            throw new IllegalArgumentException("The profiles do not have the same rules"); //$NON-NLS-1$
+        }
+        for (int i= 0; i < ruleNames.length; i++) {
+            wallTimes[i]+= other.wallTimes[i];
+            skippedNodes[i]+= other.skippedNodes[i];
+            refactorings[i]+= other.refactorings[i];
+            for (int nodeType= 0; nodeType < NB_NODE_TYPES; nodeType++) {
+                invocations[i][nodeType]+= other.invocations[i][nodeType];
+            }
+        }
+        nbControlFlowGraphHits+= other.nbControlFlowGraphHits;
+        nbControlFlowGraphMisses+= other.nbControlFlowGraphMisses;
+        controlFlowGraphBuildTime+= other.controlFlowGraphBuildTime;
+        nbBindingQueryHits+= other.nbBindingQueryHits;
+        nbBindingQueryMisses+= other.nbBindingQueryMisses;
+        nbFingerprints+= other.nbFingerprints;
+        nbFingerprintRejections+= other.nbFingerprintRejections;
+        return ++nbMergedProfiles;
+    }
+
+    /**
+     * Returns the wall time spent in the provided rule.
+     *
+     * @param ruleId the index of the rule
+     * @return the wall time spent in the provided rule, in nanoseconds
+     */
+    synchronized long getWallTime(int ruleId) {
+        return wallTimes[ruleId];
+    }
+
+    /**
+     * Returns the number of refactorings the provided rule contributed.
+     *
+     * @param ruleId the index of the rule
+     * @return the number of refactorings the provided rule contributed
+     */
+    synchronized long getNbRefactorings(int ruleId) {
+        return refactorings[ruleId];
+    }
+
+    /**
+     * Returns the statistics as CSV, one line per rule and one column per visited
+     * node type.
+     *
+     * @return the statistics as CSV
+     */
+    public synchronized String toCsv() {
+        final List<Integer> nodeTypes= getVisitedNodeTypes();
+        final StringBuilder sb= new StringBuilder("rule,wallTimeNanos,invocations,skippedNodes,refactorings"); //$NON-NLS-1$
+        for (int nodeType : nodeTypes) {
+            sb.append(',').append(getNodeTypeName(nodeType));
+        }
+        sb.append('\n');
+        for (int i= 0; i < ruleNames.length; i++) {
+            sb.append(ruleNames[i]).append(',').append(wallTimes[i]).append(',').append(getInvocations(i)).append(',')
+                    .append(skippedNodes[i]).append(',').append(refactorings[i]);
+            for (int nodeType : nodeTypes) {
+                sb.append(',').append(invocations[i][nodeType]);
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns the statistics as a JSON array, with one object per rule.
+     *
+     * @return the statistics as JSON
+     */
+    public synchronized String toJson() {
+        final StringBuilder sb= new StringBuilder("[\n"); //$NON-NLS-1$
+        for (int i= 0; i < ruleNames.length; i++) {
+            sb.append("  {\"rule\": \"").append(ruleNames[i]) //$NON-NLS-1$
+                    .append("\", \"wallTimeNanos\": ").append(wallTimes[i]) //$NON-NLS-1$
+                    .append(", \"skippedNodes\": ").append(skippedNodes[i]) //$NON-NLS-1$
+                    .append(", \"refactorings\": ").append(refactorings[i]) //$NON-NLS-1$
+                    .append(", \"invocations\": {"); //$NON-NLS-1$
+            boolean isFirst= true;
+            for (int nodeType= 0; nodeType < NB_NODE_TYPES; nodeType++) {
+                if (invocations[i][nodeType] > 0) {
+                    if (!isFirst) {
+                        sb.append(", "); //$NON-NLS-1$
+                    }
+                    sb.append('"').append(getNodeTypeName(nodeType)).append("\": ").append(invocations[i][nodeType]); //$NON-NLS-1$
+                    isFirst= false;
+                }
+            }
+            sb.append("}}").append(i + 1 < ruleNames.length ? ",\n" : "\n"); //$NON-NLS-1$ $NON-NLS-2$ $NON-NLS-3$
+        }
+        return sb.append("]\n").toString(); //$NON-NLS-1$
+    }
+
+    /**
+     * Returns a human readable report of the rules that took the most time.
+     *
+     * @param nbRules the maximum number of rules to report
+     * @return a report of the rules that took the most time
+     */
+    public synchronized String getSlowestRulesReport(int nbRules) {
+        final List<Integer> ruleIds= new ArrayList<>(ruleNames.length);
+        long totalTime= 0;
+        for (int i= 0; i < ruleNames.length; i++) {
+            ruleIds.add(i);
+            totalTime+= wallTimes[i];
+        }
+        Collections.sort(ruleIds, new Comparator<Integer>() {
+            /**
+             * Compare objects.
+             *
+             * @param o1 First item
+             * @param o2 Second item
+             *
+             * @return -1, 0 or 1
+             */
+            public int compare(Integer o1, Integer o2) {
+                return Long.compare(wallTimes[o2], wallTimes[o1]);
+            }
+        });
+
+        final StringBuilder sb= new StringBuilder();
+        sb.append("AutoRefactor rules took ").append(toMillis(totalTime)).append(" ms, slowest rules:"); //$NON-NLS-1$ $NON-NLS-2$
+        for (int i= 0; i < Math.min(nbRules, ruleIds.size()); i++) {
+            final int ruleId= ruleIds.get(i);
+            final double ratio= totalTime > 0 ? 100.0 * wallTimes[ruleId] / totalTime : 0;
+            sb.append("\n  ").append(ruleNames[ruleId]).append(": ").append(toMillis(wallTimes[ruleId])) //$NON-NLS-1$ $NON-NLS-2$
+                    .append(" ms (").append(String.format(Locale.ENGLISH, "%.1f", ratio)).append("%), ") //$NON-NLS-1$ $NON-NLS-2$ $NON-NLS-3$
+                    .append(getInvocations(ruleId)).append(" visits, ").append(skippedNodes[ruleId]) //$NON-NLS-1$
+                    .append(" skipped nodes, ").append(refactorings[ruleId]).append(" refactorings"); //$NON-NLS-1$ $NON-NLS-2$
+        }
+        if (nbControlFlowGraphMisses > 0) {
+            sb.append("\n").append(nbControlFlowGraphMisses).append(" CFGs built in ") //$NON-NLS-1$ $NON-NLS-2$
+                    .append(toMillis(controlFlowGraphBuildTime)).append(" ms, reused ") //$NON-NLS-1$
+                    .append(nbControlFlowGraphHits).append(" times"); //$NON-NLS-1$
+        }
+        if (nbBindingQueryMisses > 0) {
+            sb.append("\n").append(nbBindingQueryMisses).append(" binding queries computed, reused ") //$NON-NLS-1$ $NON-NLS-2$
+                    .append(nbBindingQueryHits).append(" times"); //$NON-NLS-1$
+        }
+        if (nbFingerprints > 0) {
+            sb.append("\n").append(nbFingerprints).append(" structural fingerprints computed, ") //$NON-NLS-1$ $NON-NLS-2$
+                    .append(nbFingerprintRejections).append(" comparisons rejected without matching"); //$NON-NLS-1$
+        }
+        return sb.toString();
+    }
+
+    private long getInvocations(int ruleId) {
+        long result= 0;
+        for (long nbInvocations : invocations[ruleId]) {
+            result+= nbInvocations;
+        }
+        return result;
+    }
+
+    private List<Integer> getVisitedNodeTypes() {
+        final List<Integer> nodeTypes= new ArrayList<>();
+        for (int nodeType= 0; nodeType < NB_NODE_TYPES; nodeType++) {
+            for (long[] ruleInvocations : invocations) {
+                if (ruleInvocations[nodeType] > 0) {
+                    nodeTypes.add(nodeType);
+                    break;
+                }
+            }
+        }
+        return nodeTypes;
+    }
+
+    private static String getNodeTypeName(int nodeType) {
+        return ASTNode.nodeClassForType(nodeType).getSimpleName();
+    }
+
+    private static long toMillis(long nanos) {
+        return nanos / 1000000;
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2019 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.jdt.internal.ui.fix;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.autorefactor.environment.Logger;
+import org.autorefactor.jdt.internal.corext.dom.RefactoringRule;
+
+/**
+ * Selects the cleanup rules fitting a time budget, from the refactorings they
+ * contributed per unit of time in the previous runs.
+ * <p>
+ * Rules are only left out when one pass of all the rules is expected to exceed
+ * the whole budget: the cheapest high-yield rules are then kept first, and the
+ * deadline of the run stops the later passes. The selected rules keep their
+ * configured order, which decides their precedence on a node.
+ * <p>
+ * The older runs weigh less and less in the statistics, and a rule left out
+ * for {@link #MAX_SKIPPED_RUNS} runs in a row is selected again so its cost
+ * gets measured again: a slow cold run does not leave a rule out for good. The
+ * rules never profiled are always selected, so they get profiled. This class
+ * is thread-safe.
+ */
+public final class RuleRanking {
+    /** The number of runs in a row after which a rule left out is selected again. */
+    static final int MAX_SKIPPED_RUNS= 10;
+
+    /** The weight of the last run in the statistics of a rule. */
+    private static final double LAST_RUN_WEIGHT= 0.3;
+
+    /** The statistics of one rule, weighted towards the last runs. */
+    private static final class RuleStatistics {
+        private double costPerRun;
+        private double nbRefactoringsPerRun;
+        private int nbSkippedRuns;
+
+        private void record(long wallTime, long nbRefactorings) {
+            costPerRun= LAST_RUN_WEIGHT * wallTime + (1 - LAST_RUN_WEIGHT) * costPerRun;
+            nbRefactoringsPerRun= LAST_RUN_WEIGHT * nbRefactorings + (1 - LAST_RUN_WEIGHT) * nbRefactoringsPerRun;
+        }
+
+        private double getYield() {
+            // One refactoring more, so the rules without any refactoring are still told apart by their cost
+            return (nbRefactoringsPerRun + 1.0) / (costPerRun + 1.0);
+        }
+    }
+
+    private final Map<Class<?>, RuleStatistics> statisticsByRule= new HashMap<>();
+    /** The names of the rules left out by the last selection. */
+    private List<String> lastSkippedRuleNames= Collections.emptyList();
+
+    /**
+     * Records the statistics of a run.
+     *
+     * @param rules         the rules of the profile, in its order
+     * @param selectedRules the rules that took part in the run, the other rules
+     *                      are not recorded
+     * @param profile       the profile of the run
+     */
+    public synchronized void record(List<RefactoringRule> rules, List<RefactoringRule> selectedRules,
+            RuleProfile profile) {
+        final Set<RefactoringRule> selected= newIdentitySet();
+        selected.addAll(selectedRules);
+        for (int ruleId= 0; ruleId < rules.size(); ruleId++) {
+            if (!selected.contains(rules.get(ruleId))) {
+                continue;
+            }
+            final Class<?> ruleClass= rules.get(ruleId).getClass();
+            RuleStatistics statistics= statisticsByRule.get(ruleClass);
+            if (statistics == null) {
+                // The first run is the only measure so far: it is taken as it is
+                statistics= new RuleStatistics();
+                statistics.costPerRun= profile.getWallTime(ruleId);
+                statistics.nbRefactoringsPerRun= profile.getNbRefactorings(ruleId);
+                statisticsByRule.put(ruleClass, statistics);
+            } else {
+                statistics.record(profile.getWallTime(ruleId), profile.getNbRefactorings(ruleId));
+            }
+        }
+    }
+
+    /**
+     * Returns the provided rules fitting the provided budget, in their provided
+     * order. When one pass of all the rules is expected to exceed the budget,
+     * the rules with the highest yield in the previous runs are kept, and the
+     * rules left out are logged each time they change.
+     *
+     * @param rules       the rules to select from, in the order of the visit
+     * @param budgetNanos the time budget of a run, in nanoseconds
+     * @param logger      the logger reporting the rules left out, or null
+     * @return the rules that fit the budget, in their provided order
+     */
+    public synchronized List<RefactoringRule> rank(List<RefactoringRule> rules, long budgetNanos, Logger logger) {
+        final List<RefactoringRule> rankedRules= new ArrayList<>(rules);
+        Collections.sort(rankedRules, new Comparator<RefactoringRule>() {
+            @Override
+            public int compare(RefactoringRule o1, RefactoringRule o2) {
+                final RuleStatistics statistics1= statisticsByRule.get(o1.getClass());
+                final RuleStatistics statistics2= statisticsByRule.get(o2.getClass());
+                if (statistics1 == null || statistics2 == null) {
+                    return statistics1 == statistics2 ? 0 : statistics1 == null ? -1 : 1;
+                }
+                return Double.compare(statistics2.getYield(), statistics1.getYield());
+            }
+        });
+
+        double totalCost= 0;
+        final Set<RefactoringRule> selectedRules= newIdentitySet();
+        for (RefactoringRule rule : rankedRules) {
+            final RuleStatistics statistics= statisticsByRule.get(rule.getClass());
+            if (statistics == null) {
+                selectedRules.add(rule);
+            } else if (totalCost + statistics.costPerRun <= budgetNanos
+                    || statistics.nbSkippedRuns >= MAX_SKIPPED_RUNS) {
+                totalCost+= statistics.costPerRun;
+                statistics.nbSkippedRuns= 0;
+                selectedRules.add(rule);
+            } else {
+                statistics.nbSkippedRuns++;
+            }
+        }
+
+        final List<RefactoringRule> orderedRules= new ArrayList<>(selectedRules.size());
+        final List<String> skippedRuleNames= new ArrayList<>();
+        for (RefactoringRule rule : rules) {
+            if (selectedRules.contains(rule)) {
+                orderedRules.add(rule);
+            } else {
+                skippedRuleNames.add(rule.getName());
+            }
+        }
+
+        if (!skippedRuleNames.equals(lastSkippedRuleNames)) {
+            lastSkippedRuleNames= skippedRuleNames;
+            if (logger != null && !skippedRuleNames.isEmpty()) {
+                logger.info("AutoRefactor leaves out these rules to fit the save actions time budget: " //$NON-NLS-1$
+                        + skippedRuleNames);
+            }
+        }
+        return orderedRules;
+    }
+
+    private static Set<RefactoringRule> newIdentitySet() {
+        return Collections.newSetFromMap(new IdentityHashMap<RefactoringRule, Boolean>());
+    }
+}
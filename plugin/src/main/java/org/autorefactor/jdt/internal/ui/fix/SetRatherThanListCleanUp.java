@@ -49,20 +49,6 @@ import org.eclipse.jdt.core.dom.MethodInvocation;
 
 /** See {@link #getDescription()} method. */
 public class SetRatherThanListCleanUp extends AbstractClassSubstituteCleanUp {
-    private final class RefactoringWithObjectsClass extends CleanUpWithNewClassImport {
-        @Override
-        public boolean visit(Block node) {
-            isContainsMethodUsed= false;
-            return SetRatherThanListCleanUp.this.maybeRefactorBlock(node,
-                    getClassesToUseWithImport(), getImportsToAdd());
-        }
-    }
-
-    @Override
-    public RefactoringWithObjectsClass getRefactoringClassInstance() {
-        return new RefactoringWithObjectsClass();
-    }
-
     private static final Map<String, String[]> CAN_BE_CASTED_TO= new HashMap<>();
 
     static {
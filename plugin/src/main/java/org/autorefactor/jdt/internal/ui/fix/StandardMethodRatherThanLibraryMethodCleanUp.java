@@ -43,14 +43,6 @@ import org.eclipse.jdt.core.dom.Name;
 
 /** See {@link #getDescription()} method. */
 public class StandardMethodRatherThanLibraryMethodCleanUp extends NewClassImportCleanUp {
-    private final class RefactoringWithObjectsClass extends CleanUpWithNewClassImport {
-        @Override
-        public boolean visit(final MethodInvocation node) {
-            return StandardMethodRatherThanLibraryMethodCleanUp.this.maybeRefactorMethodInvocation(node,
-                    getClassesToUseWithImport(), getImportsToAdd());
-        }
-    }
-
     /**
      * Get the name.
      *
@@ -88,14 +80,9 @@ public class StandardMethodRatherThanLibraryMethodCleanUp extends NewClassImport
         return new HashSet<>(Arrays.asList(Objects.class.getCanonicalName()));
     }
 
-    @Override
-    public CleanUpWithNewClassImport getRefactoringClassInstance() {
-        return new RefactoringWithObjectsClass();
-    }
-
     @Override
     public boolean visit(final MethodInvocation node) {
-        return maybeRefactorMethodInvocation(node, getAlreadyImportedClasses(node), new HashSet<String>());
+        return maybeRefactorMethodInvocation(node, getClassesToUseWithImport(), getImportsToAdd());
     }
 
     private boolean maybeRefactorMethodInvocation(final MethodInvocation node, final Set<String> classesToUseWithImport,
@@ -26,6 +26,9 @@
  */
 package org.autorefactor.jdt.internal.ui.fix;
 
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.autorefactor.jdt.internal.corext.dom.ASTNodeFactory;
@@ -41,7 +44,11 @@ import org.eclipse.jdt.core.dom.MethodInvocation;
 import org.eclipse.jdt.core.dom.StringLiteral;
 
 /** See {@link #getDescription()} method. */
-public class StringCleanUp extends AbstractCleanUpRule {
+public class StringCleanUp extends AbstractCleanUpRule implements MethodInvocationFilter, BodyLocalRule {
+    private static final Set<String> METHOD_NAMES= new HashSet<>(Arrays.asList(
+            "toString", "valueOf", "equals", "equalsIgnoreCase", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+            "indexOf", "lastIndexOf")); //$NON-NLS-1$ //$NON-NLS-2$
+
     /**
      * Get the name.
      *
@@ -69,6 +76,11 @@ public class StringCleanUp extends AbstractCleanUpRule {
         return MultiFixMessages.CleanUpRefactoringWizard_StringCleanUp_reason;
     }
 
+    @Override
+    public Set<String> getMethodNames() {
+        return METHOD_NAMES;
+    }
+
     @Override
     public boolean visit(MethodInvocation node) {
         final Expression stringExpression= node.getExpression();
@@ -25,6 +25,10 @@
  */
 package org.autorefactor.jdt.internal.ui.fix;
 
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
 import org.autorefactor.jdt.internal.corext.dom.ASTNodeFactory;
 import org.autorefactor.jdt.internal.corext.dom.ASTNodes;
 import org.autorefactor.jdt.internal.corext.dom.Release;
@@ -32,7 +36,12 @@ import org.eclipse.jdt.core.dom.ITypeBinding;
 import org.eclipse.jdt.core.dom.MethodInvocation;
 
 /** See {@link #getDescription()} method. */
-public class UnboxingRatherThanExplicitMethodCleanUp extends AbstractCleanUpRule {
+public class UnboxingRatherThanExplicitMethodCleanUp extends AbstractCleanUpRule
+        implements MethodInvocationFilter, BodyLocalRule {
+    private static final Set<String> METHOD_NAMES= new HashSet<>(Arrays.asList(
+            "booleanValue", "byteValue", "charValue", "shortValue", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+            "intValue", "longValue", "floatValue", "doubleValue")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+
     /**
      * Get the name.
      *
@@ -65,6 +74,11 @@ public class UnboxingRatherThanExplicitMethodCleanUp extends AbstractCleanUpRule
         return javaSeRelease.getMinorVersion() >= 5;
     }
 
+    @Override
+    public Set<String> getMethodNames() {
+        return METHOD_NAMES;
+    }
+
     @Override
     public boolean visit(MethodInvocation node) {
         if (node.getExpression() != null
@@ -35,6 +35,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.autorefactor.jdt.internal.corext.dom.ASTNodes;
+import org.autorefactor.jdt.internal.corext.dom.SymbolIndex;
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.ASTVisitor;
 import org.eclipse.jdt.core.dom.Assignment;
@@ -106,7 +107,15 @@ public final class VariableDefinitionsUsesVisitor extends ASTVisitor {
      */
     public VariableDefinitionsUsesVisitor find() {
         if (variableBinding != null && scopeNode != null) {
-            scopeNode.accept(this);
+            final SymbolIndex index= SymbolIndex.get(scopeNode);
+            if (index != null) {
+                for (SimpleName occurrence : index.getLocalVariableOccurrences(variableBinding, scopeNode,
+                        includeInnerScopes)) {
+                    addDefinitionOrUse(occurrence);
+                }
+            } else {
+                scopeNode.accept(this);
+            }
         }
         return this;
     }
@@ -114,23 +123,7 @@ public final class VariableDefinitionsUsesVisitor extends ASTVisitor {
     @Override
     public boolean visit(SimpleName node) {
         if (ASTNodes.isSameLocalVariable(variableBinding, node)) {
-            switch (node.getParent().getNodeType()) {
-            case ASSIGNMENT:
-                addDefinitionOrUse(node, Assignment.LEFT_HAND_SIDE_PROPERTY);
-                break;
-
-            case VARIABLE_DECLARATION_FRAGMENT:
-                addDefinitionOrUse(node, VariableDeclarationFragment.NAME_PROPERTY);
-                break;
-
-            case SINGLE_VARIABLE_DECLARATION:
-                addDefinitionOrUse(node, SingleVariableDeclaration.NAME_PROPERTY);
-                break;
-
-            default:
-                uses.add(node);
-                break;
-            }
+            addDefinitionOrUse(node);
         }
         return true;
     }
@@ -140,6 +133,26 @@ public final class VariableDefinitionsUsesVisitor extends ASTVisitor {
         return scopeNode == node || includeInnerScopes;
     }
 
+    private void addDefinitionOrUse(SimpleName node) {
+        switch (node.getParent().getNodeType()) {
+        case ASSIGNMENT:
+            addDefinitionOrUse(node, Assignment.LEFT_HAND_SIDE_PROPERTY);
+            break;
+
+        case VARIABLE_DECLARATION_FRAGMENT:
+            addDefinitionOrUse(node, VariableDeclarationFragment.NAME_PROPERTY);
+            break;
+
+        case SINGLE_VARIABLE_DECLARATION:
+            addDefinitionOrUse(node, SingleVariableDeclaration.NAME_PROPERTY);
+            break;
+
+        default:
+            uses.add(node);
+            break;
+        }
+    }
+
     private void addDefinitionOrUse(SimpleName node, ChildPropertyDescriptor definitionPropertyDescriptor) {
         if (node.getLocationInParent() == definitionPropertyDescriptor) {
             definitions.add(node);
@@ -26,7 +26,10 @@
  */
 package org.autorefactor.jdt.internal.ui.fix;
 
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.Vector;
 
 import org.autorefactor.jdt.internal.corext.dom.ASTNodeFactory;
@@ -38,7 +41,12 @@ import org.eclipse.jdt.core.dom.Expression;
 import org.eclipse.jdt.core.dom.MethodInvocation;
 
 /** See {@link #getDescription()} method. */
-public class VectorOldToNewAPICleanUp extends AbstractCleanUpRule {
+public class VectorOldToNewAPICleanUp extends AbstractCleanUpRule implements MethodInvocationFilter, BodyLocalRule {
+    private static final Set<String> METHOD_NAMES= new HashSet<>(Arrays.asList(
+            "elementAt", "addElement", "insertElementAt", "copyInto", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+            "removeAllElements", "removeElement", "removeElementAt", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+            "setElementAt")); //$NON-NLS-1$
+
     /**
      * Get the name.
      *
@@ -71,6 +79,11 @@ public class VectorOldToNewAPICleanUp extends AbstractCleanUpRule {
         return javaSeRelease.getMinorVersion() >= 2;
     }
 
+    @Override
+    public Set<String> getMethodNames() {
+        return METHOD_NAMES;
+    }
+
     @Override
     public boolean visit(MethodInvocation node) {
         if (ASTNodes.usesGivenSignature(node, Vector.class.getCanonicalName(), "elementAt", int.class.getSimpleName())) { //$NON-NLS-1$
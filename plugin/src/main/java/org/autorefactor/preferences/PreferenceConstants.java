@@ -28,7 +28,40 @@ package org.autorefactor.preferences;
 /** Interface holding preference constants. */
 public enum PreferenceConstants {
     /** Preference that turns debug mode on or off. */
-    DEBUG_MODE_ON("debug_mode_on", "Enable debug mode (for developers)", Boolean.FALSE); //$NON-NLS-1$ $NON-NLS-2$
+    DEBUG_MODE_ON("debug_mode_on", "Enable debug mode (for developers)", Boolean.FALSE), //$NON-NLS-1$ $NON-NLS-2$
+    /**
+     * Preference that turns the disjoint refactorings on or off. When on, the
+     * rules keep refactoring the subtrees of a refactored node in the same
+     * iteration, as long as they do not overlap the rewritten source ranges.
+     */
+    DISJOINT_REFACTORINGS_ON("disjoint_refactorings_on", //$NON-NLS-1$
+            "Apply the refactorings of disjoint subtrees in the same iteration", Boolean.FALSE), //$NON-NLS-1$
+    /**
+     * Preference that turns incremental parsing on or off. When on, the
+     * iterations following a change only parse the modified method body, the
+     * other bodies are skipped, and only run the body local rules on it. The
+     * whole file is parsed and analyzed again once they find nothing more.
+     */
+    INCREMENTAL_PARSING_ON("incremental_parsing_on", //$NON-NLS-1$
+            "Only re-analyze the modified method body between iterations", Boolean.FALSE), //$NON-NLS-1$
+    /**
+     * Preference that turns the profiling of the cleanup rules on or off. When
+     * on, the slowest rules are reported after each run.
+     */
+    PROFILING_ON("profiling_on", "Profile the cleanup rules and report the slowest ones", Boolean.FALSE), //$NON-NLS-1$ $NON-NLS-2$
+    /**
+     * Preference that turns the result cache on or off. When on, the files left
+     * unchanged since a run that did not refactor them are skipped.
+     */
+    RESULT_CACHE_ON("result_cache_on", //$NON-NLS-1$
+            "Skip the files left unchanged since a run that did not refactor them", Boolean.FALSE), //$NON-NLS-1$
+    /**
+     * Preference that sets the time budget of the save action, in milliseconds.
+     * The save action iterates until no rule applies anymore or until the budget
+     * is spent. Zero, the default, only runs one pass.
+     */
+    SAVE_ACTION_TIME_BUDGET("save_action_time_budget", //$NON-NLS-1$
+            "Time budget of the save action in milliseconds (0 for only one pass)", Integer.valueOf(0)); //$NON-NLS-1$
 
     /** TODO use this for preferences initialization. */
     private static final String JDT_ALWAYS_USE_THIS_FOR_NON_STATIC_METHOD_ACCESS= "cleanup.always_use_this_for_non_static_method_access"; //$NON-NLS-1$
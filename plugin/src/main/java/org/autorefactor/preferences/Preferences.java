@@ -36,6 +36,44 @@ public interface Preferences {
      */
     boolean debugModeOn();
 
+    /**
+     * Returns whether the disjoint refactorings in the same iteration are on.
+     *
+     * @return true if the disjoint refactorings in the same iteration are on,
+     *         false otherwise.
+     */
+    boolean disjointRefactoringsOn();
+
+    /**
+     * Returns whether incremental parsing is on.
+     *
+     * @return true if incremental parsing is on, false otherwise.
+     */
+    boolean incrementalParsingOn();
+
+    /**
+     * Returns whether the profiling of the cleanup rules is on.
+     *
+     * @return true if the profiling of the cleanup rules is on, false otherwise.
+     */
+    boolean profilingOn();
+
+    /**
+     * Returns whether the cache of the files without any refactoring is on.
+     *
+     * @return true if the cache of the files without any refactoring is on,
+     *         false otherwise.
+     */
+    boolean resultCacheOn();
+
+    /**
+     * Returns the time budget of the save action.
+     *
+     * @return the time budget of the save action in milliseconds, 0 for only one
+     *         pass.
+     */
+    int saveActionTimeBudget();
+
     /**
      * Returns whether this cleanup rule is on.
      *